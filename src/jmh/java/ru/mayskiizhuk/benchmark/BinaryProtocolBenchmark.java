@@ -0,0 +1,189 @@
+package ru.mayskiizhuk.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.mayskiizhuk.Main;
+import ru.mayskiizhuk.binary.BinaryCalculationClient;
+import ru.mayskiizhuk.binary.BinaryCalculationServer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность бинарного протокола в сравнении с REST-эндпоинтом на одном встроенном сервисе.
+ * Три прогона подряд с одинаковыми запросами по количеству дней: REST (поток - одно keep-alive соединение,
+ * запрос за запросом), бинарный протокол запрос за запросом и бинарный протокол с конвейером окнами
+ * по {@link BinaryCalculationClient#WINDOW} кадров. Кэш результатов выключен, чтобы сравнивались
+ * транспорт и разбор, а не попадания в кэш.
+ *
+ * <p>Запуск: {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=ru.mayskiizhuk.benchmark.BinaryProtocolBenchmark}.
+ * Параметры: {@code --threads} (клиентских потоков и соединений, по умолчанию по числу процессоров),
+ * {@code --warmup} и {@code --duration} в секундах для каждого прогона (5 и 15).
+ */
+public final class BinaryProtocolBenchmark {
+    private static final int REQUEST_VARIANTS = BinaryCalculationClient.WINDOW;
+
+    private final long[] salaries = new long[REQUEST_VARIANTS];
+    private final int[] days = new int[REQUEST_VARIANTS];
+    private final int threads;
+    private final long warmupNanos;
+    private final long durationNanos;
+
+    private BinaryProtocolBenchmark(int threads, long warmupSeconds, long durationSeconds) {
+        this.threads = threads;
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        Random random = new Random(42);
+        for (int i = 0; i < REQUEST_VARIANTS; i++) {
+            salaries[i] = 100000L + random.nextInt(10_000_000);
+            days[i] = 1 + random.nextInt(366);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        BinaryProtocolBenchmark benchmark = new BinaryProtocolBenchmark(threads,
+                Long.parseLong(options.getOrDefault("warmup", "5")),
+                Long.parseLong(options.getOrDefault("duration", "15")));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Main.class).properties(
+                "server.port=0",
+                "vacation.binary.port=0",
+                "vacation.cache.maximum-size=0").run();
+        String url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/calculacte";
+        int binaryPort = context.getBean(BinaryCalculationServer.class).getPort();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        System.out.printf("Клиентских потоков: %d, прогрев %d с, измерение %d с%n", threads,
+                TimeUnit.NANOSECONDS.toSeconds(benchmark.warmupNanos),
+                TimeUnit.NANOSECONDS.toSeconds(benchmark.durationNanos));
+        try {
+            benchmark.run(executor, "REST", client -> benchmark.rest(url));
+            benchmark.run(executor, "бинарный, запрос за запросом", client -> benchmark.binarySingle(binaryPort));
+            benchmark.run(executor, "бинарный, конвейер", client -> benchmark.binaryPipelined(binaryPort));
+        } finally {
+            executor.shutdownNow();
+            context.close();
+        }
+    }
+
+    /**
+     * Клиент одного потока: выполняет запросы до конца прогона.
+     */
+    private interface Client {
+        /**
+         * @return Количество успешных запросов за интервал измерения
+         */
+        long call(long measureFrom, long stopAt) throws Exception;
+    }
+
+    private interface ClientFactory {
+        Client create(int index) throws Exception;
+    }
+
+    private void run(ExecutorService executor, String name, ClientFactory factory) throws Exception {
+        long measureFrom = System.nanoTime() + warmupNanos;
+        long stopAt = measureFrom + durationNanos;
+        @SuppressWarnings("unchecked")
+        Future<Long>[] results = new Future[threads];
+        for (int i = 0; i < threads; i++) {
+            Client client = factory.create(i);
+            results[i] = executor.submit(() -> client.call(measureFrom, stopAt));
+        }
+        long completed = 0;
+        for (Future<Long> result : results) {
+            completed += result.get();
+        }
+        System.out.printf("%-30s %,12.0f запросов/с%n", name, completed / (durationNanos / 1e9));
+    }
+
+    private Client rest(String url) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        HttpRequest[] requests = new HttpRequest[REQUEST_VARIANTS];
+        for (int i = 0; i < REQUEST_VARIANTS; i++) {
+            requests[i] = HttpRequest.newBuilder(URI.create(url + "?averageSalary=" + salaries[i]
+                    + "&numberOfDays=" + days[i])).GET().build();
+        }
+        return (measureFrom, stopAt) -> {
+            long completed = 0;
+            for (int i = 0; ; i++) {
+                HttpResponse<Void> response = httpClient.send(requests[i % REQUEST_VARIANTS],
+                        HttpResponse.BodyHandlers.discarding());
+                long now = System.nanoTime();
+                if (now >= stopAt) {
+                    return completed;
+                }
+                if (now >= measureFrom && response.statusCode() == 200) {
+                    completed++;
+                }
+            }
+        };
+    }
+
+    private Client binarySingle(int port) throws Exception {
+        BinaryCalculationClient client = BinaryCalculationClient.connect("localhost", port);
+        return (measureFrom, stopAt) -> {
+            try (client) {
+                long completed = 0;
+                for (int i = 0; ; i++) {
+                    int variant = i % REQUEST_VARIANTS;
+                    client.calculatePay(salaries[variant], days[variant]);
+                    long now = System.nanoTime();
+                    if (now >= stopAt) {
+                        return completed;
+                    }
+                    if (now >= measureFrom) {
+                        completed++;
+                    }
+                }
+            }
+        };
+    }
+
+    private Client binaryPipelined(int port) throws Exception {
+        BinaryCalculationClient client = BinaryCalculationClient.connect("localhost", port);
+        long[] results = new long[REQUEST_VARIANTS];
+        short[] statuses = new short[REQUEST_VARIANTS];
+        return (measureFrom, stopAt) -> {
+            try (client) {
+                long completed = 0;
+                while (true) {
+                    client.calculatePay(salaries, days, results, statuses, REQUEST_VARIANTS);
+                    long now = System.nanoTime();
+                    if (now >= stopAt) {
+                        return completed;
+                    }
+                    if (now >= measureFrom) {
+                        completed += REQUEST_VARIANTS;
+                    }
+                }
+            }
+        };
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Ожидается --параметр=значение, получено: " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+}
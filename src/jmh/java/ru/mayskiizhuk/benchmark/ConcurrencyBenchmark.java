@@ -0,0 +1,159 @@
+package ru.mayskiizhuk.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.mayskiizhuk.Main;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Нагрузка по HTTP с фиксированным числом одновременных соединений (замкнутая модель):
+ * каждый клиент держит ровно один запрос в полете и отправляет следующий сразу после ответа.
+ * Печатает пропускную способность и перцентили задержки за интервал измерения.
+ *
+ * <p>Запуск: {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=ru.mayskiizhuk.benchmark.ConcurrencyBenchmark
+ * -Dbenchmark.args="--connections=10000 --virtual-threads=true"}.
+ * Параметры: {@code --connections} (по умолчанию 10000), {@code --warmup} и {@code --duration} в секундах
+ * (10 и 30), {@code --virtual-threads} (режим встроенного сервера), {@code --url} (нагружать уже запущенный сервис
+ * вместо встроенного, например {@code http://host:8080/calculacte}).
+ */
+public final class ConcurrencyBenchmark {
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final HttpClient httpClient;
+    private final HttpRequest[] requests;
+    private final long measureFromNanos;
+    private final long stopAtNanos;
+    private final CountDownLatch finished;
+
+    private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    private ConcurrencyBenchmark(HttpClient httpClient, HttpRequest[] requests, long measureFromNanos,
+                                 long stopAtNanos, int connections) {
+        this.httpClient = httpClient;
+        this.requests = requests;
+        this.measureFromNanos = measureFromNanos;
+        this.stopAtNanos = stopAtNanos;
+        this.finished = new CountDownLatch(connections);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int connections = Integer.parseInt(options.getOrDefault("connections", "10000"));
+        long warmupSeconds = Long.parseLong(options.getOrDefault("warmup", "10"));
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration", "30"));
+        boolean virtualThreads = Boolean.parseBoolean(options.getOrDefault("virtual-threads", "false"));
+        String url = options.get("url");
+
+        ConfigurableApplicationContext context = null;
+        if (url == null) {
+            // Встроенный сервис: лимит соединений Tomcat (по умолчанию 8192) поднимаем под нагрузку, кэш выключаем
+            context = new SpringApplicationBuilder(Main.class).properties(
+                    "server.port=0",
+                    "server.tomcat.max-connections=" + (connections + 1000),
+                    "server.tomcat.accept-count=" + connections,
+                    "vacation.server.virtual-threads=" + virtualThreads,
+                    "vacation.cache.maximum-size=0").run();
+            url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/calculacte";
+        }
+
+        HttpRequest[] requests = {
+                request(url + "?averageSalary=10000000&numberOfDays=14"),
+                request(url + "?averageSalary=10000000&startDate=28-04-25&endDate=11-05-25")
+        };
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(clientExecutor)
+                .build();
+
+        long now = System.nanoTime();
+        long measureFrom = now + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long stopAt = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        ConcurrencyBenchmark benchmark = new ConcurrencyBenchmark(httpClient, requests, measureFrom, stopAt, connections);
+        System.out.printf("Сервер: %s, соединений: %d, прогрев %d с, измерение %d с%n",
+                options.containsKey("url") ? url : (virtualThreads ? "виртуальные потоки" : "пул потоков Tomcat"),
+                connections, warmupSeconds, durationSeconds);
+        try {
+            for (int i = 0; i < connections; i++) {
+                benchmark.send(i);
+            }
+            benchmark.finished.await();
+            benchmark.report(durationSeconds);
+        } finally {
+            clientExecutor.shutdownNow();
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static HttpRequest request(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    /**
+     * Отправляет очередной запрос клиента; по ответу записывает задержку и отправляет следующий.
+     */
+    private void send(int client) {
+        long start = System.nanoTime();
+        if (start >= stopAtNanos) {
+            finished.countDown();
+            return;
+        }
+        httpClient.sendAsync(requests[client % requests.length], HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long end = System.nanoTime();
+                    if (start >= measureFromNanos && end <= stopAtNanos) {
+                        if (error != null || response.statusCode() != 200) {
+                            errors.increment();
+                        } else {
+                            completed.increment();
+                            latency.recordValue(Math.min(end - start, MAX_LATENCY_NANOS));
+                        }
+                    }
+                    send(client);
+                });
+    }
+
+    private void report(long durationSeconds) {
+        long ok = completed.sum();
+        System.out.printf("Успешных запросов: %d, ошибок: %d%n", ok, errors.sum());
+        System.out.printf("Пропускная способность: %.0f запросов/с%n", (double) ok / durationSeconds);
+        System.out.printf("Задержка, мс: p50 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n",
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+                millis(latency.getValueAtPercentile(99.9)), millis(latency.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Ожидается --параметр=значение, получено: " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,366 @@
+package ru.mayskiizhuk.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.mayskiizhuk.Main;
+import ru.mayskiizhuk.config.SalaryConstants;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный тест {@code GET /calculacte} с постоянной интенсивностью поступления запросов (открытая модель):
+ * запросы отправляются по расписанию независимо от того, успел ли сервис ответить на предыдущие.
+ * Задержка считается от запланированного момента отправки, поэтому отставание генератора и очередь
+ * на стороне сервиса попадают в перцентили, а не скрываются (coordinated omission).
+ *
+ * <p>Смесь запросов: расчет по количеству дней, расчет по датам и заведомо ошибочные запросы (ожидается 400).
+ * Параметры берутся из заранее сгенерированного набора, чтобы нагрузка не сводилась к одному ключу кэша.
+ * Отчет: предложенная и достигнутая интенсивность, p50/p99/p99.9/max задержки и доли ошибок по типам запросов.
+ *
+ * <p>Запуск: {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=ru.mayskiizhuk.benchmark.LoadGenerator
+ * -Dbenchmark.args="--rate=2000 --duration=60"}.
+ * Параметры: {@code --rate} - запросов в секунду (по умолчанию 1000), {@code --warmup} и {@code --duration}
+ * в секундах (10 и 60), {@code --mix} - доли запросов по дням, по датам и ошибочных (60,30,10),
+ * {@code --max-outstanding} - предел запросов в полете, сверх него запрос отбрасывается и считается ошибкой
+ * (10000), {@code --seed} (1), {@code --hgrm} - файл для распределения задержек в формате HdrHistogram,
+ * {@code --max-error-rate} - доля ошибок в процентах, при превышении которой процесс завершается с кодом 1,
+ * {@code --url} - нагружать уже запущенный сервис вместо встроенного (например {@code http://host:8080/calculacte}).
+ * Встроенный сервис запускается на случайном порту с настройками по умолчанию (кэш включен).
+ */
+public final class LoadGenerator {
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+    // Количество вариантов запросов каждого типа
+    private static final int VARIANTS = 4096;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(SalaryConstants.DATE_FORMAT);
+
+    /**
+     * Тип запроса в смеси и ожидаемый код ответа.
+     */
+    enum Kind {
+        DAYS("по дням", 200),
+        DATES("по датам", 200),
+        INVALID("ошибочные", 400);
+
+        private final String title;
+        private final int expectedStatus;
+
+        Kind(String title, int expectedStatus) {
+            this.title = title;
+            this.expectedStatus = expectedStatus;
+        }
+    }
+
+    /**
+     * Счетчики и задержки одного типа запросов за интервал измерения.
+     */
+    private static final class KindStats {
+        private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder unexpectedStatus = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+    }
+
+    private final HttpClient httpClient;
+    private final HttpRequest[][] requests;
+    private final int[] cumulativeMix;
+    private final int maxOutstanding;
+    private final KindStats[] stats = new KindStats[Kind.values().length];
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private LoadGenerator(HttpClient httpClient, HttpRequest[][] requests, int[] mix, int maxOutstanding) {
+        this.httpClient = httpClient;
+        this.requests = requests;
+        this.maxOutstanding = maxOutstanding;
+        this.cumulativeMix = new int[mix.length];
+        int sum = 0;
+        for (int i = 0; i < mix.length; i++) {
+            sum += mix[i];
+            cumulativeMix[i] = sum;
+        }
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new KindStats();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        double rate = Double.parseDouble(options.getOrDefault("rate", "1000"));
+        long warmupSeconds = Long.parseLong(options.getOrDefault("warmup", "10"));
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration", "60"));
+        int[] mix = parseMix(options.getOrDefault("mix", "60,30,10"));
+        int maxOutstanding = Integer.parseInt(options.getOrDefault("max-outstanding", "10000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        String url = options.get("url");
+        if (rate <= 0 || durationSeconds <= 0 || maxOutstanding < 1) {
+            throw new IllegalArgumentException("rate, duration и max-outstanding должны быть положительными");
+        }
+
+        ConfigurableApplicationContext context = null;
+        if (url == null) {
+            context = new SpringApplicationBuilder(Main.class).properties(
+                    "server.port=0",
+                    "server.tomcat.max-connections=" + (maxOutstanding + 1000),
+                    "server.tomcat.accept-count=" + maxOutstanding).run();
+            url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/calculacte";
+        }
+
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(clientExecutor)
+                .build();
+        LoadGenerator generator = new LoadGenerator(httpClient, buildRequests(url, new Random(seed)), mix,
+                maxOutstanding);
+        System.out.printf("Цель: %s, %.0f запросов/с, смесь (дни/даты/ошибочные) %s, прогрев %d с, измерение %d с%n",
+                url, rate, options.getOrDefault("mix", "60,30,10"), warmupSeconds, durationSeconds);
+        double errorRate;
+        try {
+            generator.run(rate, warmupSeconds, durationSeconds, new Random(seed + 1));
+            errorRate = generator.report(rate, durationSeconds);
+            if (options.containsKey("hgrm")) {
+                generator.writeHistogram(options.get("hgrm"));
+            }
+        } finally {
+            clientExecutor.shutdownNow();
+            if (context != null) {
+                context.close();
+            }
+        }
+        if (options.containsKey("max-error-rate") && errorRate > Double.parseDouble(options.get("max-error-rate"))) {
+            System.out.printf("Доля ошибок %.3f%% больше допустимой %s%%%n", errorRate, options.get("max-error-rate"));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Отправляет запросы по расписанию: i-й запрос - в момент start + i / rate.
+     * Если генератор отстал (например, из-за паузы GC), запросы догоняют расписание без ожидания,
+     * а задержка каждого считается от запланированного момента.
+     */
+    private void run(double rate, long warmupSeconds, long durationSeconds, Random random) throws InterruptedException {
+        double nanosPerRequest = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long stopAt = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * nanosPerRequest);
+            if (intended >= stopAt) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Kind kind = pickKind(random);
+            HttpRequest[] variants = requests[kind.ordinal()];
+            send(kind, variants[random.nextInt(variants.length)], intended, intended >= measureFrom);
+        }
+        // Ждем ответов на запросы, отправленные в интервале измерения
+        long deadline = System.nanoTime() + MAX_LATENCY_NANOS;
+        while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void send(Kind kind, HttpRequest request, long intendedNanos, boolean measured) {
+        KindStats kindStats = stats[kind.ordinal()];
+        if (measured) {
+            kindStats.sent.increment();
+        }
+        if (outstanding.get() >= maxOutstanding) {
+            if (measured) {
+                kindStats.dropped.increment();
+            }
+            return;
+        }
+        outstanding.incrementAndGet();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long end = System.nanoTime();
+                    outstanding.decrementAndGet();
+                    if (!measured) {
+                        return;
+                    }
+                    if (error != null) {
+                        kindStats.failed.increment();
+                        return;
+                    }
+                    if (response.statusCode() != kind.expectedStatus) {
+                        kindStats.unexpectedStatus.increment();
+                    }
+                    kindStats.latency.recordValue(Math.min(end - intendedNanos, MAX_LATENCY_NANOS));
+                });
+    }
+
+    private Kind pickKind(Random random) {
+        int r = random.nextInt(cumulativeMix[cumulativeMix.length - 1]);
+        for (int i = 0; i < cumulativeMix.length; i++) {
+            if (r < cumulativeMix[i]) {
+                return Kind.values()[i];
+            }
+        }
+        throw new IllegalStateException("Некорректная смесь запросов");
+    }
+
+    /**
+     * Печатает отчет по типам запросов и в целом.
+     *
+     * @return Доля ошибок в процентах
+     */
+    private double report(double rate, long durationSeconds) {
+        System.out.printf("%-10s %10s %10s %10s %10s %10s %9s %9s %9s %9s%n", "Тип", "Отправлено", "Ответов",
+                "Не тот код", "Сбоев", "Отброшено", "p50, мс", "p99, мс", "p99.9, мс", "max, мс");
+        long sent = 0;
+        long unexpected = 0;
+        long failed = 0;
+        long dropped = 0;
+        for (Kind kind : Kind.values()) {
+            KindStats kindStats = stats[kind.ordinal()];
+            printRow(kind.title, kindStats.sent.sum(), kindStats.latency, kindStats.unexpectedStatus.sum(),
+                    kindStats.failed.sum(), kindStats.dropped.sum());
+            sent += kindStats.sent.sum();
+            unexpected += kindStats.unexpectedStatus.sum();
+            failed += kindStats.failed.sum();
+            dropped += kindStats.dropped.sum();
+        }
+        Histogram total = totalLatency();
+        printRow("всего", sent, total, unexpected, failed, dropped);
+
+        double errorRate = percent(unexpected + failed + dropped, sent);
+        System.out.printf("Интенсивность: предложено %.0f запросов/с, обслужено %.0f ответов/с%n",
+                rate, (double) total.getTotalCount() / durationSeconds);
+        System.out.printf("Доля ошибок: %.3f%% (не тот код ответа %.3f%%, сбои %.3f%%, отброшено %.3f%%)%n",
+                errorRate, percent(unexpected, sent), percent(failed, sent), percent(dropped, sent));
+        System.out.println("Задержка считается от запланированного момента отправки запроса");
+        return errorRate;
+    }
+
+    private Histogram totalLatency() {
+        Histogram total = new Histogram(MAX_LATENCY_NANOS, 3);
+        for (KindStats kindStats : stats) {
+            total.add(kindStats.latency);
+        }
+        return total;
+    }
+
+    private void writeHistogram(String path) throws IOException {
+        try (PrintStream out = new PrintStream(new FileOutputStream(path), false, StandardCharsets.UTF_8)) {
+            // Значения в файле - в миллисекундах
+            totalLatency().outputPercentileDistribution(out, 1_000_000.0);
+        }
+        System.out.println("Распределение задержек записано в " + path);
+    }
+
+    private static void printRow(String title, long sent, Histogram latency, long unexpected, long failed,
+                                 long dropped) {
+        System.out.printf("%-10s %10d %10d %10d %10d %10d %9.2f %9.2f %9.2f %9.2f%n", title, sent,
+                latency.getTotalCount(), unexpected, failed, dropped,
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+                millis(latency.getValueAtPercentile(99.9)), millis(latency.getMaxValue()));
+    }
+
+    /**
+     * Готовит варианты запросов каждого типа.
+     */
+    private static HttpRequest[][] buildRequests(String url, Random random) {
+        HttpRequest[][] result = new HttpRequest[Kind.values().length][VARIANTS];
+        LocalDate firstStart = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < VARIANTS; i++) {
+            long salary = 100_000 + random.nextInt(100_000_000);
+            result[Kind.DAYS.ordinal()][i] = request(url + "?averageSalary=" + salary
+                    + "&numberOfDays=" + (1 + random.nextInt(28)));
+
+            LocalDate start = firstStart.plusDays(random.nextInt(730));
+            LocalDate end = start.plusDays(random.nextInt(28));
+            result[Kind.DATES.ordinal()][i] = request(url + "?averageSalary=" + salary
+                    + "&startDate=" + DATE_FORMATTER.format(start) + "&endDate=" + DATE_FORMATTER.format(end));
+
+            result[Kind.INVALID.ordinal()][i] = request(url + invalidQuery(i, salary, start, end));
+        }
+        return result;
+    }
+
+    private static String invalidQuery(int variant, long salary, LocalDate start, LocalDate end) {
+        switch (variant % 5) {
+            case 0:
+                return "?averageSalary=abc&numberOfDays=14";
+            case 1:
+                return "?averageSalary=" + salary + "&numberOfDays=" + (400 + variant);
+            case 2:
+                return "?averageSalary=" + salary + "&startDate=" + start + "&endDate=" + end;
+            case 3:
+                return "?averageSalary=" + salary;
+            default:
+                // Дата окончания раньше даты начала
+                return "?averageSalary=" + salary + "&startDate=" + DATE_FORMATTER.format(end)
+                        + "&endDate=" + DATE_FORMATTER.format(start.minusDays(1));
+        }
+    }
+
+    private static HttpRequest request(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private static int[] parseMix(String value) {
+        String[] parts = value.split(",");
+        if (parts.length != Kind.values().length) {
+            throw new IllegalArgumentException("--mix: ожидается " + Kind.values().length + " доли через запятую");
+        }
+        int[] mix = new int[parts.length];
+        int sum = 0;
+        for (int i = 0; i < parts.length; i++) {
+            mix[i] = Integer.parseInt(parts[i].trim());
+            if (mix[i] < 0) {
+                throw new IllegalArgumentException("--mix: доли не могут быть отрицательными");
+            }
+            sum += mix[i];
+        }
+        if (sum == 0) {
+            throw new IllegalArgumentException("--mix: сумма долей должна быть положительной");
+        }
+        return mix;
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0.0 : 100.0 * part / whole;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Ожидается --параметр=значение, получено: " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,54 @@
+package ru.mayskiizhuk.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.mayskiizhuk.repository.NonWorkingHolidayRepository;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка одного дня и подсчет праздников в периоде по всем дням года.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NonWorkingHolidayRepositoryBenchmark {
+
+    private LocalDate[] dates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        dates = new LocalDate[365];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = start.plusDays(i);
+        }
+    }
+
+    @Benchmark
+    public boolean isNonWorkingHoliday() {
+        LocalDate date = dates[next];
+        next = next + 1 == dates.length ? 0 : next + 1;
+        return NonWorkingHolidayRepository.isNonWorkingHoliday(date);
+    }
+
+    @Benchmark
+    public int countNonWorkingHolidays() {
+        long start = dates[next].toEpochDay();
+        next = next + 1 == dates.length ? 0 : next + 1;
+        return NonWorkingHolidayRepository.countNonWorkingHolidays(start, start + 27);
+    }
+}
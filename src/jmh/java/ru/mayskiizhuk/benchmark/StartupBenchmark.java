@@ -0,0 +1,126 @@
+package ru.mayskiizhuk.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Время холодного старта от запуска процесса до первого успешного ответа {@code GET /calculacte}
+ * для Spring-режима, облегченного сервера и облегченного сервера с архивом AppCDS.
+ *
+ * <p>Запуск: {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=ru.mayskiizhuk.benchmark.StartupBenchmark
+ * -Dbenchmark.args="--runs=5"}. Режим с AppCDS измеряется, если предварительно выполнен {@code mvn -Pappcds package}
+ * (нужны target/untitled-*-lite.jar и target/lite.jsa).
+ */
+public final class StartupBenchmark {
+    private static final String PATH = "/calculacte?averageSalary=6000000&startDate=28-04-25&endDate=11-05-25";
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(120);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = 5;
+        for (String arg : args) {
+            if (arg.startsWith("--runs=")) {
+                runs = Integer.parseInt(arg.substring("--runs=".length()));
+            } else {
+                throw new IllegalArgumentException("Неизвестный аргумент: " + arg);
+            }
+        }
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classpath = System.getProperty("java.class.path");
+
+        measure("spring", runs, java, "-cp", classpath, "ru.mayskiizhuk.Main");
+        measure("lite", runs, java, "-cp", classpath, "ru.mayskiizhuk.lite.LiteServer");
+
+        Path archive = Paths.get("target", "lite.jsa");
+        Path liteJar = findLiteJar();
+        if (liteJar != null && Files.exists(archive)) {
+            measure("lite-jar", runs, java, "-jar", liteJar.toString());
+            measure("lite-jar+appcds", runs, java, "-XX:SharedArchiveFile=" + archive, "-jar", liteJar.toString());
+        } else {
+            System.out.println("lite-jar+appcds: пропущен, сначала выполните mvn -Pappcds package");
+        }
+    }
+
+    private static void measure(String mode, int runs, String... command) throws Exception {
+        long[] millis = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            millis[run] = launchToFirstResponseMillis(command);
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-16s до первого ответа, мс: min %d, медиана %d, max %d%n",
+                mode, millis[0], millis[runs / 2], millis[runs - 1]);
+    }
+
+    private static long launchToFirstResponseMillis(String... command) throws Exception {
+        int port = freePort();
+        List<String> commandLine = new ArrayList<>(Arrays.asList(command));
+        commandLine.add("--server.port=" + port);
+        URL url = new URL("http://localhost:" + port + PATH);
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(commandLine)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT_NANOS) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Процесс завершился с кодом " + process.exitValue() + ": " + commandLine);
+                }
+                if (respondsOk(url)) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+                Thread.sleep(2);
+            }
+            throw new IllegalStateException("Нет ответа за " + TimeUnit.NANOSECONDS.toSeconds(TIMEOUT_NANOS) + " с: " + commandLine);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static boolean respondsOk(URL url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(100);
+            int status = connection.getResponseCode();
+            try (InputStream body = connection.getInputStream()) {
+                body.readAllBytes();
+            }
+            return status == HttpURLConnection.HTTP_OK;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Path findLiteJar() throws IOException {
+        Path target = Paths.get("target");
+        if (!Files.isDirectory(target)) {
+            return null;
+        }
+        try (Stream<Path> files = Files.list(target)) {
+            return files.filter(path -> path.getFileName().toString().endsWith("-lite.jar")).findFirst().orElse(null);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package ru.mayskiizhuk.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import ru.mayskiizhuk.cache.CachePolicy;
+import ru.mayskiizhuk.cache.CalculationCache;
+import ru.mayskiizhuk.controller.ResultCacheHeaders;
+import ru.mayskiizhuk.controller.VacationController;
+import ru.mayskiizhuk.controller.VacationRequestHandler;
+import ru.mayskiizhuk.metrics.CalculationMetrics;
+import ru.mayskiizhuk.service.VacationService;
+import ru.mayskiizhuk.validate.InputValidator;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный путь разбора и валидации параметров в {@link VacationController} прямым вызовом,
+ * без HTTP-стека: оба режима расчета и типичные ошибочные запросы.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VacationControllerBenchmark {
+
+    private VacationController controller;
+
+    @Setup
+    public void setUp() {
+        // Кэш выключен, чтобы измерять сам разбор и расчет
+        VacationRequestHandler requestHandler = new VacationRequestHandler(new VacationService(), new InputValidator(),
+                new CalculationCache(0, CachePolicy.LRU), new CalculationMetrics(new SimpleMeterRegistry()));
+        controller = new VacationController(requestHandler, new ObjectMapper(), new ResultCacheHeaders(Duration.ofMinutes(10)));
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> days() {
+        return controller.calculateVacationPay("6000000", null, "14", null, null, null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> dates() {
+        return controller.calculateVacationPay("6000000", null, null, "28-04-25", "11-05-25", null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> salaryNotANumber() {
+        return controller.calculateVacationPay("не_число", null, "14", null, null, null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> salaryOutOfRange() {
+        return controller.calculateVacationPay("1", null, "14", null, null, null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> invalidDate() {
+        return controller.calculateVacationPay("6000000", null, null, "01.04.2024", "11-05-25", null, null);
+    }
+}
@@ -0,0 +1,57 @@
+package ru.mayskiizhuk.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.mayskiizhuk.service.VacationService;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность расчета отпускных по количеству дней и по датам
+ * для короткого, типичного и максимального (366 дней) периода.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VacationServiceBenchmark {
+
+    @Param({"3", "14", "366"})
+    private int periodLength;
+
+    private VacationService vacationService;
+    private long averageSalary;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Setup
+    public void setUp() {
+        vacationService = new VacationService();
+        averageSalary = 6_000_000L;
+        // Период захватывает майские праздники
+        startDate = LocalDate.of(2025, 4, 28);
+        endDate = startDate.plusDays(periodLength - 1L);
+    }
+
+    @Benchmark
+    public long calculatePay() {
+        return vacationService.calculatePay(averageSalary, periodLength);
+    }
+
+    @Benchmark
+    public long calculatePaySpecificDate() {
+        return vacationService.calculatePaySpecificDate(averageSalary, startDate, endDate);
+    }
+}
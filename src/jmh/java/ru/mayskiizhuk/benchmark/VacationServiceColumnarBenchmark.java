@@ -0,0 +1,95 @@
+package ru.mayskiizhuk.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.mayskiizhuk.service.VacationService;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пакетные методы VacationService по массивам в сравнении с циклом по поэлементным методам.
+ * Результат - строк в секунду на один поток.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VacationServiceColumnarBenchmark {
+    private static final int ROWS = 1024;
+
+    private VacationService vacationService;
+    private long[] salaries;
+    private int[] days;
+    private long[] startEpochDays;
+    private long[] endEpochDays;
+    private LocalDate[] startDates;
+    private LocalDate[] endDates;
+    private long[] out;
+
+    @Setup
+    public void setUp() {
+        vacationService = new VacationService();
+        Random random = new Random(1);
+        salaries = new long[ROWS];
+        days = new int[ROWS];
+        startEpochDays = new long[ROWS];
+        endEpochDays = new long[ROWS];
+        startDates = new LocalDate[ROWS];
+        endDates = new LocalDate[ROWS];
+        out = new long[ROWS];
+        long firstDay = LocalDate.of(2024, 1, 1).toEpochDay();
+        for (int i = 0; i < ROWS; i++) {
+            salaries[i] = 100 + random.nextInt(1_000_000_000);
+            days[i] = 1 + random.nextInt(366);
+            startEpochDays[i] = firstDay + random.nextInt(730);
+            endEpochDays[i] = startEpochDays[i] + random.nextInt(28);
+            startDates[i] = LocalDate.ofEpochDay(startEpochDays[i]);
+            endDates[i] = LocalDate.ofEpochDay(endEpochDays[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long[] daysColumnar() {
+        vacationService.calculatePay(salaries, days, out, ROWS);
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long[] daysScalarLoop() {
+        for (int i = 0; i < ROWS; i++) {
+            out[i] = vacationService.calculatePay(salaries[i], days[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long[] datesColumnar() {
+        vacationService.calculatePayEpochDays(salaries, startEpochDays, endEpochDays, out, ROWS);
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long[] datesScalarLoop() {
+        for (int i = 0; i < ROWS; i++) {
+            out[i] = vacationService.calculatePaySpecificDate(salaries[i], startDates[i], endDates[i]);
+        }
+        return out;
+    }
+}
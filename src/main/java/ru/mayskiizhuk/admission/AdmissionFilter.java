@@ -0,0 +1,138 @@
+package ru.mayskiizhuk.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.mayskiizhuk.error.ErrorCode;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Допуск запросов к расчету (/calculacte): ограничение частоты по клиентам ({@link ClientRateLimiter})
+ * и сброс нагрузки ({@link LoadShedder}). Отклоненный запрос сразу получает 429 с заголовком Retry-After
+ * и не занимает поток расчета.
+ *
+ * <p>Клиент определяется по заголовку vacation.admission.client-header (API-ключ), а без него - по адресу
+ * подключения. Все ограничения по умолчанию выключены.
+ */
+@Component
+public class AdmissionFilter extends OncePerRequestFilter {
+    public static final String REJECTED_COUNTER = "vacation.admission.rejected";
+    public static final String IN_FLIGHT_GAUGE = "vacation.admission.in-flight";
+    public static final String EVICTIONS_COUNTER = "vacation.admission.evictions";
+
+    static final String PATH = "/calculacte";
+    // Повтор после сброса нагрузки: перегрузку не предсказать точнее
+    private static final long OVERLOADED_RETRY_SECONDS = 1L;
+
+    private final ClientRateLimiter rateLimiter;
+    private final LoadShedder loadShedder;
+    private final String clientHeader;
+    private final Counter rateLimited;
+    private final Counter overloaded;
+
+    /**
+     * @param rate             Запросов в секунду на клиента; 0 - без ограничения
+     * @param burst            Запросов подряд без ожидания; 0 - равно rate
+     * @param clients          Ячеек таблицы клиентов
+     * @param clientHeader     Заголовок с ключом клиента
+     * @param maxInFlight      Предел запросов в работе; 0 - без предела
+     * @param latencyThreshold Порог средней задержки расчета по GET; 0 - не учитывать задержку
+     * @param registry         Реестр метрик
+     */
+    public AdmissionFilter(@Value("${vacation.admission.rate:0}") double rate,
+                           @Value("${vacation.admission.burst:0}") int burst,
+                           @Value("${vacation.admission.clients:65536}") int clients,
+                           @Value("${vacation.admission.client-header:X-Api-Key}") String clientHeader,
+                           @Value("${vacation.admission.max-in-flight:0}") int maxInFlight,
+                           @Value("${vacation.admission.latency-threshold:0ms}") Duration latencyThreshold,
+                           MeterRegistry registry) {
+        this.rateLimiter = rate > 0
+                ? new ClientRateLimiter(rate, burst > 0 ? burst : (int) Math.max(1L, Math.round(rate)), clients,
+                System.nanoTime())
+                : null;
+        this.loadShedder = new LoadShedder(maxInFlight, latencyThreshold.toNanos());
+        this.clientHeader = clientHeader;
+        this.rateLimited = rejectedCounter(registry, ErrorCode.TOO_MANY_REQUESTS);
+        this.overloaded = rejectedCounter(registry, ErrorCode.OVERLOADED);
+        Gauge.builder(IN_FLIGHT_GAUGE, loadShedder, LoadShedder::inFlight)
+                .description("Запросы расчета в работе")
+                .register(registry);
+        if (rateLimiter != null) {
+            FunctionCounter.builder(EVICTIONS_COUNTER, rateLimiter, ClientRateLimiter::evictions)
+                    .description("Вытеснения активных клиентов из таблицы ограничения частоты")
+                    .register(registry);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !path(request).startsWith(PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (rateLimiter != null) {
+            long waitNanos = rateLimiter.tryAcquire(clientKey(request), System.nanoTime());
+            if (waitNanos != ClientRateLimiter.ADMITTED) {
+                rateLimited.increment();
+                reject(response, ErrorCode.TOO_MANY_REQUESTS,
+                        (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+                return;
+            }
+        }
+        if (!loadShedder.tryEnter()) {
+            overloaded.increment();
+            reject(response, ErrorCode.OVERLOADED, OVERLOADED_RETRY_SECONDS);
+            return;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // Задержку оцениваем только по одиночному расчету: пакетный запрос длится столько, сколько строк в нем
+            loadShedder.exit(PATH.equals(path(request)) ? System.nanoTime() - startNanos : -1L);
+        }
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String key = request.getHeader(clientHeader);
+        return key == null || key.isBlank() ? request.getRemoteAddr() : key;
+    }
+
+    private static void reject(HttpServletResponse response, ErrorCode errorCode, long retryAfterSeconds)
+            throws IOException {
+        byte[] body = errorCode.jsonBody(0L);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry, ErrorCode errorCode) {
+        return Counter.builder(REJECTED_COUNTER)
+                .description("Запросы, отклоненные с ответом 429")
+                .tag("reason", errorCode.getTag())
+                .register(registry);
+    }
+}
@@ -0,0 +1,141 @@
+package ru.mayskiizhuk.admission;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограничение частоты запросов по клиентам: корзина токенов в форме GCRA (generic cell rate algorithm).
+ *
+ * <p>Состояние клиента - одно число: теоретическое время прихода следующего запроса (TAT). Запрос пропускается,
+ * если TAT опережает текущее время не больше чем на (burst - 1) интервалов, и сдвигает TAT на один интервал.
+ * Это то же самое, что корзина на burst токенов, пополняемая rate токенами в секунду, но без отдельного
+ * счетчика токенов и времени пополнения.
+ *
+ * <p>Таблица клиентов фиксированного размера: память не растет с числом клиентов. Ячейка - один long
+ * (20 бит отпечатка ключа и 44 бита TAT в единицах {@value #TIME_UNIT_NANOS} нс), поэтому изменение - один CAS
+ * без блокировок, а разные клиенты попадают в разные ячейки и не мешают друг другу. Клиент ищется в
+ * {@value #PROBES} соседних ячейках; новый клиент занимает из них ячейку с самым ранним TAT. Если все они
+ * заняты активными клиентами, вытесняется один из них (счетчик {@link #evictions()}) - его лимит начинается
+ * заново, то есть при нехватке таблицы ограничение только ослабевает.
+ */
+public class ClientRateLimiter {
+    /**
+     * Результат {@link #tryAcquire}: запрос пропущен
+     */
+    public static final long ADMITTED = 0L;
+    // Единица времени в ячейке: 1/16 мс, 44 бит хватает на 34 года от запуска
+    static final long TIME_UNIT_NANOS = 62_500L;
+    static final int PROBES = 4;
+
+    private static final int TIME_BITS = 44;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+    private static final int MAX_CAS_ATTEMPTS = 8;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    // Интервал между запросами и допустимое опережение TAT, в единицах TIME_UNIT_NANOS
+    private final long emissionInterval;
+    private final long burstTolerance;
+    private final long startNanos;
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param ratePerSecond Запросов в секунду на клиента (не больше 16000 - точность единицы времени)
+     * @param burst         Запросов подряд без ожидания
+     * @param tableSize     Ячеек таблицы клиентов (округляется вверх до степени двойки)
+     * @param startNanos    Начало отсчета времени ({@link System#nanoTime()})
+     */
+    public ClientRateLimiter(double ratePerSecond, int burst, int tableSize, long startNanos) {
+        if (ratePerSecond <= 0 || burst < 1 || tableSize < PROBES) {
+            throw new IllegalArgumentException("Некорректные параметры ограничения: rate=" + ratePerSecond
+                    + ", burst=" + burst + ", clients=" + tableSize);
+        }
+        int size = Integer.highestOneBit(tableSize - 1) << 1;
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.emissionInterval = Math.max(1L, Math.round(1e9 / ratePerSecond / TIME_UNIT_NANOS));
+        this.burstTolerance = emissionInterval * (burst - 1);
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Пытается пропустить запрос клиента.
+     *
+     * @param clientKey Ключ клиента (API-ключ или адрес)
+     * @param nowNanos  Текущее время ({@link System#nanoTime()})
+     * @return {@link #ADMITTED} или время в наносекундах, через которое запрос клиента будет пропущен
+     */
+    public long tryAcquire(CharSequence clientKey, long nowNanos) {
+        long hash = hash(clientKey);
+        long fingerprint = hash >>> TIME_BITS;
+        int home = (int) hash & mask;
+        // Время от запуска со сдвигом на 1: пустая ячейка (0) не совпадает ни с одним состоянием
+        long now = (nowNanos - startNanos) / TIME_UNIT_NANOS + 1;
+        for (int attempt = 0; attempt < MAX_CAS_ATTEMPTS; attempt++) {
+            int victim = home;
+            long victimState = Long.MAX_VALUE;
+            long victimTat = Long.MAX_VALUE;
+            int found = -1;
+            long state = 0L;
+            for (int probe = 0; probe < PROBES; probe++) {
+                int index = (home + probe) & mask;
+                state = slots.get(index);
+                if (state != 0L && state >>> TIME_BITS == fingerprint) {
+                    found = index;
+                    break;
+                }
+                long tat = state & TIME_MASK;
+                if (tat < victimTat) {
+                    victim = index;
+                    victimState = state;
+                    victimTat = tat;
+                }
+            }
+            if (found >= 0) {
+                long tat = Math.max(state & TIME_MASK, now);
+                long ahead = tat - now;
+                if (ahead > burstTolerance) {
+                    return (ahead - burstTolerance) * TIME_UNIT_NANOS;
+                }
+                if (slots.compareAndSet(found, state, pack(fingerprint, tat + emissionInterval))) {
+                    return ADMITTED;
+                }
+            } else if (slots.compareAndSet(victim, victimState, pack(fingerprint, now + emissionInterval))) {
+                if (victimTat > now) {
+                    evictions.increment();
+                }
+                return ADMITTED;
+            }
+        }
+        // Ячейку постоянно меняют другие потоки: не задерживаем запрос ожиданием
+        return ADMITTED;
+    }
+
+    /**
+     * @return Количество вытеснений активных клиентов из-за нехватки таблицы
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return Количество ячеек таблицы клиентов
+     */
+    public int capacity() {
+        return slots.length();
+    }
+
+    private static long pack(long fingerprint, long tat) {
+        return fingerprint << TIME_BITS | (tat & TIME_MASK);
+    }
+
+    private static long hash(CharSequence key) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        // Перемешивание, чтобы и младшие биты (номер ячейки), и старшие (отпечаток) зависели от всего ключа
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        return h ^ (h >>> 33);
+    }
+}
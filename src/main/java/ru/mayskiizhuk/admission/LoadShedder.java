@@ -0,0 +1,83 @@
+package ru.mayskiizhuk.admission;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сброс нагрузки: отказ в обработке, когда запросов в работе слишком много или растет задержка.
+ *
+ * <p>Число запросов в работе сравнивается с пределом при входе. Задержка оценивается экспоненциальным
+ * скользящим средним (вес нового замера 1/{@value #EWMA_WEIGHT}) по завершенным запросам. Пока среднее
+ * выше порога, отклоняется доля запросов, пропорциональная превышению, но не больше
+ * {@value #MAX_SHED_PERCENT}%: оставшиеся запросы дают новые замеры, и среднее опускается, когда нагрузка спадает.
+ */
+public class LoadShedder {
+    static final int EWMA_WEIGHT = 16;
+    static final int MAX_SHED_PERCENT = 90;
+
+    private final int maxInFlight;
+    private final long latencyThresholdNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong averageLatencyNanos = new AtomicLong();
+
+    /**
+     * @param maxInFlight           Предел запросов в работе; 0 - без предела
+     * @param latencyThresholdNanos Порог средней задержки; 0 - не учитывать задержку
+     */
+    public LoadShedder(int maxInFlight, long latencyThresholdNanos) {
+        this.maxInFlight = maxInFlight;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+    }
+
+    /**
+     * Пытается принять запрос. Принятый запрос обязательно завершается вызовом {@link #exit}.
+     *
+     * @return true, если запрос принят
+     */
+    public boolean tryEnter() {
+        if (latencyThresholdNanos > 0) {
+            long average = averageLatencyNanos.get();
+            if (average > latencyThresholdNanos) {
+                long shedPercent = Math.min(MAX_SHED_PERCENT, (average - latencyThresholdNanos) * 100 / average);
+                if (ThreadLocalRandom.current().nextInt(100) < shedPercent) {
+                    return false;
+                }
+            }
+        }
+        int current = inFlight.incrementAndGet();
+        if (maxInFlight > 0 && current > maxInFlight) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Завершает принятый запрос.
+     *
+     * @param latencyNanos Время обработки; отрицательное значение - не учитывать в средней задержке
+     */
+    public void exit(long latencyNanos) {
+        inFlight.decrementAndGet();
+        if (latencyThresholdNanos > 0 && latencyNanos >= 0) {
+            long average = averageLatencyNanos.get();
+            // Одна попытка: при гонке замер теряется, но поток не крутится в цикле CAS
+            averageLatencyNanos.compareAndSet(average, average + (latencyNanos - average) / EWMA_WEIGHT);
+        }
+    }
+
+    /**
+     * @return Запросов в работе
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return Средняя задержка в наносекундах (0, если задержка не учитывается)
+     */
+    public long averageLatencyNanos() {
+        return averageLatencyNanos.get();
+    }
+}
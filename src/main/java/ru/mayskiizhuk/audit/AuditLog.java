@@ -0,0 +1,223 @@
+package ru.mayskiizhuk.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import ru.mayskiizhuk.repository.Region;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Журнал аудита расчетов: каждый рассчитанный результат с параметрами, версией календаря и временем.
+ *
+ * <p>Потоки запросов только публикуют запись в кольцо без блокировок ({@link AuditRing}); отдельный поток
+ * пачками переносит записи в сегменты, отображенные в память ({@link AuditSegmentWriter}), и раз в
+ * vacation.audit.flush-interval сбрасывает их на диск. Если кольцо заполнено, запись отбрасывается
+ * (счетчик vacation.audit.dropped) или, при vacation.audit.block-when-full=true, поток запроса ждет места
+ * (счетчик vacation.audit.backpressured).
+ *
+ * <p>Журнал включается параметром vacation.audit.path (каталог сегментов); без него запись ничего не делает.
+ * Чтение и выгрузка - {@link AuditLogReader}.
+ */
+@Component
+public class AuditLog implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+
+    public static final String WRITTEN_COUNTER = "vacation.audit.written";
+    public static final String DROPPED_COUNTER = "vacation.audit.dropped";
+    public static final String BACKPRESSURED_COUNTER = "vacation.audit.backpressured";
+    public static final String BACKLOG_GAUGE = "vacation.audit.backlog";
+
+    // Пауза потока записи при пустом кольце и производителя при заполненном
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final int DRAIN_LIMIT = 4096;
+
+    private static final AuditLog DISABLED = new AuditLog();
+
+    private final AuditRing ring;
+    private final AuditSegmentWriter segmentWriter;
+    private final boolean blockWhenFull;
+    private final long flushIntervalNanos;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter backpressured;
+    private final Thread writerThread;
+    private volatile boolean running;
+
+    private AuditLog() {
+        this.ring = null;
+        this.segmentWriter = null;
+        this.blockWhenFull = false;
+        this.flushIntervalNanos = 0L;
+        this.written = null;
+        this.dropped = null;
+        this.backpressured = null;
+        this.writerThread = null;
+    }
+
+    /**
+     * @param path          Каталог сегментов; пустое значение - журнал выключен
+     * @param segmentSize   Размер сегмента
+     * @param bufferSize    Емкость кольца в записях, степень двойки
+     * @param flushInterval Период сброса сегмента на диск
+     * @param blockWhenFull true - ждать места в кольце, false - отбрасывать запись
+     * @param registry      Реестр метрик
+     * @throws IOException если не удалось открыть каталог или последний сегмент
+     */
+    @Autowired
+    public AuditLog(@Value("${vacation.audit.path:}") String path,
+                    @Value("${vacation.audit.segment-size:64MB}") DataSize segmentSize,
+                    @Value("${vacation.audit.buffer-size:65536}") int bufferSize,
+                    @Value("${vacation.audit.flush-interval:1s}") Duration flushInterval,
+                    @Value("${vacation.audit.block-when-full:false}") boolean blockWhenFull,
+                    MeterRegistry registry) throws IOException {
+        boolean enabled = !path.isBlank();
+        this.blockWhenFull = blockWhenFull;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.written = Counter.builder(WRITTEN_COUNTER)
+                .description("Записи аудита, перенесенные в сегменты журнала")
+                .register(registry);
+        this.dropped = Counter.builder(DROPPED_COUNTER)
+                .description("Записи аудита, отброшенные из-за заполненного буфера")
+                .register(registry);
+        this.backpressured = Counter.builder(BACKPRESSURED_COUNTER)
+                .description("Записи аудита, ожидавшие места в заполненном буфере")
+                .register(registry);
+        if (!enabled) {
+            this.ring = null;
+            this.segmentWriter = null;
+            this.writerThread = null;
+            return;
+        }
+        this.ring = new AuditRing(bufferSize);
+        this.segmentWriter = new AuditSegmentWriter(Paths.get(path), segmentSize.toBytes());
+        Gauge.builder(BACKLOG_GAUGE, ring, AuditRing::size)
+                .description("Записи аудита, ожидающие записи в журнал")
+                .register(registry);
+        this.running = true;
+        this.writerThread = new Thread(this::writeLoop, "audit-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+        log.info("Журнал аудита: {}", path);
+    }
+
+    /**
+     * @return Выключенный журнал: запись ничего не делает
+     */
+    public static AuditLog disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * @return true, если журнал ведется
+     */
+    public boolean isEnabled() {
+        return ring != null;
+    }
+
+    /**
+     * Публикует запись о расчете по количеству дней.
+     */
+    public void recordDays(long calendarVersion, long averageSalary, int numberOfDays, long result) {
+        if (ring != null) {
+            publish(calendarVersion, averageSalary, result, 0L,
+                    meta(AuditRecord.MODE_DAYS, Region.FEDERAL, numberOfDays));
+        }
+    }
+
+    /**
+     * Публикует запись о расчете по датам.
+     */
+    public void recordDates(long calendarVersion, long averageSalary, long startEpochDay, long endEpochDay,
+                            Region region, long result) {
+        if (ring != null) {
+            publish(calendarVersion, averageSalary, result, (startEpochDay << 32) | (endEpochDay & 0xFFFFFFFFL),
+                    meta(AuditRecord.MODE_DATES, region, 0));
+        }
+    }
+
+    /**
+     * Останавливает поток записи, дописывает оставшиеся в кольце записи и сбрасывает сегмент на диск.
+     */
+    @Override
+    public void close() {
+        if (writerThread == null || !running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void publish(long calendarVersion, long averageSalary, long result, long period, long meta) {
+        long timestamp = System.currentTimeMillis();
+        if (ring.offer(timestamp, calendarVersion, averageSalary, result, period, meta)) {
+            return;
+        }
+        if (!blockWhenFull || !running) {
+            dropped.increment();
+            return;
+        }
+        backpressured.increment();
+        do {
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        } while (!ring.offer(timestamp, calendarVersion, averageSalary, result, period, meta) && running);
+    }
+
+    private static long meta(byte mode, Region region, int numberOfDays) {
+        return (numberOfDays & 0xFFFFFFFFL) | ((long) mode << 32) | ((long) region.ordinal() << 40);
+    }
+
+    private void writeLoop() {
+        long nextFlush = System.nanoTime() + flushIntervalNanos;
+        boolean dirty = false;
+        while (running) {
+            int drained = drainOnce();
+            dirty |= drained > 0;
+            long now = System.nanoTime();
+            if (dirty && now - nextFlush >= 0) {
+                segmentWriter.force();
+                dirty = false;
+                nextFlush = now + flushIntervalNanos;
+            }
+            if (drained == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        while (drainOnce() > 0) {
+            // Дописываем записи, опубликованные до остановки
+        }
+        segmentWriter.close();
+    }
+
+    private int drainOnce() {
+        try {
+            int drained = ring.drain(segmentWriter, DRAIN_LIMIT);
+            if (drained > 0) {
+                written.increment(drained);
+            }
+            return drained;
+        } catch (RuntimeException e) {
+            // Например, не удалось создать следующий сегмент: записи остаются в кольце до следующей попытки
+            log.error("Ошибка записи журнала аудита", e);
+            LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+            return 0;
+        }
+    }
+}
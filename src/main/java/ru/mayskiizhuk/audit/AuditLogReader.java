@@ -0,0 +1,158 @@
+package ru.mayskiizhuk.audit;
+
+import ru.mayskiizhuk.repository.NonWorkingHolidayRepository;
+import ru.mayskiizhuk.service.VacationService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Чтение журнала аудита ({@link AuditLog}): выгрузка записей в CSV и повторный расчет для сверки.
+ *
+ * <p>Запуск: {@code java -cp target/classes ru.mayskiizhuk.audit.AuditLogReader <каталог|сегмент> [--verify]}.
+ * Без {@code --verify} записи выводятся в stdout в CSV
+ * {@code timestamp,calendarVersion,averageSalary,numberOfDays,startDate,endDate,region,result}.
+ * С {@code --verify} каждая запись, рассчитанная по той же версии календаря, что загружена сейчас,
+ * рассчитывается заново и сравнивается с сохраненным результатом; код выхода 1, если есть расхождения.
+ */
+public final class AuditLogReader {
+
+    private AuditLogReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2 || (args.length == 2 && !"--verify".equals(args[1]))) {
+            System.err.println("Использование: AuditLogReader <каталог|сегмент> [--verify]");
+            System.exit(2);
+        }
+        Path path = Paths.get(args[0]);
+        if (args.length == 2) {
+            long[] counts = verify(path, new VacationService());
+            System.out.printf("Проверено: %d, расхождений: %d, пропущено (другая версия календаря): %d%n",
+                    counts[0], counts[1], counts[2]);
+            if (counts[1] > 0) {
+                System.exit(1);
+            }
+            return;
+        }
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        exportCsv(path, out);
+        out.flush();
+    }
+
+    /**
+     * Передает записи журнала по порядку: сегменты каталога по номеру, записи сегмента до первой пустой.
+     *
+     * @param path     Каталог журнала или отдельный сегмент
+     * @param consumer Получатель записей
+     * @throws IOException если сегмент не читается или имеет неверный формат
+     */
+    public static void read(Path path, Consumer<AuditRecord> consumer) throws IOException {
+        for (Path segment : segments(path)) {
+            try (FileChannel channel = FileChannel.open(segment)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.limit() < AuditSegmentWriter.HEADER_SIZE
+                        || buffer.getLong(0) != AuditSegmentWriter.MAGIC || buffer.getInt(8) != AuditRecord.SIZE) {
+                    throw new IOException("Файл " + segment + " не является сегментом журнала аудита");
+                }
+                for (int offset = AuditSegmentWriter.HEADER_SIZE; offset + AuditRecord.SIZE <= buffer.limit();
+                     offset += AuditRecord.SIZE) {
+                    AuditRecord record = AuditRecord.read(buffer, offset);
+                    if (record == null) {
+                        break;
+                    }
+                    consumer.accept(record);
+                }
+            }
+        }
+    }
+
+    /**
+     * Выгружает записи в CSV с заголовком; даты - в ISO-формате.
+     */
+    public static void exportCsv(Path path, Writer out) throws IOException {
+        out.write("timestamp,calendarVersion,averageSalary,numberOfDays,startDate,endDate,region,result\n");
+        StringBuilder line = new StringBuilder(128);
+        IOException[] failure = new IOException[1];
+        read(path, record -> {
+            line.setLength(0);
+            line.append(Instant.ofEpochMilli(record.getTimestampMillis())).append(',')
+                    .append(record.getCalendarVersion()).append(',')
+                    .append(record.getAverageSalary()).append(',');
+            if (record.getMode() == AuditRecord.MODE_DAYS) {
+                line.append(record.getNumberOfDays()).append(",,,");
+            } else {
+                line.append(',').append(LocalDate.ofEpochDay(record.getStartEpochDay())).append(',')
+                        .append(LocalDate.ofEpochDay(record.getEndEpochDay())).append(',')
+                        .append(record.getRegion().getCode());
+            }
+            line.append(',').append(record.getResult()).append('\n');
+            if (failure[0] == null) {
+                try {
+                    out.append(line);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    /**
+     * Повторяет расчеты журнала и сравнивает результаты.
+     *
+     * @return {проверено, расхождений, пропущено из-за другой версии календаря}
+     */
+    public static long[] verify(Path path, VacationService vacationService) throws IOException {
+        long currentVersion = NonWorkingHolidayRepository.currentCalendar().getVersion();
+        long[] counts = new long[3];
+        read(path, record -> {
+            long expected;
+            if (record.getMode() == AuditRecord.MODE_DAYS) {
+                expected = vacationService.calculatePay(record.getAverageSalary(), record.getNumberOfDays());
+            } else if (record.getCalendarVersion() == currentVersion) {
+                expected = vacationService.calculatePayEpochDays(record.getAverageSalary(), record.getStartEpochDay(),
+                        record.getEndEpochDay(), record.getRegion());
+            } else {
+                counts[2]++;
+                return;
+            }
+            counts[0]++;
+            if (expected != record.getResult()) {
+                counts[1]++;
+            }
+        });
+        return counts;
+    }
+
+    private static List<Path> segments(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return Collections.singletonList(path);
+        }
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(path,
+                AuditSegmentWriter.PREFIX + "*" + AuditSegmentWriter.SUFFIX)) {
+            files.forEach(segments::add);
+        }
+        // Номер в имени дополнен нулями, поэтому порядок имен совпадает с порядком сегментов
+        Collections.sort(segments);
+        return segments;
+    }
+}
@@ -0,0 +1,108 @@
+package ru.mayskiizhuk.audit;
+
+import ru.mayskiizhuk.repository.Region;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Запись журнала аудита: параметры и результат одного расчета отпускных.
+ *
+ * <p>В сегменте запись занимает {@value #SIZE} байт (порядок байтов big-endian):
+ * <pre>
+ *  0  long  время расчета, мс от 01.01.1970 UTC
+ *  8  long  версия производственного календаря
+ * 16  long  средняя зарплата в копейках
+ * 24  long  сумма отпускных в копейках
+ * 32  int   количество дней (режим по дням) или 0
+ * 36  int   день начала отпуска от 01.01.1970 (режим по датам) или 0
+ * 40  int   день окончания отпуска (включительно) или 0
+ * 44  byte  режим: {@value #MODE_DAYS} - по дням, {@value #MODE_DATES} - по датам; 0 - запись отсутствует
+ * 45  byte  регион ({@link Region#ordinal()})
+ * 46  short резерв (0)
+ * </pre>
+ */
+public final class AuditRecord {
+    public static final int SIZE = 48;
+    public static final byte MODE_DAYS = 1;
+    public static final byte MODE_DATES = 2;
+
+    static final int MODE_OFFSET = 44;
+
+    private final long timestampMillis;
+    private final long calendarVersion;
+    private final long averageSalary;
+    private final long result;
+    private final int numberOfDays;
+    private final int startEpochDay;
+    private final int endEpochDay;
+    private final byte mode;
+    private final Region region;
+
+    AuditRecord(long timestampMillis, long calendarVersion, long averageSalary, long result, int numberOfDays,
+                int startEpochDay, int endEpochDay, byte mode, Region region) {
+        this.timestampMillis = timestampMillis;
+        this.calendarVersion = calendarVersion;
+        this.averageSalary = averageSalary;
+        this.result = result;
+        this.numberOfDays = numberOfDays;
+        this.startEpochDay = startEpochDay;
+        this.endEpochDay = endEpochDay;
+        this.mode = mode;
+        this.region = region;
+    }
+
+    /**
+     * Читает запись с абсолютной позиции буфера.
+     *
+     * @return Запись или null, если на этой позиции записи нет
+     */
+    static AuditRecord read(ByteBuffer buffer, int offset) {
+        byte mode = buffer.get(offset + MODE_OFFSET);
+        if (mode == 0) {
+            return null;
+        }
+        int region = buffer.get(offset + MODE_OFFSET + 1) & 0xFF;
+        return new AuditRecord(buffer.getLong(offset), buffer.getLong(offset + 8), buffer.getLong(offset + 16),
+                buffer.getLong(offset + 24), buffer.getInt(offset + 32), buffer.getInt(offset + 36),
+                buffer.getInt(offset + 40), mode, Region.of(region));
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public long getCalendarVersion() {
+        return calendarVersion;
+    }
+
+    public long getAverageSalary() {
+        return averageSalary;
+    }
+
+    public long getResult() {
+        return result;
+    }
+
+    public int getNumberOfDays() {
+        return numberOfDays;
+    }
+
+    public int getStartEpochDay() {
+        return startEpochDay;
+    }
+
+    public int getEndEpochDay() {
+        return endEpochDay;
+    }
+
+    /**
+     * @return {@link #MODE_DAYS} или {@link #MODE_DATES}
+     */
+    public byte getMode() {
+        return mode;
+    }
+
+    public Region getRegion() {
+        return region;
+    }
+}
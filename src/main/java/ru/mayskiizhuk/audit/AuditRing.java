@@ -0,0 +1,116 @@
+package ru.mayskiizhuk.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ограниченное кольцо записей аудита без блокировок: много производителей, один потребитель.
+ *
+ * <p>У каждой ячейки есть номер последовательности (схема Вьюкова). Производитель занимает ячейку CAS-ом
+ * хвоста, записывает поля и публикует ячейку номером seq + 1; потребитель читает опубликованные ячейки
+ * по порядку и освобождает их номером seq + capacity. Поля записи хранятся в общем массиве long
+ * по {@value #FIELDS} на ячейку, поэтому публикация не создает объектов.
+ */
+final class AuditRing {
+    static final int FIELDS = 6;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final long[] fields;
+    // Следующий номер для производителя
+    private final AtomicLong tail = new AtomicLong();
+    // Следующий номер для потребителя; пишет только поток-потребитель
+    private volatile long head;
+
+    /**
+     * @param capacity Количество ячеек, степень двойки
+     */
+    AuditRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Размер кольца аудита должен быть степенью двойки: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.fields = new long[capacity * FIELDS];
+    }
+
+    /**
+     * Публикует запись, если в кольце есть место.
+     *
+     * @return false, если кольцо заполнено
+     */
+    boolean offer(long f0, long f1, long f2, long f3, long f4, long f5) {
+        long sequence;
+        int slot;
+        while (true) {
+            sequence = tail.get();
+            slot = (int) sequence & mask;
+            long slotSequence = sequences.get(slot);
+            if (slotSequence < sequence) {
+                // Ячейка круга назад еще не прочитана потребителем
+                return false;
+            }
+            if (slotSequence == sequence && tail.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+        int base = slot * FIELDS;
+        fields[base] = f0;
+        fields[base + 1] = f1;
+        fields[base + 2] = f2;
+        fields[base + 3] = f3;
+        fields[base + 4] = f4;
+        fields[base + 5] = f5;
+        sequences.lazySet(slot, sequence + 1);
+        return true;
+    }
+
+    /**
+     * Передает опубликованные записи потребителю по порядку. Вызывается только из одного потока.
+     *
+     * @param consumer Получатель полей записей
+     * @param limit    Максимальное количество записей за вызов
+     * @return Количество переданных записей
+     */
+    int drain(Consumer consumer, int limit) {
+        long sequence = head;
+        int drained = 0;
+        try {
+            while (drained < limit) {
+                int slot = (int) sequence & mask;
+                if (sequences.get(slot) != sequence + 1) {
+                    break;
+                }
+                int base = slot * FIELDS;
+                consumer.accept(fields[base], fields[base + 1], fields[base + 2], fields[base + 3], fields[base + 4],
+                        fields[base + 5]);
+                sequences.lazySet(slot, sequence + capacity);
+                sequence++;
+                drained++;
+            }
+        } finally {
+            // При исключении потребителя запись, на которой оно возникло, остается в кольце
+            head = sequence;
+        }
+        return drained;
+    }
+
+    /**
+     * @return Приблизительное количество записей, ожидающих потребителя
+     */
+    long size() {
+        return Math.max(0L, tail.get() - head);
+    }
+
+    /**
+     * Получатель полей записи.
+     */
+    interface Consumer {
+        void accept(long f0, long f1, long f2, long f3, long f4, long f5);
+    }
+}
@@ -0,0 +1,138 @@
+package ru.mayskiizhuk.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Запись журнала аудита в сегменты, отображенные в память. Используется только потоком записи {@link AuditLog}.
+ *
+ * <p>Сегмент - файл {@code audit-NNNNNNNNNN.seg} фиксированного размера: заголовок {@value #HEADER_SIZE} байт
+ * (сигнатура и размер записи), затем записи {@link AuditRecord} подряд. Незаполненный хвост сегмента
+ * состоит из нулей, поэтому после перезапуска запись продолжается с первой пустой позиции последнего сегмента.
+ */
+final class AuditSegmentWriter implements AuditRing.Consumer, Closeable {
+    // "VACAUDIT"
+    static final long MAGIC = 0x5641434155444954L;
+    static final int HEADER_SIZE = 16;
+    static final String PREFIX = "audit-";
+    static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentSize;
+    private int segmentIndex;
+    private MappedByteBuffer buffer;
+
+    /**
+     * @param directory   Каталог журнала (создается при необходимости)
+     * @param segmentSize Размер сегмента в байтах; округляется вниз до целого числа записей
+     * @throws IOException если не удалось открыть последний сегмент
+     */
+    AuditSegmentWriter(Path directory, long segmentSize) throws IOException {
+        long records = (segmentSize - HEADER_SIZE) / AuditRecord.SIZE;
+        if (records < 1 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Размер сегмента аудита должен быть от " + (HEADER_SIZE + AuditRecord.SIZE)
+                    + " байт до 2 ГиБ: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = (int) (HEADER_SIZE + records * AuditRecord.SIZE);
+        Files.createDirectories(directory);
+        int last = lastSegmentIndex(directory);
+        this.segmentIndex = Math.max(last, 0);
+        this.buffer = map(segmentIndex);
+        if (last >= 0) {
+            // Продолжаем с первой пустой записи
+            int position = HEADER_SIZE;
+            while (position < this.segmentSize && buffer.get(position + AuditRecord.MODE_OFFSET) != 0) {
+                position += AuditRecord.SIZE;
+            }
+            buffer.position(position);
+        }
+    }
+
+    @Override
+    public void accept(long timestampMillis, long calendarVersion, long averageSalary, long result, long period,
+                       long meta) {
+        if (!buffer.hasRemaining()) {
+            roll();
+        }
+        int offset = buffer.position();
+        buffer.putLong(offset, timestampMillis)
+                .putLong(offset + 8, calendarVersion)
+                .putLong(offset + 16, averageSalary)
+                .putLong(offset + 24, result)
+                .putInt(offset + 32, (int) meta)
+                .putInt(offset + 36, (int) (period >>> 32))
+                .putInt(offset + 40, (int) period)
+                .put(offset + 45, (byte) (meta >>> 40));
+        // Режим пишется последним: ненулевой режим означает, что запись заполнена
+        buffer.put(offset + AuditRecord.MODE_OFFSET, (byte) (meta >>> 32));
+        buffer.position(offset + AuditRecord.SIZE);
+    }
+
+    /**
+     * Сбрасывает записанные страницы текущего сегмента на диск.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    private void roll() {
+        force();
+        try {
+            buffer = map(segmentIndex + 1);
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось создать сегмент аудита " + (segmentIndex + 1), e);
+        }
+        segmentIndex++;
+    }
+
+    private MappedByteBuffer map(int index) throws IOException {
+        Path path = directory.resolve(segmentName(index));
+        boolean created = !Files.exists(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            if (created) {
+                mapped.putLong(0, MAGIC).putInt(8, AuditRecord.SIZE);
+            } else if (mapped.getLong(0) != MAGIC) {
+                throw new IOException("Файл " + path + " не является сегментом журнала аудита");
+            }
+            mapped.position(HEADER_SIZE);
+            return mapped;
+        }
+    }
+
+    static String segmentName(int index) {
+        return String.format("%s%010d%s", PREFIX, index, SUFFIX);
+    }
+
+    /**
+     * @return Номер последнего сегмента в каталоге или -1, если сегментов нет
+     */
+    static int lastSegmentIndex(Path directory) throws IOException {
+        int last = -1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    last = Math.max(last, Integer.parseInt(
+                            name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Посторонний файл с похожим именем
+                }
+            }
+        }
+        return last;
+    }
+}
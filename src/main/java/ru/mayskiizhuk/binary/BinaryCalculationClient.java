@@ -0,0 +1,187 @@
+package ru.mayskiizhuk.binary;
+
+import ru.mayskiizhuk.error.ErrorCode;
+import ru.mayskiizhuk.repository.Region;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.LocalDate;
+
+/**
+ * Клиент бинарного протокола ({@link BinaryProtocol}) поверх одного блокирующего соединения.
+ * Не потокобезопасен: для параллельной нагрузки откройте по клиенту на поток.
+ *
+ * <p>Пакетные методы отправляют запросы окнами по {@link #WINDOW} кадров, не дожидаясь ответов,
+ * и читают ответы окна одним потоком байтов. Окно меньше буфера ответов сервера, поэтому сервер
+ * всегда дочитывает окно, пока клиент еще пишет.
+ */
+public final class BinaryCalculationClient implements Closeable {
+    public static final int WINDOW = 1024;
+
+    private final SocketChannel channel;
+    private final ByteBuffer requests = ByteBuffer.allocateDirect(WINDOW * BinaryProtocol.REQUEST_SIZE);
+    private final ByteBuffer responses = ByteBuffer.allocateDirect(WINDOW * BinaryProtocol.RESPONSE_SIZE);
+
+    private BinaryCalculationClient(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * @param host Хост сервера
+     * @param port Порт vacation.binary.port
+     * @return Подключенный клиент
+     * @throws IOException если не удалось подключиться
+     */
+    public static BinaryCalculationClient connect(String host, int port) throws IOException {
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        return new BinaryCalculationClient(channel);
+    }
+
+    /**
+     * Расчет по количеству дней.
+     *
+     * @param averageSalary Средняя зарплата в копейках
+     * @param numberOfDays  Количество дней отпуска
+     * @return Сумма отпускных в копейках
+     * @throws CalculationRejectedException если сервер отклонил запрос
+     * @throws IOException                  при ошибке соединения
+     */
+    public long calculatePay(long averageSalary, int numberOfDays) throws IOException {
+        return single(BinaryProtocol.MODE_DAYS, Region.FEDERAL, averageSalary, numberOfDays, 0);
+    }
+
+    /**
+     * Расчет по датам отпуска (включительно) с праздниками региона.
+     *
+     * @param averageSalary Средняя зарплата в копейках
+     * @param startDate     Дата начала отпуска
+     * @param endDate       Дата окончания отпуска
+     * @param region        Регион
+     * @return Сумма отпускных в копейках
+     * @throws CalculationRejectedException если сервер отклонил запрос
+     * @throws IOException                  при ошибке соединения
+     */
+    public long calculatePay(long averageSalary, LocalDate startDate, LocalDate endDate, Region region)
+            throws IOException {
+        return single(BinaryProtocol.MODE_DATES, region, averageSalary, (int) startDate.toEpochDay(),
+                (int) endDate.toEpochDay());
+    }
+
+    /**
+     * Пакетный расчет по количеству дней с конвейерной отправкой.
+     *
+     * @param averageSalaries Средние зарплаты в копейках
+     * @param days            Количество дней отпуска
+     * @param results         Куда записать суммы отпускных или значения для текста ошибки
+     * @param statuses        Куда записать статусы ответов ({@link BinaryProtocol#errorCode(short)})
+     * @param count           Количество запросов
+     * @throws IOException при ошибке соединения
+     */
+    public void calculatePay(long[] averageSalaries, int[] days, long[] results, short[] statuses, int count)
+            throws IOException {
+        for (int from = 0; from < count; from += WINDOW) {
+            int to = Math.min(count, from + WINDOW);
+            requests.clear();
+            for (int i = from; i < to; i++) {
+                BinaryProtocol.writeRequest(requests, i, BinaryProtocol.MODE_DAYS, 0, averageSalaries[i], days[i], 0);
+            }
+            exchange(from, to, results, statuses);
+        }
+    }
+
+    /**
+     * Пакетный расчет по датам отпуска с конвейерной отправкой.
+     *
+     * @param averageSalaries Средние зарплаты в копейках
+     * @param startEpochDays  Дни начала отпуска (от 01.01.1970)
+     * @param endEpochDays    Дни окончания отпуска (от 01.01.1970, включительно)
+     * @param regions         Регионы
+     * @param results         Куда записать суммы отпускных или значения для текста ошибки
+     * @param statuses        Куда записать статусы ответов ({@link BinaryProtocol#errorCode(short)})
+     * @param count           Количество запросов
+     * @throws IOException при ошибке соединения
+     */
+    public void calculatePay(long[] averageSalaries, long[] startEpochDays, long[] endEpochDays, Region[] regions,
+                             long[] results, short[] statuses, int count) throws IOException {
+        for (int from = 0; from < count; from += WINDOW) {
+            int to = Math.min(count, from + WINDOW);
+            requests.clear();
+            for (int i = from; i < to; i++) {
+                BinaryProtocol.writeRequest(requests, i, BinaryProtocol.MODE_DATES, regions[i].ordinal(),
+                        averageSalaries[i], (int) startEpochDays[i], (int) endEpochDays[i]);
+            }
+            exchange(from, to, results, statuses);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long single(byte mode, Region region, long averageSalary, int first, int second) throws IOException {
+        requests.clear();
+        BinaryProtocol.writeRequest(requests, 0, mode, region.ordinal(), averageSalary, first, second);
+        send();
+        receive(1);
+        responses.getInt();
+        short status = responses.getShort();
+        responses.getShort();
+        long value = responses.getLong();
+        if (status != BinaryProtocol.STATUS_OK) {
+            throw rejected(status, value);
+        }
+        return value;
+    }
+
+    /**
+     * Отправляет подготовленное окно запросов [from, to) и читает ответы на него.
+     */
+    private void exchange(int from, int to, long[] results, short[] statuses) throws IOException {
+        send();
+        receive(to - from);
+        for (int i = from; i < to; i++) {
+            int requestId = responses.getInt();
+            if (requestId != i) {
+                throw new IOException("Ответ на запрос " + requestId + " получен вместо ответа на запрос " + i);
+            }
+            statuses[i] = responses.getShort();
+            responses.getShort();
+            results[i] = responses.getLong();
+        }
+    }
+
+    private void send() throws IOException {
+        requests.flip();
+        while (requests.hasRemaining()) {
+            channel.write(requests);
+        }
+    }
+
+    /**
+     * Читает ровно count кадров ответа и переводит буфер ответов в режим чтения.
+     */
+    private void receive(int count) throws IOException {
+        responses.clear().limit(count * BinaryProtocol.RESPONSE_SIZE);
+        while (responses.hasRemaining()) {
+            if (channel.read(responses) < 0) {
+                throw new EOFException("Сервер закрыл соединение");
+            }
+        }
+        responses.flip();
+    }
+
+    private static RuntimeException rejected(short status, long value) {
+        ErrorCode errorCode = BinaryProtocol.errorCode(status);
+        if (errorCode == null) {
+            return new IllegalStateException("Неизвестный статус ответа: " + status);
+        }
+        return new CalculationRejectedException(errorCode, value);
+    }
+}
@@ -0,0 +1,319 @@
+package ru.mayskiizhuk.binary;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.mayskiizhuk.controller.CalculationOutcome;
+import ru.mayskiizhuk.controller.VacationRequestHandler;
+import ru.mayskiizhuk.error.ErrorCode;
+import ru.mayskiizhuk.repository.Region;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Сервер бинарного протокола ({@link BinaryProtocol}) на неблокирующем NIO.
+ *
+ * <p>Поток приема соединений раздает их по кругу циклам событий; каждый цикл обслуживает свои соединения
+ * одним потоком и рассчитывает запросы прямо в нем через {@link VacationRequestHandler} (та же валидация,
+ * кэш и метрики, что у HTTP-эндпоинта). Из прочитанных данных разбираются все полные кадры, ответы
+ * копятся в буфере соединения и отправляются одной записью. Если клиент не читает ответы, сервер
+ * перестает читать его запросы, пока буфер ответов не освободится.
+ */
+public final class BinaryCalculationServer implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(BinaryCalculationServer.class);
+
+    // Размеры буферов соединения: 2730 запросов и 4096 ответов
+    private static final int INPUT_BUFFER_SIZE = 64 * 1024;
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final int REGION_COUNT = Region.values().length;
+
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] eventLoops;
+    private final Thread acceptor;
+    private volatile boolean running = true;
+
+    private BinaryCalculationServer(ServerSocketChannel serverChannel, EventLoop[] eventLoops) {
+        this.serverChannel = serverChannel;
+        this.eventLoops = eventLoops;
+        this.acceptor = new Thread(this::acceptLoop, "binary-acceptor");
+    }
+
+    /**
+     * Открывает порт и запускает потоки сервера.
+     *
+     * @param handler Обработчик запросов на расчет
+     * @param address Адрес для прослушивания (порт 0 - любой свободный)
+     * @param threads Количество циклов событий; 0 - по числу процессоров
+     * @return Запущенный сервер
+     * @throws IOException если не удалось открыть порт
+     */
+    public static BinaryCalculationServer start(VacationRequestHandler handler, InetSocketAddress address,
+                                                int threads) throws IOException {
+        int loopCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        EventLoop[] eventLoops = new EventLoop[loopCount];
+        try {
+            serverChannel.bind(address);
+            for (int i = 0; i < loopCount; i++) {
+                eventLoops[i] = new EventLoop(handler, Selector.open(), "binary-loop-" + i);
+            }
+        } catch (IOException e) {
+            for (EventLoop eventLoop : eventLoops) {
+                if (eventLoop != null) {
+                    eventLoop.selector.close();
+                }
+            }
+            serverChannel.close();
+            throw e;
+        }
+        BinaryCalculationServer server = new BinaryCalculationServer(serverChannel, eventLoops);
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.thread.start();
+        }
+        server.acceptor.start();
+        return server;
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Закрывает порт и все соединения.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            log.warn("Не удалось закрыть порт бинарного протокола", e);
+        }
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.shutdown();
+        }
+        join(acceptor);
+        for (EventLoop eventLoop : eventLoops) {
+            join(eventLoop.thread);
+        }
+    }
+
+    private void acceptLoop() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                eventLoops[next].register(channel);
+                next = (next + 1) % eventLoops.length;
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Ошибка приема соединения бинарного протокола", e);
+                }
+            }
+        }
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Поток с селектором, обслуживающий часть соединений.
+     */
+    private static final class EventLoop implements Runnable {
+        private final VacationRequestHandler handler;
+        private final Selector selector;
+        private final Thread thread;
+        private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+        // Результат расчета переиспользуется для всех запросов цикла
+        private final CalculationOutcome outcome = new CalculationOutcome();
+        private volatile boolean running = true;
+
+        EventLoop(VacationRequestHandler handler, Selector selector, String name) {
+            this.handler = handler;
+            this.selector = selector;
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(true);
+        }
+
+        void register(SocketChannel channel) {
+            pending.add(channel);
+            selector.wakeup();
+        }
+
+        void shutdown() {
+            running = false;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    registerPending();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isReadable()) {
+                                connection.onReadable();
+                            } else if (key.isWritable()) {
+                                connection.process();
+                            }
+                        } catch (IOException e) {
+                            connection.close();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                log.error("Цикл событий бинарного протокола остановлен", e);
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    ((Connection) key.attachment()).close();
+                }
+                SocketChannel channel;
+                while ((channel = pending.poll()) != null) {
+                    closeQuietly(channel);
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    log.warn("Не удалось закрыть селектор", e);
+                }
+            }
+        }
+
+        private void registerPending() {
+            SocketChannel channel;
+            while ((channel = pending.poll()) != null) {
+                try {
+                    Connection connection = new Connection(channel, this);
+                    connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                } catch (IOException e) {
+                    closeQuietly(channel);
+                }
+            }
+        }
+
+        /**
+         * Рассчитывает один кадр запроса и записывает кадр ответа.
+         */
+        void handleFrame(ByteBuffer in, ByteBuffer out) {
+            int requestId = in.getInt();
+            byte mode = in.get();
+            int region = in.get() & 0xFF;
+            in.getShort();
+            long averageSalary = in.getLong();
+            int first = in.getInt();
+            int second = in.getInt();
+
+            if (mode == BinaryProtocol.MODE_DAYS) {
+                handler.handleDays(averageSalary, first, outcome);
+            } else if (mode == BinaryProtocol.MODE_DATES) {
+                handler.handleDates(averageSalary, first, second,
+                        region < REGION_COUNT ? Region.of(region) : null, outcome);
+            } else {
+                handler.rejectRequest(ErrorCode.MODE_MISSING, outcome);
+            }
+
+            if (outcome.isSuccess()) {
+                BinaryProtocol.writeResponse(out, requestId, BinaryProtocol.STATUS_OK, outcome.getResult());
+            } else {
+                BinaryProtocol.writeResponse(out, requestId, BinaryProtocol.status(outcome.getErrorCode()),
+                        outcome.getErrorValue());
+            }
+        }
+    }
+
+    /**
+     * Соединение с буферами запросов и ответов. Используется только потоком своего цикла событий.
+     */
+    private static final class Connection {
+        private final SocketChannel channel;
+        private final EventLoop eventLoop;
+        // Буфер запросов в режиме записи, буфер ответов в режиме записи
+        private final ByteBuffer in = ByteBuffer.allocateDirect(INPUT_BUFFER_SIZE);
+        private final ByteBuffer out = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+        private SelectionKey key;
+
+        Connection(SocketChannel channel, EventLoop eventLoop) {
+            this.channel = channel;
+            this.eventLoop = eventLoop;
+        }
+
+        void onReadable() throws IOException {
+            if (channel.read(in) < 0) {
+                close();
+                return;
+            }
+            process();
+        }
+
+        /**
+         * Рассчитывает накопленные кадры, пока есть место под ответы, и отправляет ответы.
+         * Подписывается на чтение, если есть место под запросы, и на запись, если ответы отправлены не полностью.
+         */
+        void process() throws IOException {
+            boolean repeat;
+            do {
+                in.flip();
+                while (in.remaining() >= BinaryProtocol.REQUEST_SIZE && out.remaining() >= BinaryProtocol.RESPONSE_SIZE) {
+                    eventLoop.handleFrame(in, out);
+                }
+                in.compact();
+                out.flip();
+                channel.write(out);
+                out.compact();
+                // Ответы ушли целиком, а в буфере остались кадры, не поместившиеся в буфер ответов. Проверка
+                // не зависит от числа рассчитанных кадров: по OP_WRITE буфер ответов полон и кадров не рассчитано
+                repeat = out.position() == 0 && in.position() >= BinaryProtocol.REQUEST_SIZE;
+            } while (repeat);
+
+            int interestOps = 0;
+            if (in.hasRemaining()) {
+                interestOps |= SelectionKey.OP_READ;
+            }
+            if (out.position() > 0) {
+                interestOps |= SelectionKey.OP_WRITE;
+            }
+            key.interestOps(interestOps);
+        }
+
+        void close() {
+            if (key != null) {
+                key.cancel();
+            }
+            closeQuietly(channel);
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Не удалось закрыть соединение", e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ru.mayskiizhuk.binary;
+
+import ru.mayskiizhuk.error.ErrorCode;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Бинарный протокол расчета отпускных: кадры фиксированного размера, порядок байтов big-endian.
+ *
+ * <p>Запрос ({@value #REQUEST_SIZE} байта):
+ * <pre>
+ *  0  int   идентификатор запроса (возвращается в ответе как есть)
+ *  4  byte  режим: {@value #MODE_DAYS} - по количеству дней, {@value #MODE_DATES} - по датам
+ *  5  byte  регион ({@link ru.mayskiizhuk.repository.Region#ordinal()}), учитывается только в режиме по датам
+ *  6  short резерв (0)
+ *  8  long  средняя зарплата в копейках
+ * 16  int   количество дней или день начала отпуска (от 01.01.1970)
+ * 20  int   0 или день окончания отпуска (от 01.01.1970, включительно)
+ * </pre>
+ *
+ * <p>Ответ ({@value #RESPONSE_SIZE} байт):
+ * <pre>
+ *  0  int   идентификатор запроса
+ *  4  short статус: {@value #STATUS_OK} - успех, иначе {@link ErrorCode#ordinal()} + 1
+ *  6  short резерв (0)
+ *  8  long  сумма отпускных в копейках или введенное значение для текста ошибки
+ * </pre>
+ *
+ * <p>Клиент может отправлять запросы, не дожидаясь ответов (конвейер): ответы одного соединения
+ * приходят в порядке запросов.
+ */
+public final class BinaryProtocol {
+    public static final int REQUEST_SIZE = 24;
+    public static final int RESPONSE_SIZE = 16;
+
+    public static final byte MODE_DAYS = 1;
+    public static final byte MODE_DATES = 2;
+
+    public static final short STATUS_OK = 0;
+
+    private static final ErrorCode[] ERROR_CODES = ErrorCode.values();
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * Записывает кадр запроса в буфер с его текущей позиции.
+     *
+     * @param buffer        Буфер, в котором осталось не меньше {@link #REQUEST_SIZE} байт
+     * @param requestId     Идентификатор запроса
+     * @param mode          {@link #MODE_DAYS} или {@link #MODE_DATES}
+     * @param region        Индекс региона
+     * @param averageSalary Средняя зарплата в копейках
+     * @param first         Количество дней или день начала отпуска
+     * @param second        0 или день окончания отпуска
+     */
+    public static void writeRequest(ByteBuffer buffer, int requestId, byte mode, int region, long averageSalary,
+                                    int first, int second) {
+        buffer.putInt(requestId)
+                .put(mode)
+                .put((byte) region)
+                .putShort((short) 0)
+                .putLong(averageSalary)
+                .putInt(first)
+                .putInt(second);
+    }
+
+    /**
+     * Записывает кадр ответа в буфер с его текущей позиции.
+     *
+     * @param buffer    Буфер, в котором осталось не меньше {@link #RESPONSE_SIZE} байт
+     * @param requestId Идентификатор запроса
+     * @param status    Статус ответа
+     * @param value     Сумма отпускных или значение для текста ошибки
+     */
+    public static void writeResponse(ByteBuffer buffer, int requestId, short status, long value) {
+        buffer.putInt(requestId)
+                .putShort(status)
+                .putShort((short) 0)
+                .putLong(value);
+    }
+
+    /**
+     * @param errorCode Код ошибки
+     * @return Статус ответа для кода ошибки
+     */
+    public static short status(ErrorCode errorCode) {
+        return (short) (errorCode.ordinal() + 1);
+    }
+
+    /**
+     * @param status Статус ответа
+     * @return Код ошибки или null для {@link #STATUS_OK} и неизвестного статуса
+     */
+    public static ErrorCode errorCode(short status) {
+        return status > 0 && status <= ERROR_CODES.length ? ERROR_CODES[status - 1] : null;
+    }
+}
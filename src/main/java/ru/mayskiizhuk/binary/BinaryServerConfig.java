@@ -0,0 +1,33 @@
+package ru.mayskiizhuk.binary;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.mayskiizhuk.controller.VacationRequestHandler;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * Второй слушатель с бинарным протоколом ({@link BinaryProtocol}) для внутренних клиентов с большим потоком
+ * запросов. Включается параметром vacation.binary.port (0 - любой свободный порт), количество циклов событий
+ * задает vacation.binary.threads (0 - по числу процессоров).
+ */
+@Configuration
+@ConditionalOnProperty(name = "vacation.binary.port")
+public class BinaryServerConfig {
+    private static final Logger log = LoggerFactory.getLogger(BinaryServerConfig.class);
+
+    @Bean(destroyMethod = "close")
+    public BinaryCalculationServer binaryCalculationServer(VacationRequestHandler handler,
+                                                           @Value("${vacation.binary.port}") int port,
+                                                           @Value("${vacation.binary.threads:0}") int threads)
+            throws IOException {
+        BinaryCalculationServer server = BinaryCalculationServer.start(handler, new InetSocketAddress(port), threads);
+        log.info("Бинарный протокол на порту {}", server.getPort());
+        return server;
+    }
+}
@@ -0,0 +1,28 @@
+package ru.mayskiizhuk.binary;
+
+import ru.mayskiizhuk.error.ErrorCode;
+
+/**
+ * Сервер бинарного протокола отклонил запрос на расчет.
+ */
+public class CalculationRejectedException extends RuntimeException {
+    private final ErrorCode errorCode;
+    private final long value;
+
+    public CalculationRejectedException(ErrorCode errorCode, long value) {
+        super(errorCode.message(value));
+        this.errorCode = errorCode;
+        this.value = value;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * @return Введенное значение, вошедшее в текст ошибки (0, если код ошибки его не содержит)
+     */
+    public long getValue() {
+        return value;
+    }
+}
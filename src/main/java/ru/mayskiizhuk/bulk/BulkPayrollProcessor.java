@@ -0,0 +1,362 @@
+package ru.mayskiizhuk.bulk;
+
+import ru.mayskiizhuk.controller.CalculationBlock;
+import ru.mayskiizhuk.controller.CalculationOutcome;
+import ru.mayskiizhuk.controller.VacationRequestHandler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Пакетный расчет отпускных по CSV-файлу.
+ *
+ * <p>Входной файл (UTF-8): {@code id,averageSalary,numberOfDays,startDate,endDate[,region]} - те же параметры,
+ * что у эндпоинта {@code /calculacte}; пустое или отсутствующее поле означает, что параметр не задан. Значения можно заключать
+ * в двойные кавычки. Выходной файл: {@code id,result,code,error} - id копируется из входной строки как есть,
+ * заполняется либо сумма отпускных, либо код ошибки из {@link ru.mayskiizhuk.error.ErrorCode} и ее текст. Порядок строк сохраняется, пустые строки пропускаются.
+ *
+ * <p>Файл отображается в память кусками по {@code chunkSize} байт, каждый кусок обрезается по последнему
+ * переводу строки и обрабатывается в ForkJoinPool: строки куска проверяются по одной и рассчитываются блоками. Готовые куски пишутся в выходной файл по порядку,
+ * в обработке одновременно не больше {@code 2 * parallelism} кусков, поэтому расход памяти не зависит от размера файла.
+ */
+public final class BulkPayrollProcessor {
+    static final int FIELDS = 6;
+    // Количество строк, рассчитываемых за один раз пакетными методами VacationService
+    private static final int BLOCK_SIZE = 1024;
+    private static final byte[] OUTPUT_HEADER = "id,result,code,error\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final VacationRequestHandler handler;
+    private final int parallelism;
+    private final int chunkSize;
+
+    /**
+     * @param handler     Обработчик запросов (рекомендуется экземпляр без кэша результатов)
+     * @param parallelism Количество рабочих потоков
+     * @param chunkSize   Размер куска файла в байтах; должен вмещать самую длинную строку
+     */
+    public BulkPayrollProcessor(VacationRequestHandler handler, int parallelism, int chunkSize) {
+        if (parallelism < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("parallelism и chunkSize должны быть положительными");
+        }
+        this.handler = handler;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Итог обработки файла.
+     */
+    public static final class Result {
+        private final long rows;
+        private final long rejectedRows;
+        private final long elapsedNanos;
+
+        Result(long rows, long rejectedRows, long elapsedNanos) {
+            this.rows = rows;
+            this.rejectedRows = rejectedRows;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getRejectedRows() {
+            return rejectedRows;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return Скорость обработки, строк в секунду
+         */
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : rows * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+
+    /**
+     * Обрабатывает входной файл и записывает результаты в выходной (перезаписывая его).
+     *
+     * @param input  Входной CSV
+     * @param output Выходной CSV
+     * @param header true, если первая строка входного файла - заголовок (тогда в выходной пишется свой заголовок)
+     * @return Количество строк, отклоненных строк и время обработки
+     * @throws IOException при ошибке чтения или записи, а также если строка не помещается в кусок
+     */
+    public Result process(Path input, Path output, boolean header) throws IOException {
+        long startNanos = System.nanoTime();
+        long rows = 0;
+        long rejectedRows = 0;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        ArrayDeque<ForkJoinTask<ChunkResult>> inFlight = new ArrayDeque<>();
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0;
+            if (header) {
+                position = skipLine(in, size);
+                writeFully(out, ByteBuffer.wrap(OUTPUT_HEADER));
+            }
+            while (position < size) {
+                long length = Math.min(chunkSize, size - position);
+                MappedByteBuffer chunk = in.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int end = (int) length;
+                if (position + length < size) {
+                    end = lastLineEnd(chunk, end);
+                    if (end == 0) {
+                        throw new IOException("Строка, начинающаяся с байта " + position
+                                + ", длиннее размера куска " + chunkSize + " байт");
+                    }
+                }
+                if (inFlight.size() >= 2 * parallelism) {
+                    ChunkResult done = inFlight.removeFirst().join();
+                    writeFully(out, done.output());
+                    rows += done.rows;
+                    rejectedRows += done.rejectedRows;
+                }
+                inFlight.addLast(pool.submit(new ChunkTask(handler, chunk, end)));
+                position += end;
+            }
+            while (!inFlight.isEmpty()) {
+                ChunkResult done = inFlight.removeFirst().join();
+                writeFully(out, done.output());
+                rows += done.rows;
+                rejectedRows += done.rejectedRows;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Result(rows, rejectedRows, System.nanoTime() - startNanos);
+    }
+
+    private long skipLine(FileChannel in, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = 0;
+        while (position < size) {
+            buffer.clear();
+            int read = in.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static int lastLineEnd(ByteBuffer chunk, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (chunk.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Обработка одного куска файла: разбор строк, расчет и формирование выходных строк.
+     */
+    private static final class ChunkTask implements Callable<ChunkResult> {
+        private final VacationRequestHandler handler;
+        private final ByteBuffer chunk;
+        private final int length;
+
+        ChunkTask(VacationRequestHandler handler, ByteBuffer chunk, int length) {
+            this.handler = handler;
+            this.chunk = chunk;
+            this.length = length;
+        }
+
+        @Override
+        public ChunkResult call() {
+            CsvField[] fields = new CsvField[FIELDS];
+            for (int i = 0; i < FIELDS; i++) {
+                fields[i] = new CsvField();
+            }
+            CalculationBlock block = new CalculationBlock(BLOCK_SIZE);
+            int[] idOffsets = new int[BLOCK_SIZE];
+            int[] idLengths = new int[BLOCK_SIZE];
+            ChunkResult result = new ChunkResult(length);
+
+            int lineStart = 0;
+            while (lineStart < length) {
+                int lineEnd = lineStart;
+                while (lineEnd < length && chunk.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int next = lineEnd + 1;
+                if (lineEnd > lineStart && chunk.get(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+                if (lineEnd > lineStart) {
+                    splitLine(lineStart, lineEnd, fields);
+                    int row = block.size();
+                    idOffsets[row] = fields[0].offset();
+                    idLengths[row] = fields[0].length();
+                    handler.add(fields[1], fields[2], fields[3], fields[4], fields[5], block);
+                    if (block.isFull()) {
+                        appendBlock(block, idOffsets, idLengths, result);
+                    }
+                }
+                lineStart = next;
+            }
+            appendBlock(block, idOffsets, idLengths, result);
+            return result;
+        }
+
+        private void appendBlock(CalculationBlock block, int[] idOffsets, int[] idLengths, ChunkResult result) {
+            handler.calculate(block);
+            for (int row = 0; row < block.size(); row++) {
+                result.append(chunk, idOffsets[row], idLengths[row], block.outcome(row));
+            }
+            block.clear();
+        }
+
+        /**
+         * Делит строку на поля по запятым вне кавычек. Недостающие поля пусты, лишние отбрасываются.
+         * У полей параметров снимаются обрамляющие кавычки, id остается как есть.
+         */
+        private void splitLine(int start, int end, CsvField[] fields) {
+            int field = 0;
+            int fieldStart = start;
+            boolean quoted = false;
+            for (int i = start; i < end && field < FIELDS - 1; i++) {
+                byte b = chunk.get(i);
+                if (b == '"') {
+                    quoted = !quoted;
+                } else if (b == ',' && !quoted) {
+                    setField(fields, field++, fieldStart, i);
+                    fieldStart = i + 1;
+                }
+            }
+            int fieldEnd = end;
+            if (field == FIELDS - 1) {
+                // Последнее поле заканчивается на следующей запятой вне кавычек
+                quoted = false;
+                for (int i = fieldStart; i < end; i++) {
+                    byte b = chunk.get(i);
+                    if (b == '"') {
+                        quoted = !quoted;
+                    } else if (b == ',' && !quoted) {
+                        fieldEnd = i;
+                        break;
+                    }
+                }
+            }
+            setField(fields, field++, fieldStart, fieldEnd);
+            for (; field < FIELDS; field++) {
+                fields[field].set(chunk, end, 0);
+            }
+        }
+
+        private void setField(CsvField[] fields, int field, int start, int end) {
+            if (field > 0 && end - start >= 2 && chunk.get(start) == '"' && chunk.get(end - 1) == '"') {
+                start++;
+                end--;
+            }
+            fields[field].set(chunk, start, end - start);
+        }
+    }
+
+    /**
+     * Выходные строки куска и счетчики строк.
+     */
+    private static final class ChunkResult {
+        private byte[] bytes;
+        private int size;
+        private int rows;
+        private int rejectedRows;
+
+        ChunkResult(int inputLength) {
+            bytes = new byte[Math.max(64, inputLength / 2)];
+        }
+
+        void append(ByteBuffer chunk, int idOffset, int idLength, CalculationOutcome outcome) {
+            rows++;
+            ensureCapacity(idLength + 24);
+            for (int i = 0; i < idLength; i++) {
+                bytes[size++] = chunk.get(idOffset + i);
+            }
+            bytes[size++] = ',';
+            if (outcome.isSuccess()) {
+                appendLong(outcome.getResult());
+                bytes[size++] = ',';
+                bytes[size++] = ',';
+            } else {
+                rejectedRows++;
+                bytes[size++] = ',';
+                appendAscii(outcome.getErrorCode().name());
+                bytes[size++] = ',';
+                appendQuoted(outcome.getErrorMessage());
+            }
+            bytes[size++] = '\n';
+        }
+
+        ByteBuffer output() {
+            return ByteBuffer.wrap(bytes, 0, size);
+        }
+
+        private void appendLong(long value) {
+            if (value < 0) {
+                bytes[size++] = '-';
+            }
+            int start = size;
+            do {
+                bytes[size++] = (byte) ('0' + Math.abs(value % 10));
+                value /= 10;
+            } while (value != 0);
+            for (int i = start, j = size - 1; i < j; i++, j--) {
+                byte t = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = t;
+            }
+        }
+
+        private void appendAscii(String text) {
+            ensureCapacity(text.length() + 1);
+            for (int i = 0; i < text.length(); i++) {
+                bytes[size++] = (byte) text.charAt(i);
+            }
+        }
+
+        private void appendQuoted(String text) {
+            byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+            ensureCapacity(2 * utf8.length + 3);
+            bytes[size++] = '"';
+            for (byte b : utf8) {
+                if (b == '"') {
+                    bytes[size++] = '"';
+                }
+                bytes[size++] = b;
+            }
+            bytes[size++] = '"';
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
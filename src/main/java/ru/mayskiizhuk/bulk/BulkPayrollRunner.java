@@ -0,0 +1,60 @@
+package ru.mayskiizhuk.bulk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.mayskiizhuk.audit.AuditLog;
+import ru.mayskiizhuk.cache.CachePolicy;
+import ru.mayskiizhuk.cache.CalculationCache;
+import ru.mayskiizhuk.controller.VacationRequestHandler;
+import ru.mayskiizhuk.metrics.CalculationMetrics;
+import ru.mayskiizhuk.service.VacationService;
+import ru.mayskiizhuk.validate.InputValidator;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Запуск пакетного расчета по CSV-файлу при старте приложения (vacation.bulk.input и vacation.bulk.output).
+ * Для офлайн-запуска без HTTP-сервера добавьте {@code --spring.main.web-application-type=none}.
+ * Рассчитанные строки записываются в журнал аудита приложения, как и HTTP-запросы.
+ */
+@Component
+@ConditionalOnProperty(name = "vacation.bulk.input")
+public class BulkPayrollRunner implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(BulkPayrollRunner.class);
+
+    private final String input;
+    private final String output;
+    private final boolean header;
+    private final BulkPayrollProcessor processor;
+
+    public BulkPayrollRunner(@Value("${vacation.bulk.input}") String input,
+                             @Value("${vacation.bulk.output}") String output,
+                             @Value("${vacation.bulk.header:true}") boolean header,
+                             @Value("${vacation.bulk.parallelism:0}") int parallelism,
+                             @Value("${vacation.bulk.chunk-size:16777216}") int chunkSize,
+                             VacationService vacationService, InputValidator validator, CalculationMetrics metrics,
+                             AuditLog auditLog) {
+        this.input = input;
+        this.output = output;
+        this.header = header;
+        // Отдельный обработчик без кэша: строки файла почти не повторяются, кэш только вытеснял бы записи HTTP-запросов
+        VacationRequestHandler handler = new VacationRequestHandler(vacationService, validator,
+                new CalculationCache(0, CachePolicy.LRU), metrics, auditLog);
+        this.processor = new BulkPayrollProcessor(handler,
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(), chunkSize);
+    }
+
+    @Override
+    public void run(String... args) throws IOException {
+        log.info("Пакетный расчет: {} -> {}", input, output);
+        BulkPayrollProcessor.Result result = processor.process(Paths.get(input), Paths.get(output), header);
+        log.info("Пакетный расчет завершен: {} строк за {} мс ({} строк/с), отклонено {}",
+                result.getRows(), result.getElapsedNanos() / 1_000_000, Math.round(result.getRowsPerSecond()),
+                result.getRejectedRows());
+    }
+}
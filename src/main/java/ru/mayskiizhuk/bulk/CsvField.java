@@ -0,0 +1,52 @@
+package ru.mayskiizhuk.bulk;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Поле строки CSV как последовательность символов поверх байтового буфера, без копирования.
+ * Каждый байт рассматривается как отдельный символ: для числовых полей и дат этого достаточно,
+ * байты за пределами ASCII не являются цифрами и отвергаются разбором как неверный формат.
+ */
+final class CsvField implements CharSequence {
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+
+    void set(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    int offset() {
+        return offset;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
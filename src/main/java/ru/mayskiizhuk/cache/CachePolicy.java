@@ -0,0 +1,16 @@
+package ru.mayskiizhuk.cache;
+
+/**
+ * Политика вытеснения {@link CalculationCache}.
+ */
+public enum CachePolicy {
+    /**
+     * Вытесняется запись, к которой дольше всего не обращались.
+     */
+    LRU,
+    /**
+     * W-TinyLFU: новые записи попадают в небольшое LRU-окно, а в основную часть кэша
+     * переходят, только если по частотному скетчу их запрашивают чаще, чем кандидата на вытеснение.
+     */
+    W_TINY_LFU
+}
@@ -0,0 +1,409 @@
+package ru.mayskiizhuk.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.mayskiizhuk.repository.NonWorkingHolidayRepository;
+import ru.mayskiizhuk.repository.ProductionCalendar;
+import ru.mayskiizhuk.repository.ProductionCalendarChangedEvent;
+import ru.mayskiizhuk.repository.Region;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограниченный по размеру кэш результатов расчета отпускных.
+ * Ключ - пара примитивов (зарплата, упакованные параметры режима), поэтому поиск не создает объектов.
+ * Кэш разбит на сегменты с отдельными блокировками; внутри сегмента записи хранятся в массивах
+ * и вытесняются по политике {@link CachePolicy}.
+ */
+@Component
+public class CalculationCache {
+    // Признак отсутствия записи; валидные суммы отпускных неотрицательны
+    public static final long MISS = Long.MIN_VALUE;
+
+    // Признак режима расчета по датам в упакованном ключе
+    private static final long DATES_MODE = 1L << 62;
+    private static final int PERIOD_LENGTH_BITS = 16;
+    private static final long PERIOD_LENGTH_MASK = (1L << PERIOD_LENGTH_BITS) - 1;
+    private static final long EPOCH_DAY_MASK = 0xFFFFFFFFL;
+    // Регион в ключе расчета по датам: биты 48-55
+    private static final int REGION_SHIFT = 48;
+    private static final long REGION_MASK = 0xFFL;
+
+    private static final int MAX_SEGMENTS = 64;
+    private static final int MIN_SEGMENT_SIZE = 16;
+
+    private final int maximumSize;
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder invalidationCount = new LongAdder();
+
+    /**
+     * @param maximumSize Максимальное количество записей (0 - кэш выключен)
+     * @param policy      Политика вытеснения
+     */
+    public CalculationCache(@Value("${vacation.cache.maximum-size:10000}") int maximumSize,
+                            @Value("${vacation.cache.policy:W_TINY_LFU}") CachePolicy policy) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Размер кэша не может быть отрицательным: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && segmentCount * 2 * MIN_SEGMENT_SIZE <= maximumSize) {
+            segmentCount *= 2;
+        }
+        this.segments = new Segment[maximumSize == 0 ? 0 : segmentCount];
+        this.segmentMask = segmentCount - 1;
+        for (int i = 0; i < segments.length; i++) {
+            int capacity = maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0);
+            segments[i] = new Segment(capacity, policy);
+        }
+    }
+
+    /**
+     * @param numberOfDays Количество дней отпуска
+     * @return Ключ для расчета по количеству дней
+     */
+    public static long daysKey(int numberOfDays) {
+        return numberOfDays & EPOCH_DAY_MASK;
+    }
+
+    /**
+     * @param startEpochDay День начала отпуска (включительно), от 01.01.1970
+     * @param endEpochDay   День окончания отпуска (включительно), от 01.01.1970
+     * @return Ключ для расчета по датам
+     */
+    public static long datesKey(long startEpochDay, long endEpochDay) {
+        return datesKey(startEpochDay, endEpochDay, Region.FEDERAL);
+    }
+
+    /**
+     * @param startEpochDay День начала отпуска (включительно), от 01.01.1970
+     * @param endEpochDay   День окончания отпуска (включительно), от 01.01.1970
+     * @param region        Регион, праздники которого учитываются в расчете
+     * @return Ключ для расчета по датам
+     */
+    public static long datesKey(long startEpochDay, long endEpochDay, Region region) {
+        return DATES_MODE | (long) region.ordinal() << REGION_SHIFT
+                | (startEpochDay & EPOCH_DAY_MASK) << PERIOD_LENGTH_BITS
+                | (endEpochDay - startEpochDay) & PERIOD_LENGTH_MASK;
+    }
+
+    /**
+     * @return true, если кэш включен (максимальный размер больше нуля)
+     */
+    public boolean isEnabled() {
+        return segments.length > 0;
+    }
+
+    /**
+     * Ищет результат расчета.
+     *
+     * @param averageSalaryInKopecks Средняя зарплата в копейках
+     * @param key                    Ключ из {@link #daysKey} или {@link #datesKey}
+     * @return Сумма отпускных или {@link #MISS}
+     */
+    public long get(long averageSalaryInKopecks, long key) {
+        if (segments.length == 0) {
+            return MISS;
+        }
+        long hash = hash(averageSalaryInKopecks, key);
+        long value = segmentFor(hash).get(averageSalaryInKopecks, key, hash);
+        if (value == MISS) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Сохраняет результат расчета. Результат расчета по датам сохраняется, только если календарь,
+     * по которому он получен, все еще действует, - иначе запись могла бы пережить инвалидацию.
+     *
+     * @param averageSalaryInKopecks Средняя зарплата в копейках
+     * @param key                    Ключ из {@link #daysKey} или {@link #datesKey}
+     * @param value                  Сумма отпускных
+     * @param calendar               Календарь, действовавший до начала расчета (null для расчета по количеству дней)
+     */
+    public void put(long averageSalaryInKopecks, long key, long value, ProductionCalendar calendar) {
+        if (segments.length == 0 || value == MISS) {
+            return;
+        }
+        long hash = hash(averageSalaryInKopecks, key);
+        int evicted = segmentFor(hash).put(averageSalaryInKopecks, key, value, hash, calendar);
+        if (evicted > 0) {
+            evictionCount.add(evicted);
+        }
+    }
+
+    /**
+     * Удаляет результаты расчета по датам, которые изменились вместе с производственным календарем:
+     * запись затронута, если количество праздников в ее периоде по новому календарю другое.
+     *
+     * @param event Событие смены календаря
+     */
+    @EventListener
+    public void onCalendarChanged(ProductionCalendarChangedEvent event) {
+        for (Segment segment : segments) {
+            invalidationCount.add(segment.invalidate(event.getPreviousCalendar(), event.getCurrentCalendar()));
+        }
+    }
+
+    /**
+     * Удаляет все записи.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            invalidationCount.add(segment.invalidate(null, null));
+        }
+    }
+
+    /**
+     * @return Текущее количество записей
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return Снимок статистики кэша
+     */
+    public CacheStats stats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), invalidationCount.sum(),
+                size(), maximumSize);
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> 32) & segmentMask];
+    }
+
+    private static long hash(long averageSalaryInKopecks, long key) {
+        long h = averageSalaryInKopecks * 0x9E3779B97F4A7C15L + key;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Сегмент кэша: хэш-таблица с цепочками на массивах и двусвязные списки очередей вытеснения.
+     * Для LRU используется одна очередь MAIN, для W-TinyLFU - окно WINDOW и основная очередь MAIN.
+     */
+    private static final class Segment {
+        private static final byte FREE = 0;
+        private static final byte WINDOW = 1;
+        private static final byte MAIN = 2;
+        private static final int NONE = -1;
+
+        private final int windowCapacity;
+        private final int mainCapacity;
+        private final FrequencySketch sketch;
+
+        private final long[] salaries;
+        private final long[] keys;
+        private final long[] values;
+        private final byte[] states;
+        private final int[] previous;
+        private final int[] next;
+        private final int[] chainNext;
+        private final int[] buckets;
+        private final int bucketMask;
+
+        // Головы и хвосты очередей, индекс - состояние записи (WINDOW или MAIN)
+        private final int[] heads = {NONE, NONE, NONE};
+        private final int[] tails = {NONE, NONE, NONE};
+        private final int[] sizes = new int[3];
+        private int freeHead;
+
+        Segment(int capacity, CachePolicy policy) {
+            // Окну нужна хотя бы одна запись помимо основной очереди, иначе работает обычный LRU
+            boolean tinyLfu = policy == CachePolicy.W_TINY_LFU && capacity > 1;
+            this.windowCapacity = tinyLfu ? Math.max(1, capacity / 100) : 0;
+            this.mainCapacity = capacity - windowCapacity;
+            this.sketch = tinyLfu ? new FrequencySketch(capacity) : null;
+
+            salaries = new long[capacity];
+            keys = new long[capacity];
+            values = new long[capacity];
+            states = new byte[capacity];
+            previous = new int[capacity];
+            next = new int[capacity];
+            chainNext = new int[capacity];
+            int bucketCount = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+            buckets = new int[bucketCount];
+            bucketMask = bucketCount - 1;
+            Arrays.fill(buckets, NONE);
+            for (int slot = 0; slot < capacity; slot++) {
+                chainNext[slot] = slot + 1 < capacity ? slot + 1 : NONE;
+            }
+            freeHead = capacity > 0 ? 0 : NONE;
+        }
+
+        synchronized long get(long salary, long key, long hash) {
+            if (sketch != null) {
+                sketch.increment(hash);
+            }
+            int slot = find(salary, key, hash);
+            if (slot == NONE) {
+                return MISS;
+            }
+            unlink(slot);
+            linkFirst(slot, states[slot]);
+            return values[slot];
+        }
+
+        synchronized int put(long salary, long key, long value, long hash, ProductionCalendar calendar) {
+            if (calendar != null && calendar != NonWorkingHolidayRepository.currentCalendar()) {
+                return 0;
+            }
+            int slot = find(salary, key, hash);
+            if (slot != NONE) {
+                values[slot] = value;
+                unlink(slot);
+                linkFirst(slot, states[slot]);
+                return 0;
+            }
+
+            int evicted = 0;
+            if (freeHead == NONE) {
+                // Обе очереди заполнены: освобождаем место по правилам политики
+                if (sketch == null) {
+                    remove(tails[MAIN]);
+                    evicted++;
+                } else {
+                    evicted += admitFromWindow();
+                }
+            }
+            slot = freeHead;
+            freeHead = chainNext[slot];
+            salaries[slot] = salary;
+            keys[slot] = key;
+            values[slot] = value;
+            int bucket = (int) hash & bucketMask;
+            chainNext[slot] = buckets[bucket];
+            buckets[bucket] = slot;
+            linkFirst(slot, sketch == null ? MAIN : WINDOW);
+
+            if (sketch != null && sizes[WINDOW] > windowCapacity) {
+                evicted += admitFromWindow();
+            }
+            return evicted;
+        }
+
+        /**
+         * Переводит самую старую запись окна в основную очередь, если в ней есть место
+         * или если кандидат популярнее жертвы основной очереди; иначе вытесняет кандидата.
+         */
+        private int admitFromWindow() {
+            int candidate = tails[WINDOW];
+            unlink(candidate);
+            if (sizes[MAIN] < mainCapacity) {
+                linkFirst(candidate, MAIN);
+                return 0;
+            }
+            int victim = tails[MAIN];
+            if (victim != NONE && sketch.frequency(hash(salaries[candidate], keys[candidate]))
+                    > sketch.frequency(hash(salaries[victim], keys[victim]))) {
+                remove(victim);
+                linkFirst(candidate, MAIN);
+            } else {
+                linkFirst(candidate, WINDOW);
+                remove(candidate);
+            }
+            return 1;
+        }
+
+        synchronized int invalidate(ProductionCalendar previousCalendar, ProductionCalendar currentCalendar) {
+            int removed = 0;
+            for (int slot = 0; slot < states.length; slot++) {
+                if (states[slot] != FREE && isAffected(keys[slot], previousCalendar, currentCalendar)) {
+                    remove(slot);
+                    removed++;
+                }
+            }
+            return removed;
+        }
+
+        private static boolean isAffected(long key, ProductionCalendar previousCalendar, ProductionCalendar currentCalendar) {
+            if (previousCalendar == null) {
+                return true;
+            }
+            if ((key & DATES_MODE) == 0) {
+                return false;
+            }
+            long startEpochDay = (key >>> PERIOD_LENGTH_BITS) & EPOCH_DAY_MASK;
+            long endEpochDay = startEpochDay + (key & PERIOD_LENGTH_MASK);
+            Region region = Region.of((int) (key >>> REGION_SHIFT & REGION_MASK));
+            return previousCalendar.countNonWorkingHolidays(region, startEpochDay, endEpochDay)
+                    != currentCalendar.countNonWorkingHolidays(region, startEpochDay, endEpochDay);
+        }
+
+        synchronized int size() {
+            return sizes[WINDOW] + sizes[MAIN];
+        }
+
+        private int find(long salary, long key, long hash) {
+            int slot = buckets[(int) hash & bucketMask];
+            while (slot != NONE && (salaries[slot] != salary || keys[slot] != key)) {
+                slot = chainNext[slot];
+            }
+            return slot;
+        }
+
+        private void remove(int slot) {
+            int bucket = (int) hash(salaries[slot], keys[slot]) & bucketMask;
+            if (buckets[bucket] == slot) {
+                buckets[bucket] = chainNext[slot];
+            } else {
+                int current = buckets[bucket];
+                while (chainNext[current] != slot) {
+                    current = chainNext[current];
+                }
+                chainNext[current] = chainNext[slot];
+            }
+            unlink(slot);
+            states[slot] = FREE;
+            chainNext[slot] = freeHead;
+            freeHead = slot;
+        }
+
+        private void linkFirst(int slot, byte queue) {
+            states[slot] = queue;
+            previous[slot] = NONE;
+            next[slot] = heads[queue];
+            if (heads[queue] != NONE) {
+                previous[heads[queue]] = slot;
+            } else {
+                tails[queue] = slot;
+            }
+            heads[queue] = slot;
+            sizes[queue]++;
+        }
+
+        private void unlink(int slot) {
+            byte queue = states[slot];
+            if (previous[slot] != NONE) {
+                next[previous[slot]] = next[slot];
+            } else {
+                heads[queue] = next[slot];
+            }
+            if (next[slot] != NONE) {
+                previous[next[slot]] = previous[slot];
+            } else {
+                tails[queue] = previous[slot];
+            }
+            sizes[queue]--;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ru.mayskiizhuk.cache;
+
+/**
+ * Count-Min скетч с 4-битными счетчиками для оценки частоты обращений к ключам (политика W-TinyLFU).
+ * Каждое слово long хранит 16 счетчиков, ключ учитывается в четырех из них.
+ * После sampleSize увеличений все счетчики делятся пополам, чтобы старая популярность затухала.
+ * Не потокобезопасен: используется под блокировкой сегмента кэша.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNTER = 15;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int capacity) {
+        int size = Integer.highestOneBit(Math.max(8, capacity) - 1) << 1;
+        this.table = new long[size];
+        this.tableMask = size - 1;
+        this.sampleSize = 10 * Math.max(1, capacity);
+    }
+
+    /**
+     * @param hash Хэш ключа
+     * @return Оценка частоты обращений (0-15)
+     */
+    int frequency(long hash) {
+        int frequency = MAX_COUNTER;
+        for (int i = 0; i < SEEDS.length; i++) {
+            frequency = Math.min(frequency, (int) (table[index(hash, i)] >>> shift(hash, i)) & MAX_COUNTER);
+        }
+        return frequency;
+    }
+
+    /**
+     * Учитывает обращение к ключу.
+     *
+     * @param hash Хэш ключа
+     */
+    void increment(long hash) {
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = index(hash, i);
+            int shift = shift(hash, i);
+            if (((table[index] >>> shift) & MAX_COUNTER) != MAX_COUNTER) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private int index(long hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    private static int shift(long hash, int i) {
+        return ((int) (hash >>> (i << 3)) & 15) << 2;
+    }
+}
@@ -6,6 +6,10 @@ public class SalaryConstants {
     public static final int MINIMUM_DAYS = 1; // минимальное количество дней отпуска
     public static final int MAXIMUM_DAYS = 366; // максимальное количество дней отпуска
     public static final String DATE_FORMAT = "dd-MM-yy"; // формат даты
+    public static final int MINIMUM_YEAR = 2000; // минимальный год, который можно задать в формате DATE_FORMAT
+    public static final int MAXIMUM_YEAR = 2099; // максимальный год, который можно задать в формате DATE_FORMAT
+    public static final int MAXIMUM_PERIODS = 64; // максимальное количество периодов в одном расчете нескольких периодов
+    public static final int MAXIMUM_BATCH_LINE_LENGTH = 4096; // максимальная длина строки пакетного запроса в символах
 
     private SalaryConstants() {
         throw new IllegalStateException("Utility class");
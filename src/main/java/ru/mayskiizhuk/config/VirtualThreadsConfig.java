@@ -0,0 +1,64 @@
+package ru.mayskiizhuk.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Режим обработки HTTP-запросов на виртуальных потоках (vacation.server.virtual-threads=true).
+ * Tomcat получает исполнитель "поток на задачу" вместо пула из server.tomcat.threads.max потоков.
+ * Сборка остается на Java 11, поэтому исполнитель создается через рефлексию; режим требует запуска на JDK 21+.
+ */
+@Configuration
+@ConditionalOnProperty(name = "vacation.server.virtual-threads", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean
+    public VirtualThreadsCustomizer virtualThreadsProtocolHandlerCustomizer() {
+        return new VirtualThreadsCustomizer(newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Передает Tomcat исполнитель на виртуальных потоках и останавливает его при закрытии контекста
+     * (после остановки Tomcat). Исполнитель не объявлен отдельным бином, чтобы не заменять собой
+     * исполнитель задач Spring по умолчанию.
+     */
+    static class VirtualThreadsCustomizer implements TomcatProtocolHandlerCustomizer<ProtocolHandler>, DisposableBean {
+        private final ExecutorService executor;
+
+        VirtualThreadsCustomizer(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void customize(ProtocolHandler protocolHandler) {
+            protocolHandler.setExecutor(executor);
+        }
+
+        @Override
+        public void destroy() {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @return Executors.newVirtualThreadPerTaskExecutor() текущего JDK
+     * @throws IllegalStateException если JDK не поддерживает виртуальные потоки
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Режим vacation.server.virtual-threads требует JDK 21 или новее, текущая версия: "
+                    + Runtime.version(), e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Не удалось создать исполнитель на виртуальных потоках", e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ru.mayskiizhuk.controller;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Чтение строк пакетного запроса с ограничением длины. В отличие от {@link java.io.BufferedReader#readLine()}
+ * строка длиннее предела не накапливается в памяти: ее остаток пропускается до конца строки, поэтому память
+ * чтения не зависит от входных данных. Концы строк - как у readLine: "\n", "\r" или "\r\n".
+ */
+final class BatchLineReader {
+    static final int END_OF_INPUT = -1;
+    static final int LINE = 0;
+    static final int LINE_TOO_LONG = 1;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final int maxLength;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder line;
+    private int position;
+    private int limit;
+    // Предыдущая строка закончилась на '\r': следующий '\n' - часть того же конца строки
+    private boolean skipLineFeed;
+
+    /**
+     * @param reader    Источник символов
+     * @param maxLength Наибольшая длина строки в символах без конца строки
+     */
+    BatchLineReader(Reader reader, int maxLength) {
+        this.reader = reader;
+        this.maxLength = maxLength;
+        this.line = new StringBuilder(Math.min(maxLength, 256));
+    }
+
+    /**
+     * Читает следующую строку.
+     *
+     * @return {@link #LINE} - строка прочитана ({@link #line()}), {@link #LINE_TOO_LONG} - строка длиннее
+     * предела пропущена, {@link #END_OF_INPUT} - данные закончились
+     * @throws IOException при ошибке чтения
+     */
+    int next() throws IOException {
+        line.setLength(0);
+        boolean started = false;
+        boolean tooLong = false;
+        while (position < limit || fill()) {
+            char c = buffer[position++];
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+            if (c == '\n' || c == '\r') {
+                skipLineFeed = c == '\r';
+                return tooLong ? LINE_TOO_LONG : LINE;
+            }
+            started = true;
+            if (tooLong) {
+                continue;
+            }
+            if (line.length() == maxLength) {
+                tooLong = true;
+                line.setLength(0);
+            } else {
+                line.append(c);
+            }
+        }
+        if (!started) {
+            return END_OF_INPUT;
+        }
+        return tooLong ? LINE_TOO_LONG : LINE;
+    }
+
+    /**
+     * @return Последняя прочитанная строка
+     */
+    String line() {
+        return line.toString();
+    }
+
+    /**
+     * @return true, если следующие символы можно прочитать без ожидания
+     * @throws IOException при ошибке чтения
+     */
+    boolean ready() throws IOException {
+        return position < limit || reader.ready();
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
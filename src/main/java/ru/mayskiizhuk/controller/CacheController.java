@@ -0,0 +1,26 @@
+package ru.mayskiizhuk.controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.mayskiizhuk.cache.CacheStats;
+import ru.mayskiizhuk.cache.CalculationCache;
+
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+
+    private final CalculationCache calculationCache;
+
+    public CacheController(CalculationCache calculationCache) {
+        this.calculationCache = calculationCache;
+    }
+
+    /**
+     * @return Доля попаданий, количество вытеснений и текущий размер кэша результатов
+     */
+    @GetMapping("/stats")
+    public CacheStats stats() {
+        return calculationCache.stats();
+    }
+}
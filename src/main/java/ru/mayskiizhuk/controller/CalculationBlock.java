@@ -0,0 +1,120 @@
+package ru.mayskiizhuk.controller;
+
+import ru.mayskiizhuk.error.ErrorCode;
+import ru.mayskiizhuk.metrics.CalculationMode;
+import ru.mayskiizhuk.repository.Region;
+
+/**
+ * Блок строк пакетного расчета. Строки добавляются через {@link VacationRequestHandler#add},
+ * параметры прошедших валидацию строк раскладываются по примитивным массивам (отдельно для режима дней и режима дат),
+ * а {@link VacationRequestHandler#calculate} считает их пакетными методами VacationService.
+ * Блок переиспользуется после {@link #clear()}.
+ */
+public final class CalculationBlock {
+    private final CalculationOutcome[] outcomes;
+    private int size;
+
+    // Режим дней: номера строк блока и колонки параметров
+    final int[] daysRows;
+    final long[] daysSalaries;
+    final int[] days;
+    final long[] daysResults;
+    int daysCount;
+
+    // Режим дат: номера строк блока и колонки параметров
+    final int[] datesRows;
+    final long[] datesSalaries;
+    final long[] startEpochDays;
+    final long[] endEpochDays;
+    final Region[] datesRegions;
+    final long[] datesResults;
+    int datesCount;
+
+    /**
+     * @param capacity Максимальное количество строк в блоке
+     */
+    public CalculationBlock(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Емкость блока должна быть положительной: " + capacity);
+        }
+        outcomes = new CalculationOutcome[capacity];
+        for (int i = 0; i < capacity; i++) {
+            outcomes[i] = new CalculationOutcome();
+        }
+        daysRows = new int[capacity];
+        daysSalaries = new long[capacity];
+        days = new int[capacity];
+        daysResults = new long[capacity];
+        datesRows = new int[capacity];
+        datesSalaries = new long[capacity];
+        startEpochDays = new long[capacity];
+        endEpochDays = new long[capacity];
+        datesRegions = new Region[capacity];
+        datesResults = new long[capacity];
+    }
+
+    public int capacity() {
+        return outcomes.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == outcomes.length;
+    }
+
+    /**
+     * @param row Номер строки в блоке, от 0 до size() - 1
+     * @return Результат строки (сумма отпускных заполняется после расчета блока)
+     */
+    public CalculationOutcome outcome(int row) {
+        if (row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + ", size " + size);
+        }
+        return outcomes[row];
+    }
+
+    /**
+     * Добавляет строку, отклоненную до разбора параметров (например, не являющуюся JSON-объектом).
+     *
+     * @param errorCode Код ошибки
+     */
+    public void addError(ErrorCode errorCode) {
+        nextOutcome().failure(errorCode, 0L);
+    }
+
+    public void clear() {
+        size = 0;
+        daysCount = 0;
+        datesCount = 0;
+    }
+
+    CalculationOutcome nextOutcome() {
+        if (isFull()) {
+            throw new IllegalStateException("Блок заполнен: " + size + " строк");
+        }
+        return outcomes[size++];
+    }
+
+    /**
+     * Раскладывает параметры последней добавленной строки по колонкам ее режима.
+     */
+    void addValidated(CalculationOutcome outcome) {
+        int row = size - 1;
+        if (outcome.getMode() == CalculationMode.DAYS) {
+            daysRows[daysCount] = row;
+            daysSalaries[daysCount] = outcome.getAverageSalary();
+            days[daysCount] = outcome.getNumberOfDays();
+            daysCount++;
+        } else {
+            datesRows[datesCount] = row;
+            datesSalaries[datesCount] = outcome.getAverageSalary();
+            startEpochDays[datesCount] = outcome.getStartEpochDay();
+            endEpochDays[datesCount] = outcome.getEndEpochDay();
+            datesRegions[datesCount] = outcome.getRegion();
+            datesCount++;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package ru.mayskiizhuk.controller;
+
+import ru.mayskiizhuk.error.ErrorCode;
+import ru.mayskiizhuk.jfr.CalculationEvents;
+import ru.mayskiizhuk.jfr.PayCalculatedEvent;
+import ru.mayskiizhuk.jfr.RequestParsedEvent;
+import ru.mayskiizhuk.jfr.ValidationFailedEvent;
+import ru.mayskiizhuk.metrics.CalculationMode;
+import ru.mayskiizhuk.repository.Region;
+
+/**
+ * Результат обработки одного запроса на расчет: либо сумма отпускных, либо код ошибки.
+ * Объект изменяемый и может переиспользоваться между запросами одного потока (например, в пакетной обработке).
+ */
+public class CalculationOutcome {
+    private long result;
+    private ErrorCode errorCode;
+    // Введенное значение для текста ошибки (если код его содержит)
+    private long errorValue;
+
+    // Параметры запроса, прошедшего валидацию (для расчета)
+    private long averageSalary;
+    private int numberOfDays;
+    private long startEpochDay;
+    private long endEpochDay;
+    private Region region;
+
+    // Замеры этапов обработки для метрик, в наносекундах
+    private CalculationMode mode;
+    private long stageStartNanos;
+    private long parseNanos;
+    private long validateNanos;
+    private long calculateNanos;
+
+    // События JFR, начатые вместе с обработкой запроса (null, если тип события не записывается)
+    private RequestParsedEvent parsedEvent;
+    private ValidationFailedEvent failedEvent;
+    private PayCalculatedEvent calculatedEvent;
+
+    /**
+     * @return true, если расчет выполнен успешно
+     */
+    public boolean isSuccess() {
+        return errorCode == null;
+    }
+
+    /**
+     * @return Сумма отпускных в копейках (имеет смысл только при успешном расчете)
+     */
+    public long getResult() {
+        return result;
+    }
+
+    /**
+     * @return Код ошибки или null, если расчет выполнен успешно
+     */
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * @return Текст ошибки или null, если расчет выполнен успешно
+     */
+    public String getErrorMessage() {
+        return errorCode == null ? null : errorCode.message(errorValue);
+    }
+
+    /**
+     * @return Введенное значение, вошедшее в текст ошибки (0, если код ошибки его не содержит)
+     */
+    public long getErrorValue() {
+        return errorCode == null || !errorCode.hasValue() ? 0L : errorValue;
+    }
+
+    /**
+     * @return Тело ответа с ошибкой в UTF-8 (см. {@link ErrorCode#jsonBody}) или null, если расчет выполнен успешно
+     */
+    public byte[] getErrorJson() {
+        return errorCode == null ? null : errorCode.jsonBody(errorValue);
+    }
+
+    void success(long result) {
+        this.result = result;
+        this.errorCode = null;
+    }
+
+    void failure(ErrorCode errorCode, long errorValue) {
+        this.result = 0L;
+        this.errorCode = errorCode;
+        this.errorValue = errorValue;
+    }
+
+    void startTiming() {
+        mode = CalculationMode.UNKNOWN;
+        parseNanos = 0L;
+        validateNanos = 0L;
+        calculateNanos = 0L;
+        stageStartNanos = System.nanoTime();
+        parsedEvent = CalculationEvents.beginRequestParsed();
+        failedEvent = CalculationEvents.beginValidationFailed();
+        calculatedEvent = CalculationEvents.beginPayCalculated();
+    }
+
+    void setMode(CalculationMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Завершает этап разбора: время с конца предыдущего этапа относится к разбору.
+     */
+    void parsed() {
+        long now = System.nanoTime();
+        parseNanos += now - stageStartNanos;
+        stageStartNanos = now;
+        if (parsedEvent != null) {
+            parsedEvent.end();
+        }
+    }
+
+    /**
+     * Завершает этап валидации: время с конца предыдущего этапа относится к валидации.
+     */
+    void validated() {
+        long now = System.nanoTime();
+        validateNanos += now - stageStartNanos;
+        stageStartNanos = now;
+    }
+
+    /**
+     * Завершает этап расчета: время с конца предыдущего этапа относится к расчету.
+     */
+    void calculated() {
+        long now = System.nanoTime();
+        calculateNanos += now - stageStartNanos;
+        stageStartNanos = now;
+        if (calculatedEvent != null) {
+            calculatedEvent.end();
+        }
+    }
+
+    void setDaysRequest(long averageSalary, int numberOfDays) {
+        this.averageSalary = averageSalary;
+        this.numberOfDays = numberOfDays;
+    }
+
+    void setDatesRequest(long averageSalary, long startEpochDay, long endEpochDay, Region region) {
+        this.averageSalary = averageSalary;
+        this.startEpochDay = startEpochDay;
+        this.endEpochDay = endEpochDay;
+        this.region = region;
+    }
+
+    /**
+     * @return Средняя зарплата, с которой выполнен расчет (в том числе найденная по сотруднику), в копейках
+     */
+    public long getAverageSalary() {
+        return averageSalary;
+    }
+
+    int getNumberOfDays() {
+        return numberOfDays;
+    }
+
+    long getStartEpochDay() {
+        return startEpochDay;
+    }
+
+    long getEndEpochDay() {
+        return endEpochDay;
+    }
+
+    Region getRegion() {
+        return region;
+    }
+
+    CalculationMode getMode() {
+        return mode;
+    }
+
+    long getParseNanos() {
+        return parseNanos;
+    }
+
+    long getValidateNanos() {
+        return validateNanos;
+    }
+
+    long getCalculateNanos() {
+        return calculateNanos;
+    }
+
+    RequestParsedEvent getParsedEvent() {
+        return parsedEvent;
+    }
+
+    ValidationFailedEvent getFailedEvent() {
+        return failedEvent;
+    }
+
+    PayCalculatedEvent getCalculatedEvent() {
+        return calculatedEvent;
+    }
+}
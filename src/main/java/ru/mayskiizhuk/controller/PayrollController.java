@@ -0,0 +1,110 @@
+package ru.mayskiizhuk.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.mayskiizhuk.config.SalaryConstants;
+import ru.mayskiizhuk.error.ErrorCode;
+import ru.mayskiizhuk.payroll.PayrollStore;
+import ru.mayskiizhuk.payroll.PayrollSummary;
+import ru.mayskiizhuk.validate.ParameterParser;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.YearMonth;
+
+@RestController
+@RequestMapping("/payroll")
+public class PayrollController {
+
+    private final PayrollStore payrollStore;
+
+    public PayrollController(PayrollStore payrollStore) {
+        this.payrollStore = payrollStore;
+    }
+
+    /**
+     * Добавляет или исправляет месяц истории заработка сотрудника.
+     *
+     * @param employeeIdStr Табельный номер
+     * @param monthStr      Месяц в формате yyyy-MM
+     * @param earningsStr   Заработок за месяц в копейках, учитываемый в средней зарплате
+     * @param workedDaysStr Отработанные календарные дни месяца
+     * @return Сводка по сотруднику после изменения или ошибка с кодом 400
+     * @throws IOException если не удалось записать журнал истории
+     */
+    @PutMapping("/{employeeId}/{month}")
+    public ResponseEntity<Object> record(@PathVariable("employeeId") String employeeIdStr,
+                                         @PathVariable("month") String monthStr,
+                                         @RequestParam(value = "earnings", required = false) String earningsStr,
+                                         @RequestParam(value = "workedDays", required = false) String workedDaysStr)
+            throws IOException {
+        long employeeId = ParameterParser.parseLong(employeeIdStr);
+        if (employeeId == ParameterParser.INVALID) {
+            return error(HttpStatus.BAD_REQUEST, ErrorCode.EMPLOYEE_ID_NOT_A_NUMBER);
+        }
+        YearMonth month = parseMonth(monthStr);
+        if (month == null) {
+            return error(HttpStatus.BAD_REQUEST, ErrorCode.PAYROLL_MONTH_FORMAT);
+        }
+        long earnings = earningsStr == null ? ParameterParser.INVALID : ParameterParser.parseLong(earningsStr);
+        if (earnings < 0 || earnings > SalaryConstants.MAXIMUM_SALARY) {
+            return error(HttpStatus.BAD_REQUEST, ErrorCode.PAYROLL_EARNINGS_INVALID);
+        }
+        long workedDays = workedDaysStr == null ? ParameterParser.INVALID : ParameterParser.parseLong(workedDaysStr);
+        if (workedDays < 0 || workedDays > month.lengthOfMonth()) {
+            return error(HttpStatus.BAD_REQUEST, ErrorCode.PAYROLL_WORKED_DAYS_INVALID);
+        }
+        return ResponseEntity.ok(payrollStore.record(employeeId, month, earnings, (int) workedDays));
+    }
+
+    /**
+     * @return Сводка по сотруднику за текущее окно или ошибка с кодом 404, если истории нет
+     */
+    @GetMapping("/{employeeId}")
+    public ResponseEntity<Object> summary(@PathVariable("employeeId") String employeeIdStr) {
+        long employeeId = ParameterParser.parseLong(employeeIdStr);
+        if (employeeId == ParameterParser.INVALID) {
+            return error(HttpStatus.BAD_REQUEST, ErrorCode.EMPLOYEE_ID_NOT_A_NUMBER);
+        }
+        PayrollSummary summary = payrollStore.summary(employeeId);
+        if (summary == null) {
+            return error(HttpStatus.NOT_FOUND, ErrorCode.EMPLOYEE_NOT_FOUND);
+        }
+        return ResponseEntity.ok(summary);
+    }
+
+    /**
+     * @return Месяц или null, если строка не в формате yyyy-MM или год вне допустимого диапазона
+     */
+    private static YearMonth parseMonth(String monthStr) {
+        if (monthStr.length() != 7 || monthStr.charAt(4) != '-') {
+            return null;
+        }
+        for (int i = 0; i < monthStr.length(); i++) {
+            if (i != 4 && (monthStr.charAt(i) < '0' || monthStr.charAt(i) > '9')) {
+                return null;
+            }
+        }
+        long year = ParameterParser.parseLong(monthStr.subSequence(0, 4));
+        long month = ParameterParser.parseLong(monthStr.subSequence(5, 7));
+        if (year < SalaryConstants.MINIMUM_YEAR || year > SalaryConstants.MAXIMUM_YEAR) {
+            return null;
+        }
+        try {
+            return YearMonth.of((int) year, (int) month);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static ResponseEntity<Object> error(HttpStatus status, ErrorCode errorCode) {
+        return ResponseEntity.status(status).contentType(VacationController.ERROR_CONTENT_TYPE)
+                .body(errorCode.jsonBody(0L));
+    }
+}
@@ -0,0 +1,109 @@
+package ru.mayskiizhuk.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.mayskiizhuk.repository.NonWorkingHolidayRepository;
+
+import java.time.Duration;
+
+/**
+ * Заголовки HTTP-кэширования результата расчета. Результат зависит только от параметров запроса
+ * и версии производственного календаря, поэтому ETag вычисляется из них до расчета, и условный запрос
+ * с совпадающим If-None-Match получает 304 без разбора и расчета.
+ *
+ * <p>Время жизни ответа в кэшах задает vacation.http.cache-max-age (по умолчанию 10 минут);
+ * 0 - кэши должны каждый раз перепроверять ответ по ETag.
+ */
+@Component
+public class ResultCacheHeaders {
+    /**
+     * Cache-Control ответа, посчитанного по истории заработка сотрудника: общие кэши его не хранят, а клиент
+     * перепроверяет по ETag при каждом запросе, так что исправление истории видно сразу
+     */
+    public static final String PRIVATE_CACHE_CONTROL = "private, no-cache";
+
+    // Разделитель параметров в хэше: несимвольная кодовая точка, в параметрах не встречается
+    private static final char SEPARATOR = '\uFFFE';
+    private static final char NULL_MARKER = '\uFFFF';
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final String cacheControl;
+
+    public ResultCacheHeaders(@Value("${vacation.http.cache-max-age:10m}") Duration maxAge) {
+        long seconds = maxAge.getSeconds();
+        this.cacheControl = seconds > 0 ? "public, max-age=" + seconds : "no-cache";
+    }
+
+    /**
+     * @return Значение заголовка Cache-Control для успешного ответа
+     */
+    public String getCacheControl() {
+        return cacheControl;
+    }
+
+    /**
+     * Строгий ETag результата: версия текущего календаря и 64-битный хэш FNV-1a параметров запроса.
+     *
+     * @return ETag в кавычках, например {@code "7e9-1f3a..."}
+     */
+    public String etag(CharSequence averageSalaryStr, CharSequence numberOfDaysStr, CharSequence startDateStr,
+                       CharSequence endDateStr, CharSequence regionStr) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = hash(hash, averageSalaryStr);
+        hash = hash(hash, numberOfDaysStr);
+        hash = hash(hash, startDateStr);
+        hash = hash(hash, endDateStr);
+        hash = hash(hash, regionStr);
+        return '"' + Long.toHexString(NonWorkingHolidayRepository.currentCalendar().getVersion()) + '-'
+                + Long.toHexString(hash) + '"';
+    }
+
+    /**
+     * Слабое сравнение ETag с заголовком If-None-Match (список через запятую, допускаются префиксы W/).
+     * Значение {@code *} не учитывается: без расчета неизвестно, будет ли ответ успешным.
+     *
+     * @param ifNoneMatch Значение заголовка или null
+     * @param etag        ETag текущего результата в кавычках
+     * @return true, если один из тегов заголовка совпадает с etag
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        int length = ifNoneMatch.length();
+        int position = 0;
+        while (position < length) {
+            int end = ifNoneMatch.indexOf(',', position);
+            if (end < 0) {
+                end = length;
+            }
+            int from = position;
+            int to = end;
+            while (from < to && ifNoneMatch.charAt(from) == ' ') {
+                from++;
+            }
+            while (to > from && ifNoneMatch.charAt(to - 1) == ' ') {
+                to--;
+            }
+            if (ifNoneMatch.startsWith("W/", from)) {
+                from += 2;
+            }
+            if (to - from == etag.length() && ifNoneMatch.regionMatches(from, etag, 0, etag.length())) {
+                return true;
+            }
+            position = end + 1;
+        }
+        return false;
+    }
+
+    private static long hash(long hash, CharSequence value) {
+        if (value == null) {
+            return (hash ^ NULL_MARKER) * FNV_PRIME;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return (hash ^ SEPARATOR) * FNV_PRIME;
+    }
+}
@@ -1,123 +1,283 @@
 package ru.mayskiizhuk.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.mayskiizhuk.config.SalaryConstants;
-import ru.mayskiizhuk.service.VacationService;
-import ru.mayskiizhuk.validate.InputValidator;
+import ru.mayskiizhuk.error.ErrorCode;
+import ru.mayskiizhuk.service.VacationPeriodsPay;
+import ru.mayskiizhuk.service.VacationStartOption;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 @RestController
 @RequestMapping("/calculacte")
 public class VacationController {
+    // Количество строк пакетного запроса, рассчитываемых за один раз
+    static final int BATCH_BLOCK_SIZE = 256;
+    // Тип тела ответа с ошибкой: {"code":"...","message":"..."}
+    static final MediaType ERROR_CONTENT_TYPE = new MediaType(MediaType.APPLICATION_JSON, StandardCharsets.UTF_8);
 
-    private final VacationService vacationService;
-    private final InputValidator validator;
-    private final DateTimeFormatter dateFormatter;
+    private final VacationRequestHandler requestHandler;
+    private final ObjectMapper objectMapper;
+    private final ResultCacheHeaders cacheHeaders;
 
-    public VacationController(VacationService vacationService, InputValidator validator) {
-        this.vacationService = vacationService;
-        this.validator = validator;
-        this.dateFormatter = DateTimeFormatter.ofPattern(SalaryConstants.DATE_FORMAT);
+    public VacationController(VacationRequestHandler requestHandler, ObjectMapper objectMapper,
+                              ResultCacheHeaders cacheHeaders) {
+        this.requestHandler = requestHandler;
+        this.objectMapper = objectMapper;
+        this.cacheHeaders = cacheHeaders;
     }
 
+    /**
+     * Расчет отпускных. Успешный ответ содержит ETag и Cache-Control ({@link ResultCacheHeaders});
+     * запрос с совпадающим If-None-Match получает 304 без расчета. Вместо averageSalary можно передать
+     * employeeId - тогда средняя зарплата берется из истории заработка, а 304 отдается только после расчета:
+     * тег строится по найденной средней зарплате и меняется при исправлении истории. Такой ответ относится
+     * к конкретному сотруднику, поэтому получает {@link ResultCacheHeaders#PRIVATE_CACHE_CONTROL}.
+     *
+     * @return Сумма отпускных, 304 или ошибка с кодом 400
+     */
     @GetMapping
     public ResponseEntity<Object> calculateVacationPay(
             @RequestParam(value = "averageSalary", required = false) String averageSalaryStr,
+            @RequestParam(value = "employeeId", required = false) String employeeIdStr,
             @RequestParam(value = "numberOfDays", required = false) String numberOfDaysStr,
             @RequestParam(value = "startDate", required = false) String startDateStr,
-            @RequestParam(value = "endDate", required = false) String endDateStr) {
-        // 1. Валидация и парсинг средней зарплаты (обязательный параметр)
-        if (averageSalaryStr == null || averageSalaryStr.isBlank()) {
-            return buildBadRequestResponse("Не указан обязательный параметр averageSalary.");
+            @RequestParam(value = "endDate", required = false) String endDateStr,
+            @RequestParam(value = "region", required = false) String regionStr,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        boolean byEmployee = employeeIdStr != null && !employeeIdStr.isBlank();
+        String etag = null;
+        if (!byEmployee) {
+            etag = cacheHeaders.etag(averageSalaryStr, numberOfDaysStr, startDateStr, endDateStr, regionStr);
+            if (ResultCacheHeaders.matches(ifNoneMatch, etag)) {
+                // Тег мог быть выдан только успешному ответу на те же параметры при той же версии календаря
+                return notModified(etag, cacheHeaders.getCacheControl());
+            }
         }
-        long averageSalary;
-        try {
-            averageSalary = Long.parseLong(averageSalaryStr);
-            if (!validator.isValidatedSalary(averageSalary)) {
-                return buildBadRequestResponse("Средняя зарплата (averageSalary) должна быть в диапазоне от %d до %d копеек." +
-                        "Вы ввели значение %d копеек.", SalaryConstants.MINIMUM_SALARY, SalaryConstants.MAXIMUM_SALARY, averageSalary);
+        CalculationOutcome outcome = new CalculationOutcome();
+        requestHandler.handle(averageSalaryStr, employeeIdStr, numberOfDaysStr, startDateStr, endDateStr, regionStr,
+                outcome);
+        if (!outcome.isSuccess()) {
+            return badRequest(outcome);
+        }
+        if (byEmployee) {
+            // Тег по зарплате, с которой посчитан именно этот ответ, - совпадает с тегом запроса с averageSalary
+            etag = cacheHeaders.etag(Long.toString(outcome.getAverageSalary()), numberOfDaysStr, startDateStr,
+                    endDateStr, regionStr);
+            if (ResultCacheHeaders.matches(ifNoneMatch, etag)) {
+                return notModified(etag, ResultCacheHeaders.PRIVATE_CACHE_CONTROL);
             }
-        } catch (NumberFormatException e) {
-            return buildBadRequestResponse("Параметр averageSalary должен быть целым числом (количество копеек).");
         }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .header(HttpHeaders.CACHE_CONTROL,
+                        byEmployee ? ResultCacheHeaders.PRIVATE_CACHE_CONTROL : cacheHeaders.getCacheControl())
+                .body(outcome.getResult());
+    }
 
-        // 2. Определяем режим работы: по количеству дней или по датам
-        boolean useDays = numberOfDaysStr != null && !numberOfDaysStr.isBlank();
-        boolean useTwoDates = (startDateStr != null && !startDateStr.isBlank()) && (endDateStr != null && !endDateStr.isBlank());
+    /**
+     * Подбор даты начала отпуска: для каждой даты начала в году - период, оплачиваемые дни и сумма отпускных,
+     * по убыванию суммы (при равной сумме - по дате).
+     *
+     * @return Список вариантов или ошибка с кодом 400
+     */
+    @GetMapping("/best-start")
+    public ResponseEntity<Object> findBestStartDates(
+            @RequestParam(value = "averageSalary", required = false) String averageSalaryStr,
+            @RequestParam(value = "numberOfDays", required = false) String numberOfDaysStr,
+            @RequestParam(value = "year", required = false) String yearStr,
+            @RequestParam(value = "region", required = false) String regionStr,
+            @RequestParam(value = "top", required = false) String topStr) {
+        CalculationOutcome outcome = new CalculationOutcome();
+        List<VacationStartOption> options = requestHandler.handleBestStart(averageSalaryStr, numberOfDaysStr, yearStr,
+                regionStr, topStr, outcome);
+        if (!outcome.isSuccess()) {
+            return badRequest(outcome);
+        }
+        return ResponseEntity.ok(options);
+    }
 
-        // Проверяем конфликтующие или недостающие параметры
-        if (useDays && useTwoDates) {
-            return buildBadRequestResponse("Укажите ЛИБО numberOfDays, ЛИБО оба параметра startDate и endDate, но не все вместе.");
+    /**
+     * Расчет нескольких периодов отпуска за один запрос. Тело - JSON-объект с полями averageSalary (или
+     * employeeId), region и periods: массив пар ["startDate", "endDate"] или объектов с полями startDate и endDate.
+     * Пересекающиеся и смежные периоды объединяются, ответ содержит итог и разбивку по объединенным периодам
+     * ({@link VacationPeriodsPay}).
+     *
+     * @param body Тело запроса
+     * @return Итог и разбивка по периодам или ошибка с кодом 400
+     */
+    @PostMapping(value = "/periods", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> calculateVacationPayPeriods(@RequestBody String body) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(body);
+        } catch (JsonProcessingException e) {
+            node = null;
         }
-        if (!useDays && !useTwoDates) {
-            return buildBadRequestResponse("Необходимо указать ЛИБО numberOfDays, ЛИБО оба параметра startDate и endDate.");
+        CalculationOutcome outcome = new CalculationOutcome();
+        if (node == null || !node.isObject()) {
+            requestHandler.rejectRequest(ErrorCode.BODY_NOT_JSON_OBJECT, outcome);
+            return badRequest(outcome);
         }
-
-        // 3. Обработка и валидация в зависимости от режима
-        if (useDays) {
-            // Режим: количество дней
-            int days;
-            try {
-                days = Integer.parseInt(numberOfDaysStr);
-                if (!validator.isValidatedDays(days)) {
-                    return buildBadRequestResponse("Количество дней отпуска (numberOfDays) должно быть в диапазоне от %d до %d." +
-                                    "Вы ввели значение %d дней.",
-                            SalaryConstants.MINIMUM_DAYS, SalaryConstants.MAXIMUM_DAYS, days);
+        List<String> startDates = new ArrayList<>();
+        List<String> endDates = new ArrayList<>();
+        JsonNode periods = node.get("periods");
+        if (periods != null && periods.isArray()) {
+            for (JsonNode period : periods) {
+                if (period.isArray()) {
+                    startDates.add(textField(period.get(0)));
+                    endDates.add(textField(period.get(1)));
+                } else {
+                    startDates.add(textField(period.get("startDate")));
+                    endDates.add(textField(period.get("endDate")));
                 }
-            } catch (NumberFormatException e) {
-                return buildBadRequestResponse("Параметр numberOfDays должен быть целым числом.");
-            }
-            // Выполняем расчет
-            long result = vacationService.calculatePay(averageSalary, days);
-            return ResponseEntity.ok(result);
-
-        } else {
-            // Режим: даты начала и конца отпуска
-            LocalDate startLocalDate;
-            LocalDate endLocalDate;
-            try {
-                startLocalDate = LocalDate.parse(startDateStr, dateFormatter);
-            } catch (DateTimeParseException e) {
-                return buildBadRequestResponse("Неверный формат даты начала отпуска (startDate). Ожидается формат %s.",
-                        SalaryConstants.DATE_FORMAT.toLowerCase());
-            }
-            try {
-                endLocalDate = LocalDate.parse(endDateStr, dateFormatter);
-            } catch (DateTimeParseException e) {
-                return buildBadRequestResponse("Неверный формат даты окончания отпуска (endDate). Ожидается формат %s.",
-                        SalaryConstants.DATE_FORMAT.toLowerCase());
             }
+        }
+        VacationPeriodsPay pay = requestHandler.handlePeriods(textField(node, "averageSalary"),
+                textField(node, "employeeId"), textField(node, "region"), startDates, endDates, outcome);
+        if (!outcome.isSuccess()) {
+            return badRequest(outcome);
+        }
+        return ResponseEntity.ok(pay);
+    }
 
-            // Валидируем период дат
-            if (!validator.isValidatedDaysStartAndEnd(startLocalDate, endLocalDate)) {
-                return buildBadRequestResponse("Некорректный период отпуска: дата окончания должна быть не раньше даты начала, " +
-                                "а продолжительность должна быть в диапазоне от %d до %d дней.",
-                        SalaryConstants.MINIMUM_DAYS, SalaryConstants.MAXIMUM_DAYS);
-            }
+    /**
+     * Пакетный расчет: каждая строка тела - JSON-объект с теми же полями, что и параметры GET-запроса
+     * (плюс необязательный "id", который возвращается в ответе как есть).
+     * Строки накапливаются в блок до {@value #BATCH_BLOCK_SIZE} штук (или пока есть данные во входном буфере),
+     * блок рассчитывается целиком, и результаты пишутся в ответ в исходном порядке.
+     * Ошибка в строке не прерывает обработку остальных: для нее пишутся поля "code" и "error".
+     * Строка длиннее {@link SalaryConstants#MAXIMUM_BATCH_LINE_LENGTH} символов не читается в память
+     * и получает ошибку {@link ErrorCode#LINE_TOO_LONG}.
+     *
+     * @param body     Тело запроса в формате NDJSON
+     * @param response Ответ, в который построчно пишутся результаты в формате NDJSON
+     * @throws IOException при ошибке чтения запроса или записи ответа
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void calculateVacationPayBatch(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
 
-            // Выполняем расчет
-            long result = vacationService.calculatePaySpecificDate(averageSalary, startLocalDate, endLocalDate);
-            return ResponseEntity.ok(result);
+        CalculationBlock block = new CalculationBlock(BATCH_BLOCK_SIZE);
+        long[] lineNumbers = new long[BATCH_BLOCK_SIZE];
+        JsonNode[] ids = new JsonNode[BATCH_BLOCK_SIZE];
+        try (Reader input = new InputStreamReader(body, StandardCharsets.UTF_8);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            BatchLineReader reader = new BatchLineReader(input, SalaryConstants.MAXIMUM_BATCH_LINE_LENGTH);
+            long lineNumber = 0;
+            int status;
+            while ((status = reader.next()) != BatchLineReader.END_OF_INPUT) {
+                lineNumber++;
+                String line = status == BatchLineReader.LINE ? reader.line() : null;
+                if (line != null && line.isBlank()) {
+                    continue;
+                }
+                int row = block.size();
+                lineNumbers[row] = lineNumber;
+                if (line == null) {
+                    block.addError(ErrorCode.LINE_TOO_LONG);
+                    ids[row] = null;
+                } else {
+                    ids[row] = addBatchLine(block, line);
+                }
+                // Отдаем накопленные результаты, как только блок заполнен или входные данные закончились в буфере
+                if (block.isFull() || !reader.ready()) {
+                    writeBatchBlock(generator, block, lineNumbers, ids);
+                    generator.flush();
+                }
+            }
+            writeBatchBlock(generator, block, lineNumbers, ids);
         }
     }
 
     /**
-     * Вспомогательный метод для создания единообразных BadRequest ответов.
+     * Добавляет строку в блок.
      *
-     * @param format Строка формата сообщения
-     * @param args   Аргументы для строки формата
-     * @return ResponseEntity с кодом 400 и телом сообщения
+     * @return Значение поля "id" строки или null
      */
-    private ResponseEntity<Object> buildBadRequestResponse(String format, Object... args) {
-        String message = String.format(format, args);
-        return ResponseEntity.badRequest().body(message);
+    private JsonNode addBatchLine(CalculationBlock block, String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            node = null;
+        }
+        if (node == null || !node.isObject()) {
+            block.addError(ErrorCode.LINE_NOT_JSON_OBJECT);
+            return null;
+        }
+        requestHandler.add(textField(node, "averageSalary"), textField(node, "numberOfDays"),
+                textField(node, "startDate"), textField(node, "endDate"), textField(node, "region"), block);
+        return node.hasNonNull("id") ? node.get("id") : null;
+    }
+
+    private void writeBatchBlock(JsonGenerator generator, CalculationBlock block, long[] lineNumbers,
+                                 JsonNode[] ids) throws IOException {
+        requestHandler.calculate(block);
+        for (int row = 0; row < block.size(); row++) {
+            CalculationOutcome outcome = block.outcome(row);
+            generator.writeStartObject();
+            generator.writeNumberField("line", lineNumbers[row]);
+            if (ids[row] != null) {
+                generator.writeFieldName("id");
+                generator.writeTree(ids[row]);
+            }
+            if (outcome.isSuccess()) {
+                generator.writeNumberField("result", outcome.getResult());
+            } else {
+                generator.writeStringField("code", outcome.getErrorCode().name());
+                generator.writeStringField("error", outcome.getErrorMessage());
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            ids[row] = null;
+        }
+        block.clear();
+    }
+
+    /**
+     * Ответ 400 с заранее собранным телом ошибки из {@link ErrorCode}.
+     */
+    private static ResponseEntity<Object> badRequest(CalculationOutcome outcome) {
+        return ResponseEntity.badRequest().contentType(ERROR_CONTENT_TYPE).body(outcome.getErrorJson());
+    }
+
+    private static ResponseEntity<Object> notModified(String etag, String cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .build();
+    }
+
+    private static String textField(JsonNode node, String fieldName) {
+        return textField(node.get(fieldName));
+    }
+
+    private static String textField(JsonNode field) {
+        return field == null || field.isNull() ? null : field.asText();
     }
 }
 //http://localhost:8080/calculacte?averageSalary=100&numberOfDays=14
@@ -0,0 +1,699 @@
+package ru.mayskiizhuk.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.mayskiizhuk.audit.AuditLog;
+import ru.mayskiizhuk.cache.CalculationCache;
+import ru.mayskiizhuk.config.SalaryConstants;
+import ru.mayskiizhuk.error.ErrorCode;
+import ru.mayskiizhuk.jfr.CalculationEvents;
+import ru.mayskiizhuk.metrics.CalculationMetrics;
+import ru.mayskiizhuk.metrics.CalculationMode;
+import ru.mayskiizhuk.payroll.PayrollStore;
+import ru.mayskiizhuk.repository.NonWorkingHolidayRepository;
+import ru.mayskiizhuk.repository.ProductionCalendar;
+import ru.mayskiizhuk.repository.Region;
+import ru.mayskiizhuk.service.VacationPeriod;
+import ru.mayskiizhuk.service.VacationPeriodsPay;
+import ru.mayskiizhuk.service.VacationService;
+import ru.mayskiizhuk.service.VacationStartOption;
+import ru.mayskiizhuk.validate.InputValidator;
+import ru.mayskiizhuk.validate.ParameterParser;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Разбор, валидация и расчет одного запроса на отпускные.
+ * Общая логика для одиночного и пакетного эндпоинтов {@link VacationController}.
+ * Время разбора, валидации и расчета и причины отказов записываются в {@link CalculationMetrics}.
+ */
+@Component
+public class VacationRequestHandler {
+    // Дни, представимые в формате dd-MM-yy
+    private static final long MINIMUM_EPOCH_DAY = LocalDate.of(2000, 1, 1).toEpochDay();
+    private static final long MAXIMUM_EPOCH_DAY = LocalDate.of(2099, 12, 31).toEpochDay();
+
+    private final VacationService vacationService;
+    private final InputValidator validator;
+    private final CalculationCache calculationCache;
+    private final CalculationMetrics metrics;
+    private final AuditLog auditLog;
+    private final PayrollStore payrollStore;
+
+    /**
+     * Обработчик без журнала аудита.
+     */
+    public VacationRequestHandler(VacationService vacationService, InputValidator validator,
+                                  CalculationCache calculationCache, CalculationMetrics metrics) {
+        this(vacationService, validator, calculationCache, metrics, AuditLog.disabled());
+    }
+
+    /**
+     * Обработчик без истории заработка: запросы по employeeId отклоняются как неизвестные сотрудники.
+     */
+    public VacationRequestHandler(VacationService vacationService, InputValidator validator,
+                                  CalculationCache calculationCache, CalculationMetrics metrics, AuditLog auditLog) {
+        this(vacationService, validator, calculationCache, metrics, auditLog, PayrollStore.inMemory());
+    }
+
+    @Autowired
+    public VacationRequestHandler(VacationService vacationService, InputValidator validator,
+                                  CalculationCache calculationCache, CalculationMetrics metrics, AuditLog auditLog,
+                                  PayrollStore payrollStore) {
+        this.vacationService = vacationService;
+        this.validator = validator;
+        this.calculationCache = calculationCache;
+        this.metrics = metrics;
+        this.auditLog = auditLog;
+        this.payrollStore = payrollStore;
+    }
+
+    /**
+     * Обрабатывает запрос, заданный строковыми параметрами, и записывает результат в outcome.
+     * Параметры не копируются, поэтому могут быть представлениями над буфером (например, полями строки CSV).
+     *
+     * @param averageSalaryStr Средняя зарплата в копейках (обязательный)
+     * @param numberOfDaysStr  Количество дней отпуска
+     * @param startDateStr     Дата начала отпуска в формате {@link SalaryConstants#DATE_FORMAT}
+     * @param endDateStr       Дата окончания отпуска в формате {@link SalaryConstants#DATE_FORMAT}
+     * @param regionStr        Код региона ({@link Region#getCode()}); не задан - только федеральные праздники
+     * @param outcome          Куда записать сумму отпускных или ошибку
+     */
+    public void handle(CharSequence averageSalaryStr, CharSequence numberOfDaysStr, CharSequence startDateStr,
+                       CharSequence endDateStr, CharSequence regionStr, CalculationOutcome outcome) {
+        handle(averageSalaryStr, null, numberOfDaysStr, startDateStr, endDateStr, regionStr, outcome);
+    }
+
+    /**
+     * Обрабатывает запрос, в котором средняя зарплата задана либо явно, либо табельным номером сотрудника:
+     * тогда она берется из истории заработка ({@link PayrollStore}) за последние 12 месяцев.
+     * Рассчитанная средняя зарплата доступна в outcome для построения ETag.
+     *
+     * @param averageSalaryStr Средняя зарплата в копейках
+     * @param employeeIdStr    Табельный номер сотрудника (вместо averageSalary)
+     * @param numberOfDaysStr  Количество дней отпуска
+     * @param startDateStr     Дата начала отпуска в формате {@link SalaryConstants#DATE_FORMAT}
+     * @param endDateStr       Дата окончания отпуска в формате {@link SalaryConstants#DATE_FORMAT}
+     * @param regionStr        Код региона ({@link Region#getCode()}); не задан - только федеральные праздники
+     * @param outcome          Куда записать сумму отпускных или ошибку
+     */
+    public void handle(CharSequence averageSalaryStr, CharSequence employeeIdStr, CharSequence numberOfDaysStr,
+                       CharSequence startDateStr, CharSequence endDateStr, CharSequence regionStr,
+                       CalculationOutcome outcome) {
+        if (prepare(averageSalaryStr, employeeIdStr, numberOfDaysStr, startDateStr, endDateStr, regionStr, outcome)) {
+            calculateValidated(outcome);
+        }
+    }
+
+    /**
+     * Обрабатывает уже разобранный запрос на расчет по количеству дней (например, из бинарного протокола):
+     * та же валидация, кэш и метрики, что у {@link #handle}, но без разбора строк.
+     *
+     * @param averageSalary Средняя зарплата в копейках
+     * @param numberOfDays  Количество дней отпуска
+     * @param outcome       Куда записать сумму отпускных или ошибку
+     */
+    public void handleDays(long averageSalary, int numberOfDays, CalculationOutcome outcome) {
+        outcome.startTiming();
+        outcome.setMode(CalculationMode.DAYS);
+        boolean validSalary = validator.isValidatedSalary(averageSalary);
+        boolean validDays = validator.isValidatedDays(numberOfDays);
+        outcome.validated();
+        if (!validSalary) {
+            reject(outcome, ErrorCode.SALARY_OUT_OF_RANGE, averageSalary);
+        } else if (!validDays) {
+            reject(outcome, ErrorCode.DAYS_OUT_OF_RANGE, numberOfDays);
+        } else {
+            outcome.setDaysRequest(averageSalary, numberOfDays);
+            calculateValidated(outcome);
+        }
+    }
+
+    /**
+     * Обрабатывает уже разобранный запрос на расчет по датам (например, из бинарного протокола).
+     * Даты должны быть представимы в формате {@link SalaryConstants#DATE_FORMAT} (годы 2000-2099),
+     * как и в строковом запросе.
+     *
+     * @param averageSalary Средняя зарплата в копейках
+     * @param startEpochDay День начала отпуска (включительно), от 01.01.1970
+     * @param endEpochDay   День окончания отпуска (включительно), от 01.01.1970
+     * @param region        Регион или null, если код региона неизвестен
+     * @param outcome       Куда записать сумму отпускных или ошибку
+     */
+    public void handleDates(long averageSalary, long startEpochDay, long endEpochDay, Region region,
+                            CalculationOutcome outcome) {
+        outcome.startTiming();
+        outcome.setMode(CalculationMode.DATES);
+        boolean validSalary = validator.isValidatedSalary(averageSalary);
+        boolean validPeriod = validator.isValidatedDaysStartAndEnd(startEpochDay, endEpochDay);
+        outcome.validated();
+        if (!validSalary) {
+            reject(outcome, ErrorCode.SALARY_OUT_OF_RANGE, averageSalary);
+        } else if (region == null) {
+            reject(outcome, ErrorCode.UNKNOWN_REGION);
+        } else if (startEpochDay < MINIMUM_EPOCH_DAY || startEpochDay > MAXIMUM_EPOCH_DAY) {
+            reject(outcome, ErrorCode.START_DATE_FORMAT);
+        } else if (endEpochDay < MINIMUM_EPOCH_DAY || endEpochDay > MAXIMUM_EPOCH_DAY) {
+            reject(outcome, ErrorCode.END_DATE_FORMAT);
+        } else if (!validPeriod) {
+            reject(outcome, ErrorCode.PERIOD_INVALID);
+        } else {
+            outcome.setDatesRequest(averageSalary, startEpochDay, endEpochDay, region);
+            calculateValidated(outcome);
+        }
+    }
+
+    /**
+     * Записывает ошибку, обнаруженную вызывающим кодом до обработки запроса (например, неизвестный режим
+     * в бинарном кадре), и учитывает ее в метриках.
+     *
+     * @param errorCode Код ошибки
+     * @param outcome   Куда записать ошибку
+     */
+    public void rejectRequest(ErrorCode errorCode, CalculationOutcome outcome) {
+        outcome.startTiming();
+        reject(outcome, errorCode);
+    }
+
+    /**
+     * Рассчитывает запрос, прошедший валидацию (или берет результат из кэша).
+     */
+    private void calculateValidated(CalculationOutcome outcome) {
+        long averageSalary = outcome.getAverageSalary();
+        // Один снимок календаря для расчета и для версии в журнале аудита: перезагрузка календаря между ними
+        // не должна приписать результат другой версии
+        ProductionCalendar calendar = NonWorkingHolidayRepository.currentCalendar();
+        long result;
+        // Выполняем расчет (или берем результат из кэша)
+        if (outcome.getMode() == CalculationMode.DAYS) {
+            int days = outcome.getNumberOfDays();
+            long key = CalculationCache.daysKey(days);
+            result = calculationCache.get(averageSalary, key);
+            if (result == CalculationCache.MISS) {
+                result = vacationService.calculatePay(averageSalary, days);
+                calculationCache.put(averageSalary, key, result, null);
+            }
+        } else {
+            long startEpochDay = outcome.getStartEpochDay();
+            long endEpochDay = outcome.getEndEpochDay();
+            Region region = outcome.getRegion();
+            long key = CalculationCache.datesKey(startEpochDay, endEpochDay, region);
+            result = calculationCache.get(averageSalary, key);
+            if (result == CalculationCache.MISS) {
+                result = vacationService.calculatePayEpochDays(averageSalary, startEpochDay, endEpochDay, region,
+                        calendar);
+                calculationCache.put(averageSalary, key, result, calendar);
+            }
+        }
+        outcome.calculated();
+        audit(outcome, result, calendar.getVersion());
+        succeed(outcome, result);
+    }
+
+    /**
+     * Разбирает и проверяет строку пакетного расчета и добавляет ее в блок.
+     * Ошибка валидации сразу записывается в результат строки, расчет выполняется позже в {@link #calculate}.
+     *
+     * @param averageSalaryStr Средняя зарплата в копейках (обязательный)
+     * @param numberOfDaysStr  Количество дней отпуска
+     * @param startDateStr     Дата начала отпуска в формате {@link SalaryConstants#DATE_FORMAT}
+     * @param endDateStr       Дата окончания отпуска в формате {@link SalaryConstants#DATE_FORMAT}
+     * @param regionStr        Код региона ({@link Region#getCode()}); не задан - только федеральные праздники
+     * @param block            Блок, в который добавляется строка
+     */
+    public void add(CharSequence averageSalaryStr, CharSequence numberOfDaysStr, CharSequence startDateStr,
+                    CharSequence endDateStr, CharSequence regionStr, CalculationBlock block) {
+        CalculationOutcome outcome = block.nextOutcome();
+        if (prepare(averageSalaryStr, null, numberOfDaysStr, startDateStr, endDateStr, regionStr, outcome)) {
+            block.addValidated(outcome);
+        }
+    }
+
+    /**
+     * Рассчитывает все прошедшие валидацию строки блока пакетными методами VacationService.
+     * Кэш результатов не используется: расчет колонки дешевле обращения к кэшу на каждую строку.
+     * Время расчета блока распределяется в метриках поровну между его строками.
+     *
+     * @param block Блок строк
+     */
+    public void calculate(CalculationBlock block) {
+        int calculated = block.daysCount + block.datesCount;
+        if (calculated == 0) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        ProductionCalendar calendar = NonWorkingHolidayRepository.currentCalendar();
+        vacationService.calculatePay(block.daysSalaries, block.days, block.daysResults, block.daysCount);
+        vacationService.calculatePayEpochDays(block.datesSalaries, block.startEpochDays, block.endEpochDays,
+                block.datesRegions, block.datesResults, block.datesCount, calendar);
+        long calculateNanosPerRow = Math.max(1L, (System.nanoTime() - startNanos) / calculated);
+
+        long calendarVersion = calendar.getVersion();
+        for (int i = 0; i < block.daysCount; i++) {
+            succeedInBlock(block.outcome(block.daysRows[i]), block.daysResults[i], calculateNanosPerRow,
+                    calendarVersion);
+        }
+        for (int i = 0; i < block.datesCount; i++) {
+            succeedInBlock(block.outcome(block.datesRows[i]), block.datesResults[i], calculateNanosPerRow,
+                    calendarVersion);
+        }
+    }
+
+    /**
+     * Подбирает даты начала отпуска в году с наибольшей суммой отпускных.
+     *
+     * @param averageSalaryStr Средняя зарплата в копейках (обязательный)
+     * @param numberOfDaysStr  Длина отпуска в календарных днях (обязательный)
+     * @param yearStr          Год дат начала (обязательный)
+     * @param regionStr        Код региона ({@link Region#getCode()}); не задан - только федеральные праздники
+     * @param topStr           Сколько лучших вариантов вернуть (по умолчанию - все даты года)
+     * @param outcome          Куда записать ошибку; при успехе result - количество вариантов
+     * @return Варианты по убыванию суммы отпускных или null при ошибке
+     */
+    public List<VacationStartOption> handleBestStart(CharSequence averageSalaryStr, CharSequence numberOfDaysStr,
+                                                     CharSequence yearStr, CharSequence regionStr,
+                                                     CharSequence topStr, CalculationOutcome outcome) {
+        outcome.startTiming();
+        outcome.setMode(CalculationMode.BEST_START);
+        long averageSalary = prepareSalary(averageSalaryStr, outcome);
+        if (averageSalary == ParameterParser.INVALID) {
+            return null;
+        }
+        Region region = prepareRegion(regionStr, outcome);
+        if (region == null) {
+            return null;
+        }
+        if (isBlank(numberOfDaysStr)) {
+            outcome.validated();
+            reject(outcome, ErrorCode.DAYS_MISSING);
+            return null;
+        }
+        long days = prepareDays(numberOfDaysStr, outcome);
+        if (days == ParameterParser.INVALID) {
+            return null;
+        }
+
+        if (isBlank(yearStr)) {
+            outcome.validated();
+            reject(outcome, ErrorCode.YEAR_MISSING);
+            return null;
+        }
+        long parsedYear = ParameterParser.parseInt(yearStr);
+        outcome.parsed();
+        if (parsedYear == ParameterParser.INVALID) {
+            reject(outcome, ErrorCode.YEAR_NOT_A_NUMBER);
+            return null;
+        }
+        int year = (int) parsedYear;
+        boolean validYear = validator.isValidatedYear(year);
+        outcome.validated();
+        if (!validYear) {
+            reject(outcome, ErrorCode.YEAR_OUT_OF_RANGE, year);
+            return null;
+        }
+
+        int top = Integer.MAX_VALUE;
+        if (!isBlank(topStr)) {
+            long parsedTop = ParameterParser.parseInt(topStr);
+            outcome.parsed();
+            if (parsedTop == ParameterParser.INVALID || parsedTop < 1) {
+                reject(outcome, ErrorCode.TOP_INVALID);
+                return null;
+            }
+            top = (int) parsedTop;
+        }
+
+        List<VacationStartOption> options = vacationService.findBestStartDates(averageSalary, (int) days, year, region, top);
+        outcome.calculated();
+        succeed(outcome, options.size());
+        return options;
+    }
+
+    /**
+     * Обрабатывает расчет нескольких периодов отпуска: каждый период проверяется по тем же правилам, что и
+     * период запроса по датам, затем периоды объединяются и рассчитываются вместе
+     * ({@link VacationService#calculatePayPeriods}). Кэш не используется. В журнал аудита каждый объединенный
+     * период пишется записью расчета по датам с суммой за этот период; итог запроса округляется один раз
+     * по всем дням, поэтому может быть меньше суммы записей.
+     *
+     * @param averageSalaryStr Средняя зарплата в копейках
+     * @param employeeIdStr    Табельный номер сотрудника (вместо averageSalary)
+     * @param regionStr        Код региона ({@link Region#getCode()}); не задан - только федеральные праздники
+     * @param startDateStrs    Даты начала периодов в формате {@link SalaryConstants#DATE_FORMAT}
+     * @param endDateStrs      Даты окончания периодов, того же размера
+     * @param outcome          Куда записать ошибку; при успехе result - итоговая сумма отпускных
+     * @return Итог и разбивка по периодам или null при ошибке
+     */
+    public VacationPeriodsPay handlePeriods(CharSequence averageSalaryStr, CharSequence employeeIdStr,
+                                            CharSequence regionStr, List<? extends CharSequence> startDateStrs,
+                                            List<? extends CharSequence> endDateStrs, CalculationOutcome outcome) {
+        outcome.startTiming();
+        outcome.setMode(CalculationMode.PERIODS);
+        long averageSalary = isBlank(employeeIdStr)
+                ? prepareSalary(averageSalaryStr, outcome)
+                : prepareEmployeeSalary(averageSalaryStr, employeeIdStr, outcome);
+        if (averageSalary == ParameterParser.INVALID) {
+            return null;
+        }
+        Region region = prepareRegion(regionStr, outcome);
+        if (region == null) {
+            return null;
+        }
+        int count = startDateStrs.size();
+        if (count == 0) {
+            reject(outcome, ErrorCode.PERIODS_MISSING);
+            return null;
+        }
+        if (count > SalaryConstants.MAXIMUM_PERIODS) {
+            reject(outcome, ErrorCode.PERIODS_TOO_MANY, count);
+            return null;
+        }
+
+        long[] startEpochDays = new long[count];
+        long[] endEpochDays = new long[count];
+        for (int i = 0; i < count; i++) {
+            startEpochDays[i] = ParameterParser.parseDate(startDateStrs.get(i));
+            endEpochDays[i] = ParameterParser.parseDate(endDateStrs.get(i));
+        }
+        outcome.parsed();
+        for (int i = 0; i < count; i++) {
+            if (startEpochDays[i] == ParameterParser.INVALID) {
+                reject(outcome, ErrorCode.START_DATE_FORMAT);
+                return null;
+            }
+            if (endEpochDays[i] == ParameterParser.INVALID) {
+                reject(outcome, ErrorCode.END_DATE_FORMAT);
+                return null;
+            }
+            if (!validator.isValidatedDaysStartAndEnd(startEpochDays[i], endEpochDays[i])) {
+                outcome.validated();
+                reject(outcome, ErrorCode.PERIOD_INVALID);
+                return null;
+            }
+        }
+        outcome.validated();
+
+        ProductionCalendar calendar = NonWorkingHolidayRepository.currentCalendar();
+        VacationPeriodsPay pay = vacationService.calculatePayPeriods(averageSalary, startEpochDays, endEpochDays,
+                count, region, calendar);
+        outcome.calculated();
+        auditPeriods(averageSalary, region, pay, calendar.getVersion());
+        succeed(outcome, pay.getTotalPay());
+        return pay;
+    }
+
+    /**
+     * Разбирает и проверяет параметры запроса. При ошибке записывает ее код в outcome,
+     * иначе сохраняет в outcome режим и разобранные параметры для расчета.
+     *
+     * @return true, если запрос прошел валидацию
+     */
+    private boolean prepare(CharSequence averageSalaryStr, CharSequence employeeIdStr, CharSequence numberOfDaysStr,
+                            CharSequence startDateStr, CharSequence endDateStr, CharSequence regionStr,
+                            CalculationOutcome outcome) {
+        outcome.startTiming();
+        // 1. Валидация и парсинг средней зарплаты (обязательный параметр) или поиск ее по сотруднику
+        long averageSalary = isBlank(employeeIdStr)
+                ? prepareSalary(averageSalaryStr, outcome)
+                : prepareEmployeeSalary(averageSalaryStr, employeeIdStr, outcome);
+        if (averageSalary == ParameterParser.INVALID) {
+            return false;
+        }
+        Region region = prepareRegion(regionStr, outcome);
+        if (region == null) {
+            return false;
+        }
+
+        // 2. Определяем режим работы: по количеству дней или по датам
+        boolean useDays = !isBlank(numberOfDaysStr);
+        boolean useTwoDates = !isBlank(startDateStr) && !isBlank(endDateStr);
+        outcome.validated();
+
+        // Проверяем конфликтующие или недостающие параметры
+        if (useDays && useTwoDates) {
+            reject(outcome, ErrorCode.MODE_CONFLICT);
+            return false;
+        }
+        if (!useDays && !useTwoDates) {
+            reject(outcome, ErrorCode.MODE_MISSING);
+            return false;
+        }
+
+        // 3. Обработка и валидация в зависимости от режима
+        if (useDays) {
+            // Режим: количество дней
+            outcome.setMode(CalculationMode.DAYS);
+            long days = prepareDays(numberOfDaysStr, outcome);
+            if (days == ParameterParser.INVALID) {
+                return false;
+            }
+            outcome.setDaysRequest(averageSalary, (int) days);
+
+        } else {
+            // Режим: даты начала и конца отпуска
+            outcome.setMode(CalculationMode.DATES);
+            long startEpochDay = ParameterParser.parseDate(startDateStr);
+            if (startEpochDay == ParameterParser.INVALID) {
+                outcome.parsed();
+                reject(outcome, ErrorCode.START_DATE_FORMAT);
+                return false;
+            }
+            long endEpochDay = ParameterParser.parseDate(endDateStr);
+            outcome.parsed();
+            if (endEpochDay == ParameterParser.INVALID) {
+                reject(outcome, ErrorCode.END_DATE_FORMAT);
+                return false;
+            }
+
+            // Валидируем период дат
+            boolean validPeriod = validator.isValidatedDaysStartAndEnd(startEpochDay, endEpochDay);
+            outcome.validated();
+            if (!validPeriod) {
+                reject(outcome, ErrorCode.PERIOD_INVALID);
+                return false;
+            }
+            outcome.setDatesRequest(averageSalary, startEpochDay, endEpochDay, region);
+        }
+        return true;
+    }
+
+    /**
+     * Разбирает и проверяет среднюю зарплату. При ошибке записывает ее в outcome.
+     *
+     * @return Средняя зарплата в копейках или {@link ParameterParser#INVALID}
+     */
+    private long prepareSalary(CharSequence averageSalaryStr, CalculationOutcome outcome) {
+        if (isBlank(averageSalaryStr)) {
+            outcome.validated();
+            reject(outcome, ErrorCode.SALARY_MISSING);
+            return ParameterParser.INVALID;
+        }
+        long averageSalary = ParameterParser.parseLong(averageSalaryStr);
+        outcome.parsed();
+        if (averageSalary == ParameterParser.INVALID) {
+            reject(outcome, ErrorCode.SALARY_NOT_A_NUMBER);
+            return ParameterParser.INVALID;
+        }
+        boolean validSalary = validator.isValidatedSalary(averageSalary);
+        outcome.validated();
+        if (!validSalary) {
+            reject(outcome, ErrorCode.SALARY_OUT_OF_RANGE, averageSalary);
+            return ParameterParser.INVALID;
+        }
+        return averageSalary;
+    }
+
+    /**
+     * Находит среднюю зарплату сотрудника в истории заработка. При ошибке записывает ее в outcome.
+     *
+     * @return Средняя зарплата в копейках или {@link ParameterParser#INVALID}
+     */
+    private long prepareEmployeeSalary(CharSequence averageSalaryStr, CharSequence employeeIdStr,
+                                       CalculationOutcome outcome) {
+        if (!isBlank(averageSalaryStr)) {
+            outcome.validated();
+            reject(outcome, ErrorCode.SALARY_SOURCE_CONFLICT);
+            return ParameterParser.INVALID;
+        }
+        long employeeId = ParameterParser.parseLong(employeeIdStr);
+        outcome.parsed();
+        if (employeeId == ParameterParser.INVALID) {
+            reject(outcome, ErrorCode.EMPLOYEE_ID_NOT_A_NUMBER);
+            return ParameterParser.INVALID;
+        }
+        long averageSalary = payrollStore.averageSalary(employeeId);
+        if (averageSalary == PayrollStore.NOT_FOUND) {
+            outcome.validated();
+            reject(outcome, ErrorCode.EMPLOYEE_NOT_FOUND);
+            return ParameterParser.INVALID;
+        }
+        // Средняя по истории тоже должна укладываться в допустимый диапазон
+        boolean validSalary = validator.isValidatedSalary(averageSalary);
+        outcome.validated();
+        if (!validSalary) {
+            reject(outcome, ErrorCode.SALARY_OUT_OF_RANGE, averageSalary);
+            return ParameterParser.INVALID;
+        }
+        return averageSalary;
+    }
+
+    /**
+     * Разбирает код региона. При неизвестном коде записывает ошибку в outcome.
+     * Регион влияет только на расчет по датам, но проверяется в любом режиме.
+     *
+     * @return Регион ({@link Region#FEDERAL}, если параметр не задан) или null
+     */
+    private Region prepareRegion(CharSequence regionStr, CalculationOutcome outcome) {
+        if (isBlank(regionStr)) {
+            return Region.FEDERAL;
+        }
+        Region region = Region.fromCode(regionStr);
+        outcome.parsed();
+        if (region == null) {
+            reject(outcome, ErrorCode.UNKNOWN_REGION);
+        }
+        return region;
+    }
+
+    /**
+     * Разбирает и проверяет количество дней отпуска. При ошибке записывает ее в outcome.
+     *
+     * @return Количество дней или {@link ParameterParser#INVALID}
+     */
+    private long prepareDays(CharSequence numberOfDaysStr, CalculationOutcome outcome) {
+        long parsedDays = ParameterParser.parseInt(numberOfDaysStr);
+        outcome.parsed();
+        if (parsedDays == ParameterParser.INVALID) {
+            reject(outcome, ErrorCode.DAYS_NOT_A_NUMBER);
+            return ParameterParser.INVALID;
+        }
+        int days = (int) parsedDays;
+        boolean validDays = validator.isValidatedDays(days);
+        outcome.validated();
+        if (!validDays) {
+            reject(outcome, ErrorCode.DAYS_OUT_OF_RANGE, days);
+            return ParameterParser.INVALID;
+        }
+        return days;
+    }
+
+    /**
+     * Аналог {@link String#isBlank()} для любой последовательности символов.
+     *
+     * @param value Значение параметра
+     * @return true, если параметр не задан или состоит только из пробельных символов
+     */
+    private static boolean isBlank(CharSequence value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isWhitespace(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void succeed(CalculationOutcome outcome, long result) {
+        outcome.success(result);
+        recordStages(outcome);
+        recordSuccessEvents(outcome, outcome.getCalculateNanos());
+    }
+
+    private void succeedInBlock(CalculationOutcome outcome, long result, long calculateNanos, long calendarVersion) {
+        audit(outcome, result, calendarVersion);
+        outcome.success(result);
+        metrics.recordStages(outcome.getMode(), outcome.getParseNanos(), outcome.getValidateNanos(), calculateNanos);
+        recordSuccessEvents(outcome, calculateNanos);
+    }
+
+    /**
+     * Записывает события JFR успешного расчета, начатые в {@link CalculationOutcome#startTiming()};
+     * без записи JFR событий нет. Разобранный запрос (не бинарный кадр) пишется событием разбора.
+     */
+    private static void recordSuccessEvents(CalculationOutcome outcome, long calculateNanos) {
+        String mode = outcome.getMode().getTag();
+        int periodDays = periodDays(outcome);
+        if (outcome.getParseNanos() > 0) {
+            CalculationEvents.requestParsed(outcome.getParsedEvent(), mode, periodDays, outcome.getParseNanos());
+        }
+        CalculationEvents.payCalculated(outcome.getCalculatedEvent(), mode, periodDays, outcome.getValidateNanos(),
+                calculateNanos);
+    }
+
+    /**
+     * @return Календарные дни отпуска запроса по дням или по датам, 0 для остальных режимов
+     */
+    private static int periodDays(CalculationOutcome outcome) {
+        if (outcome.getMode() == CalculationMode.DAYS) {
+            return outcome.getNumberOfDays();
+        }
+        if (outcome.getMode() == CalculationMode.DATES) {
+            return (int) (outcome.getEndEpochDay() - outcome.getStartEpochDay() + 1);
+        }
+        return 0;
+    }
+
+    /**
+     * Публикует рассчитанный результат в журнал аудита (если он ведется).
+     *
+     * @param calendarVersion Версия календаря, по которому выполнен расчет
+     */
+    private void audit(CalculationOutcome outcome, long result, long calendarVersion) {
+        if (!auditLog.isEnabled()) {
+            return;
+        }
+        if (outcome.getMode() == CalculationMode.DAYS) {
+            auditLog.recordDays(calendarVersion, outcome.getAverageSalary(), outcome.getNumberOfDays(), result);
+        } else {
+            auditLog.recordDates(calendarVersion, outcome.getAverageSalary(), outcome.getStartEpochDay(),
+                    outcome.getEndEpochDay(), outcome.getRegion(), result);
+        }
+    }
+
+    /**
+     * Публикует объединенные периоды расчета нескольких периодов в журнал аудита (если он ведется).
+     *
+     * @param calendarVersion Версия календаря, по которому выполнен расчет
+     */
+    private void auditPeriods(long averageSalary, Region region, VacationPeriodsPay pay, long calendarVersion) {
+        if (!auditLog.isEnabled()) {
+            return;
+        }
+        for (VacationPeriod period : pay.getPeriods()) {
+            auditLog.recordDates(calendarVersion, averageSalary, ParameterParser.parseDate(period.getStartDate()),
+                    ParameterParser.parseDate(period.getEndDate()), region, period.getPay());
+        }
+    }
+
+    private void reject(CalculationOutcome outcome, ErrorCode errorCode) {
+        reject(outcome, errorCode, 0L);
+    }
+
+    /**
+     * Записывает ошибку в outcome и в метрики. Текст ошибки не собирается: он готов в {@link ErrorCode}
+     * и дописывается введенным значением только при выдаче ответа.
+     *
+     * @param outcome   Куда записать ошибку
+     * @param errorCode Код ошибки
+     * @param value     Введенное значение для текста ошибки (если код его содержит)
+     */
+    private void reject(CalculationOutcome outcome, ErrorCode errorCode, long value) {
+        outcome.failure(errorCode, value);
+        recordStages(outcome);
+        metrics.recordRejection(errorCode);
+        String mode = outcome.getMode().getTag();
+        if (outcome.getParseNanos() > 0) {
+            CalculationEvents.requestParsed(outcome.getParsedEvent(), mode, 0, outcome.getParseNanos());
+        }
+        CalculationEvents.validationFailed(outcome.getFailedEvent(), mode, errorCode.name(), outcome.getParseNanos(),
+                outcome.getValidateNanos());
+    }
+
+    private void recordStages(CalculationOutcome outcome) {
+        metrics.recordStages(outcome.getMode(), outcome.getParseNanos(), outcome.getValidateNanos(),
+                outcome.getCalculateNanos());
+    }
+}
@@ -0,0 +1,185 @@
+package ru.mayskiizhuk.error;
+
+import ru.mayskiizhuk.config.SalaryConstants;
+import ru.mayskiizhuk.repository.Region;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * Каталог ошибок обработки запроса на расчет отпускных.
+ *
+ * <p>У каждой ошибки есть машиночитаемый код (имя константы) и текст для человека. Тело ответа
+ * {@code {"code":"...","message":"..."}} в UTF-8 собирается один раз при загрузке класса. Ошибки,
+ * содержащие введенное значение (например, зарплату вне диапазона), хранят текст до и после значения,
+ * и значение дописывается при ответе без {@link java.util.Formatter}.
+ *
+ * <p>Порядковый номер кода передается в бинарном протоколе ({@link ru.mayskiizhuk.binary.BinaryProtocol}),
+ * поэтому новые коды добавляются только в конец списка.
+ */
+public enum ErrorCode {
+    SALARY_MISSING("Не указан обязательный параметр averageSalary."),
+    SALARY_NOT_A_NUMBER("Параметр averageSalary должен быть целым числом (количество копеек)."),
+    SALARY_OUT_OF_RANGE("Средняя зарплата (averageSalary) должна быть в диапазоне от " + SalaryConstants.MINIMUM_SALARY
+            + " до " + SalaryConstants.MAXIMUM_SALARY + " копеек.Вы ввели значение ", " копеек."),
+    MODE_CONFLICT("Укажите ЛИБО numberOfDays, ЛИБО оба параметра startDate и endDate, но не все вместе."),
+    MODE_MISSING("Необходимо указать ЛИБО numberOfDays, ЛИБО оба параметра startDate и endDate."),
+    DAYS_NOT_A_NUMBER("Параметр numberOfDays должен быть целым числом."),
+    DAYS_OUT_OF_RANGE("Количество дней отпуска (numberOfDays) должно быть в диапазоне от " + SalaryConstants.MINIMUM_DAYS
+            + " до " + SalaryConstants.MAXIMUM_DAYS + ".Вы ввели значение ", " дней."),
+    START_DATE_FORMAT("Неверный формат даты начала отпуска (startDate). Ожидается формат "
+            + SalaryConstants.DATE_FORMAT.toLowerCase(Locale.ROOT) + "."),
+    END_DATE_FORMAT("Неверный формат даты окончания отпуска (endDate). Ожидается формат "
+            + SalaryConstants.DATE_FORMAT.toLowerCase(Locale.ROOT) + "."),
+    PERIOD_INVALID("Некорректный период отпуска: дата окончания должна быть не раньше даты начала, "
+            + "а продолжительность должна быть в диапазоне от " + SalaryConstants.MINIMUM_DAYS + " до "
+            + SalaryConstants.MAXIMUM_DAYS + " дней."),
+    DAYS_MISSING("Не указан обязательный параметр numberOfDays."),
+    YEAR_MISSING("Не указан обязательный параметр year."),
+    YEAR_NOT_A_NUMBER("Параметр year должен быть целым числом."),
+    YEAR_OUT_OF_RANGE("Год (year) должен быть в диапазоне от " + SalaryConstants.MINIMUM_YEAR + " до "
+            + SalaryConstants.MAXIMUM_YEAR + ". Вы ввели значение ", "."),
+    TOP_INVALID("Параметр top должен быть положительным целым числом."),
+    UNKNOWN_REGION("Неизвестный регион (region). Допустимые значения: " + regionCodes() + "."),
+    LINE_NOT_JSON_OBJECT("Строка должна быть JSON-объектом."),
+    MALFORMED_QUERY("Некорректная строка запроса."),
+    SALARY_SOURCE_CONFLICT("Укажите ЛИБО averageSalary, ЛИБО employeeId, но не оба параметра."),
+    EMPLOYEE_ID_NOT_A_NUMBER("Параметр employeeId должен быть целым числом."),
+    EMPLOYEE_NOT_FOUND("Нет истории заработка сотрудника (employeeId) с отработанными днями за последние "
+            + "12 месяцев."),
+    PAYROLL_MONTH_FORMAT("Неверный формат месяца истории заработка. Ожидается формат yyyy-mm, годы от "
+            + SalaryConstants.MINIMUM_YEAR + " до " + SalaryConstants.MAXIMUM_YEAR + "."),
+    PAYROLL_EARNINGS_INVALID("Заработок за месяц (earnings) должен быть целым числом от 0 до "
+            + SalaryConstants.MAXIMUM_SALARY + " копеек."),
+    PAYROLL_WORKED_DAYS_INVALID("Отработанные дни (workedDays) должны быть целым числом от 0 до количества "
+            + "дней в месяце."),
+    TOO_MANY_REQUESTS("Превышен лимит запросов клиента. Повторите запрос позже."),
+    OVERLOADED("Сервис перегружен. Повторите запрос позже."),
+    BODY_NOT_JSON_OBJECT("Тело запроса должно быть JSON-объектом."),
+    PERIODS_MISSING("Не указан список периодов periods: массив пар [startDate, endDate] или объектов "
+            + "с полями startDate и endDate."),
+    PERIODS_TOO_MANY("Количество периодов (periods) должно быть не больше " + SalaryConstants.MAXIMUM_PERIODS
+            + ". Вы ввели ", "."),
+    LINE_TOO_LONG("Строка длиннее " + SalaryConstants.MAXIMUM_BATCH_LINE_LENGTH + " символов.");
+
+    // Максимальная длина десятичной записи long со знаком
+    private static final int MAX_LONG_DIGITS = 20;
+
+    private final String tag;
+    // Текст ошибки целиком или текст до значения
+    private final String message;
+    // Текст после значения или null, если ошибка не содержит значения
+    private final String messageSuffix;
+    // Тело ответа целиком или его начало до значения
+    private final byte[] json;
+    private final byte[] jsonSuffix;
+
+    ErrorCode(String message) {
+        this(message, null);
+    }
+
+    ErrorCode(String message, String messageSuffix) {
+        this.tag = name().toLowerCase(Locale.ROOT);
+        this.message = message;
+        this.messageSuffix = messageSuffix;
+        String head = "{\"code\":\"" + name() + "\",\"message\":\"" + escapeJson(message);
+        String tail = (messageSuffix == null ? "" : escapeJson(messageSuffix)) + "\"}";
+        if (messageSuffix == null) {
+            this.json = (head + tail).getBytes(StandardCharsets.UTF_8);
+            this.jsonSuffix = null;
+        } else {
+            this.json = head.getBytes(StandardCharsets.UTF_8);
+            this.jsonSuffix = tail.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * @return Имя кода в нижнем регистре для тегов метрик
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * @return true, если текст ошибки содержит введенное значение
+     */
+    public boolean hasValue() {
+        return messageSuffix != null;
+    }
+
+    /**
+     * @param value Введенное значение (игнорируется, если ошибка его не содержит)
+     * @return Текст ошибки
+     */
+    public String message(long value) {
+        if (messageSuffix == null) {
+            return message;
+        }
+        return new StringBuilder(message.length() + MAX_LONG_DIGITS + messageSuffix.length())
+                .append(message).append(value).append(messageSuffix).toString();
+    }
+
+    /**
+     * Тело ответа с ошибкой в UTF-8, собранное заранее при загрузке каталога. Каждый вызов возвращает новый
+     * массив: вызывающий код из других пакетов не может испортить общее тело для следующих ответов,
+     * а копирование на пути ошибки дешево.
+     *
+     * @param value Введенное значение (игнорируется, если ошибка его не содержит)
+     * @return {@code {"code":"...","message":"..."}}
+     */
+    public byte[] jsonBody(long value) {
+        if (jsonSuffix == null) {
+            return json.clone();
+        }
+        byte[] digits = new byte[MAX_LONG_DIGITS];
+        int digitsStart = writeDigits(value, digits);
+        int digitsLength = MAX_LONG_DIGITS - digitsStart;
+        byte[] body = Arrays.copyOf(json, json.length + digitsLength + jsonSuffix.length);
+        System.arraycopy(digits, digitsStart, body, json.length, digitsLength);
+        System.arraycopy(jsonSuffix, 0, body, json.length + digitsLength, jsonSuffix.length);
+        return body;
+    }
+
+    /**
+     * Пишет десятичную запись числа в конец массива.
+     *
+     * @return Индекс первого символа записи
+     */
+    private static int writeDigits(long value, byte[] digits) {
+        int position = digits.length;
+        long rest = value;
+        do {
+            digits[--position] = (byte) ('0' + Math.abs(rest % 10));
+            rest /= 10;
+        } while (rest != 0);
+        if (value < 0) {
+            digits[--position] = '-';
+        }
+        return position;
+    }
+
+    private static String regionCodes() {
+        StringJoiner codes = new StringJoiner(", ");
+        for (Region region : Region.values()) {
+            codes.add(region.getCode());
+        }
+        return codes.toString();
+    }
+
+    private static String escapeJson(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
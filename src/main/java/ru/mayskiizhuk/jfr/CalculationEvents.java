@@ -0,0 +1,130 @@
+package ru.mayskiizhuk.jfr;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * События JDK Flight Recorder этапов расчета: {@link RequestParsedEvent}, {@link ValidationFailedEvent}
+ * и {@link PayCalculatedEvent}.
+ *
+ * <p>Событие начинается вместе с обработкой запроса ({@code begin*}) и завершается в конце своего этапа,
+ * поэтому его длительность на временной шкале потока - от начала обработки до конца этапа, а время каждого
+ * этапа - в полях (те же замеры, что в метриках). Объект события создается только при включенном типе
+ * события: без записи {@code begin*} возвращают null, цена - одна проверка без выделения памяти, даже пока
+ * метод не скомпилирован C2. Пока Flight Recorder ни разу не запускался, проверка не инициализирует его.
+ */
+public final class CalculationEvents {
+    static final String NAME_PREFIX = "ru.mayskiizhuk.";
+    static final String CATEGORY = "Vacation Pay";
+    /**
+     * Значение поля outcome успешного расчета
+     */
+    public static final String OK = "OK";
+
+    private CalculationEvents() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @return Начатое событие разбора или null, если тип события не записывается
+     */
+    public static RequestParsedEvent beginRequestParsed() {
+        if (FlightRecorder.isInitialized() && Types.REQUEST_PARSED.isEnabled()) {
+            RequestParsedEvent event = new RequestParsedEvent();
+            event.begin();
+            return event;
+        }
+        return null;
+    }
+
+    /**
+     * @return Начатое событие ошибки валидации или null, если тип события не записывается
+     */
+    public static ValidationFailedEvent beginValidationFailed() {
+        if (FlightRecorder.isInitialized() && Types.VALIDATION_FAILED.isEnabled()) {
+            ValidationFailedEvent event = new ValidationFailedEvent();
+            event.begin();
+            return event;
+        }
+        return null;
+    }
+
+    /**
+     * @return Начатое событие расчета или null, если тип события не записывается
+     */
+    public static PayCalculatedEvent beginPayCalculated() {
+        if (FlightRecorder.isInitialized() && Types.PAY_CALCULATED.isEnabled()) {
+            PayCalculatedEvent event = new PayCalculatedEvent();
+            event.begin();
+            return event;
+        }
+        return null;
+    }
+
+    /**
+     * Записывает событие разбора; если этап не завершен вызовом {@code end()}, он завершается сейчас.
+     *
+     * @param event      Событие из {@link #beginRequestParsed()} или null
+     * @param mode       Тег режима расчета
+     * @param periodDays Календарные дни отпуска (0, если неизвестны)
+     * @param parseNanos Время разбора
+     */
+    public static void requestParsed(RequestParsedEvent event, String mode, int periodDays, long parseNanos) {
+        if (event != null) {
+            event.mode = mode;
+            event.periodDays = periodDays;
+            event.parseTime = parseNanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Записывает событие ошибки валидации, завершая его сейчас.
+     *
+     * @param event         Событие из {@link #beginValidationFailed()} или null
+     * @param mode          Тег режима расчета
+     * @param errorCode     Код ошибки
+     * @param parseNanos    Время разбора
+     * @param validateNanos Время валидации
+     */
+    public static void validationFailed(ValidationFailedEvent event, String mode, String errorCode, long parseNanos,
+                                        long validateNanos) {
+        if (event != null) {
+            event.mode = mode;
+            event.outcome = errorCode;
+            event.parseTime = parseNanos;
+            event.validateTime = validateNanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Записывает событие расчета; если этап не завершен вызовом {@code end()}, он завершается сейчас.
+     *
+     * @param event          Событие из {@link #beginPayCalculated()} или null
+     * @param mode           Тег режима расчета
+     * @param periodDays     Календарные дни отпуска
+     * @param validateNanos  Время валидации
+     * @param calculateNanos Время расчета
+     */
+    public static void payCalculated(PayCalculatedEvent event, String mode, int periodDays, long validateNanos,
+                                     long calculateNanos) {
+        if (event != null) {
+            event.mode = mode;
+            event.periodDays = periodDays;
+            event.outcome = OK;
+            event.validateTime = validateNanos;
+            event.calculateTime = calculateNanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Типы событий; загружаются при первой проверке после запуска Flight Recorder.
+     */
+    private static final class Types {
+        static final EventType REQUEST_PARSED = EventType.getEventType(RequestParsedEvent.class);
+        static final EventType VALIDATION_FAILED = EventType.getEventType(ValidationFailedEvent.class);
+        static final EventType PAY_CALCULATED = EventType.getEventType(PayCalculatedEvent.class);
+    }
+}
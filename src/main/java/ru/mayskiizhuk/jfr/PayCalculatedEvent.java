@@ -0,0 +1,36 @@
+package ru.mayskiizhuk.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Сумма отпускных рассчитана (или взята из кэша).
+ */
+@Name(CalculationEvents.NAME_PREFIX + "PayCalculated")
+@Label("Отпускные рассчитаны")
+@Category(CalculationEvents.CATEGORY)
+@StackTrace(false)
+public class PayCalculatedEvent extends jdk.jfr.Event {
+    @Label("Режим")
+    String mode;
+
+    @Label("Длина периода")
+    @Description("Календарные дни отпуска; 0 для подбора даты начала и нескольких периодов")
+    int periodDays;
+
+    @Label("Результат")
+    String outcome;
+
+    @Label("Валидация")
+    @Timespan(Timespan.NANOSECONDS)
+    long validateTime;
+
+    @Label("Расчет")
+    @Description("Расчет вместе с обращением к кэшу; в пакете - доля времени расчета блока")
+    @Timespan(Timespan.NANOSECONDS)
+    long calculateTime;
+}
@@ -0,0 +1,28 @@
+package ru.mayskiizhuk.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Параметры запроса на расчет разобраны.
+ */
+@Name(CalculationEvents.NAME_PREFIX + "RequestParsed")
+@Label("Запрос разобран")
+@Category(CalculationEvents.CATEGORY)
+@StackTrace(false)
+public class RequestParsedEvent extends jdk.jfr.Event {
+    @Label("Режим")
+    String mode;
+
+    @Label("Длина периода")
+    @Description("Календарные дни отпуска; 0, если запрос отклонен или период не один")
+    int periodDays;
+
+    @Label("Разбор")
+    @Timespan(Timespan.NANOSECONDS)
+    long parseTime;
+}
@@ -0,0 +1,30 @@
+package ru.mayskiizhuk.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Запрос на расчет отклонен с ошибкой.
+ */
+@Name(CalculationEvents.NAME_PREFIX + "ValidationFailed")
+@Label("Запрос отклонен")
+@Category(CalculationEvents.CATEGORY)
+@StackTrace(false)
+public class ValidationFailedEvent extends jdk.jfr.Event {
+    @Label("Режим")
+    String mode;
+
+    @Label("Код ошибки")
+    String outcome;
+
+    @Label("Разбор")
+    @Timespan(Timespan.NANOSECONDS)
+    long parseTime;
+
+    @Label("Валидация")
+    @Timespan(Timespan.NANOSECONDS)
+    long validateTime;
+}
@@ -0,0 +1,141 @@
+package ru.mayskiizhuk.lite;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import ru.mayskiizhuk.controller.CalculationOutcome;
+import ru.mayskiizhuk.controller.ResultCacheHeaders;
+import ru.mayskiizhuk.controller.VacationRequestHandler;
+import ru.mayskiizhuk.error.ErrorCode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@code GET /calculacte} для облегченного сервера: тот же контракт, что у
+ * {@link ru.mayskiizhuk.controller.VacationController#calculateVacationPay}.
+ * Успех - 200 и сумма в теле (application/json), ошибка - 400 и тело {@code {"code","message"}} из {@link ErrorCode}.
+ * Заголовки кэширования те же, что в Spring-режиме ({@link ResultCacheHeaders}): успешный ответ получает ETag
+ * и Cache-Control, а запрос с совпадающим If-None-Match - 304.
+ */
+final class CalculateHttpHandler implements HttpHandler {
+    private static final String JSON = "application/json";
+    private static final String JSON_UTF8 = "application/json;charset=UTF-8";
+    private static final String TEXT = "text/plain;charset=UTF-8";
+
+    private final VacationRequestHandler requestHandler;
+    private final ResultCacheHeaders cacheHeaders;
+
+    CalculateHttpHandler(VacationRequestHandler requestHandler, ResultCacheHeaders cacheHeaders) {
+        this.requestHandler = requestHandler;
+        this.cacheHeaders = cacheHeaders;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"/calculacte".equals(exchange.getRequestURI().getPath())) {
+                send(exchange, 404, TEXT, "Не найдено");
+                return;
+            }
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                send(exchange, 405, TEXT, "Метод не поддерживается");
+                return;
+            }
+            String query = exchange.getRequestURI().getRawQuery();
+            String averageSalary;
+            String employeeId;
+            String numberOfDays;
+            String startDate;
+            String endDate;
+            String region;
+            try {
+                averageSalary = parameter(query, "averageSalary");
+                employeeId = parameter(query, "employeeId");
+                numberOfDays = parameter(query, "numberOfDays");
+                startDate = parameter(query, "startDate");
+                endDate = parameter(query, "endDate");
+                region = parameter(query, "region");
+            } catch (IllegalArgumentException e) {
+                // Некорректная URL-кодировка (например, обрывающаяся последовательность %)
+                send(exchange, 400, JSON_UTF8, ErrorCode.MALFORMED_QUERY.jsonBody(0L));
+                return;
+            }
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            boolean byEmployee = employeeId != null && !employeeId.isBlank();
+            String etag = null;
+            if (!byEmployee) {
+                etag = cacheHeaders.etag(averageSalary, numberOfDays, startDate, endDate, region);
+                if (ResultCacheHeaders.matches(ifNoneMatch, etag)) {
+                    notModified(exchange, etag, cacheHeaders.getCacheControl());
+                    return;
+                }
+            }
+            CalculationOutcome outcome = new CalculationOutcome();
+            requestHandler.handle(averageSalary, employeeId, numberOfDays, startDate, endDate, region, outcome);
+            if (!outcome.isSuccess()) {
+                send(exchange, 400, JSON_UTF8, outcome.getErrorJson());
+                return;
+            }
+            String cacheControl = cacheHeaders.getCacheControl();
+            if (byEmployee) {
+                // Тег по зарплате, с которой посчитан именно этот ответ, - как в Spring-режиме
+                etag = cacheHeaders.etag(Long.toString(outcome.getAverageSalary()), numberOfDays, startDate, endDate,
+                        region);
+                cacheControl = ResultCacheHeaders.PRIVATE_CACHE_CONTROL;
+                if (ResultCacheHeaders.matches(ifNoneMatch, etag)) {
+                    notModified(exchange, etag, cacheControl);
+                    return;
+                }
+            }
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+            send(exchange, 200, JSON, Long.toString(outcome.getResult()));
+        }
+    }
+
+    /**
+     * @param query Строка запроса (в URL-кодировке) или null
+     * @param name  Имя параметра
+     * @return Первое значение параметра или null, если параметр не задан
+     */
+    static String parameter(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        int start = 0;
+        while (start <= query.length()) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = query.length();
+            }
+            int eq = query.indexOf('=', start);
+            int nameEnd = eq >= 0 && eq < end ? eq : end;
+            if (nameEnd - start == name.length() && query.startsWith(name, start)) {
+                return nameEnd == end ? "" : URLDecoder.decode(query.substring(nameEnd + 1, end), StandardCharsets.UTF_8);
+            }
+            start = end + 1;
+        }
+        return null;
+    }
+
+    private static void notModified(HttpExchange exchange, String etag, String cacheControl) throws IOException {
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+        exchange.sendResponseHeaders(304, -1);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        send(exchange, status, contentType, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] bytes) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package ru.mayskiizhuk.lite;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.util.unit.DataSize;
+import ru.mayskiizhuk.audit.AuditLog;
+import ru.mayskiizhuk.cache.CachePolicy;
+import ru.mayskiizhuk.cache.CalculationCache;
+import ru.mayskiizhuk.controller.ResultCacheHeaders;
+import ru.mayskiizhuk.controller.VacationRequestHandler;
+import ru.mayskiizhuk.metrics.CalculationMetrics;
+import ru.mayskiizhuk.payroll.PayrollStore;
+import ru.mayskiizhuk.repository.ProductionCalendarChangedEvent;
+import ru.mayskiizhuk.repository.ProductionCalendarLoader;
+import ru.mayskiizhuk.service.VacationService;
+import ru.mayskiizhuk.validate.InputValidator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Облегченный режим сервера без Spring: тот же эндпоинт {@code GET /calculacte} на встроенном в JDK
+ * {@link HttpServer}, компоненты создаются вручную. Предназначен для быстрого холодного старта.
+ *
+ * <p>Параметры задаются аргументами {@code --имя=значение} с теми же именами, что в Spring-режиме:
+ * {@code server.port} (8080), {@code vacation.cache.maximum-size}, {@code vacation.cache.policy},
+ * {@code vacation.calendar.path}, {@code vacation.calendar.reload-interval} (в секундах), журнал аудита
+ * {@code vacation.audit.*} (значения в тех же форматах, что в Spring-режиме), журнал истории заработка
+ * {@code vacation.payroll.path} для расчета по {@code employeeId}, {@code vacation.http.cache-max-age}.
+ * Метрики в этом режиме не публикуются. Аргумент {@code --self-test} запускает сервер на свободном порту,
+ * выполняет один запрос и завершает работу (используется для обучающего запуска AppCDS).
+ */
+public final class LiteServer {
+    private static final String SELF_TEST = "--self-test";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ProductionCalendarLoader calendarLoader;
+    private final AuditLog auditLog;
+    private final PayrollStore payrollStore;
+
+    private LiteServer(HttpServer server, ExecutorService executor, ProductionCalendarLoader calendarLoader,
+                       AuditLog auditLog, PayrollStore payrollStore) {
+        this.server = server;
+        this.executor = executor;
+        this.calendarLoader = calendarLoader;
+        this.auditLog = auditLog;
+        this.payrollStore = payrollStore;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        boolean selfTest = false;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (SELF_TEST.equals(arg)) {
+                selfTest = true;
+            } else if (arg.startsWith("--") && eq > 2) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else {
+                System.err.println("Неизвестный аргумент: " + arg + ". Ожидается --имя=значение или " + SELF_TEST);
+                System.exit(2);
+            }
+        }
+        if (selfTest) {
+            options.put("server.port", "0");
+        }
+
+        LiteServer liteServer = start(options);
+        System.out.println("Сервер запущен на порту " + liteServer.getPort() + " через " + uptimeMillis()
+                + " мс после запуска JVM");
+        if (selfTest) {
+            try {
+                liteServer.selfTest();
+            } finally {
+                liteServer.stop();
+            }
+        } else {
+            // Дописать журнал аудита при остановке процесса
+            Runtime.getRuntime().addShutdownHook(new Thread(liteServer::stop, "lite-server-shutdown"));
+        }
+    }
+
+    /**
+     * Создает компоненты и запускает сервер.
+     *
+     * @param options Параметры (имена как в application.properties)
+     * @return Запущенный сервер
+     * @throws IOException если порт занят, не загружается файл календаря, не открывается журнал аудита
+     *                     или не читается журнал истории заработка
+     */
+    public static LiteServer start(Map<String, String> options) throws IOException {
+        CalculationCache cache = new CalculationCache(
+                Integer.parseInt(options.getOrDefault("vacation.cache.maximum-size", "10000")),
+                CachePolicy.valueOf(options.getOrDefault("vacation.cache.policy", CachePolicy.W_TINY_LFU.name())));
+        // Пустой составной реестр: метры работают как заглушки и ничего не накапливают
+        MeterRegistry registry = new CompositeMeterRegistry();
+        AuditLog auditLog = auditLog(options, registry);
+        PayrollStore payrollStore = new PayrollStore(options.getOrDefault("vacation.payroll.path", ""));
+        VacationRequestHandler handler = new VacationRequestHandler(new VacationService(), new InputValidator(), cache,
+                new CalculationMetrics(registry), auditLog, payrollStore);
+
+        ProductionCalendarLoader calendarLoader = null;
+        String calendarPath = options.getOrDefault("vacation.calendar.path", "");
+        if (!calendarPath.isBlank()) {
+            Duration reloadInterval = Duration.ofSeconds(
+                    Long.parseLong(options.getOrDefault("vacation.calendar.reload-interval", "10")));
+            calendarLoader = new ProductionCalendarLoader(calendarPath, reloadInterval,
+                    event -> cache.onCalendarChanged((ProductionCalendarChangedEvent) event));
+            calendarLoader.start();
+        }
+
+        HttpServer server = HttpServer.create(
+                new InetSocketAddress(Integer.parseInt(options.getOrDefault("server.port", "8080"))), 0);
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        server.setExecutor(executor);
+        ResultCacheHeaders cacheHeaders = new ResultCacheHeaders(
+                DurationStyle.detectAndParse(options.getOrDefault("vacation.http.cache-max-age", "10m")));
+        server.createContext("/calculacte", new CalculateHttpHandler(handler, cacheHeaders));
+        server.start();
+        return new LiteServer(server, executor, calendarLoader, auditLog, payrollStore);
+    }
+
+    /**
+     * Журнал аудита с параметрами vacation.audit.* и теми же значениями по умолчанию, что в Spring-режиме;
+     * без vacation.audit.path журнал выключен.
+     */
+    private static AuditLog auditLog(Map<String, String> options, MeterRegistry registry) throws IOException {
+        String path = options.getOrDefault("vacation.audit.path", "");
+        if (path.isBlank()) {
+            return AuditLog.disabled();
+        }
+        return new AuditLog(path, DataSize.parse(options.getOrDefault("vacation.audit.segment-size", "64MB")),
+                Integer.parseInt(options.getOrDefault("vacation.audit.buffer-size", "65536")),
+                DurationStyle.detectAndParse(options.getOrDefault("vacation.audit.flush-interval", "1s")),
+                Boolean.parseBoolean(options.getOrDefault("vacation.audit.block-when-full", "false")), registry);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        if (calendarLoader != null) {
+            calendarLoader.stop();
+        }
+        auditLog.close();
+        try {
+            payrollStore.close();
+        } catch (IOException e) {
+            System.err.println("Не удалось закрыть журнал истории заработка: " + e.getMessage());
+        }
+    }
+
+    private void selfTest() throws IOException {
+        URL url = new URL("http://localhost:" + getPort() + "/calculacte?averageSalary=6000000&startDate=28-04-25&endDate=11-05-25");
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        int status = connection.getResponseCode();
+        try (InputStream body = connection.getInputStream()) {
+            body.readAllBytes();
+        }
+        System.out.println("Проверочный запрос: HTTP " + status + ", первый ответ через " + uptimeMillis()
+                + " мс после запуска JVM");
+        if (status != HttpURLConnection.HTTP_OK) {
+            throw new IOException("Проверочный запрос завершился с кодом " + status);
+        }
+    }
+
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
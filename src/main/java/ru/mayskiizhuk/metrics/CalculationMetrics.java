@@ -0,0 +1,104 @@
+package ru.mayskiizhuk.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import ru.mayskiizhuk.error.ErrorCode;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Метрики конвейера расчета: длительность этапов разбора, валидации и расчета по режимам
+ * и количество отклоненных запросов по кодам ошибок.
+ * Все таймеры и счетчики создаются заранее, запись не ищет метр в реестре и не аллоцирует теги.
+ */
+@Component
+public class CalculationMetrics {
+    public static final String STAGE_TIMER = "vacation.calculation.stage";
+    public static final String REJECTIONS_COUNTER = "vacation.calculation.rejections";
+    /**
+     * Коды ошибок, с которыми обработчик расчета отклоняет запрос. Остальные коды каталога сюда не попадают:
+     * отказы допуска (429) считает vacation.admission.rejected, ошибки истории заработка, строк пакета и
+     * URL-кодировки облегченного сервера отдаются в обход обработчика
+     */
+    public static final Set<ErrorCode> REJECTION_CODES = Collections.unmodifiableSet(EnumSet.complementOf(EnumSet.of(
+            ErrorCode.LINE_NOT_JSON_OBJECT, ErrorCode.LINE_TOO_LONG, ErrorCode.MALFORMED_QUERY,
+            ErrorCode.PAYROLL_MONTH_FORMAT, ErrorCode.PAYROLL_EARNINGS_INVALID, ErrorCode.PAYROLL_WORKED_DAYS_INVALID,
+            ErrorCode.TOO_MANY_REQUESTS, ErrorCode.OVERLOADED)));
+
+    private static final String PARSE = "parse";
+    private static final String VALIDATE = "validate";
+    private static final String CALCULATE = "calculate";
+
+    // Индексы по CalculationMode.ordinal()
+    private final Timer[] parseTimers;
+    private final Timer[] validateTimers;
+    private final Timer[] calculateTimers;
+    // Индекс по ErrorCode.ordinal()
+    private final Counter[] rejectionCounters;
+
+    public CalculationMetrics(MeterRegistry registry) {
+        CalculationMode[] modes = CalculationMode.values();
+        parseTimers = new Timer[modes.length];
+        validateTimers = new Timer[modes.length];
+        calculateTimers = new Timer[modes.length];
+        for (CalculationMode mode : modes) {
+            parseTimers[mode.ordinal()] = stageTimer(registry, PARSE, mode);
+            validateTimers[mode.ordinal()] = stageTimer(registry, VALIDATE, mode);
+            calculateTimers[mode.ordinal()] = stageTimer(registry, CALCULATE, mode);
+        }
+
+        rejectionCounters = new Counter[ErrorCode.values().length];
+        for (ErrorCode code : REJECTION_CODES) {
+            rejectionCounters[code.ordinal()] = Counter.builder(REJECTIONS_COUNTER)
+                    .description("Запросы на расчет, отклоненные валидацией")
+                    .tag("reason", code.getTag())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Записывает длительность этапов обработки одного запроса. Нулевые этапы (не выполнявшиеся) не записываются.
+     *
+     * @param mode           Режим расчета
+     * @param parseNanos     Время разбора параметров
+     * @param validateNanos  Время валидации
+     * @param calculateNanos Время расчета (вместе с обращением к кэшу)
+     */
+    public void recordStages(CalculationMode mode, long parseNanos, long validateNanos, long calculateNanos) {
+        int i = mode.ordinal();
+        if (parseNanos > 0) {
+            parseTimers[i].record(parseNanos, TimeUnit.NANOSECONDS);
+        }
+        if (validateNanos > 0) {
+            validateTimers[i].record(validateNanos, TimeUnit.NANOSECONDS);
+        }
+        if (calculateNanos > 0) {
+            calculateTimers[i].record(calculateNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @param errorCode Код ошибки из {@link #REJECTION_CODES}, с которой отклонен запрос
+     */
+    public void recordRejection(ErrorCode errorCode) {
+        rejectionCounters[errorCode.ordinal()].increment();
+    }
+
+    private static Timer stageTimer(MeterRegistry registry, String stage, CalculationMode mode) {
+        return Timer.builder(STAGE_TIMER)
+                .description("Длительность этапа обработки запроса на расчет отпускных")
+                .tag("stage", stage)
+                .tag("mode", mode.getTag())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100))
+                .maximumExpectedValue(Duration.ofMillis(100))
+                .register(registry);
+    }
+}
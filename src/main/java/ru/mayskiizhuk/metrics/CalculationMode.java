@@ -0,0 +1,37 @@
+package ru.mayskiizhuk.metrics;
+
+/**
+ * Режим расчета для тега mode в метриках.
+ */
+public enum CalculationMode {
+    /**
+     * Запрос отклонен до определения режима (например, из-за ошибки в averageSalary)
+     */
+    UNKNOWN("unknown"),
+    /**
+     * Расчет по количеству дней (numberOfDays)
+     */
+    DAYS("days"),
+    /**
+     * Расчет по датам начала и окончания отпуска
+     */
+    DATES("dates"),
+    /**
+     * Подбор лучшей даты начала отпуска в году
+     */
+    BEST_START("best_start"),
+    /**
+     * Расчет нескольких периодов отпуска сразу
+     */
+    PERIODS("periods");
+
+    private final String tag;
+
+    CalculationMode(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,400 @@
+package ru.mayskiizhuk.payroll;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.mayskiizhuk.config.SalaryConstants;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * История заработка сотрудников и скользящий агрегат за 12 месяцев для расчета средней зарплаты.
+ *
+ * <p>Для каждого сотрудника хранятся только месяцы текущего окна (12 месяцев, заканчивающихся последним
+ * известным месяцем) и суммы по окну: заработок и отработанная доля месяцев. Добавление следующего месяца
+ * вытесняет месяц, вышедший из окна, исправление месяца внутри окна заменяет его вклад - оба за O(1).
+ * Средняя месячная зарплата пересчитывается при изменении и читается без блокировки.
+ *
+ * <p>Отработанная доля месяца - отработанные календарные дни / дней в месяце. Она хранится точно в единицах
+ * 1/{@value #MONTH_UNITS} месяца ({@value #MONTH_UNITS} - наименьшее общее кратное 28, 29, 30 и 31).
+ * Средняя зарплата = ceil(заработок за окно / отработанных месяцев), так что полный месяц без исключаемых
+ * периодов дает его заработок, а сумма отпускных по ней совпадает с расчетом по переданной averageSalary.
+ *
+ * <p>Данные хранятся в памяти в примитивных массивах по номеру сотрудника в индексе. Если задан
+ * vacation.payroll.path, каждое изменение дописывается в файл записями фиксированной длины
+ * ({@value #FILE_RECORD_SIZE} байта) и при запуске журнал проигрывается заново.
+ */
+@Component
+public class PayrollStore implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(PayrollStore.class);
+
+    /**
+     * Результат поиска: нет сотрудника или в окне нет отработанных дней
+     */
+    public static final long NOT_FOUND = -1L;
+    /**
+     * Единиц отработанной доли в одном полном месяце: НОК(28, 29, 30, 31)
+     */
+    public static final int MONTH_UNITS = 377_580;
+    public static final int WINDOW_MONTHS = 12;
+    static final int FILE_RECORD_SIZE = 24;
+
+    private static final int NO_MONTH = Integer.MIN_VALUE;
+    private static final int INITIAL_EMPLOYEES = 1024;
+
+    private final StampedLock lock = new StampedLock();
+    private final FileChannel journal;
+    private final ByteBuffer journalRecord = ByteBuffer.allocate(FILE_RECORD_SIZE);
+    // Конец последней полной записи журнала: следующая запись пишется с этой позиции
+    private long journalSize;
+
+    // Индекс: открытая адресация employeeId -> номер сотрудника + 1 (0 - свободная ячейка)
+    private long[] indexKeys = new long[INITIAL_EMPLOYEES * 2];
+    private int[] indexSlots = new int[INITIAL_EMPLOYEES * 2];
+    private int employees;
+
+    // Данные по номеру сотрудника; окно - по WINDOW_MONTHS ячеек на сотрудника, ячейка = месяц % 12
+    private long[] employeeIds = new long[INITIAL_EMPLOYEES];
+    private int[] lastMonths = new int[INITIAL_EMPLOYEES];
+    private long[] windowEarnings = new long[INITIAL_EMPLOYEES * WINDOW_MONTHS];
+    private int[] windowUnits = new int[INITIAL_EMPLOYEES * WINDOW_MONTHS];
+    private long[] sumEarnings = new long[INITIAL_EMPLOYEES];
+    private long[] sumUnits = new long[INITIAL_EMPLOYEES];
+    private long[] averageSalaries = new long[INITIAL_EMPLOYEES];
+
+    /**
+     * @param path Файл журнала; пустое значение - хранить только в памяти
+     * @throws IOException если журнал не читается
+     */
+    @Autowired
+    public PayrollStore(@Value("${vacation.payroll.path:}") String path) throws IOException {
+        this(open(path));
+        if (journal != null) {
+            log.info("История заработка: {} записей, {} сотрудников ({})", journalSize / FILE_RECORD_SIZE,
+                    employees, path);
+        }
+    }
+
+    /**
+     * @param journal Открытый журнал (проигрывается) или null - хранить только в памяти
+     * @throws IOException если журнал не читается
+     */
+    PayrollStore(FileChannel journal) throws IOException {
+        this.journal = journal;
+        if (journal != null) {
+            journalSize = replay();
+        }
+    }
+
+    private static FileChannel open(String path) throws IOException {
+        if (path.isBlank()) {
+            return null;
+        }
+        Path file = Paths.get(path);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * @return Пустое хранилище в памяти без файла журнала
+     */
+    public static PayrollStore inMemory() {
+        try {
+            return new PayrollStore("");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Средняя месячная зарплата сотрудника по последним 12 месяцам истории.
+     *
+     * @param employeeId Табельный номер
+     * @return Средняя зарплата в копейках или {@link #NOT_FOUND}
+     */
+    public long averageSalary(long employeeId) {
+        long stamp = lock.tryOptimisticRead();
+        long average = findAverage(employeeId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                average = findAverage(employeeId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return average;
+    }
+
+    /**
+     * Сводка по сотруднику.
+     *
+     * @param employeeId Табельный номер
+     * @return Сводка или null, если сотрудника нет
+     */
+    public PayrollSummary summary(long employeeId) {
+        long stamp = lock.readLock();
+        try {
+            int slot = find(employeeId);
+            return slot < 0 ? null : summary(slot);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Добавляет месяц истории или исправляет ранее переданный. Месяцы старше текущего окна сохраняются
+     * в журнал, но на среднюю зарплату не влияют.
+     *
+     * @param employeeId Табельный номер
+     * @param month      Месяц
+     * @param earnings   Заработок за месяц, учитываемый в средней зарплате, в копейках (не меньше 0)
+     * @param workedDays Отработанные календарные дни месяца, от 0 до количества дней в месяце
+     * @return Сводка по сотруднику после изменения
+     * @throws IOException если не удалось записать журнал (изменение не применяется)
+     */
+    public PayrollSummary record(long employeeId, YearMonth month, long earnings, int workedDays) throws IOException {
+        if (earnings < 0 || earnings > SalaryConstants.MAXIMUM_SALARY || workedDays < 0 || workedDays > month.lengthOfMonth()) {
+            throw new IllegalArgumentException("Некорректная запись истории заработка: " + month + ", "
+                    + earnings + ", " + workedDays);
+        }
+        int monthIndex = monthIndex(month);
+        long stamp = lock.writeLock();
+        try {
+            if (journal != null) {
+                appendToJournal(employeeId, monthIndex, earnings, workedDays);
+            }
+            return summary(apply(employeeId, monthIndex, earnings, workedDays));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Дописывает запись в журнал. Если запись не удалась (в том числе частично), журнал обрезается до ее начала,
+     * чтобы следующие записи не сместились относительно границ записей. Вызывается под блокировкой записи.
+     */
+    private void appendToJournal(long employeeId, int monthIndex, long earnings, int workedDays) throws IOException {
+        journalRecord.clear();
+        journalRecord.putLong(employeeId).putInt(monthIndex).putInt(workedDays).putLong(earnings).flip();
+        long position = journalSize;
+        try {
+            while (journalRecord.hasRemaining()) {
+                position += journal.write(journalRecord, position);
+            }
+            journal.force(false);
+        } catch (IOException e) {
+            try {
+                journal.truncate(journalSize);
+            } catch (IOException truncateFailure) {
+                // Следующая запись все равно пишется с journalSize и перекроет остаток
+                e.addSuppressed(truncateFailure);
+            }
+            throw e;
+        }
+        journalSize = position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Применяет запись к окну сотрудника. Вызывается под блокировкой записи.
+     *
+     * @return Номер сотрудника
+     */
+    private int apply(long employeeId, int monthIndex, long earnings, int workedDays) {
+        int slot = findOrAdd(employeeId);
+        int last = lastMonths[slot];
+        if (last == NO_MONTH) {
+            last = monthIndex;
+        } else if (monthIndex <= last - WINDOW_MONTHS) {
+            return slot;
+        }
+        int base = slot * WINDOW_MONTHS;
+        // Сдвигаем окно: месяцы last+1..monthIndex вытесняют месяцы на 12 раньше
+        for (int m = Math.max(last + 1, monthIndex - WINDOW_MONTHS + 1); m <= monthIndex; m++) {
+            int cell = base + Math.floorMod(m, WINDOW_MONTHS);
+            sumEarnings[slot] -= windowEarnings[cell];
+            sumUnits[slot] -= windowUnits[cell];
+            windowEarnings[cell] = 0L;
+            windowUnits[cell] = 0;
+        }
+        lastMonths[slot] = Math.max(last, monthIndex);
+
+        int cell = base + Math.floorMod(monthIndex, WINDOW_MONTHS);
+        int units = workedDays * (MONTH_UNITS / YearMonth.of(monthIndex / 12, monthIndex % 12 + 1).lengthOfMonth());
+        sumEarnings[slot] += earnings - windowEarnings[cell];
+        sumUnits[slot] += units - windowUnits[cell];
+        windowEarnings[cell] = earnings;
+        windowUnits[cell] = units;
+        averageSalaries[slot] = average(sumEarnings[slot], sumUnits[slot]);
+        return slot;
+    }
+
+    /**
+     * ceil(earnings * MONTH_UNITS / units) без переполнения.
+     */
+    static long average(long earnings, long units) {
+        if (units <= 0) {
+            return NOT_FOUND;
+        }
+        if (earnings <= Long.MAX_VALUE / MONTH_UNITS) {
+            long numerator = earnings * MONTH_UNITS;
+            return (numerator + units - 1) / units;
+        }
+        BigInteger[] quotient = BigInteger.valueOf(earnings).multiply(BigInteger.valueOf(MONTH_UNITS))
+                .divideAndRemainder(BigInteger.valueOf(units));
+        BigInteger result = quotient[1].signum() > 0 ? quotient[0].add(BigInteger.ONE) : quotient[0];
+        return result.bitLength() < Long.SIZE ? result.longValue() : Long.MAX_VALUE;
+    }
+
+    private PayrollSummary summary(int slot) {
+        int last = lastMonths[slot];
+        return new PayrollSummary(employeeIds[slot], YearMonth.of(last / 12, last % 12 + 1),
+                sumEarnings[slot], (double) sumUnits[slot] / MONTH_UNITS, averageSalaries[slot]);
+    }
+
+    /**
+     * Поиск без блокировки: при одновременной записи массивы могут быть несогласованы, поэтому индексы
+     * проверяются, а результат используется только после {@link StampedLock#validate}.
+     */
+    private long findAverage(long employeeId) {
+        long[] keys = indexKeys;
+        int[] slots = indexSlots;
+        long[] averages = averageSalaries;
+        int mask = Math.min(keys.length, slots.length) - 1;
+        int position = hash(employeeId) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            int slot = slots[position] - 1;
+            if (slot < 0) {
+                return NOT_FOUND;
+            }
+            if (keys[position] == employeeId) {
+                return slot < averages.length ? averages[slot] : NOT_FOUND;
+            }
+            position = (position + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    private int find(long employeeId) {
+        int mask = indexKeys.length - 1;
+        int position = hash(employeeId) & mask;
+        while (true) {
+            int slot = indexSlots[position] - 1;
+            if (slot < 0 || indexKeys[position] == employeeId) {
+                return slot;
+            }
+            position = (position + 1) & mask;
+        }
+    }
+
+    private int findOrAdd(long employeeId) {
+        int slot = find(employeeId);
+        if (slot >= 0) {
+            return slot;
+        }
+        if (employees == employeeIds.length) {
+            grow();
+        }
+        slot = employees++;
+        employeeIds[slot] = employeeId;
+        lastMonths[slot] = NO_MONTH;
+        averageSalaries[slot] = NOT_FOUND;
+        insert(indexKeys, indexSlots, employeeId, slot);
+        return slot;
+    }
+
+    private void grow() {
+        int capacity = employeeIds.length * 2;
+        employeeIds = Arrays.copyOf(employeeIds, capacity);
+        lastMonths = Arrays.copyOf(lastMonths, capacity);
+        windowEarnings = Arrays.copyOf(windowEarnings, capacity * WINDOW_MONTHS);
+        windowUnits = Arrays.copyOf(windowUnits, capacity * WINDOW_MONTHS);
+        sumEarnings = Arrays.copyOf(sumEarnings, capacity);
+        sumUnits = Arrays.copyOf(sumUnits, capacity);
+        averageSalaries = Arrays.copyOf(averageSalaries, capacity);
+        // Индекс заполнен не больше чем наполовину
+        long[] keys = new long[capacity * 2];
+        int[] slots = new int[capacity * 2];
+        for (int slot = 0; slot < employees; slot++) {
+            insert(keys, slots, employeeIds[slot], slot);
+        }
+        indexKeys = keys;
+        indexSlots = slots;
+    }
+
+    private static void insert(long[] keys, int[] slots, long employeeId, int slot) {
+        int mask = keys.length - 1;
+        int position = hash(employeeId) & mask;
+        while (slots[position] != 0) {
+            position = (position + 1) & mask;
+        }
+        keys[position] = employeeId;
+        slots[position] = slot + 1;
+    }
+
+    private static int hash(long employeeId) {
+        long h = employeeId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int monthIndex(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    /**
+     * Проигрывает журнал при запуске. Неполная последняя запись (сбой во время записи) отбрасывается.
+     *
+     * @return Размер журнала из полных записей в байтах
+     */
+    private long replay() throws IOException {
+        long size = journal.size();
+        long complete = size - size % FILE_RECORD_SIZE;
+        if (complete != size) {
+            log.warn("Журнал истории заработка обрезан до {} байт: неполная последняя запись", complete);
+            journal.truncate(complete);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(FILE_RECORD_SIZE * 4096);
+        long position = 0;
+        while (position < complete) {
+            buffer.clear();
+            int read = journal.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Журнал истории заработка короче " + complete + " байт");
+            }
+            position += read;
+            buffer.flip();
+            while (buffer.remaining() >= FILE_RECORD_SIZE) {
+                long employeeId = buffer.getLong();
+                int monthIndex = buffer.getInt();
+                int workedDays = buffer.getInt();
+                long earnings = buffer.getLong();
+                apply(employeeId, monthIndex, earnings, workedDays);
+            }
+            position -= buffer.remaining();
+        }
+        return complete;
+    }
+}
@@ -0,0 +1,55 @@
+package ru.mayskiizhuk.payroll;
+
+import java.time.YearMonth;
+
+/**
+ * Сводка по истории заработка сотрудника за текущее 12-месячное окно.
+ */
+public class PayrollSummary {
+    private final long employeeId;
+    private final YearMonth lastMonth;
+    private final long windowEarnings;
+    private final double workedMonths;
+    private final long averageSalary;
+
+    public PayrollSummary(long employeeId, YearMonth lastMonth, long windowEarnings, double workedMonths,
+                          long averageSalary) {
+        this.employeeId = employeeId;
+        this.lastMonth = lastMonth;
+        this.windowEarnings = windowEarnings;
+        this.workedMonths = workedMonths;
+        this.averageSalary = averageSalary;
+    }
+
+    public long getEmployeeId() {
+        return employeeId;
+    }
+
+    /**
+     * @return Последний месяц окна в формате yyyy-MM
+     */
+    public String getLastMonth() {
+        return lastMonth.toString();
+    }
+
+    /**
+     * @return Заработок за окно в копейках
+     */
+    public long getWindowEarnings() {
+        return windowEarnings;
+    }
+
+    /**
+     * @return Отработанные месяцы окна (дробная часть - неполные месяцы)
+     */
+    public double getWorkedMonths() {
+        return workedMonths;
+    }
+
+    /**
+     * @return Средняя месячная зарплата в копейках или {@link PayrollStore#NOT_FOUND}, если в окне нет отработанных дней
+     */
+    public long getAverageSalary() {
+        return averageSalary;
+    }
+}
@@ -1,16 +1,10 @@
 package ru.mayskiizhuk.repository;
 
 import java.time.LocalDate;
-import java.time.MonthDay;
-import java.util.Set;
 
 public class NonWorkingHolidayRepository {
-    private static final Set<MonthDay> NON_WORKING_HOLIDAYS = Set.of(MonthDay.of(1, 1),
-            MonthDay.of(1, 2), MonthDay.of(1, 3), MonthDay.of(1, 4),
-            MonthDay.of(1, 5), MonthDay.of(1, 6), MonthDay.of(1, 7),
-            MonthDay.of(1, 8), MonthDay.of(2, 23), MonthDay.of(3, 8),
-            MonthDay.of(5, 1), MonthDay.of(5, 9), MonthDay.of(6, 12),
-            MonthDay.of(11, 4));
+    // Текущий производственный календарь; заменяется целиком при перезагрузке файла календаря
+    private static volatile ProductionCalendar calendar = ProductionCalendar.federal();
 
     private NonWorkingHolidayRepository() {
         throw new IllegalStateException("Utility class");
@@ -20,7 +14,48 @@ public class NonWorkingHolidayRepository {
         if (date == null) {
             return false;
         }
-        MonthDay md = MonthDay.from(date);
-        return NON_WORKING_HOLIDAYS.contains(md);
+        return calendar.isNonWorkingHoliday(date.getYear(), date.getDayOfYear());
     }
-}
\ No newline at end of file
+
+    /**
+     * Считает количество нерабочих праздничных дней в периоде по текущему календарю.
+     *
+     * @param startEpochDay Первый день периода (включительно), в днях от 01.01.1970
+     * @param endEpochDay   Последний день периода (включительно), в днях от 01.01.1970
+     * @return Количество праздников в периоде, 0 если период пуст
+     */
+    public static int countNonWorkingHolidays(long startEpochDay, long endEpochDay) {
+        return calendar.countNonWorkingHolidays(startEpochDay, endEpochDay);
+    }
+
+    /**
+     * Считает количество федеральных и региональных нерабочих праздничных дней в периоде по текущему календарю.
+     *
+     * @param region        Регион
+     * @param startEpochDay Первый день периода (включительно), в днях от 01.01.1970
+     * @param endEpochDay   Последний день периода (включительно), в днях от 01.01.1970
+     * @return Количество праздников в периоде, 0 если период пуст
+     */
+    public static int countNonWorkingHolidays(Region region, long startEpochDay, long endEpochDay) {
+        return calendar.countNonWorkingHolidays(region, startEpochDay, endEpochDay);
+    }
+
+    /**
+     * @return Текущий производственный календарь (неизменяемый снимок)
+     */
+    public static ProductionCalendar currentCalendar() {
+        return calendar;
+    }
+
+    /**
+     * Атомарно заменяет текущий календарь. Запросы, уже получившие старый снимок, дорабатывают с ним.
+     *
+     * @param newCalendar Новый календарь
+     * @return Календарь, действовавший до замены
+     */
+    public static synchronized ProductionCalendar installCalendar(ProductionCalendar newCalendar) {
+        ProductionCalendar previous = calendar;
+        calendar = newCalendar;
+        return previous;
+    }
+}
@@ -0,0 +1,252 @@
+package ru.mayskiizhuk.repository;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Year;
+import java.util.Set;
+
+/**
+ * Неизменяемый снимок производственного календаря: нерабочие праздничные дни по годам.
+ * Годы, заданные в файле календаря, читаются из битовых наборов по дням года (буфер может быть отображен в память),
+ * для остальных годов используется федеральный перечень праздников ст. 112 ТК РФ.
+ * Поверх календаря для каждого {@link Region} строится индекс накопленного количества праздников по дням
+ * от 01.01.1970 с уже объединенными федеральными и региональными праздниками, поэтому поиск по любому региону -
+ * одно чтение из массива на день.
+ */
+public final class ProductionCalendar {
+    private static final Set<MonthDay> FEDERAL_HOLIDAYS = Set.of(MonthDay.of(1, 1),
+            MonthDay.of(1, 2), MonthDay.of(1, 3), MonthDay.of(1, 4),
+            MonthDay.of(1, 5), MonthDay.of(1, 6), MonthDay.of(1, 7),
+            MonthDay.of(1, 8), MonthDay.of(2, 23), MonthDay.of(3, 8),
+            MonthDay.of(5, 1), MonthDay.of(5, 9), MonthDay.of(6, 12),
+            MonthDay.of(11, 4));
+
+    // Битовый набор дней года: бит (dayOfYear - 1), 366 бит в 6 словах long
+    static final int DAY_BITSET_LONGS = 6;
+
+    // Федеральные праздники в виде битовых наборов для обычного и високосного года
+    private static final long[] FEDERAL_COMMON_YEAR = federalBitset(false);
+    private static final long[] FEDERAL_LEAP_YEAR = federalBitset(true);
+
+    // Версия встроенного федерального календаря
+    public static final long FEDERAL_VERSION = 0L;
+
+    // Индекс всегда покрывает годы, которые можно задать в формате dd-MM-yy
+    private static final int INDEX_MIN_FIRST_YEAR = 2000;
+    private static final int INDEX_MIN_LAST_YEAR = 2099;
+
+    private static final ProductionCalendar FEDERAL = new ProductionCalendar(FEDERAL_VERSION, null, 0, new int[0]);
+
+    private final long version;
+    // Блоки годов; blockOffsets[year - firstYear] - смещение битового набора года в buffer или -1
+    private final ByteBuffer buffer;
+    private final int firstYear;
+    private final int[] blockOffsets;
+
+    private final long indexFirstEpochDay;
+    private final long indexLastEpochDay;
+    // holidaysBefore[region][i] - количество праздников региона в диапазоне [indexFirstEpochDay, indexFirstEpochDay + i)
+    private final int[][] holidaysBefore;
+
+    ProductionCalendar(long version, ByteBuffer buffer, int firstYear, int[] blockOffsets) {
+        this.version = version;
+        this.buffer = buffer;
+        this.firstYear = firstYear;
+        this.blockOffsets = blockOffsets;
+
+        int indexFirstYear = blockOffsets.length == 0 ? INDEX_MIN_FIRST_YEAR : Math.min(INDEX_MIN_FIRST_YEAR, firstYear);
+        int indexLastYear = blockOffsets.length == 0 ? INDEX_MIN_LAST_YEAR
+                : Math.max(INDEX_MIN_LAST_YEAR, firstYear + blockOffsets.length - 1);
+        this.indexFirstEpochDay = LocalDate.of(indexFirstYear, 1, 1).toEpochDay();
+        this.indexLastEpochDay = LocalDate.of(indexLastYear, 12, 31).toEpochDay();
+        this.holidaysBefore = buildIndex(indexFirstYear, indexLastYear);
+    }
+
+    /**
+     * @return Календарь только с федеральными праздниками, одинаковыми для всех годов
+     */
+    public static ProductionCalendar federal() {
+        return FEDERAL;
+    }
+
+    /**
+     * @return Версия данных календаря ({@link #FEDERAL_VERSION} для встроенного календаря)
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @param year Год
+     * @return true, если год задан в файле календаря явно
+     */
+    public boolean containsYear(int year) {
+        return blockOffset(year) >= 0;
+    }
+
+    /**
+     * Проверяет, является ли день нерабочим праздничным.
+     *
+     * @param year      Год
+     * @param dayOfYear День года, начиная с 1
+     * @return true, если день - нерабочий праздничный
+     */
+    public boolean isNonWorkingHoliday(int year, int dayOfYear) {
+        return isNonWorkingHoliday(Region.FEDERAL, year, dayOfYear);
+    }
+
+    /**
+     * Проверяет, является ли день нерабочим праздничным в регионе.
+     *
+     * @param region    Регион
+     * @param year      Год
+     * @param dayOfYear День года, начиная с 1
+     * @return true, если день - федеральный или региональный нерабочий праздничный
+     */
+    public boolean isNonWorkingHoliday(Region region, int year, int dayOfYear) {
+        int bit = dayOfYear - 1;
+        return (yearWord(region, year, bit >>> 6) & (1L << bit)) != 0;
+    }
+
+    /**
+     * Проверяет, является ли день нерабочим праздничным.
+     *
+     * @param epochDay День от 01.01.1970
+     * @return true, если день - нерабочий праздничный
+     */
+    public boolean isNonWorkingHoliday(long epochDay) {
+        return isNonWorkingHoliday(Region.FEDERAL, epochDay);
+    }
+
+    /**
+     * Проверяет, является ли день нерабочим праздничным в регионе.
+     *
+     * @param region   Регион
+     * @param epochDay День от 01.01.1970
+     * @return true, если день - федеральный или региональный нерабочий праздничный
+     */
+    public boolean isNonWorkingHoliday(Region region, long epochDay) {
+        if (epochDay >= indexFirstEpochDay && epochDay <= indexLastEpochDay) {
+            int[] index = holidaysBefore[region.ordinal()];
+            int i = (int) (epochDay - indexFirstEpochDay);
+            return index[i + 1] != index[i];
+        }
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return isNonWorkingHoliday(region, date.getYear(), date.getDayOfYear());
+    }
+
+    /**
+     * Считает количество нерабочих праздничных дней в периоде.
+     * Внутри индекса это два чтения из массива, вне его - проход по дням.
+     *
+     * @param startEpochDay Первый день периода (включительно), в днях от 01.01.1970
+     * @param endEpochDay   Последний день периода (включительно), в днях от 01.01.1970
+     * @return Количество праздников в периоде, 0 если период пуст
+     */
+    public int countNonWorkingHolidays(long startEpochDay, long endEpochDay) {
+        return countNonWorkingHolidays(Region.FEDERAL, startEpochDay, endEpochDay);
+    }
+
+    /**
+     * Считает количество федеральных и региональных нерабочих праздничных дней в периоде.
+     *
+     * @param region        Регион
+     * @param startEpochDay Первый день периода (включительно), в днях от 01.01.1970
+     * @param endEpochDay   Последний день периода (включительно), в днях от 01.01.1970
+     * @return Количество праздников в периоде, 0 если период пуст
+     */
+    public int countNonWorkingHolidays(Region region, long startEpochDay, long endEpochDay) {
+        if (startEpochDay > endEpochDay) {
+            return 0;
+        }
+        if (startEpochDay >= indexFirstEpochDay && endEpochDay <= indexLastEpochDay) {
+            int[] index = holidaysBefore[region.ordinal()];
+            return index[(int) (endEpochDay - indexFirstEpochDay) + 1]
+                    - index[(int) (startEpochDay - indexFirstEpochDay)];
+        }
+        int count = 0;
+        for (long epochDay = startEpochDay; epochDay <= endEpochDay; epochDay++) {
+            if (isNonWorkingHoliday(region, epochDay)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param year Год
+     * @return Битовый набор праздников года (бит dayOfYear - 1), с учетом переносов из файла календаря
+     */
+    public long[] yearBitset(int year) {
+        return yearBitset(Region.FEDERAL, year);
+    }
+
+    /**
+     * @param region Регион
+     * @param year   Год
+     * @return Битовый набор федеральных (с переносами) и региональных праздников года
+     */
+    public long[] yearBitset(Region region, int year) {
+        long[] bits = new long[DAY_BITSET_LONGS];
+        for (int i = 0; i < DAY_BITSET_LONGS; i++) {
+            bits[i] = yearWord(region, year, i);
+        }
+        return bits;
+    }
+
+    /**
+     * @param year Год
+     * @return Битовый набор федеральных праздников года без переносов
+     */
+    static long[] federalYearBitset(int year) {
+        return (Year.isLeap(year) ? FEDERAL_LEAP_YEAR : FEDERAL_COMMON_YEAR).clone();
+    }
+
+    /**
+     * @return Слово битового набора праздников года: федеральные (из файла или встроенные) плюс региональные
+     */
+    private long yearWord(Region region, int year, int word) {
+        boolean leapYear = Year.isLeap(year);
+        int offset = blockOffset(year);
+        long federal = offset >= 0 ? buffer.getLong(offset + word * Long.BYTES)
+                : (leapYear ? FEDERAL_LEAP_YEAR : FEDERAL_COMMON_YEAR)[word];
+        return federal | region.overlayWord(leapYear, word);
+    }
+
+    private int blockOffset(int year) {
+        int i = year - firstYear;
+        return i >= 0 && i < blockOffsets.length ? blockOffsets[i] : -1;
+    }
+
+    private int[][] buildIndex(int indexFirstYear, int indexLastYear) {
+        int size = (int) (indexLastEpochDay - indexFirstEpochDay) + 1;
+        Region[] regions = Region.values();
+        int[][] result = new int[regions.length][size + 1];
+        long[] bits = new long[DAY_BITSET_LONGS];
+        for (Region region : regions) {
+            int[] index = result[region.ordinal()];
+            int i = 0;
+            for (int year = indexFirstYear; year <= indexLastYear; year++) {
+                for (int word = 0; word < DAY_BITSET_LONGS; word++) {
+                    bits[word] = yearWord(region, year, word);
+                }
+                int length = Year.isLeap(year) ? 366 : 365;
+                for (int bit = 0; bit < length; bit++, i++) {
+                    index[i + 1] = index[i] + (int) (bits[bit >>> 6] >>> bit & 1L);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static long[] federalBitset(boolean leapYear) {
+        long[] bits = new long[DAY_BITSET_LONGS];
+        int year = leapYear ? 2000 : 2001;
+        for (MonthDay holiday : FEDERAL_HOLIDAYS) {
+            int bit = holiday.atYear(year).getDayOfYear() - 1;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,28 @@
+package ru.mayskiizhuk.repository;
+
+/**
+ * Публикуется после того, как загружен и установлен новый производственный календарь.
+ */
+public class ProductionCalendarChangedEvent {
+    private final ProductionCalendar previousCalendar;
+    private final ProductionCalendar currentCalendar;
+
+    public ProductionCalendarChangedEvent(ProductionCalendar previousCalendar, ProductionCalendar currentCalendar) {
+        this.previousCalendar = previousCalendar;
+        this.currentCalendar = currentCalendar;
+    }
+
+    /**
+     * @return Календарь, действовавший до замены
+     */
+    public ProductionCalendar getPreviousCalendar() {
+        return previousCalendar;
+    }
+
+    /**
+     * @return Установленный календарь
+     */
+    public ProductionCalendar getCurrentCalendar() {
+        return currentCalendar;
+    }
+}
@@ -0,0 +1,235 @@
+package ru.mayskiizhuk.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.MonthDay;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Бинарный файл производственного календаря и его текстовый исходник.
+ *
+ * <p>Формат бинарного файла (big-endian):
+ * <pre>
+ * int  magic   = 'NWHC'
+ * int  format  = 1
+ * long version - версия данных календаря
+ * int  count   - количество блоков
+ * int  reserved
+ * count блоков по 56 байт: int year, int reserved, long[6] - праздники года (бит dayOfYear - 1)
+ * </pre>
+ *
+ * <p>Формат исходника: строка {@code version N} и по строке на год вида
+ * {@code 2026: -01-08 +01-09} - федеральные праздники года с переносами
+ * ({@code +MM-dd} добавляет нерабочий день, {@code -MM-dd} убирает). Строки после {@code #} - комментарии.
+ */
+public final class ProductionCalendarFile {
+    static final int MAGIC = 0x4E574843;
+    static final int FORMAT = 1;
+    static final int HEADER_SIZE = 24;
+    static final int BLOCK_SIZE = 8 + ProductionCalendar.DAY_BITSET_LONGS * Long.BYTES;
+    // Допустимые годы в файле: ограничивают размер таблицы смещений и индекса праздников
+    static final int MIN_YEAR = 1900;
+    static final int MAX_YEAR = 2199;
+
+    private ProductionCalendarFile() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Отображает файл календаря в память и строит по нему снимок календаря.
+     *
+     * @param path Путь к бинарному файлу календаря
+     * @return Календарь
+     * @throws IOException если файл не читается или имеет некорректный формат
+     */
+    public static ProductionCalendar read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Файл календаря " + path + " слишком короткий: " + size + " байт");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT) {
+                throw new IOException("Файл " + path + " не является файлом календаря формата " + FORMAT);
+            }
+            long version = buffer.getLong(8);
+            int count = buffer.getInt(16);
+            if (count < 0 || HEADER_SIZE + (long) count * BLOCK_SIZE != size) {
+                throw new IOException("Размер файла календаря " + path + " не соответствует количеству блоков " + count);
+            }
+            if (count == 0) {
+                return new ProductionCalendar(version, buffer, 0, new int[0]);
+            }
+
+            int firstYear = Integer.MAX_VALUE;
+            int lastYear = Integer.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                int year = buffer.getInt(HEADER_SIZE + i * BLOCK_SIZE);
+                firstYear = Math.min(firstYear, year);
+                lastYear = Math.max(lastYear, year);
+            }
+            if (firstYear < MIN_YEAR || lastYear > MAX_YEAR) {
+                throw new IOException("Недопустимый диапазон годов в календаре " + path + ": " + firstYear + "-" + lastYear);
+            }
+            int[] blockOffsets = new int[lastYear - firstYear + 1];
+            Arrays.fill(blockOffsets, -1);
+            for (int i = 0; i < count; i++) {
+                int blockOffset = HEADER_SIZE + i * BLOCK_SIZE;
+                int year = buffer.getInt(blockOffset);
+                if (blockOffsets[year - firstYear] >= 0) {
+                    throw new IOException("Год " + year + " задан в календаре " + path + " дважды");
+                }
+                blockOffsets[year - firstYear] = blockOffset + 8;
+            }
+            return new ProductionCalendar(version, buffer, firstYear, blockOffsets);
+        }
+    }
+
+    /**
+     * Записывает бинарный файл календаря. Файл пишется рядом и атомарно переименовывается,
+     * поэтому уже отображенная в память старая версия не портится.
+     *
+     * @param path    Путь к бинарному файлу календаря
+     * @param version Версия данных календаря
+     * @param years   Праздники по годам (битовые наборы по дням года)
+     * @throws IOException при ошибке записи
+     */
+    public static void write(Path path, long version, SortedMap<Integer, long[]> years) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + years.size() * BLOCK_SIZE);
+        buffer.putInt(MAGIC).putInt(FORMAT).putLong(version).putInt(years.size()).putInt(0);
+        for (Map.Entry<Integer, long[]> entry : years.entrySet()) {
+            buffer.putInt(entry.getKey()).putInt(0);
+            for (int i = 0; i < ProductionCalendar.DAY_BITSET_LONGS; i++) {
+                buffer.putLong(entry.getValue()[i]);
+            }
+        }
+
+        Path absolutePath = path.toAbsolutePath();
+        Path temp = Files.createTempFile(absolutePath.getParent(), absolutePath.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, buffer.array());
+            Files.move(temp, absolutePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Результат разбора текстового исходника календаря.
+     */
+    public static final class Source {
+        private final long version;
+        private final SortedMap<Integer, long[]> years;
+
+        Source(long version, SortedMap<Integer, long[]> years) {
+            this.version = version;
+            this.years = years;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public SortedMap<Integer, long[]> getYears() {
+            return years;
+        }
+    }
+
+    /**
+     * Разбирает текстовый исходник календаря.
+     *
+     * @param lines Строки исходника
+     * @return Версия и праздники по годам
+     * @throws IllegalArgumentException если исходник содержит ошибку
+     */
+    public static Source parse(List<String> lines) {
+        Long version = null;
+        SortedMap<Integer, long[]> years = new TreeMap<>();
+        for (int lineNumber = 1; lineNumber <= lines.size(); lineNumber++) {
+            String line = lines.get(lineNumber - 1);
+            int comment = line.indexOf('#');
+            line = (comment >= 0 ? line.substring(0, comment) : line).trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            try {
+                if (line.startsWith("version")) {
+                    version = Long.parseLong(line.substring("version".length()).trim());
+                    continue;
+                }
+                int colon = line.indexOf(':');
+                if (colon < 0) {
+                    throw new IllegalArgumentException("ожидается 'version N' или 'ГГГГ: [+ММ-дд] [-ММ-дд]'");
+                }
+                int year = Integer.parseInt(line.substring(0, colon).trim());
+                if (year < MIN_YEAR || year > MAX_YEAR) {
+                    throw new IllegalArgumentException("год " + year + " вне диапазона " + MIN_YEAR + "-" + MAX_YEAR);
+                }
+                if (years.containsKey(year)) {
+                    throw new IllegalArgumentException("год " + year + " задан дважды");
+                }
+                long[] bits = ProductionCalendar.federalYearBitset(year);
+                for (String token : line.substring(colon + 1).trim().split("\\s+")) {
+                    if (!token.isEmpty()) {
+                        applyTransfer(bits, year, token);
+                    }
+                }
+                years.put(year, bits);
+            } catch (IllegalArgumentException | DateTimeException e) {
+                throw new IllegalArgumentException("Строка " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        if (version == null) {
+            throw new IllegalArgumentException("В исходнике календаря не указана версия (строка 'version N')");
+        }
+        return new Source(version, years);
+    }
+
+    private static void applyTransfer(long[] bits, int year, String token) {
+        char sign = token.charAt(0);
+        if (sign != '+' && sign != '-' || token.length() != 6 || token.charAt(3) != '-') {
+            throw new IllegalArgumentException("ожидается +ММ-дд или -ММ-дд, получено '" + token + "'");
+        }
+        MonthDay monthDay = MonthDay.of(Integer.parseInt(token.substring(1, 3)), Integer.parseInt(token.substring(4, 6)));
+        if (!monthDay.isValidYear(year)) {
+            throw new IllegalArgumentException("дня " + token.substring(1) + " нет в " + year + " году");
+        }
+        int bit = monthDay.atYear(year).getDayOfYear() - 1;
+        if (sign == '+') {
+            bits[bit >>> 6] |= 1L << bit;
+        } else {
+            bits[bit >>> 6] &= ~(1L << bit);
+        }
+    }
+
+    /**
+     * Компилирует текстовый исходник календаря в бинарный файл.
+     * Использование: {@code ProductionCalendarFile <исходник.txt> <календарь.bin>}
+     *
+     * @param args Путь к исходнику и путь к бинарному файлу
+     * @throws IOException при ошибке чтения или записи
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Использование: ProductionCalendarFile <исходник.txt> <календарь.bin>");
+            System.exit(2);
+        }
+        Source source = parse(Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8));
+        write(Paths.get(args[1]), source.getVersion(), source.getYears());
+        System.out.println("Календарь версии " + source.getVersion() + " (" + source.getYears().size()
+                + " лет) записан в " + args[1]);
+    }
+}
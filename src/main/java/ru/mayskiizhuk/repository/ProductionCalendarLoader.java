@@ -0,0 +1,104 @@
+package ru.mayskiizhuk.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Загружает производственный календарь из файла (vacation.calendar.path) при старте
+ * и перезагружает его при изменении файла на диске. Без настроенного пути действует встроенный федеральный календарь.
+ *
+ * <p>Обновлять файл нужно атомарно: записать новую версию рядом и переименовать поверх старой
+ * (так делает {@link ProductionCalendarFile#write}).
+ */
+@Component
+public class ProductionCalendarLoader {
+    private static final Logger log = LoggerFactory.getLogger(ProductionCalendarLoader.class);
+
+    private final Path path;
+    private final Duration reloadInterval;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private ScheduledExecutorService executor;
+    private FileTime loadedModifiedTime;
+    private long loadedSize;
+
+    public ProductionCalendarLoader(@Value("${vacation.calendar.path:}") String path,
+                                    @Value("${vacation.calendar.reload-interval:10s}") Duration reloadInterval,
+                                    ApplicationEventPublisher eventPublisher) {
+        this.path = path.isBlank() ? null : Paths.get(path);
+        this.reloadInterval = reloadInterval;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (path == null) {
+            return;
+        }
+        // Ошибка первой загрузки останавливает запуск: работать со старыми данными нечем
+        load();
+        if (!reloadInterval.isZero() && !reloadInterval.isNegative()) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "production-calendar-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMillis = reloadInterval.toMillis();
+            executor.scheduleWithFixedDelay(this::reloadIfChanged, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Перезагружает календарь, если файл изменился с момента последней загрузки.
+     * Ошибка чтения нового файла логируется, а текущий календарь продолжает действовать.
+     *
+     * @return true, если был установлен новый календарь
+     */
+    boolean reloadIfChanged() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (attributes.lastModifiedTime().equals(loadedModifiedTime) && attributes.size() == loadedSize) {
+                return false;
+            }
+            load();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("Не удалось перезагрузить производственный календарь из {}, действует версия {}",
+                    path, NonWorkingHolidayRepository.currentCalendar().getVersion(), e);
+            return false;
+        }
+    }
+
+    private void load() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        ProductionCalendar calendar = ProductionCalendarFile.read(path);
+        ProductionCalendar previous = NonWorkingHolidayRepository.installCalendar(calendar);
+        loadedModifiedTime = attributes.lastModifiedTime();
+        loadedSize = attributes.size();
+        log.info("Загружен производственный календарь версии {} из {}", calendar.getVersion(), path);
+        eventPublisher.publishEvent(new ProductionCalendarChangedEvent(previous, calendar));
+    }
+}
@@ -0,0 +1,95 @@
+package ru.mayskiizhuk.repository;
+
+import java.time.MonthDay;
+
+/**
+ * Субъект РФ с дополнительными региональными нерабочими праздниками.
+ * Региональные праздники хранятся битовыми наборами по дням года и при построении
+ * {@link ProductionCalendar} объединяются с федеральным календарем (включая переносы из файла календаря).
+ */
+public enum Region {
+    // Только федеральные праздники
+    FEDERAL("RU"),
+    // Республика Татарстан: День Республики, День Конституции
+    TATARSTAN("RU-TA", MonthDay.of(8, 30), MonthDay.of(11, 6)),
+    // Республика Башкортостан: День Республики, День Конституции
+    BASHKORTOSTAN("RU-BA", MonthDay.of(10, 11), MonthDay.of(12, 24)),
+    // Республика Саха (Якутия): День Республики, Ысыах
+    SAKHA("RU-SA", MonthDay.of(4, 27), MonthDay.of(6, 21));
+
+    private static final Region[] VALUES = values();
+
+    private final String code;
+    // Региональные праздники для обычного и високосного года (бит dayOfYear - 1)
+    private final long[] commonYearBits;
+    private final long[] leapYearBits;
+
+    Region(String code, MonthDay... holidays) {
+        this.code = code;
+        this.commonYearBits = bitset(holidays, 2001);
+        this.leapYearBits = bitset(holidays, 2000);
+    }
+
+    /**
+     * @return Код субъекта по ISO 3166-2 (для федерального календаря - "RU")
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Ищет регион по коду без учета регистра и без создания объектов.
+     *
+     * @param code Код субъекта, например "RU-TA"; пустое значение означает федеральный календарь
+     * @return Регион или null, если код неизвестен
+     */
+    public static Region fromCode(CharSequence code) {
+        if (code == null || code.length() == 0) {
+            return FEDERAL;
+        }
+        for (Region region : VALUES) {
+            if (equalsIgnoreCase(region.code, code)) {
+                return region;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param region Индекс региона ({@link #ordinal()})
+     * @return Регион
+     */
+    public static Region of(int region) {
+        return VALUES[region];
+    }
+
+    /**
+     * @param leapYear true для високосного года
+     * @param word     Номер слова битового набора, от 0 до {@link ProductionCalendar#DAY_BITSET_LONGS} - 1
+     * @return Слово битового набора региональных праздников
+     */
+    long overlayWord(boolean leapYear, int word) {
+        return (leapYear ? leapYearBits : commonYearBits)[word];
+    }
+
+    private static boolean equalsIgnoreCase(String code, CharSequence value) {
+        if (code.length() != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < code.length(); i++) {
+            if (Character.toUpperCase(value.charAt(i)) != code.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long[] bitset(MonthDay[] holidays, int year) {
+        long[] bits = new long[ProductionCalendar.DAY_BITSET_LONGS];
+        for (MonthDay holiday : holidays) {
+            int bit = holiday.atYear(year).getDayOfYear() - 1;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+        return bits;
+    }
+}
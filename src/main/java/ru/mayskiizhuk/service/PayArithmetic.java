@@ -0,0 +1,82 @@
+package ru.mayskiizhuk.service;
+
+import ru.mayskiizhuk.config.SalaryConstants;
+
+/**
+ * Точный целочисленный расчет ceil(зарплата * дни / 29.3) без вычислений с плавающей точкой.
+ * Среднее количество дней в месяце 29.3 представлено дробью 293 / 10.
+ */
+final class PayArithmetic {
+    // 29.3 = AVERAGE_DAYS_IN_MONTH_NUMERATOR / AVERAGE_DAYS_IN_MONTH_DENOMINATOR
+    static final long AVERAGE_DAYS_IN_MONTH_NUMERATOR = 293;
+    static final long AVERAGE_DAYS_IN_MONTH_DENOMINATOR = 10;
+
+    private static final long LOW_32_BITS = 0xFFFFFFFFL;
+
+    private PayArithmetic() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Считает ceil(averageSalaryInKopecks * paidDays * 10 / 293).
+     * Если результат не помещается в long, возвращается Long.MAX_VALUE или Long.MIN_VALUE
+     * (так же, как приведение Math.ceil к long).
+     *
+     * @param averageSalaryInKopecks Средняя зарплата в копейках
+     * @param paidDays               Количество оплачиваемых дней
+     * @return Сумма отпускных в копейках, округленная вверх
+     */
+    static long ceilPay(long averageSalaryInKopecks, long paidDays) {
+        // Допустимые входные данные: произведение не больше 3.66e17 и помещается в long
+        if (averageSalaryInKopecks >= 0 && averageSalaryInKopecks <= SalaryConstants.MAXIMUM_SALARY
+                && paidDays >= 0 && paidDays <= SalaryConstants.MAXIMUM_DAYS) {
+            long numerator = averageSalaryInKopecks * paidDays * AVERAGE_DAYS_IN_MONTH_DENOMINATOR;
+            return (numerator + AVERAGE_DAYS_IN_MONTH_NUMERATOR - 1) / AVERAGE_DAYS_IN_MONTH_NUMERATOR;
+        }
+        return ceilPayWide(averageSalaryInKopecks, paidDays);
+    }
+
+    /**
+     * Общий случай: произведение модулей считается как 128-битное беззнаковое число (high, low),
+     * делится на 293, после чего умножение на 10 применяется к частному и остатку отдельно:
+     * 10 * n / 293 = 10 * q + 10 * r / 293, где n = 293 * q + r.
+     */
+    private static long ceilPayWide(long averageSalaryInKopecks, long paidDays) {
+        boolean negative = (averageSalaryInKopecks < 0) != (paidDays < 0);
+        // Модули как беззнаковые числа (модуль Long.MIN_VALUE равен 2^63 и тоже представим)
+        long a = averageSalaryInKopecks < 0 ? -averageSalaryInKopecks : averageSalaryInKopecks;
+        long b = paidDays < 0 ? -paidDays : paidDays;
+        long low = a * b;
+        long high = unsignedMultiplyHigh(a, b);
+        if (low == 0 && high == 0) {
+            return 0L;
+        }
+
+        // Деление 128-битного числа на 293: старшее слово (меньше 2^62) целиком, младшее - по 32 бита
+        long quotientHigh = high / AVERAGE_DAYS_IN_MONTH_NUMERATOR;
+        long remainder = high % AVERAGE_DAYS_IN_MONTH_NUMERATOR;
+        long current = (remainder << 32) | (low >>> 32);
+        long quotientMid = current / AVERAGE_DAYS_IN_MONTH_NUMERATOR;
+        remainder = current % AVERAGE_DAYS_IN_MONTH_NUMERATOR;
+        current = (remainder << 32) | (low & LOW_32_BITS);
+        long quotientLow = (quotientMid << 32) + current / AVERAGE_DAYS_IN_MONTH_NUMERATOR;
+        remainder = current % AVERAGE_DAYS_IN_MONTH_NUMERATOR;
+
+        long maxQuotient = (Long.MAX_VALUE - AVERAGE_DAYS_IN_MONTH_DENOMINATOR) / AVERAGE_DAYS_IN_MONTH_DENOMINATOR;
+        if (quotientHigh != 0 || quotientLow < 0 || quotientLow > maxQuotient) {
+            return negative ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        long scaledRemainder = remainder * AVERAGE_DAYS_IN_MONTH_DENOMINATOR;
+        long magnitude = quotientLow * AVERAGE_DAYS_IN_MONTH_DENOMINATOR;
+        if (negative) {
+            // ceil(-x) = -floor(x)
+            return -(magnitude + scaledRemainder / AVERAGE_DAYS_IN_MONTH_NUMERATOR);
+        }
+        return magnitude + (scaledRemainder + AVERAGE_DAYS_IN_MONTH_NUMERATOR - 1) / AVERAGE_DAYS_IN_MONTH_NUMERATOR;
+    }
+
+    // Math.unsignedMultiplyHigh появился только в Java 18
+    private static long unsignedMultiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+}
@@ -0,0 +1,61 @@
+package ru.mayskiizhuk.service;
+
+/**
+ * Период отпуска после объединения пересекающихся и смежных периодов запроса.
+ */
+public class VacationPeriod {
+    private final String startDate;
+    private final String endDate;
+    private final int calendarDays;
+    private final int paidDays;
+    private final long pay;
+    private final int[] sources;
+
+    public VacationPeriod(String startDate, String endDate, int calendarDays, int paidDays, long pay, int[] sources) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.calendarDays = calendarDays;
+        this.paidDays = paidDays;
+        this.pay = pay;
+        this.sources = sources;
+    }
+
+    /**
+     * @return Дата начала в формате {@link ru.mayskiizhuk.config.SalaryConstants#DATE_FORMAT}
+     */
+    public String getStartDate() {
+        return startDate;
+    }
+
+    /**
+     * @return Дата окончания в формате {@link ru.mayskiizhuk.config.SalaryConstants#DATE_FORMAT}
+     */
+    public String getEndDate() {
+        return endDate;
+    }
+
+    public int getCalendarDays() {
+        return calendarDays;
+    }
+
+    /**
+     * @return Количество оплачиваемых дней (календарные дни периода минус праздники)
+     */
+    public int getPaidDays() {
+        return paidDays;
+    }
+
+    /**
+     * @return Сумма отпускных за период в копейках, округленная вверх
+     */
+    public long getPay() {
+        return pay;
+    }
+
+    /**
+     * @return Номера периодов запроса (с 0), вошедших в этот период, по возрастанию
+     */
+    public int[] getSources() {
+        return sources;
+    }
+}
@@ -0,0 +1,39 @@
+package ru.mayskiizhuk.service;
+
+import java.util.List;
+
+/**
+ * Результат расчета нескольких периодов отпуска: итог и разбивка по объединенным периодам.
+ */
+public class VacationPeriodsPay {
+    private final int totalPaidDays;
+    private final long totalPay;
+    private final List<VacationPeriod> periods;
+
+    public VacationPeriodsPay(int totalPaidDays, long totalPay, List<VacationPeriod> periods) {
+        this.totalPaidDays = totalPaidDays;
+        this.totalPay = totalPay;
+        this.periods = periods;
+    }
+
+    /**
+     * @return Оплачиваемые дни всех периодов (дни, попавшие в несколько периодов запроса, считаются один раз)
+     */
+    public int getTotalPaidDays() {
+        return totalPaidDays;
+    }
+
+    /**
+     * @return Сумма отпускных за все оплачиваемые дни в копейках, округленная вверх один раз
+     */
+    public long getTotalPay() {
+        return totalPay;
+    }
+
+    /**
+     * @return Объединенные периоды по возрастанию дат
+     */
+    public List<VacationPeriod> getPeriods() {
+        return periods;
+    }
+}
@@ -2,14 +2,27 @@ package ru.mayskiizhuk.service;
 
 import org.springframework.stereotype.Service;
 import ru.mayskiizhuk.repository.NonWorkingHolidayRepository;
+import ru.mayskiizhuk.repository.ProductionCalendar;
+import ru.mayskiizhuk.repository.Region;
+
+import ru.mayskiizhuk.config.SalaryConstants;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
 
 @Service
 public class VacationService {
-    // Среднее количество календарных дней в месяце для расчета (по ТК РФ)
-    private static final double AVERAGE_DAYS_IN_MONTH = 29.3;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(SalaryConstants.DATE_FORMAT);
+    // Биты номера периода в ключе сортировки (номер меньше MAXIMUM_PERIODS)
+    private static final int PERIOD_INDEX_BITS = 7;
+    private static final long PERIOD_INDEX_MASK = (1L << PERIOD_INDEX_BITS) - 1;
+    // Последний день, представимый в формате SalaryConstants.DATE_FORMAT
+    private static final long LAST_EPOCH_DAY = LocalDate.of(SalaryConstants.MAXIMUM_YEAR, 12, 31).toEpochDay();
 
     /**
      * Рассчитывает сумму отпускных по количеству дней.
@@ -20,10 +33,8 @@ public class VacationService {
      */
     public long calculatePay(long averageSalaryInKopecks, int numberOfVacationDays) {
         // Формула: СреднедневнойЗаработок * КоличествоДней
-        // СреднедневнойЗаработок = averageSalaryInKopecks / AVERAGE_DAYS_IN_MONTH
-        double averageDailySalary = (double) averageSalaryInKopecks / AVERAGE_DAYS_IN_MONTH;
-        double result = averageDailySalary * numberOfVacationDays;
-        return (long) Math.ceil(result);
+        // СреднедневнойЗаработок = averageSalaryInKopecks / 29.3 (среднее количество дней в месяце по ТК РФ)
+        return PayArithmetic.ceilPay(averageSalaryInKopecks, numberOfVacationDays);
     }
 
     /**
@@ -35,15 +46,53 @@ public class VacationService {
      * @return Сумма отпускных в копейках, округленная вверх
      */
     public long calculatePaySpecificDate(long averageSalaryInKopecks, LocalDate startDate, LocalDate endDate) {
-        int numberOfNonWorkingHolidays = 0;
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            if (NonWorkingHolidayRepository.isNonWorkingHoliday(date)) {
-                numberOfNonWorkingHolidays++;
-            }
-        }
+        return calculatePayEpochDays(averageSalaryInKopecks, startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    /**
+     * Рассчитывает сумму отпускных по датам начала и конца, заданным в днях от 01.01.1970.
+     *
+     * @param averageSalaryInKopecks Средняя зарплата в копейках
+     * @param startEpochDay          День начала отпуска (включительно)
+     * @param endEpochDay            День окончания отпуска (включительно)
+     * @return Сумма отпускных в копейках, округленная вверх
+     */
+    public long calculatePayEpochDays(long averageSalaryInKopecks, long startEpochDay, long endEpochDay) {
+        return calculatePayEpochDays(averageSalaryInKopecks, startEpochDay, endEpochDay, Region.FEDERAL);
+    }
+
+    /**
+     * Рассчитывает сумму отпускных по датам с учетом региональных праздников.
+     *
+     * @param averageSalaryInKopecks Средняя зарплата в копейках
+     * @param startEpochDay          День начала отпуска (включительно)
+     * @param endEpochDay            День окончания отпуска (включительно)
+     * @param region                 Регион, праздники которого не оплачиваются наряду с федеральными
+     * @return Сумма отпускных в копейках, округленная вверх
+     */
+    public long calculatePayEpochDays(long averageSalaryInKopecks, long startEpochDay, long endEpochDay, Region region) {
+        return calculatePayEpochDays(averageSalaryInKopecks, startEpochDay, endEpochDay, region,
+                NonWorkingHolidayRepository.currentCalendar());
+    }
+
+    /**
+     * Рассчитывает сумму отпускных по датам с учетом региональных праздников по заданному снимку
+     * производственного календаря (например, чтобы записать в журнал аудита версию именно того календаря,
+     * по которому выполнен расчет).
+     *
+     * @param averageSalaryInKopecks Средняя зарплата в копейках
+     * @param startEpochDay          День начала отпуска (включительно)
+     * @param endEpochDay            День окончания отпуска (включительно)
+     * @param region                 Регион, праздники которого не оплачиваются наряду с федеральными
+     * @param calendar               Производственный календарь
+     * @return Сумма отпускных в копейках, округленная вверх
+     */
+    public long calculatePayEpochDays(long averageSalaryInKopecks, long startEpochDay, long endEpochDay, Region region,
+                                      ProductionCalendar calendar) {
+        int numberOfNonWorkingHolidays = calendar.countNonWorkingHolidays(region, startEpochDay, endEpochDay);
 
         // Общее количество календарных дней в периоде
-        long totalDaysInPeriod = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        long totalDaysInPeriod = endEpochDay - startEpochDay + 1;
 
         // Количество оплачиваемых дней (календарные минус праздники)
         long paidDays = totalDaysInPeriod - numberOfNonWorkingHolidays;
@@ -54,9 +103,282 @@ public class VacationService {
         }
 
         // Формула: СреднедневнойЗаработок * КоличествоОплачиваемыхДней
-        double averageDailySalary = (double) averageSalaryInKopecks / AVERAGE_DAYS_IN_MONTH;
-        double result = averageDailySalary * paidDays;
+        return PayArithmetic.ceilPay(averageSalaryInKopecks, paidDays);
+    }
+
+    /**
+     * Пакетный расчет по количеству дней: out[i] = calculatePay(averageSalaries[i], numberOfVacationDays[i])
+     * для i от 0 до count - 1. Работает с примитивными массивами без создания объектов на элемент.
+     *
+     * @param averageSalaries      Средние зарплаты в копейках
+     * @param numberOfVacationDays Количества дней отпуска
+     * @param out                  Куда записать суммы отпускных в копейках
+     * @param count                Количество элементов
+     */
+    public void calculatePay(long[] averageSalaries, int[] numberOfVacationDays, long[] out, int count) {
+        // Проверка границ один раз до цикла позволяет JIT убрать проверки на каждом элементе
+        Objects.checkFromIndexSize(0, count, averageSalaries.length);
+        Objects.checkFromIndexSize(0, count, numberOfVacationDays.length);
+        Objects.checkFromIndexSize(0, count, out.length);
+        for (int i = 0; i < count; i++) {
+            out[i] = PayArithmetic.ceilPay(averageSalaries[i], numberOfVacationDays[i]);
+        }
+    }
+
+    /**
+     * Пакетный расчет по датам в днях от 01.01.1970:
+     * out[i] = calculatePayEpochDays(averageSalaries[i], startEpochDays[i], endEpochDays[i]) для i от 0 до count - 1.
+     * Все элементы считаются по одному снимку производственного календаря.
+     *
+     * @param averageSalaries Средние зарплаты в копейках
+     * @param startEpochDays  Дни начала отпуска (включительно)
+     * @param endEpochDays    Дни окончания отпуска (включительно)
+     * @param out             Куда записать суммы отпускных в копейках
+     * @param count           Количество элементов
+     */
+    public void calculatePayEpochDays(long[] averageSalaries, long[] startEpochDays, long[] endEpochDays,
+                                      long[] out, int count) {
+        Objects.checkFromIndexSize(0, count, averageSalaries.length);
+        Objects.checkFromIndexSize(0, count, startEpochDays.length);
+        Objects.checkFromIndexSize(0, count, endEpochDays.length);
+        Objects.checkFromIndexSize(0, count, out.length);
+        ProductionCalendar calendar = NonWorkingHolidayRepository.currentCalendar();
+        for (int i = 0; i < count; i++) {
+            long startEpochDay = startEpochDays[i];
+            long endEpochDay = endEpochDays[i];
+            long paidDays = endEpochDay - startEpochDay + 1 - calendar.countNonWorkingHolidays(startEpochDay, endEpochDay);
+            out[i] = paidDays == 0 ? 0L : PayArithmetic.ceilPay(averageSalaries[i], paidDays);
+        }
+    }
+
+    /**
+     * Пакетный расчет по датам с учетом региональных праздников:
+     * out[i] = calculatePayEpochDays(averageSalaries[i], startEpochDays[i], endEpochDays[i], regions[i]).
+     * Все элементы считаются по одному снимку производственного календаря.
+     *
+     * @param averageSalaries Средние зарплаты в копейках
+     * @param startEpochDays  Дни начала отпуска (включительно)
+     * @param endEpochDays    Дни окончания отпуска (включительно)
+     * @param regions         Регионы
+     * @param out             Куда записать суммы отпускных в копейках
+     * @param count           Количество элементов
+     */
+    public void calculatePayEpochDays(long[] averageSalaries, long[] startEpochDays, long[] endEpochDays,
+                                      Region[] regions, long[] out, int count) {
+        calculatePayEpochDays(averageSalaries, startEpochDays, endEpochDays, regions, out, count,
+                NonWorkingHolidayRepository.currentCalendar());
+    }
+
+    /**
+     * То же, что {@link #calculatePayEpochDays(long[], long[], long[], Region[], long[], int)}, по заданному
+     * снимку производственного календаря.
+     *
+     * @param averageSalaries Средние зарплаты в копейках
+     * @param startEpochDays  Дни начала отпуска (включительно)
+     * @param endEpochDays    Дни окончания отпуска (включительно)
+     * @param regions         Регионы
+     * @param out             Куда записать суммы отпускных в копейках
+     * @param count           Количество элементов
+     * @param calendar        Производственный календарь
+     */
+    public void calculatePayEpochDays(long[] averageSalaries, long[] startEpochDays, long[] endEpochDays,
+                                      Region[] regions, long[] out, int count, ProductionCalendar calendar) {
+        Objects.checkFromIndexSize(0, count, averageSalaries.length);
+        Objects.checkFromIndexSize(0, count, startEpochDays.length);
+        Objects.checkFromIndexSize(0, count, endEpochDays.length);
+        Objects.checkFromIndexSize(0, count, regions.length);
+        Objects.checkFromIndexSize(0, count, out.length);
+        for (int i = 0; i < count; i++) {
+            long startEpochDay = startEpochDays[i];
+            long endEpochDay = endEpochDays[i];
+            long paidDays = endEpochDay - startEpochDay + 1
+                    - calendar.countNonWorkingHolidays(regions[i], startEpochDay, endEpochDay);
+            out[i] = paidDays == 0 ? 0L : PayArithmetic.ceilPay(averageSalaries[i], paidDays);
+        }
+    }
 
-        return (long) Math.ceil(result);
+    /**
+     * Рассчитывает отпускные за несколько периодов сразу. Периоды сортируются по дате начала, пересекающиеся
+     * и смежные объединяются, после чего праздники каждого объединенного периода считаются по префиксному
+     * индексу одного снимка производственного календаря. День, попавший в несколько периодов, оплачивается
+     * один раз. Итоговая сумма округляется вверх один раз - по общему количеству оплачиваемых дней, поэтому
+     * она может быть меньше суммы округленных сумм периодов.
+     *
+     * @param averageSalaryInKopecks Средняя зарплата в копейках
+     * @param startEpochDays         Дни начала периодов (включительно), в днях от 01.01.1970
+     * @param endEpochDays           Дни окончания периодов (включительно), не раньше начала
+     * @param count                  Количество периодов, не больше {@link SalaryConstants#MAXIMUM_PERIODS}
+     * @param region                 Регион, праздники которого не оплачиваются наряду с федеральными
+     * @return Итог и разбивка по объединенным периодам
+     */
+    public VacationPeriodsPay calculatePayPeriods(long averageSalaryInKopecks, long[] startEpochDays,
+                                                  long[] endEpochDays, int count, Region region) {
+        return calculatePayPeriods(averageSalaryInKopecks, startEpochDays, endEpochDays, count, region,
+                NonWorkingHolidayRepository.currentCalendar());
+    }
+
+    /**
+     * То же, что {@link #calculatePayPeriods(long, long[], long[], int, Region)}, по заданному снимку
+     * производственного календаря.
+     *
+     * @param averageSalaryInKopecks Средняя зарплата в копейках
+     * @param startEpochDays         Дни начала периодов (включительно), в днях от 01.01.1970
+     * @param endEpochDays           Дни окончания периодов (включительно), не раньше начала
+     * @param count                  Количество периодов, не больше {@link SalaryConstants#MAXIMUM_PERIODS}
+     * @param region                 Регион, праздники которого не оплачиваются наряду с федеральными
+     * @param calendar               Производственный календарь
+     * @return Итог и разбивка по объединенным периодам
+     */
+    public VacationPeriodsPay calculatePayPeriods(long averageSalaryInKopecks, long[] startEpochDays,
+                                                  long[] endEpochDays, int count, Region region,
+                                                  ProductionCalendar calendar) {
+        Objects.checkFromIndexSize(0, count, startEpochDays.length);
+        Objects.checkFromIndexSize(0, count, endEpochDays.length);
+        if (count > SalaryConstants.MAXIMUM_PERIODS) {
+            throw new IllegalArgumentException("Слишком много периодов: " + count);
+        }
+        // Сортировка примитивов без компаратора: начало периода в старших битах, номер - в младших
+        long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = startEpochDays[i] << PERIOD_INDEX_BITS | i;
+        }
+        Arrays.sort(order);
+
+        List<VacationPeriod> periods = new ArrayList<>();
+        int[] sources = new int[count];
+        int totalPaidDays = 0;
+        int k = 0;
+        while (k < count) {
+            int first = (int) (order[k] & PERIOD_INDEX_MASK);
+            long start = startEpochDays[first];
+            long end = endEpochDays[first];
+            int sourceCount = 0;
+            sources[sourceCount++] = first;
+            k++;
+            // Следующий период начинается не позже дня после конца текущего - объединяем
+            while (k < count && startEpochDays[(int) (order[k] & PERIOD_INDEX_MASK)] <= end + 1) {
+                int next = (int) (order[k] & PERIOD_INDEX_MASK);
+                end = Math.max(end, endEpochDays[next]);
+                sources[sourceCount++] = next;
+                k++;
+            }
+            int calendarDays = (int) (end - start + 1);
+            int paidDays = calendarDays - calendar.countNonWorkingHolidays(region, start, end);
+            totalPaidDays += paidDays;
+            int[] periodSources = Arrays.copyOf(sources, sourceCount);
+            Arrays.sort(periodSources);
+            periods.add(new VacationPeriod(DATE_FORMATTER.format(LocalDate.ofEpochDay(start)),
+                    DATE_FORMATTER.format(LocalDate.ofEpochDay(end)), calendarDays, paidDays,
+                    PayArithmetic.ceilPay(averageSalaryInKopecks, paidDays), periodSources));
+        }
+        return new VacationPeriodsPay(totalPaidDays, PayArithmetic.ceilPay(averageSalaryInKopecks, totalPaidDays),
+                periods);
+    }
+
+    /**
+     * Считает количество оплачиваемых дней для отпуска длиной numberOfDays календарных дней
+     * при каждой дате начала в году. Количество праздников в окне обновляется при сдвиге на день
+     * (ушедший день вычитается, пришедший добавляется), поэтому весь год считается за O(365 + numberOfDays).
+     * Даты начала, при которых отпуск заканчивается после 31.12.{@value SalaryConstants#MAXIMUM_YEAR}
+     * (не представимо в формате {@link SalaryConstants#DATE_FORMAT}), не рассматриваются.
+     *
+     * @param year         Год дат начала
+     * @param numberOfDays Длина отпуска в календарных днях
+     * @param paidDays     Куда записать количество оплачиваемых дней; paidDays[i] - для начала (i + 1)-го дня года.
+     *                     Длина не меньше 366
+     * @return Количество дат начала (дней в году, без дат с окончанием отпуска после 31.12.2099)
+     */
+    public int sweepPaidDays(int year, int numberOfDays, int[] paidDays) {
+        return sweepPaidDays(Region.FEDERAL, year, numberOfDays, paidDays);
+    }
+
+    /**
+     * То же, что {@link #sweepPaidDays(int, int, int[])}, с учетом региональных праздников.
+     *
+     * @param region       Регион
+     * @param year         Год дат начала
+     * @param numberOfDays Длина отпуска в календарных днях
+     * @param paidDays     Куда записать количество оплачиваемых дней (длина не меньше 366)
+     * @return Количество дат начала (дней в году, без дат с окончанием отпуска после 31.12.2099)
+     */
+    public int sweepPaidDays(Region region, int year, int numberOfDays, int[] paidDays) {
+        ProductionCalendar calendar = NonWorkingHolidayRepository.currentCalendar();
+        long firstEpochDay = LocalDate.of(year, 1, 1).toEpochDay();
+        // Последний отпуск должен закончиться не позже LAST_EPOCH_DAY
+        int starts = (int) Math.max(0L, Math.min(Year.isLeap(year) ? 366 : 365,
+                LAST_EPOCH_DAY - numberOfDays + 2 - firstEpochDay));
+        Objects.checkFromIndexSize(0, starts, paidDays.length);
+        if (starts == 0) {
+            return 0;
+        }
+
+        int holidays = calendar.countNonWorkingHolidays(region, firstEpochDay, firstEpochDay + numberOfDays - 1);
+        paidDays[0] = numberOfDays - holidays;
+        for (int i = 1; i < starts; i++) {
+            if (calendar.isNonWorkingHoliday(region, firstEpochDay + i - 1)) {
+                holidays--;
+            }
+            if (calendar.isNonWorkingHoliday(region, firstEpochDay + i + numberOfDays - 1)) {
+                holidays++;
+            }
+            paidDays[i] = numberOfDays - holidays;
+        }
+        return starts;
+    }
+
+    /**
+     * Подбирает даты начала отпуска в году с наибольшей суммой отпускных.
+     * При равной сумме раньше идет более ранняя дата. Отпуск, заканчивающийся после
+     * 31.12.{@value SalaryConstants#MAXIMUM_YEAR}, не предлагается.
+     *
+     * @param averageSalaryInKopecks Средняя зарплата в копейках
+     * @param numberOfDays           Длина отпуска в календарных днях
+     * @param year                   Год дат начала
+     * @param top                    Сколько лучших вариантов вернуть
+     * @return Варианты по убыванию суммы отпускных, не больше top
+     */
+    public List<VacationStartOption> findBestStartDates(long averageSalaryInKopecks, int numberOfDays, int year, int top) {
+        return findBestStartDates(averageSalaryInKopecks, numberOfDays, year, Region.FEDERAL, top);
+    }
+
+    /**
+     * То же, что {@link #findBestStartDates(long, int, int, int)}, с учетом региональных праздников.
+     *
+     * @param averageSalaryInKopecks Средняя зарплата в копейках
+     * @param numberOfDays           Длина отпуска в календарных днях
+     * @param year                   Год дат начала
+     * @param region                 Регион
+     * @param top                    Сколько лучших вариантов вернуть
+     * @return Варианты по убыванию суммы отпускных, не больше top
+     */
+    public List<VacationStartOption> findBestStartDates(long averageSalaryInKopecks, int numberOfDays, int year,
+                                                        Region region, int top) {
+        int[] paidDays = new int[366];
+        int starts = sweepPaidDays(region, year, numberOfDays, paidDays);
+
+        // Сумма растет вместе с количеством оплачиваемых дней, поэтому ранжируем подсчетом по paidDays (0..numberOfDays)
+        int[] bucketStart = new int[numberOfDays + 2];
+        for (int i = 0; i < starts; i++) {
+            bucketStart[numberOfDays - paidDays[i] + 1]++;
+        }
+        for (int b = 1; b < bucketStart.length; b++) {
+            bucketStart[b] += bucketStart[b - 1];
+        }
+        int[] order = new int[starts];
+        for (int i = 0; i < starts; i++) {
+            order[bucketStart[numberOfDays - paidDays[i]]++] = i;
+        }
+
+        int count = Math.min(top, starts);
+        List<VacationStartOption> options = new ArrayList<>(count);
+        LocalDate firstDay = LocalDate.of(year, 1, 1);
+        for (int k = 0; k < count; k++) {
+            int i = order[k];
+            LocalDate startDate = firstDay.plusDays(i);
+            options.add(new VacationStartOption(DATE_FORMATTER.format(startDate),
+                    DATE_FORMATTER.format(startDate.plusDays(numberOfDays - 1L)), paidDays[i],
+                    PayArithmetic.ceilPay(averageSalaryInKopecks, paidDays[i])));
+        }
+        return options;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,46 @@
+package ru.mayskiizhuk.service;
+
+/**
+ * Вариант начала отпуска заданной длины: период, количество оплачиваемых дней и сумма отпускных.
+ */
+public class VacationStartOption {
+    private final String startDate;
+    private final String endDate;
+    private final int paidDays;
+    private final long pay;
+
+    public VacationStartOption(String startDate, String endDate, int paidDays, long pay) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.paidDays = paidDays;
+        this.pay = pay;
+    }
+
+    /**
+     * @return Дата начала отпуска в формате {@link ru.mayskiizhuk.config.SalaryConstants#DATE_FORMAT}
+     */
+    public String getStartDate() {
+        return startDate;
+    }
+
+    /**
+     * @return Дата окончания отпуска в формате {@link ru.mayskiizhuk.config.SalaryConstants#DATE_FORMAT}
+     */
+    public String getEndDate() {
+        return endDate;
+    }
+
+    /**
+     * @return Количество оплачиваемых дней (календарные дни периода минус праздники)
+     */
+    public int getPaidDays() {
+        return paidDays;
+    }
+
+    /**
+     * @return Сумма отпускных в копейках
+     */
+    public long getPay() {
+        return pay;
+    }
+}
@@ -4,7 +4,6 @@ import org.springframework.stereotype.Component;
 import ru.mayskiizhuk.config.SalaryConstants;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 
 @Component
 public class InputValidator {
@@ -35,14 +34,34 @@ public class InputValidator {
      * @return true, если период валиден, иначе false
      */
     public boolean isValidatedDaysStartAndEnd(LocalDate startDate, LocalDate endDate) {
+        return isValidatedDaysStartAndEnd(startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    /**
+     * Проверяет период, заданный в днях от 01.01.1970, по тем же правилам,
+     * что и {@link #isValidatedDaysStartAndEnd(LocalDate, LocalDate)}.
+     * @param startEpochDay День начала (включительно)
+     * @param endEpochDay День окончания (включительно)
+     * @return true, если период валиден, иначе false
+     */
+    public boolean isValidatedDaysStartAndEnd(long startEpochDay, long endEpochDay) {
         // Проверяем порядок дат
-        if (startDate.isAfter(endDate)) {
+        if (startEpochDay > endEpochDay) {
             return false;
         }
         // Вычисляем корректную продолжительность периода (включая обе даты)
-        int daysInPeriod = (int)ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        long daysInPeriod = endEpochDay - startEpochDay + 1;
 
         // Проверяем корректность продолжительности периода
-        return isValidatedDays(daysInPeriod);
+        return daysInPeriod <= Integer.MAX_VALUE && isValidatedDays((int) daysInPeriod);
+    }
+
+    /**
+     * Проверяет, находится ли год в допустимом диапазоне.
+     * @param year Год
+     * @return true, если год валиден, иначе false
+     */
+    public boolean isValidatedYear(int year) {
+        return year >= SalaryConstants.MINIMUM_YEAR && year <= SalaryConstants.MAXIMUM_YEAR;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,146 @@
+package ru.mayskiizhuk.validate;
+
+import ru.mayskiizhuk.config.SalaryConstants;
+
+/**
+ * Разбор параметров запроса без исключений и без выделения памяти.
+ * Результаты совпадают с {@link Long#parseLong(String)}, {@link Integer#parseInt(String)} и
+ * {@code LocalDate.parse(s, DateTimeFormatter.ofPattern(SalaryConstants.DATE_FORMAT))},
+ * но вместо исключения возвращается {@link #INVALID}.
+ */
+public class ParameterParser {
+    // Код ошибки разбора. Число Long.MIN_VALUE от него не отличить - оно считается нечисловым значением
+    public static final long INVALID = Long.MIN_VALUE;
+
+    // Длина даты в формате SalaryConstants.DATE_FORMAT (dd-MM-yy)
+    private static final int DATE_LENGTH = 8;
+    // Век, к которому относится двузначный год (как у шаблона "yy" в DateTimeFormatter)
+    private static final int BASE_YEAR = 2000;
+    // Количество дней с 01.01.0000 до 01.01.1970 (как в LocalDate)
+    private static final long DAYS_0000_TO_1970 = 719528L;
+
+    private ParameterParser() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Разбирает целое число типа long (правила {@link Long#parseLong(String)}).
+     *
+     * @param value Строка с числом
+     * @return Число или {@link #INVALID}, если строка не является числом типа long
+     */
+    public static long parseLong(CharSequence value) {
+        return parse(value, Long.MAX_VALUE);
+    }
+
+    /**
+     * Разбирает целое число типа int (правила {@link Integer#parseInt(String)}).
+     *
+     * @param value Строка с числом
+     * @return Число или {@link #INVALID}, если строка не является числом типа int
+     */
+    public static long parseInt(CharSequence value) {
+        return parse(value, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Разбирает дату в формате {@link SalaryConstants#DATE_FORMAT}. Как и DateTimeFormatter в режиме SMART,
+     * день месяца, превышающий длину месяца (например, 31-04-25), заменяется на последний день месяца.
+     *
+     * @param value Строка с датой
+     * @return Количество дней от 01.01.1970 или {@link #INVALID}, если строка не является датой
+     */
+    public static long parseDate(CharSequence value) {
+        if (value == null || value.length() != DATE_LENGTH || value.charAt(2) != '-' || value.charAt(5) != '-') {
+            return INVALID;
+        }
+        int day = twoDigits(value, 0);
+        int month = twoDigits(value, 3);
+        int year = twoDigits(value, 6);
+        if (day < 1 || day > 31 || month < 1 || month > 12 || year < 0) {
+            return INVALID;
+        }
+        year += BASE_YEAR;
+        return toEpochDay(year, month, Math.min(day, lengthOfMonth(year, month)));
+    }
+
+    private static long parse(CharSequence value, long maxValue) {
+        if (value == null || value.length() == 0) {
+            return INVALID;
+        }
+        int length = value.length();
+        int i = 0;
+        boolean negative = false;
+        // Накапливаем отрицательное значение, чтобы минимальное число не переполнялось
+        long limit = -maxValue;
+        char first = value.charAt(0);
+        if (first < '0') {
+            if (first == '-') {
+                negative = true;
+                limit = -maxValue - 1;
+            } else if (first != '+') {
+                return INVALID;
+            }
+            if (length == 1) {
+                return INVALID;
+            }
+            i++;
+        }
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        while (i < length) {
+            int digit = Character.digit(value.charAt(i++), 10);
+            if (digit < 0 || result < multiplyLimit) {
+                return INVALID;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return INVALID;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    // DateTimeFormatter принимает в датах только цифры ASCII
+    private static int twoDigits(CharSequence value, int offset) {
+        int high = value.charAt(offset) - '0';
+        int low = value.charAt(offset + 1) - '0';
+        if (high < 0 || high > 9 || low < 0 || low > 9) {
+            return -1;
+        }
+        return high * 10 + low;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    // Алгоритм LocalDate.toEpochDay для неотрицательных годов
+    private static long toEpochDay(int year, int month, int day) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367L * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+}
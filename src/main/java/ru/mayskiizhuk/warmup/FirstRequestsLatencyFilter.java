@@ -0,0 +1,95 @@
+package ru.mayskiizhuk.warmup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Замер задержки первых запросов GET /calculacte после запуска, чтобы подбирать параметры прогрева:
+ * после vacation.warmup.log-first-requests запросов в журнал пишутся перцентили их задержки, дальше
+ * фильтр только пропускает запросы.
+ */
+@Component
+public class FirstRequestsLatencyFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(FirstRequestsLatencyFilter.class);
+
+    private static final String PATH = "/calculacte";
+
+    private final long[] latencies;
+    private final AtomicInteger started = new AtomicInteger();
+    private final AtomicInteger finished = new AtomicInteger();
+    private volatile boolean done;
+
+    /**
+     * @param count Сколько первых запросов замерить; 0 - не замерять
+     */
+    public FirstRequestsLatencyFilter(@Value("${vacation.warmup.log-first-requests:1000}") int count) {
+        this.latencies = new long[Math.max(0, count)];
+        this.done = latencies.length == 0;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return done || !PATH.equals(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        int index = started.getAndIncrement();
+        if (index >= latencies.length) {
+            done = true;
+            chain.doFilter(request, response);
+            return;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            latencies[index] = System.nanoTime() - startNanos;
+            if (finished.incrementAndGet() == latencies.length) {
+                report();
+            }
+        }
+    }
+
+    /**
+     * @return Перцентили задержки первых запросов в микросекундах: p50, p90, p99, максимум и первый запрос;
+     * null, пока замеряны не все запросы
+     */
+    long[] summaryMicros() {
+        if (finished.get() < latencies.length || latencies.length == 0) {
+            return null;
+        }
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return new long[]{micros(percentile(sorted, 50)), micros(percentile(sorted, 90)),
+                micros(percentile(sorted, 99)), micros(sorted[sorted.length - 1]), micros(latencies[0])};
+    }
+
+    private void report() {
+        long[] summary = summaryMicros();
+        log.info("Задержка первых {} запросов, мкс: p50={}, p90={}, p99={}, max={}, первый={}", latencies.length,
+                summary[0], summary[1], summary[2], summary[3], summary[4]);
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        int index = (int) Math.ceil(sorted.length * percent / 100.0) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,49 @@
+package ru.mayskiizhuk.warmup;
+
+/**
+ * Итоги прогрева JIT.
+ */
+public class WarmUpReport {
+    private final long durationMillis;
+    private final long requests;
+    private final int rounds;
+    private final long compilationMillis;
+    private final boolean quiescent;
+
+    public WarmUpReport(long durationMillis, long requests, int rounds, long compilationMillis, boolean quiescent) {
+        this.durationMillis = durationMillis;
+        this.requests = requests;
+        this.rounds = rounds;
+        this.compilationMillis = compilationMillis;
+        this.quiescent = quiescent;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * @return Количество синтетических запросов (пакет считается одним запросом)
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * @return Время работы JIT-компилятора за прогрев в миллисекундах (0, если JVM его не сообщает)
+     */
+    public long getCompilationMillis() {
+        return compilationMillis;
+    }
+
+    /**
+     * @return true, если прогрев остановлен по затишью компиляции, false - по бюджету времени
+     */
+    public boolean isQuiescent() {
+        return quiescent;
+    }
+}
@@ -0,0 +1,210 @@
+package ru.mayskiizhuk.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.mayskiizhuk.audit.AuditLog;
+import ru.mayskiizhuk.cache.CachePolicy;
+import ru.mayskiizhuk.cache.CalculationCache;
+import ru.mayskiizhuk.config.SalaryConstants;
+import ru.mayskiizhuk.controller.CalculationBlock;
+import ru.mayskiizhuk.controller.CalculationOutcome;
+import ru.mayskiizhuk.controller.ResultCacheHeaders;
+import ru.mayskiizhuk.controller.VacationController;
+import ru.mayskiizhuk.controller.VacationRequestHandler;
+import ru.mayskiizhuk.metrics.CalculationMetrics;
+import ru.mayskiizhuk.payroll.PayrollStore;
+import ru.mayskiizhuk.repository.Region;
+import ru.mayskiizhuk.service.VacationPeriodsPay;
+import ru.mayskiizhuk.service.VacationService;
+import ru.mayskiizhuk.validate.InputValidator;
+
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Прогрев JIT при запуске: синтетические расчеты через те же классы, что обслуживают запросы
+ * (контроллер, обработчик, валидатор, сервис расчета), - по дням, по датам с регионами, по employeeId,
+ * пакетом, несколькими периодами и с ошибками, - пока JIT не перестанет компилировать или не истечет vacation.warmup.budget.
+ *
+ * <p>Прогрев идет на отдельных экземплярах с собственным кэшем, метриками в отдельном реестре, выключенным
+ * журналом аудита и историей заработка в памяти, поэтому не влияет на метрики, кэш и журнал приложения:
+ * JIT компилирует методы классов, а не экземпляров.
+ *
+ * <p>Раннеры выполняются до публикации ReadinessState.ACCEPTING_TRAFFIC, поэтому
+ * {@code /actuator/health/readiness} сообщает о готовности только после прогрева.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "vacation.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class WarmUpRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(WarmUpRunner.class);
+
+    // Запросов в одном раунде, между раундами проверяется время компиляции
+    static final int ROUND_REQUESTS = 2_000;
+    // Раундов подряд без заметной компиляции, после которых JIT считается успокоившимся
+    private static final int QUIET_ROUNDS = 3;
+    private static final long QUIET_COMPILATION_MILLIS = 2L;
+    private static final int MIN_ROUNDS = 5;
+    private static final long WARM_UP_EMPLOYEE_ID = 1L;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(SalaryConstants.DATE_FORMAT);
+
+    private final Duration budget;
+    private final VacationController controller;
+    private final VacationRequestHandler handler;
+    private final CalculationBlock block = new CalculationBlock(64);
+    private final CalculationOutcome outcome = new CalculationOutcome();
+    private final Region[] regions = Region.values();
+
+    /**
+     * @param budget Наибольшая длительность прогрева
+     * @throws IOException не выбрасывается: история заработка прогрева хранится только в памяти
+     */
+    public WarmUpRunner(@Value("${vacation.warmup.budget:10s}") Duration budget) throws IOException {
+        this.budget = budget;
+        PayrollStore payrollStore = PayrollStore.inMemory();
+        YearMonth month = YearMonth.of(2025, 1);
+        for (int i = 0; i < PayrollStore.WINDOW_MONTHS; i++) {
+            YearMonth recorded = month.plusMonths(i);
+            payrollStore.record(WARM_UP_EMPLOYEE_ID, recorded, 8_000_000L + i, recorded.lengthOfMonth());
+        }
+        this.handler = new VacationRequestHandler(new VacationService(), new InputValidator(),
+                new CalculationCache(1024, CachePolicy.W_TINY_LFU), new CalculationMetrics(new SimpleMeterRegistry()),
+                AuditLog.disabled(), payrollStore);
+        this.controller = new VacationController(handler, new ObjectMapper(), new ResultCacheHeaders(Duration.ZERO));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        WarmUpReport report = warmUp();
+        log.info("Прогрев завершен за {} мс: {} запросов, {} раундов, время компиляции JIT {} мс, причина остановки: {}",
+                report.getDurationMillis(), report.getRequests(), report.getRounds(), report.getCompilationMillis(),
+                report.isQuiescent() ? "компиляция затихла" : "истек бюджет");
+    }
+
+    /**
+     * Выполняет раунды синтетических запросов до затишья компиляции (если JVM сообщает время компиляции)
+     * или до истечения бюджета.
+     *
+     * @return Итоги прогрева
+     */
+    WarmUpReport warmUp() {
+        CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+        boolean monitored = compilation != null && compilation.isCompilationTimeMonitoringSupported();
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + budget.toNanos();
+        long compilationStart = monitored ? compilation.getTotalCompilationTime() : 0L;
+        long lastCompilation = compilationStart;
+        int quietRounds = 0;
+        int rounds = 0;
+        long checksum = 0L;
+        while (System.nanoTime() - deadline < 0) {
+            for (int i = 0; i < ROUND_REQUESTS; i++) {
+                checksum += request(rounds * ROUND_REQUESTS + i);
+            }
+            rounds++;
+            if (monitored) {
+                long total = compilation.getTotalCompilationTime();
+                quietRounds = total - lastCompilation <= QUIET_COMPILATION_MILLIS ? quietRounds + 1 : 0;
+                lastCompilation = total;
+                if (rounds >= MIN_ROUNDS && quietRounds >= QUIET_ROUNDS) {
+                    break;
+                }
+            }
+        }
+        log.debug("Контрольная сумма прогрева: {}", checksum);
+        return new WarmUpReport(Duration.ofNanos(System.nanoTime() - startNanos).toMillis(),
+                (long) rounds * ROUND_REQUESTS, rounds, lastCompilation - compilationStart,
+                monitored && quietRounds >= QUIET_ROUNDS);
+    }
+
+    /**
+     * Один синтетический запрос. Доли видов запросов примерно как у реальной нагрузки: в основном
+     * успешные расчеты, меньше ошибок, изредка пакет и подбор даты начала.
+     *
+     * @return Значение, зависящее от ответа (чтобы JIT не выбросил расчет)
+     */
+    private long request(int n) {
+        String salary = Long.toString(3_000_000L + (n & 4095) * 100L);
+        LocalDate start = LocalDate.of(2025, 1, 1).plusDays(n % 700);
+        String startDate = start.format(DATE_FORMATTER);
+        String endDate = start.plusDays(n % 30).format(DATE_FORMATTER);
+        String region = (n & 1) == 0 ? null : regions[n % regions.length].getCode();
+        switch (n % 16) {
+            case 0:
+                return status(controller.calculateVacationPay("не_число", null, "14", null, null, null, null));
+            case 1:
+                return status(controller.calculateVacationPay(salary, null, "0", null, null, null, null));
+            case 2:
+                return status(controller.calculateVacationPay(salary, null, "14", startDate, endDate, null, null));
+            case 3:
+                return status(controller.calculateVacationPay(salary, null, null, "32-13-25", endDate, region, null));
+            case 4:
+                return status(controller.calculateVacationPay(null, Long.toString(WARM_UP_EMPLOYEE_ID), null,
+                        startDate, endDate, region, null));
+            case 5:
+                if ((n & 32) == 0) {
+                    return batch(salary, startDate, endDate, region);
+                }
+                return periods(salary, start, region);
+            case 6:
+                // Подбор даты начала тяжелее остальных: только каждый 64-й запрос
+                if ((n & 63) == 6) {
+                    return status(controller.findBestStartDates(salary, "14", "2025", region, "3"));
+                }
+                return status(controller.calculateVacationPay(salary, null, "28", null, null, null, null));
+            default:
+                if ((n & 1) == 0) {
+                    return status(controller.calculateVacationPay(salary, null, Integer.toString(1 + n % 365), null,
+                            null, null, null));
+                }
+                return status(controller.calculateVacationPay(salary, null, null, startDate, endDate, region, null));
+        }
+    }
+
+    private long batch(String salary, String startDate, String endDate, String region) {
+        for (int row = 0; row < block.capacity(); row++) {
+            if ((row & 1) == 0) {
+                handler.add(salary, Integer.toString(1 + row), null, null, null, block);
+            } else {
+                handler.add(salary, null, startDate, endDate, region, block);
+            }
+        }
+        handler.calculate(block);
+        long sum = block.outcome(block.size() - 1).getResult();
+        block.clear();
+        return sum;
+    }
+
+    private long periods(String salary, LocalDate start, String region) {
+        List<String> startDates = new ArrayList<>();
+        List<String> endDates = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            LocalDate periodStart = start.plusDays(i * 10L);
+            startDates.add(periodStart.format(DATE_FORMATTER));
+            endDates.add(periodStart.plusDays(6 + i * 2L).format(DATE_FORMATTER));
+        }
+        VacationPeriodsPay pay = handler.handlePeriods(salary, null, region, startDates, endDates, outcome);
+        return pay == null ? 0L : pay.getTotalPay();
+    }
+
+    private static long status(ResponseEntity<?> response) {
+        return response.getStatusCodeValue() + (response.getBody() instanceof Long ? (Long) response.getBody() : 0L);
+    }
+}
@@ -0,0 +1,109 @@
+package ru.mayskiizhuk.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.mayskiizhuk.error.ErrorCode;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование допуска запросов")
+class AdmissionControlTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Клиент получает burst запросов подряд, затем по rate в секунду; клиенты независимы")
+    void tryAcquire_whenBurstExhausted_shouldReturnWaitTime() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 3, 1024, 0L);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(ClientRateLimiter.ADMITTED, limiter.tryAcquire("client-a", 0L));
+        }
+        long wait = limiter.tryAcquire("client-a", 0L);
+        assertEquals(SECOND / 10, wait, ClientRateLimiter.TIME_UNIT_NANOS);
+        assertEquals(ClientRateLimiter.ADMITTED, limiter.tryAcquire("client-b", 0L));
+
+        assertEquals(ClientRateLimiter.ADMITTED, limiter.tryAcquire("client-a", wait));
+        assertNotEquals(ClientRateLimiter.ADMITTED, limiter.tryAcquire("client-a", wait));
+        // За секунду простоя корзина наполняется, но не больше burst
+        long later = 2 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(ClientRateLimiter.ADMITTED, limiter.tryAcquire("client-a", later));
+        }
+        assertNotEquals(ClientRateLimiter.ADMITTED, limiter.tryAcquire("client-a", later));
+    }
+
+    @Test
+    @DisplayName("Таблица клиентов не растет: лишние активные клиенты вытесняют друг друга")
+    void tryAcquire_whenManyClients_shouldStayBounded() {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 1, 16, 0L);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(ClientRateLimiter.ADMITTED, limiter.tryAcquire("10.0.0." + i, 0L));
+        }
+        assertEquals(16, limiter.capacity());
+        assertTrue(limiter.evictions() >= 1000 - 16);
+    }
+
+    @Test
+    @DisplayName("Сброс нагрузки по числу запросов в работе и по средней задержке")
+    void tryEnter_whenOverloaded_shouldReject() {
+        LoadShedder byInFlight = new LoadShedder(2, 0L);
+        assertTrue(byInFlight.tryEnter());
+        assertTrue(byInFlight.tryEnter());
+        assertFalse(byInFlight.tryEnter());
+        byInFlight.exit(0L);
+        assertTrue(byInFlight.tryEnter());
+        assertEquals(2, byInFlight.inFlight());
+
+        LoadShedder byLatency = new LoadShedder(0, TimeUnit.MILLISECONDS.toNanos(10));
+        for (int i = 0; i < 200; i++) {
+            byLatency.exit(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        int admitted = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (byLatency.tryEnter()) {
+                admitted++;
+            }
+        }
+        // Средняя почти 100 мс при пороге 10 мс: отклоняется до 90%, но часть запросов проходит
+        assertTrue(admitted > 50 && admitted < 200, "admitted=" + admitted);
+        for (int i = 0; i < 200; i++) {
+            byLatency.exit(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        assertTrue(byLatency.averageLatencyNanos() < TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    @Test
+    @DisplayName("Фильтр отвечает 429 с Retry-After по ключу клиента и не трогает другие пути")
+    void doFilter_whenRateExceeded_shouldReturnTooManyRequests() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdmissionFilter filter = new AdmissionFilter(0.5, 1, 1024, "X-Api-Key", 0, Duration.ZERO, registry);
+
+        assertEquals(200, perform(filter, "/calculacte", "key-1").getStatus());
+        MockHttpServletResponse rejected = perform(filter, "/calculacte", "key-1");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("2", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(rejected.getContentAsString().contains(ErrorCode.TOO_MANY_REQUESTS.name()));
+        assertEquals(200, perform(filter, "/calculacte", "key-2").getStatus());
+        assertEquals(200, perform(filter, "/cache/stats", "key-1").getStatus());
+        assertEquals(1.0, registry.get(AdmissionFilter.REJECTED_COUNTER)
+                .tag("reason", ErrorCode.TOO_MANY_REQUESTS.getTag()).counter().count());
+        assertEquals(0.0, registry.get(AdmissionFilter.IN_FLIGHT_GAUGE).gauge().value());
+    }
+
+    private static MockHttpServletResponse perform(AdmissionFilter filter, String path, String apiKey)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.addHeader("X-Api-Key", apiKey);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
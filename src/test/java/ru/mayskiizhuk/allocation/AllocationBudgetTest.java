@@ -0,0 +1,160 @@
+package ru.mayskiizhuk.allocation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.mayskiizhuk.audit.AuditLog;
+import ru.mayskiizhuk.cache.CachePolicy;
+import ru.mayskiizhuk.cache.CalculationCache;
+import ru.mayskiizhuk.controller.CalculationOutcome;
+import ru.mayskiizhuk.controller.ResultCacheHeaders;
+import ru.mayskiizhuk.controller.VacationController;
+import ru.mayskiizhuk.controller.VacationRequestHandler;
+import ru.mayskiizhuk.metrics.CalculationMetrics;
+import ru.mayskiizhuk.payroll.PayrollStore;
+import ru.mayskiizhuk.repository.NonWorkingHolidayRepository;
+import ru.mayskiizhuk.service.VacationService;
+import ru.mayskiizhuk.validate.InputValidator;
+import ru.mayskiizhuk.validate.ParameterParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Properties;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Бюджеты выделения памяти на вызов для горячих путей. Выделенные потоком байты берутся из
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}, бюджеты - из allocation-budgets.properties.
+ * Вызовы сначала прогреваются, чтобы JIT успел скомпилировать их (и убрать объекты, не покидающие метод),
+ * затем замеряются в среднем на вызов.
+ */
+@DisplayName("Тестирование бюджетов выделения памяти")
+class AllocationBudgetTest {
+
+    private static final String BUDGETS = "/allocation-budgets.properties";
+    private static final int WARM_UP_CALLS = 200_000;
+    private static final int MEASURED_CALLS = 100_000;
+
+    private static com.sun.management.ThreadMXBean threads;
+    private static Properties budgets;
+
+    private final VacationService service = new VacationService();
+    private final LocalDate start = LocalDate.of(2025, 1, 1);
+    private final LocalDate endOfTwoWeeks = LocalDate.of(2025, 1, 14);
+    private final LocalDate endOfYear = LocalDate.of(2025, 12, 31);
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "JVM не сообщает выделенную память потока");
+        threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "JVM не сообщает выделенную память потока");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        budgets = new Properties();
+        try (InputStream in = AllocationBudgetTest.class.getResourceAsStream(BUDGETS)) {
+            assertNotNull(in, BUDGETS);
+            budgets.load(in);
+        }
+    }
+
+    @Test
+    @DisplayName("Расчет по количеству дней")
+    void calculatePay() {
+        assertWithinBudget("vacation-service.calculate-pay", n -> service.calculatePay(8_000_000L + n, 1 + n % 28));
+    }
+
+    @Test
+    @DisplayName("Расчет по датам не зависит от длины периода")
+    void calculatePaySpecificDate() {
+        assertWithinBudget("vacation-service.calculate-pay-specific-date",
+                n -> service.calculatePaySpecificDate(8_000_000L + n, start, endOfTwoWeeks));
+        assertWithinBudget("vacation-service.calculate-pay-specific-date",
+                n -> service.calculatePaySpecificDate(8_000_000L + n, start, endOfYear));
+    }
+
+    @Test
+    @DisplayName("Проверка праздника")
+    void isNonWorkingHoliday() {
+        LocalDate[] dates = new LocalDate[366];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = start.plusDays(i);
+        }
+        assertWithinBudget("non-working-holiday-repository.is-non-working-holiday",
+                n -> NonWorkingHolidayRepository.isNonWorkingHoliday(dates[n % dates.length]) ? 1L : 0L);
+    }
+
+    @Test
+    @DisplayName("Разбор и обработка запроса контроллера")
+    void controllerParsePath() throws IOException {
+        VacationRequestHandler handler = new VacationRequestHandler(service, new InputValidator(),
+                new CalculationCache(1024, CachePolicy.W_TINY_LFU), new CalculationMetrics(new SimpleMeterRegistry()),
+                AuditLog.disabled(), PayrollStore.inMemory());
+        CalculationOutcome outcome = new CalculationOutcome();
+        String[] salaries = {"3000000", "5000000", "8000000", "12000000"};
+        String[] days = {"7", "14", "28"};
+        String[] startDates = {"28-04-25", "01-06-25", "29-12-25"};
+        String[] endDates = {"11-05-25", "30-06-25", "11-01-26"};
+
+        assertWithinBudget("request-parser.parse",
+                n -> ParameterParser.parseLong(salaries[n & 3]) + ParameterParser.parseInt(days[n % 3])
+                        + ParameterParser.parseDate(startDates[n % 3]) + ParameterParser.parseDate(endDates[n % 3]));
+        assertWithinBudget("request-handler.handle-days", n -> {
+            handler.handle(salaries[n & 3], days[n % 3], null, null, null, outcome);
+            return outcome.getResult();
+        });
+        assertWithinBudget("request-handler.handle-dates", n -> {
+            handler.handle(salaries[n & 3], null, startDates[n % 3], endDates[n % 3], "RU-TA", outcome);
+            return outcome.getResult();
+        });
+
+        VacationController controller = new VacationController(handler, new ObjectMapper(),
+                new ResultCacheHeaders(Duration.ZERO));
+        assertWithinBudget("vacation-controller.calculate-vacation-pay", n -> controller.calculateVacationPay(
+                salaries[n & 3], null, days[n % 3], null, null, null, null).getStatusCodeValue());
+    }
+
+    /**
+     * Прогревает вызов и проверяет, что в среднем на вызов выделяется не больше бюджета с ключом key.
+     */
+    private static void assertWithinBudget(String key, Call call) {
+        String budget = budgets.getProperty(key);
+        assertNotNull(budget, "Нет бюджета " + key + " в " + BUDGETS);
+        run(call, WARM_UP_CALLS);
+        long threadId = Thread.currentThread().getId();
+        // Сам замер тоже выделяет немного памяти: вычитаем его на пустом вызове
+        long overhead = measure(n -> n, threadId);
+        long bytesPerCall = Math.max(0L, measure(call, threadId) - overhead) / MEASURED_CALLS;
+        assertTrue(bytesPerCall <= Long.parseLong(budget.trim()),
+                key + ": " + bytesPerCall + " байт на вызов при бюджете " + budget.trim());
+    }
+
+    private static long measure(Call call, long threadId) {
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long sink = run(call, MEASURED_CALLS);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        // Результат используется, чтобы JIT не выбросил вызовы
+        assertNotEquals(Long.MIN_VALUE, sink);
+        return allocated;
+    }
+
+    private static long run(Call call, int calls) {
+        long sink = 0L;
+        for (int n = 0; n < calls; n++) {
+            sink += call.apply(n);
+        }
+        return sink;
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        long apply(int n);
+    }
+}
@@ -0,0 +1,178 @@
+package ru.mayskiizhuk.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import ru.mayskiizhuk.cache.CachePolicy;
+import ru.mayskiizhuk.cache.CalculationCache;
+import ru.mayskiizhuk.controller.CalculationOutcome;
+import ru.mayskiizhuk.controller.VacationRequestHandler;
+import ru.mayskiizhuk.metrics.CalculationMetrics;
+import ru.mayskiizhuk.repository.NonWorkingHolidayRepository;
+import ru.mayskiizhuk.repository.Region;
+import ru.mayskiizhuk.service.VacationPeriodsPay;
+import ru.mayskiizhuk.service.VacationService;
+import ru.mayskiizhuk.validate.InputValidator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование журнала аудита")
+class AuditLogTest {
+
+    // Заголовок и 100 записей: несколько тысяч записей займут десятки сегментов
+    private static final DataSize SEGMENT_SIZE = DataSize.ofBytes(AuditSegmentWriter.HEADER_SIZE + 100L * AuditRecord.SIZE);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Записи нескольких потоков попадают в сегменты без потерь и повторов")
+    void record_whenManyThreads_shouldWriteEveryRecordOnce() throws Exception {
+        int threads = 4;
+        int perThread = 2_000;
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuditLog auditLog = open(registry, true);
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    // Зарплата кодирует номер записи, результат - ее же для проверки полей
+                    long id = (long) thread * perThread + i;
+                    auditLog.recordDays(7L, 1000L + id, 1 + i % 366, id);
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        auditLog.close();
+
+        BitSet seen = new BitSet();
+        int[] count = new int[1];
+        AuditLogReader.read(directory, record -> {
+            int id = (int) record.getResult();
+            assertFalse(seen.get(id), "повтор записи " + id);
+            seen.set(id);
+            count[0]++;
+            assertEquals(1000L + id, record.getAverageSalary());
+            assertEquals(7L, record.getCalendarVersion());
+            assertEquals(AuditRecord.MODE_DAYS, record.getMode());
+        });
+        assertEquals(threads * perThread, count[0]);
+        assertEquals(threads * perThread, registry.get(AuditLog.WRITTEN_COUNTER).counter().count());
+        assertEquals(0.0, registry.get(AuditLog.DROPPED_COUNTER).counter().count());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals((threads * perThread + 99) / 100, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("После перезапуска запись продолжается с первой пустой позиции")
+    void open_whenSegmentsExist_shouldAppend() throws IOException {
+        AuditLog first = open(new SimpleMeterRegistry(), false);
+        for (int i = 0; i < 150; i++) {
+            first.recordDays(1L, 100_000L, 14, i);
+        }
+        first.close();
+        AuditLog second = open(new SimpleMeterRegistry(), false);
+        second.recordDates(2L, 293_000L, 20_000L, 20_013L, Region.TATARSTAN, 150L);
+        second.close();
+
+        List<AuditRecord> records = new ArrayList<>();
+        AuditLogReader.read(directory, records::add);
+        assertEquals(151, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i, records.get(i).getResult());
+        }
+        AuditRecord last = records.get(150);
+        assertEquals(AuditRecord.MODE_DATES, last.getMode());
+        assertEquals(20_000, last.getStartEpochDay());
+        assertEquals(20_013, last.getEndEpochDay());
+        assertEquals(Region.TATARSTAN, last.getRegion());
+    }
+
+    @Test
+    @DisplayName("Заполненное кольцо отказывает в публикации до чтения потребителем")
+    void offer_whenRingFull_shouldReturnFalse() {
+        AuditRing ring = new AuditRing(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i, 0, 0, 0, 0, 0));
+        }
+        assertFalse(ring.offer(4, 0, 0, 0, 0, 0));
+        assertEquals(4, ring.size());
+
+        long[] firstFields = new long[2];
+        int[] next = new int[1];
+        assertEquals(2, ring.drain((f0, f1, f2, f3, f4, f5) -> firstFields[next[0]++] = f0, 2));
+        assertArrayEquals(new long[]{0, 1}, firstFields);
+        assertTrue(ring.offer(4, 0, 0, 0, 0, 0));
+        assertEquals(3, ring.size());
+    }
+
+    @Test
+    @DisplayName("Расчеты обработчика попадают в журнал и сходятся при повторном расчете")
+    void handler_whenAuditEnabled_shouldRecordCalculations() throws IOException {
+        VacationService vacationService = new VacationService();
+        AuditLog auditLog = open(new SimpleMeterRegistry(), false);
+        VacationRequestHandler handler = new VacationRequestHandler(vacationService, new InputValidator(),
+                new CalculationCache(100, CachePolicy.LRU), new CalculationMetrics(new SimpleMeterRegistry()), auditLog);
+        CalculationOutcome outcome = new CalculationOutcome();
+        handler.handle("293000", "14", null, null, null, outcome);
+        handler.handle("293000", null, "25-08-25", "07-09-25", "RU-TA", outcome);
+        // Повтор из кэша тоже учитывается, ошибка - нет
+        handler.handle("293000", "14", null, null, null, outcome);
+        handler.handle("293000", "0", null, null, null, outcome);
+        auditLog.close();
+
+        long[] counts = AuditLogReader.verify(directory, vacationService);
+        assertArrayEquals(new long[]{3, 0, 0}, counts);
+
+        StringWriter csv = new StringWriter();
+        AuditLogReader.exportCsv(directory, csv);
+        String[] lines = csv.toString().split("\n");
+        assertEquals(4, lines.length);
+        long version = NonWorkingHolidayRepository.currentCalendar().getVersion();
+        assertTrue(lines[2].endsWith("," + version + ",293000,,2025-08-25,2025-09-07,RU-TA,130000"), lines[2]);
+    }
+
+    @Test
+    @DisplayName("Расчет нескольких периодов пишет в журнал каждый объединенный период")
+    void handlePeriods_whenAuditEnabled_shouldRecordMergedPeriods() throws IOException {
+        VacationService vacationService = new VacationService();
+        AuditLog auditLog = open(new SimpleMeterRegistry(), false);
+        VacationRequestHandler handler = new VacationRequestHandler(vacationService, new InputValidator(),
+                new CalculationCache(100, CachePolicy.LRU), new CalculationMetrics(new SimpleMeterRegistry()), auditLog);
+        CalculationOutcome outcome = new CalculationOutcome();
+        // Первые два периода пересекаются и объединяются в 28.04-11.05
+        VacationPeriodsPay pay = handler.handlePeriods("293000", null, null, List.of("28-04-25", "05-05-25", "07-07-25"),
+                List.of("06-05-25", "11-05-25", "13-07-25"), outcome);
+        auditLog.close();
+
+        assertEquals(2, pay.getPeriods().size());
+        assertArrayEquals(new long[]{2, 0, 0}, AuditLogReader.verify(directory, vacationService));
+        StringWriter csv = new StringWriter();
+        AuditLogReader.exportCsv(directory, csv);
+        String[] lines = csv.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[1].endsWith(",293000,,2025-04-28,2025-05-11," + Region.FEDERAL.getCode() + ","
+                + pay.getPeriods().get(0).getPay()), lines[1]);
+    }
+
+    private AuditLog open(SimpleMeterRegistry registry, boolean blockWhenFull) throws IOException {
+        return new AuditLog(directory.toString(), SEGMENT_SIZE, 1024, Duration.ofMillis(10), blockWhenFull, registry);
+    }
+}
@@ -0,0 +1,217 @@
+package ru.mayskiizhuk.binary;
+
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.mayskiizhuk.cache.CachePolicy;
+import ru.mayskiizhuk.cache.CalculationCache;
+import ru.mayskiizhuk.controller.VacationRequestHandler;
+import ru.mayskiizhuk.error.ErrorCode;
+import ru.mayskiizhuk.metrics.CalculationMetrics;
+import ru.mayskiizhuk.repository.Region;
+import ru.mayskiizhuk.service.VacationService;
+import ru.mayskiizhuk.validate.InputValidator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование сервера бинарного протокола")
+class BinaryCalculationServerTest {
+
+    private static final VacationService vacationService = new VacationService();
+    private static BinaryCalculationServer server;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        VacationRequestHandler handler = new VacationRequestHandler(vacationService, new InputValidator(),
+                new CalculationCache(1000, CachePolicy.W_TINY_LFU), new CalculationMetrics(new CompositeMeterRegistry()));
+        server = BinaryCalculationServer.start(handler, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Расчет по количеству дней и по датам с региональными праздниками")
+    void calculatePay_whenParamsValid_shouldReturnPay() throws IOException {
+        try (BinaryCalculationClient client = connect()) {
+            assertEquals(vacationService.calculatePay(293000L, 14), client.calculatePay(293000L, 14));
+            assertEquals(120000L, client.calculatePay(293000L,
+                    LocalDate.of(2025, 4, 28), LocalDate.of(2025, 5, 11), Region.FEDERAL));
+            assertEquals(130000L, client.calculatePay(293000L,
+                    LocalDate.of(2025, 8, 25), LocalDate.of(2025, 9, 7), Region.TATARSTAN));
+        }
+    }
+
+    @Test
+    @DisplayName("Ошибка валидации возвращается кодом из каталога ошибок и введенным значением")
+    void calculatePay_whenParamsInvalid_shouldThrowRejected() throws IOException {
+        try (BinaryCalculationClient client = connect()) {
+            CalculationRejectedException salary = assertThrows(CalculationRejectedException.class,
+                    () -> client.calculatePay(-5L, 14));
+            assertEquals(ErrorCode.SALARY_OUT_OF_RANGE, salary.getErrorCode());
+            assertEquals(-5L, salary.getValue());
+
+            CalculationRejectedException period = assertThrows(CalculationRejectedException.class,
+                    () -> client.calculatePay(293000L, LocalDate.of(2025, 5, 11), LocalDate.of(2025, 4, 28),
+                            Region.FEDERAL));
+            assertEquals(ErrorCode.PERIOD_INVALID, period.getErrorCode());
+
+            CalculationRejectedException date = assertThrows(CalculationRejectedException.class,
+                    () -> client.calculatePay(293000L, LocalDate.of(1999, 12, 25), LocalDate.of(2000, 1, 5),
+                            Region.FEDERAL));
+            assertEquals(ErrorCode.START_DATE_FORMAT, date.getErrorCode());
+
+            // Соединение остается рабочим после ошибок
+            assertEquals(vacationService.calculatePay(293000L, 28), client.calculatePay(293000L, 28));
+        }
+    }
+
+    @Test
+    @DisplayName("Конвейер: ответы на несколько окон запросов приходят по порядку и совпадают с расчетом сервиса")
+    void calculatePay_whenPipelined_shouldMatchService() throws IOException {
+        int count = BinaryCalculationClient.WINDOW * 5 + 7;
+        Random random = new Random(17);
+        long[] salaries = new long[count];
+        int[] days = new int[count];
+        for (int i = 0; i < count; i++) {
+            salaries[i] = 100000L + random.nextInt(10_000_000);
+            days[i] = i % 50 == 0 ? 0 : 1 + random.nextInt(366);
+        }
+        long[] results = new long[count];
+        short[] statuses = new short[count];
+
+        try (BinaryCalculationClient client = connect()) {
+            client.calculatePay(salaries, days, results, statuses, count);
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (days[i] == 0) {
+                assertEquals(ErrorCode.DAYS_OUT_OF_RANGE, BinaryProtocol.errorCode(statuses[i]), "строка " + i);
+            } else {
+                assertEquals(BinaryProtocol.STATUS_OK, statuses[i], "строка " + i);
+                assertEquals(vacationService.calculatePay(salaries[i], days[i]), results[i], "строка " + i);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Кадры, разрезанные на части, собираются; неизвестные режим и регион отклоняются")
+    void server_whenFramesSplit_shouldAssembleAndRejectUnknown() throws IOException {
+        ByteBuffer frames = ByteBuffer.allocate(3 * BinaryProtocol.REQUEST_SIZE);
+        BinaryProtocol.writeRequest(frames, 11, BinaryProtocol.MODE_DAYS, 0, 293000L, 14, 0);
+        BinaryProtocol.writeRequest(frames, 12, (byte) 9, 0, 293000L, 14, 0);
+        BinaryProtocol.writeRequest(frames, 13, BinaryProtocol.MODE_DATES, 200, 293000L,
+                (int) LocalDate.of(2025, 4, 28).toEpochDay(), (int) LocalDate.of(2025, 5, 11).toEpochDay());
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.setTcpNoDelay(true);
+            OutputStream out = socket.getOutputStream();
+            byte[] bytes = frames.array();
+            // Первый кадр - побайтно, остальные - одной записью
+            for (int i = 0; i < BinaryProtocol.REQUEST_SIZE; i++) {
+                out.write(bytes[i]);
+                out.flush();
+            }
+            out.write(bytes, BinaryProtocol.REQUEST_SIZE, bytes.length - BinaryProtocol.REQUEST_SIZE);
+            out.flush();
+
+            ByteBuffer responses = ByteBuffer.wrap(readFully(socket.getInputStream(), 3 * BinaryProtocol.RESPONSE_SIZE));
+            assertResponse(responses, 11, BinaryProtocol.STATUS_OK, vacationService.calculatePay(293000L, 14));
+            assertResponse(responses, 12, BinaryProtocol.status(ErrorCode.MODE_MISSING), 0L);
+            assertResponse(responses, 13, BinaryProtocol.status(ErrorCode.UNKNOWN_REGION), 0L);
+        }
+    }
+
+    @Test
+    @DisplayName("Конвейер без ожидания ответов: кадров больше, чем помещается в буферы сервера, - ответы приходят на все")
+    void server_whenPipelinedBeyondBuffers_shouldAnswerAllFrames() throws Exception {
+        // Больше, чем вмещают буферы соединения и сокетов: сервер упирается в полный буфер ответов
+        int count = 1 << 20;
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(4096);
+            socket.setSendBufferSize(4096);
+            socket.setSoTimeout(10_000);
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+
+            AtomicInteger written = new AtomicInteger();
+            Thread writer = new Thread(() -> {
+                ByteBuffer frames = ByteBuffer.allocate(BinaryCalculationClient.WINDOW * BinaryProtocol.REQUEST_SIZE);
+                try {
+                    OutputStream out = socket.getOutputStream();
+                    for (int i = 0; i < count; i++) {
+                        BinaryProtocol.writeRequest(frames, i, BinaryProtocol.MODE_DAYS, 0, 293000L, 1 + i % 366, 0);
+                        if (!frames.hasRemaining()) {
+                            out.write(frames.array(), 0, frames.position());
+                            frames.clear();
+                            written.set(i + 1);
+                        }
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    // Соединение закрыто тестом
+                }
+            });
+            writer.setDaemon(true);
+            writer.start();
+            // Ответы не читаются, пока запись не упрется в заполненные буферы
+            int last;
+            do {
+                last = written.get();
+                writer.join(200);
+            } while (writer.isAlive() && written.get() != last);
+
+            InputStream in = socket.getInputStream();
+            byte[] bytes = new byte[BinaryProtocol.RESPONSE_SIZE];
+            ByteBuffer response = ByteBuffer.wrap(bytes);
+            for (int i = 0; i < count; i++) {
+                readFully(in, bytes);
+                response.clear();
+                assertResponse(response, i, BinaryProtocol.STATUS_OK, vacationService.calculatePay(293000L, 1 + i % 366));
+            }
+            writer.join();
+        }
+    }
+
+    private static BinaryCalculationClient connect() throws IOException {
+        return BinaryCalculationClient.connect(InetAddress.getLoopbackAddress().getHostAddress(), server.getPort());
+    }
+
+    private static void assertResponse(ByteBuffer responses, int requestId, short status, long value) {
+        assertEquals(requestId, responses.getInt());
+        assertEquals(status, responses.getShort());
+        assertEquals(0, responses.getShort());
+        assertEquals(value, responses.getLong());
+    }
+
+    private static byte[] readFully(InputStream in, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        readFully(in, bytes);
+        return bytes;
+    }
+
+    private static void readFully(InputStream in, byte[] bytes) throws IOException {
+        int read = 0;
+        while (read < bytes.length) {
+            int n = in.read(bytes, read, bytes.length - read);
+            if (n < 0) {
+                fail("Сервер закрыл соединение");
+            }
+            read += n;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package ru.mayskiizhuk.bulk;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import ru.mayskiizhuk.audit.AuditLog;
+import ru.mayskiizhuk.audit.AuditLogReader;
+import ru.mayskiizhuk.cache.CachePolicy;
+import ru.mayskiizhuk.cache.CalculationCache;
+import ru.mayskiizhuk.controller.VacationRequestHandler;
+import ru.mayskiizhuk.metrics.CalculationMetrics;
+import ru.mayskiizhuk.service.VacationService;
+import ru.mayskiizhuk.validate.InputValidator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование BulkPayrollProcessor")
+class BulkPayrollProcessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private VacationRequestHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new VacationRequestHandler(new VacationService(), new InputValidator(),
+                new CalculationCache(0, CachePolicy.LRU), new CalculationMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    @DisplayName("Результаты и ошибки пишутся по строкам в исходном порядке")
+    void process_shouldWriteResultPerRowInOrder() throws IOException {
+        Path input = write("id,averageSalary,numberOfDays,startDate,endDate\n" +
+                "A-1,293000,7,,\n" +
+                "\"B,2\",\"293000\",,28-04-25,11-05-25\r\n" +
+                "\n" +
+                "C-3,не_число,7,,\n" +
+                "D-4,293000,7,28-04-25,11-05-25\n" +
+                "F-6,293000,,25-08-25,07-09-25,RU-TA\n" +
+                "E-5,293000");
+        Path output = tempDir.resolve("out.csv");
+
+        BulkPayrollProcessor.Result result = new BulkPayrollProcessor(handler, 2, 1024).process(input, output, true);
+
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals("id,result,code,error", lines.get(0));
+        assertEquals("A-1,70000,,", lines.get(1));
+        assertEquals("\"B,2\",120000,,", lines.get(2));
+        assertEquals("C-3,,SALARY_NOT_A_NUMBER,\"Параметр averageSalary должен быть целым числом (количество копеек).\"", lines.get(3));
+        assertTrue(lines.get(4).startsWith("D-4,,MODE_CONFLICT,\"Укажите ЛИБО numberOfDays"));
+        assertEquals("F-6,130000,,", lines.get(5));
+        assertTrue(lines.get(6).startsWith("E-5,,MODE_MISSING,\"Необходимо указать"));
+        assertEquals(7, lines.size());
+        assertEquals(6, result.getRows());
+        assertEquals(3, result.getRejectedRows());
+    }
+
+    @Test
+    @DisplayName("Разбиение на куски не меняет результат")
+    void process_shouldNotDependOnChunkSize() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            csv.append(i).append(',').append(100_000 + i * 37L).append(',').append(1 + i % 366).append(",,\n");
+        }
+        Path input = write(csv.toString());
+        Path small = tempDir.resolve("small.csv");
+        Path large = tempDir.resolve("large.csv");
+
+        BulkPayrollProcessor.Result smallResult = new BulkPayrollProcessor(handler, 4, 64).process(input, small, false);
+        new BulkPayrollProcessor(handler, 1, 1 << 20).process(input, large, false);
+
+        assertEquals(Files.readAllLines(large), Files.readAllLines(small));
+        assertEquals(2000, smallResult.getRows());
+        assertEquals(0, smallResult.getRejectedRows());
+        assertEquals("1999," + new VacationService().calculatePay(100_000 + 1999 * 37L, 1 + 1999 % 366) + ",,",
+                Files.readAllLines(small).get(1999));
+    }
+
+    @Test
+    @DisplayName("Строка длиннее куска - ошибка")
+    void process_whenLineLongerThanChunk_shouldThrow() throws IOException {
+        Path input = write("A-1,293000,7,,\nA-2,293000,7,,\n");
+
+        assertThrows(IOException.class,
+                () -> new BulkPayrollProcessor(handler, 1, 8).process(input, tempDir.resolve("out.csv"), false));
+    }
+
+    @Test
+    @DisplayName("Запуск по файлу записывает рассчитанные строки в журнал аудита")
+    void run_whenAuditEnabled_shouldRecordCalculatedRows() throws IOException {
+        Path input = write("A-1,293000,7,,\nA-2,293000,,28-04-25,11-05-25\nA-3,не_число,7,,\n");
+        Path auditDirectory = tempDir.resolve("audit");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuditLog auditLog = new AuditLog(auditDirectory.toString(), DataSize.ofMegabytes(1), 1024,
+                Duration.ofMillis(10), true, registry);
+        BulkPayrollRunner runner = new BulkPayrollRunner(input.toString(), tempDir.resolve("out.csv").toString(),
+                false, 1, 1024, new VacationService(), new InputValidator(), new CalculationMetrics(registry), auditLog);
+
+        runner.run();
+        auditLog.close();
+
+        assertArrayEquals(new long[]{2, 0, 0}, AuditLogReader.verify(auditDirectory, new VacationService()));
+    }
+
+    private Path write(String content) throws IOException {
+        Path path = tempDir.resolve("in.csv");
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+}
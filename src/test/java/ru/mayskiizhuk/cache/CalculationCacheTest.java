@@ -0,0 +1,176 @@
+package ru.mayskiizhuk.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import ru.mayskiizhuk.repository.NonWorkingHolidayRepository;
+import ru.mayskiizhuk.repository.ProductionCalendar;
+import ru.mayskiizhuk.repository.ProductionCalendarChangedEvent;
+import ru.mayskiizhuk.repository.ProductionCalendarFile;
+import ru.mayskiizhuk.repository.Region;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование CalculationCache")
+class CalculationCacheTest {
+
+    private static final long SALARY = 293000L;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void restoreFederalCalendar() {
+        NonWorkingHolidayRepository.installCalendar(ProductionCalendar.federal());
+    }
+
+    private static long datesKey(LocalDate start, LocalDate end) {
+        return CalculationCache.datesKey(start.toEpochDay(), end.toEpochDay());
+    }
+
+    @ParameterizedTest
+    @EnumSource(CachePolicy.class)
+    @DisplayName("Сохраненное значение находится, статистика считается")
+    void get_whenValueWasPut_shouldReturnItAndCountHit(CachePolicy policy) {
+        CalculationCache cache = new CalculationCache(100, policy);
+
+        assertEquals(CalculationCache.MISS, cache.get(SALARY, CalculationCache.daysKey(14)));
+        cache.put(SALARY, CalculationCache.daysKey(14), 140000L, null);
+        assertEquals(140000L, cache.get(SALARY, CalculationCache.daysKey(14)));
+        assertEquals(CalculationCache.MISS, cache.get(SALARY + 1, CalculationCache.daysKey(14)));
+        assertEquals(CalculationCache.MISS, cache.get(SALARY, CalculationCache.daysKey(15)));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(3, stats.getMissCount());
+        assertEquals(0.25, stats.getHitRatio());
+        assertEquals(1, stats.getSize());
+    }
+
+    @ParameterizedTest
+    @EnumSource(CachePolicy.class)
+    @DisplayName("Размер кэша не превышает максимальный")
+    void put_whenCacheIsFull_shouldEvict(CachePolicy policy) {
+        CalculationCache cache = new CalculationCache(64, policy);
+        for (long salary = 1; salary <= 1000; salary++) {
+            cache.get(salary, CalculationCache.daysKey(7));
+            cache.put(salary, CalculationCache.daysKey(7), salary, null);
+            assertTrue(cache.size() <= 64, "Размер " + cache.size() + " больше максимального");
+        }
+        assertEquals(1000 - cache.size(), cache.stats().getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("LRU вытесняет запись, к которой дольше всего не обращались")
+    void put_whenLruIsFull_shouldEvictLeastRecentlyUsed() {
+        CalculationCache cache = new CalculationCache(3, CachePolicy.LRU);
+        cache.put(1, CalculationCache.daysKey(1), 1, null);
+        cache.put(2, CalculationCache.daysKey(1), 2, null);
+        cache.put(3, CalculationCache.daysKey(1), 3, null);
+        cache.get(1, CalculationCache.daysKey(1));
+
+        cache.put(4, CalculationCache.daysKey(1), 4, null);
+
+        assertEquals(1, cache.get(1, CalculationCache.daysKey(1)));
+        assertEquals(CalculationCache.MISS, cache.get(2, CalculationCache.daysKey(1)));
+        assertEquals(3, cache.get(3, CalculationCache.daysKey(1)));
+        assertEquals(4, cache.get(4, CalculationCache.daysKey(1)));
+    }
+
+    @Test
+    @DisplayName("W-TinyLFU не вытесняет популярные записи потоком разовых запросов")
+    void put_whenTinyLfuIsScanned_shouldKeepFrequentEntries() {
+        CalculationCache cache = new CalculationCache(100, CachePolicy.W_TINY_LFU);
+        for (int round = 0; round < 10; round++) {
+            for (long salary = 1; salary <= 50; salary++) {
+                if (cache.get(salary, CalculationCache.daysKey(14)) == CalculationCache.MISS) {
+                    cache.put(salary, CalculationCache.daysKey(14), salary, null);
+                }
+            }
+        }
+        for (long salary = 1000; salary < 1400; salary++) {
+            cache.get(salary, CalculationCache.daysKey(14));
+            cache.put(salary, CalculationCache.daysKey(14), salary, null);
+        }
+
+        int retained = 0;
+        for (long salary = 1; salary <= 50; salary++) {
+            if (cache.get(salary, CalculationCache.daysKey(14)) != CalculationCache.MISS) {
+                retained++;
+            }
+        }
+        assertTrue(retained >= 45, "Сохранилось только " + retained + " популярных записей из 50");
+    }
+
+    @Test
+    @DisplayName("Смена календаря удаляет только затронутые записи")
+    void onCalendarChanged_shouldInvalidateOnlyAffectedDateEntries() throws IOException {
+        CalculationCache cache = new CalculationCache(100, CachePolicy.LRU);
+        ProductionCalendar previous = NonWorkingHolidayRepository.currentCalendar();
+        long decemberKey = datesKey(LocalDate.of(2025, 12, 25), LocalDate.of(2026, 1, 10));
+        long aprilKey = datesKey(LocalDate.of(2025, 4, 7), LocalDate.of(2025, 4, 20));
+        cache.put(SALARY, decemberKey, 1L, previous);
+        cache.put(SALARY, aprilKey, 2L, previous);
+        cache.put(SALARY, CalculationCache.daysKey(14), 3L, null);
+
+        Path path = tempDir.resolve("calendar.bin");
+        ProductionCalendarFile.Source source = ProductionCalendarFile.parse(List.of("version 2", "2025: +12-31"));
+        ProductionCalendarFile.write(path, source.getVersion(), source.getYears());
+        ProductionCalendar current = ProductionCalendarFile.read(path);
+        NonWorkingHolidayRepository.installCalendar(current);
+        cache.onCalendarChanged(new ProductionCalendarChangedEvent(previous, current));
+
+        assertEquals(CalculationCache.MISS, cache.get(SALARY, decemberKey), "Период с 31.12.2025 затронут");
+        assertEquals(2L, cache.get(SALARY, aprilKey));
+        assertEquals(3L, cache.get(SALARY, CalculationCache.daysKey(14)));
+        assertEquals(1, cache.stats().getInvalidationCount());
+
+        // Результат, посчитанный по старому календарю, после смены не сохраняется
+        cache.put(SALARY, decemberKey, 1L, previous);
+        assertEquals(CalculationCache.MISS, cache.get(SALARY, decemberKey));
+    }
+
+    @Test
+    @DisplayName("Регион входит в ключ и учитывается при инвалидации")
+    void onCalendarChanged_shouldCompareHolidaysOfKeyRegion() throws IOException {
+        CalculationCache cache = new CalculationCache(100, CachePolicy.LRU);
+        ProductionCalendar previous = NonWorkingHolidayRepository.currentCalendar();
+        long start = LocalDate.of(2025, 8, 25).toEpochDay();
+        long end = LocalDate.of(2025, 9, 7).toEpochDay();
+        long federalKey = CalculationCache.datesKey(start, end, Region.FEDERAL);
+        long tatarstanKey = CalculationCache.datesKey(start, end, Region.TATARSTAN);
+        assertEquals(CalculationCache.datesKey(start, end), federalKey);
+        assertNotEquals(federalKey, tatarstanKey);
+        cache.put(SALARY, federalKey, 1L, previous);
+        cache.put(SALARY, tatarstanKey, 2L, previous);
+
+        // 30 августа становится федеральным праздником, а в Татарстане он уже был
+        Path path = tempDir.resolve("calendar.bin");
+        ProductionCalendarFile.Source source = ProductionCalendarFile.parse(List.of("version 2", "2025: +08-30"));
+        ProductionCalendarFile.write(path, source.getVersion(), source.getYears());
+        ProductionCalendar current = ProductionCalendarFile.read(path);
+        NonWorkingHolidayRepository.installCalendar(current);
+        cache.onCalendarChanged(new ProductionCalendarChangedEvent(previous, current));
+
+        assertEquals(CalculationCache.MISS, cache.get(SALARY, federalKey));
+        assertEquals(2L, cache.get(SALARY, tatarstanKey));
+    }
+
+    @Test
+    @DisplayName("Выключенный кэш")
+    void get_whenCacheIsDisabled_shouldAlwaysMiss() {
+        CalculationCache cache = new CalculationCache(0, CachePolicy.W_TINY_LFU);
+        cache.put(SALARY, CalculationCache.daysKey(14), 140000L, null);
+        assertFalse(cache.isEnabled());
+        assertEquals(CalculationCache.MISS, cache.get(SALARY, CalculationCache.daysKey(14)));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,40 @@
+package ru.mayskiizhuk.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование VirtualThreadsConfig")
+class VirtualThreadsConfigTest {
+
+    @Test
+    @DisplayName("Исполнитель на виртуальных потоках создается только на JDK 21+")
+    void newVirtualThreadPerTaskExecutor_shouldDependOnJdkVersion() throws Exception {
+        if (Runtime.version().feature() < 21) {
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    VirtualThreadsConfig::newVirtualThreadPerTaskExecutor);
+            assertTrue(e.getMessage().contains("JDK 21"));
+            return;
+        }
+        ExecutorService executor = VirtualThreadsConfig.newVirtualThreadPerTaskExecutor();
+        try {
+            Object isVirtual = executor.submit(() -> Thread.class.getMethod("isVirtual").invoke(Thread.currentThread())).get();
+            assertEquals(Boolean.TRUE, isVirtual);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Исполнитель останавливается при закрытии контекста")
+    void destroy_shouldShutDownExecutor() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        VirtualThreadsConfig.VirtualThreadsCustomizer customizer = new VirtualThreadsConfig.VirtualThreadsCustomizer(executor);
+        customizer.destroy();
+        assertTrue(executor.isShutdown());
+    }
+}
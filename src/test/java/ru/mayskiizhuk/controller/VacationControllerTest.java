@@ -1,5 +1,8 @@
 package ru.mayskiizhuk.controller;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -8,9 +11,11 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.mayskiizhuk.config.SalaryConstants;
+import ru.mayskiizhuk.metrics.CalculationMetrics;
 import ru.mayskiizhuk.service.VacationService;
 import ru.mayskiizhuk.validate.InputValidator;
 
@@ -24,6 +29,8 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
@@ -34,6 +41,9 @@ class VacationControllerIntegrationTest { // Изменили имя класс
     @Autowired
     private MockMvc mockMvc; // MockMvc все еще используется для отправки запросов
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     // Константы для тестов
     private final String BASE_URL = "/calculacte";
     private final String VALID_SALARY_STR = "293000"; // 2930 руб = 100 руб/день по формуле
@@ -98,7 +108,9 @@ class VacationControllerIntegrationTest { // Изменили имя класс
         mockMvc.perform(get(BASE_URL)
                         .param("numberOfDays", VALID_DAYS_STR))
                 .andExpect(status().isBadRequest())
-                .andExpect(content().string(containsString("Не указан обязательный параметр averageSalary")));
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value("SALARY_MISSING"))
+                .andExpect(jsonPath("$.message", containsString("Не указан обязательный параметр averageSalary")));
     }
 
     @Test
@@ -108,7 +120,9 @@ class VacationControllerIntegrationTest { // Изменили имя класс
                         .param("averageSalary", "не_число")
                         .param("numberOfDays", VALID_DAYS_STR))
                 .andExpect(status().isBadRequest())
-                .andExpect(content().string(containsString("Параметр averageSalary должен быть целым числом")));
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value("SALARY_NOT_A_NUMBER"))
+                .andExpect(jsonPath("$.message", containsString("Параметр averageSalary должен быть целым числом")));
     }
 
     @Test
@@ -120,7 +134,9 @@ class VacationControllerIntegrationTest { // Изменили имя класс
                         .param("averageSalary", String.valueOf(invalidSalary))
                         .param("numberOfDays", VALID_DAYS_STR))
                 .andExpect(status().isBadRequest())
-                .andExpect(content().string(containsString("Средняя зарплата (averageSalary) должна быть в диапазоне")));
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value("SALARY_OUT_OF_RANGE"))
+                .andExpect(jsonPath("$.message", containsString("Средняя зарплата (averageSalary) должна быть в диапазоне")));
     }
 
     @Test
@@ -129,7 +145,9 @@ class VacationControllerIntegrationTest { // Изменили имя класс
         mockMvc.perform(get(BASE_URL)
                         .param("averageSalary", VALID_SALARY_STR))
                 .andExpect(status().isBadRequest())
-                .andExpect(content().string(containsString("Необходимо указать ЛИБО numberOfDays, ЛИБО оба параметра startDate и endDate")));
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value("MODE_MISSING"))
+                .andExpect(jsonPath("$.message", containsString("Необходимо указать ЛИБО numberOfDays, ЛИБО оба параметра startDate и endDate")));
     }
 
     @Test
@@ -139,7 +157,9 @@ class VacationControllerIntegrationTest { // Изменили имя класс
                         .param("averageSalary", VALID_SALARY_STR)
                         .param("startDate", NO_HOLIDAY_START_STR))
                 .andExpect(status().isBadRequest())
-                .andExpect(content().string(containsString("Необходимо указать ЛИБО numberOfDays, ЛИБО оба параметра startDate и endDate")));
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value("MODE_MISSING"))
+                .andExpect(jsonPath("$.message", containsString("Необходимо указать ЛИБО numberOfDays, ЛИБО оба параметра startDate и endDate")));
     }
 
     @Test
@@ -151,7 +171,9 @@ class VacationControllerIntegrationTest { // Изменили имя класс
                         .param("startDate", NO_HOLIDAY_START_STR)
                         .param("endDate", NO_HOLIDAY_END_STR))
                 .andExpect(status().isBadRequest())
-                .andExpect(content().string(containsString("Укажите ЛИБО numberOfDays, ЛИБО оба параметра startDate и endDate, но не все вместе")));
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value("MODE_CONFLICT"))
+                .andExpect(jsonPath("$.message", containsString("Укажите ЛИБО numberOfDays, ЛИБО оба параметра startDate и endDate, но не все вместе")));
     }
 
     @Test
@@ -161,7 +183,9 @@ class VacationControllerIntegrationTest { // Изменили имя класс
                         .param("averageSalary", VALID_SALARY_STR)
                         .param("numberOfDays", "десять"))
                 .andExpect(status().isBadRequest())
-                .andExpect(content().string(containsString("Параметр numberOfDays должен быть целым числом")));
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value("DAYS_NOT_A_NUMBER"))
+                .andExpect(jsonPath("$.message", containsString("Параметр numberOfDays должен быть целым числом")));
     }
 
     @Test
@@ -173,7 +197,9 @@ class VacationControllerIntegrationTest { // Изменили имя класс
                         .param("averageSalary", VALID_SALARY_STR)
                         .param("numberOfDays", String.valueOf(invalidDays)))
                 .andExpect(status().isBadRequest())
-                .andExpect(content().string(containsString("Количество дней отпуска (numberOfDays) должно быть в диапазоне")));
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value("DAYS_OUT_OF_RANGE"))
+                .andExpect(jsonPath("$.message", containsString("Количество дней отпуска (numberOfDays) должно быть в диапазоне")));
     }
 
     @Test
@@ -184,7 +210,9 @@ class VacationControllerIntegrationTest { // Изменили имя класс
                         .param("startDate", "01.04.2024") // Неверный формат
                         .param("endDate", NO_HOLIDAY_END_STR))
                 .andExpect(status().isBadRequest())
-                .andExpect(content().string(containsString("Неверный формат даты начала отпуска (startDate)")));
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value("START_DATE_FORMAT"))
+                .andExpect(jsonPath("$.message", containsString("Неверный формат даты начала отпуска (startDate)")));
     }
 
     @Test
@@ -195,7 +223,9 @@ class VacationControllerIntegrationTest { // Изменили имя класс
                         .param("startDate", NO_HOLIDAY_START_STR)
                         .param("endDate", "2024/04/14")) // Неверный формат
                 .andExpect(status().isBadRequest())
-                .andExpect(content().string(containsString("Неверный формат даты окончания отпуска (endDate)")));
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value("END_DATE_FORMAT"))
+                .andExpect(jsonPath("$.message", containsString("Неверный формат даты окончания отпуска (endDate)")));
     }
 
     @Test
@@ -206,6 +236,313 @@ class VacationControllerIntegrationTest { // Изменили имя класс
                         .param("startDate", NO_HOLIDAY_END_STR) // end дата в качестве start
                         .param("endDate", NO_HOLIDAY_START_STR)) // start дата в качестве end
                 .andExpect(status().isBadRequest())
-                .andExpect(content().string(containsString("Некорректный период отпуска")));
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value("PERIOD_INVALID"))
+                .andExpect(jsonPath("$.message", containsString("Некорректный период отпуска")));
+    }
+
+    @Test
+    @DisplayName("Региональный праздник не оплачивается")
+    void calculateVacationPay_whenRegionGiven_shouldExcludeRegionalHolidays() throws Exception {
+        // 25.08.25 - 07.09.25: 14 дней, 30 августа - День Республики Татарстан
+        mockMvc.perform(get(BASE_URL)
+                        .param("averageSalary", VALID_SALARY_STR)
+                        .param("startDate", "25-08-25")
+                        .param("endDate", "07-09-25")
+                        .param("region", "RU-TA"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(String.valueOf((long) Math.ceil(((double) VALID_SALARY_LONG / 29.3) * 13))));
+        mockMvc.perform(get(BASE_URL)
+                        .param("averageSalary", VALID_SALARY_STR)
+                        .param("startDate", "25-08-25")
+                        .param("endDate", "07-09-25"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(String.valueOf(EXPECTED_PAY_FOR_14_NO_HOLIDAYS)));
+    }
+
+    @Test
+    @DisplayName("Ошибка: неизвестный регион")
+    void calculateVacationPay_whenRegionUnknown_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(BASE_URL)
+                        .param("averageSalary", VALID_SALARY_STR)
+                        .param("numberOfDays", VALID_DAYS_STR)
+                        .param("region", "RU-XX"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("UNKNOWN_REGION"));
+    }
+
+    // --- Условные запросы ---
+
+    @Test
+    @DisplayName("Успешный ответ содержит ETag и Cache-Control, совпавший If-None-Match дает 304 без расчета")
+    void calculateVacationPay_whenIfNoneMatchMatches_shouldReturnNotModified() throws Exception {
+        String etag = mockMvc.perform(get(BASE_URL)
+                        .param("averageSalary", VALID_SALARY_STR)
+                        .param("numberOfDays", "9"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=600"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        Timer calculateDays = meterRegistry.get(CalculationMetrics.STAGE_TIMER)
+                .tag("stage", "calculate").tag("mode", "days").timer();
+        long calculatedBefore = calculateDays.count();
+
+        mockMvc.perform(get(BASE_URL)
+                        .param("averageSalary", VALID_SALARY_STR)
+                        .param("numberOfDays", "9")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        assertEquals(calculatedBefore, calculateDays.count());
+
+        // Другие параметры - другой тег и полный ответ
+        mockMvc.perform(get(BASE_URL)
+                        .param("averageSalary", VALID_SALARY_STR)
+                        .param("numberOfDays", "10")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+        assertEquals(calculatedBefore + 1, calculateDays.count());
+    }
+
+    @Test
+    @DisplayName("Ответ с ошибкой не кэшируется")
+    void calculateVacationPay_whenInvalid_shouldNotReturnETag() throws Exception {
+        mockMvc.perform(get(BASE_URL)
+                        .param("averageSalary", VALID_SALARY_STR)
+                        .param("numberOfDays", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().doesNotExist(HttpHeaders.CACHE_CONTROL));
+    }
+
+    // --- Расчет по истории заработка ---
+
+    @Test
+    @DisplayName("По employeeId средняя зарплата берется из истории, ETag меняется после исправления истории")
+    void calculateVacationPay_whenEmployeeIdGiven_shouldUsePayrollHistory() throws Exception {
+        mockMvc.perform(put("/payroll/1001/2025-01").param("earnings", VALID_SALARY_STR).param("workedDays", "31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.averageSalary").value(VALID_SALARY_LONG));
+        String etag = mockMvc.perform(get(BASE_URL)
+                        .param("employeeId", "1001")
+                        .param("numberOfDays", VALID_DAYS_STR))
+                .andExpect(status().isOk())
+                .andExpect(content().string(String.valueOf(EXPECTED_PAY_FOR_7_DAYS)))
+                // Ответ по данным сотрудника не хранится общими кэшами и каждый раз перепроверяется
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        // Тег совпадает с тегом того же запроса с явной средней зарплатой
+        mockMvc.perform(get(BASE_URL)
+                        .param("averageSalary", VALID_SALARY_STR)
+                        .param("numberOfDays", VALID_DAYS_STR))
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=600"));
+        mockMvc.perform(get(BASE_URL)
+                        .param("employeeId", "1001")
+                        .param("numberOfDays", VALID_DAYS_STR)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"));
+
+        // Половина февраля с тем же заработком: средняя 2 * 293000 / 1.5 месяца
+        mockMvc.perform(put("/payroll/1001/2025-02").param("earnings", VALID_SALARY_STR).param("workedDays", "14"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastMonth").value("2025-02"))
+                .andExpect(jsonPath("$.workedMonths").value(1.5));
+        mockMvc.perform(get(BASE_URL)
+                        .param("employeeId", "1001")
+                        .param("numberOfDays", VALID_DAYS_STR)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(String.valueOf((long) Math.ceil(390_667.0 / 29.3 * 7))));
+    }
+
+    @Test
+    @DisplayName("Ошибки запроса по employeeId и ведения истории заработка")
+    void calculateVacationPay_whenEmployeeIdInvalid_shouldReturnError() throws Exception {
+        mockMvc.perform(get(BASE_URL)
+                        .param("averageSalary", VALID_SALARY_STR)
+                        .param("employeeId", "1")
+                        .param("numberOfDays", VALID_DAYS_STR))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("SALARY_SOURCE_CONFLICT"));
+        mockMvc.perform(get(BASE_URL)
+                        .param("employeeId", "abc")
+                        .param("numberOfDays", VALID_DAYS_STR))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("EMPLOYEE_ID_NOT_A_NUMBER"));
+        mockMvc.perform(get(BASE_URL)
+                        .param("employeeId", "987654321")
+                        .param("numberOfDays", VALID_DAYS_STR))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("EMPLOYEE_NOT_FOUND"));
+        mockMvc.perform(get("/payroll/987654321"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("EMPLOYEE_NOT_FOUND"));
+        mockMvc.perform(put("/payroll/1002/2025-13").param("earnings", "1").param("workedDays", "1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("PAYROLL_MONTH_FORMAT"));
+        mockMvc.perform(put("/payroll/1002/2025-02").param("earnings", "-1").param("workedDays", "1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("PAYROLL_EARNINGS_INVALID"));
+        mockMvc.perform(put("/payroll/1002/2025-02").param("earnings", "1").param("workedDays", "29"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("PAYROLL_WORKED_DAYS_INVALID"));
+    }
+
+    @Test
+    @DisplayName("Проба готовности отвечает UP после прогрева")
+    void readiness_afterWarmUp_shouldBeUp() throws Exception {
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+    }
+
+    // --- Несколько периодов ---
+
+    @Test
+    @DisplayName("Несколько периодов: объединение, итог и разбивка по периодам")
+    void calculateVacationPayPeriods_whenPeriodsOverlap_shouldReturnMergedBreakdown() throws Exception {
+        mockMvc.perform(post(BASE_URL + "/periods")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"averageSalary\":\"" + VALID_SALARY_STR + "\",\"periods\":["
+                                + "[\"" + MAY_HOLIDAY_START_STR + "\",\"04-05-25\"],"
+                                + "{\"startDate\":\"05-05-25\",\"endDate\":\"" + MAY_HOLIDAY_END_STR + "\"},"
+                                + "[\"" + NO_HOLIDAY_START_STR + "\",\"" + NO_HOLIDAY_END_STR + "\"]]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalPaidDays").value(19))
+                .andExpect(jsonPath("$.totalPay").value(190000))
+                .andExpect(jsonPath("$.periods.length()").value(2))
+                .andExpect(jsonPath("$.periods[0].startDate").value(NO_HOLIDAY_START_STR))
+                .andExpect(jsonPath("$.periods[0].sources[0]").value(2))
+                .andExpect(jsonPath("$.periods[1].startDate").value(MAY_HOLIDAY_START_STR))
+                .andExpect(jsonPath("$.periods[1].endDate").value(MAY_HOLIDAY_END_STR))
+                .andExpect(jsonPath("$.periods[1].paidDays").value(12))
+                .andExpect(jsonPath("$.periods[1].sources.length()").value(2));
+    }
+
+    @Test
+    @DisplayName("Несколько периодов: ошибки тела и периодов")
+    void calculateVacationPayPeriods_whenInvalid_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post(BASE_URL + "/periods").contentType(MediaType.APPLICATION_JSON).content("[1]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("BODY_NOT_JSON_OBJECT"));
+        mockMvc.perform(post(BASE_URL + "/periods").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"averageSalary\":\"" + VALID_SALARY_STR + "\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("PERIODS_MISSING"));
+        mockMvc.perform(post(BASE_URL + "/periods").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"averageSalary\":\"" + VALID_SALARY_STR + "\",\"periods\":"
+                                + "[[\"07-04-25\",\"13-04-25\"],[\"13-04-25\",\"07-04-25\"]]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("PERIOD_INVALID"));
+    }
+
+    // --- Пакетный расчет (NDJSON) ---
+
+    @Test
+    @DisplayName("Пакетный расчет в обоих режимах")
+    void calculateVacationPayBatch_whenLinesAreValid_shouldReturnResultPerLine() throws Exception {
+        String body = "{\"id\":\"A-1\",\"averageSalary\":" + VALID_SALARY_STR + ",\"numberOfDays\":" + VALID_DAYS_STR + "}\n" +
+                "{\"id\":2,\"averageSalary\":\"" + VALID_SALARY_STR + "\",\"startDate\":\"" + MAY_HOLIDAY_START_STR +
+                "\",\"endDate\":\"" + MAY_HOLIDAY_END_STR + "\"}\n";
+
+        mockMvc.perform(post(BASE_URL + "/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"line\":1,\"id\":\"A-1\",\"result\":" + EXPECTED_PAY_FOR_7_DAYS + "}\n" +
+                        "{\"line\":2,\"id\":2,\"result\":" + EXPECTED_PAY_FOR_14_MAY_HOLIDAYS + "}\n"));
+    }
+
+    @Test
+    @DisplayName("Пакетный расчет: ошибка в строке не прерывает обработку")
+    void calculateVacationPayBatch_whenLineIsInvalid_shouldReportErrorInline() throws Exception {
+        String body = "{\"averageSalary\":\"не_число\",\"numberOfDays\":7}\n" +
+                "не json\n" +
+                "\n" +
+                "{\"averageSalary\":" + VALID_SALARY_STR + ",\"numberOfDays\":" + VALID_DAYS_STR + "}";
+
+        mockMvc.perform(post(BASE_URL + "/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .characterEncoding("UTF-8")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "{\"line\":1,\"code\":\"SALARY_NOT_A_NUMBER\",\"error\":\"Параметр averageSalary должен быть целым числом")))
+                .andExpect(content().string(containsString(
+                        "{\"line\":2,\"code\":\"LINE_NOT_JSON_OBJECT\",\"error\":\"Строка должна быть JSON-объектом.\"}")))
+                .andExpect(content().string(containsString("{\"line\":4,\"result\":" + EXPECTED_PAY_FOR_7_DAYS + "}")));
+    }
+
+    @Test
+    @DisplayName("Пакетный расчет: слишком длинная строка отклоняется, следующие строки обрабатываются")
+    void calculateVacationPayBatch_whenLineIsTooLong_shouldReportErrorInline() throws Exception {
+        String longLine = "{\"id\":\"" + "x".repeat(SalaryConstants.MAXIMUM_BATCH_LINE_LENGTH) + "\"}";
+        String body = longLine + "\r\n" +
+                "{\"averageSalary\":" + VALID_SALARY_STR + ",\"numberOfDays\":" + VALID_DAYS_STR + "}\r\n";
+
+        mockMvc.perform(post(BASE_URL + "/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .characterEncoding("UTF-8")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().string(
+                        "{\"line\":1,\"code\":\"LINE_TOO_LONG\",\"error\":\"Строка длиннее "
+                                + SalaryConstants.MAXIMUM_BATCH_LINE_LENGTH + " символов.\"}\n" +
+                        "{\"line\":2,\"result\":" + EXPECTED_PAY_FOR_7_DAYS + "}\n"));
+    }
+
+    @Test
+    @DisplayName("Метрики: отказ учитывается по причине, этапы - по режиму")
+    void calculateVacationPay_shouldRecordStageTimersAndRejections() throws Exception {
+        Counter rejections = meterRegistry.get(CalculationMetrics.REJECTIONS_COUNTER)
+                .tag("reason", "days_out_of_range").counter();
+        Timer calculateDays = meterRegistry.get(CalculationMetrics.STAGE_TIMER)
+                .tag("stage", "calculate").tag("mode", "days").timer();
+        double rejectedBefore = rejections.count();
+        long calculatedBefore = calculateDays.count();
+
+        mockMvc.perform(get(BASE_URL)
+                        .param("averageSalary", VALID_SALARY_STR)
+                        .param("numberOfDays", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get(BASE_URL)
+                        .param("averageSalary", VALID_SALARY_STR)
+                        .param("numberOfDays", VALID_DAYS_STR))
+                .andExpect(status().isOk());
+
+        assertEquals(rejectedBefore + 1, rejections.count());
+        assertEquals(calculatedBefore + 1, calculateDays.count());
+    }
+
+    @Test
+    @DisplayName("Подбор даты начала: лучшие варианты по убыванию суммы")
+    void findBestStartDates_whenParamsValid_shouldReturnTopOptions() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/best-start")
+                        .param("averageSalary", VALID_SALARY_STR)
+                        .param("numberOfDays", "14")
+                        .param("year", "2025")
+                        .param("top", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"startDate\":\"09-01-25\",\"endDate\":\"22-01-25\",\"paidDays\":14,\"pay\":140000}," +
+                        "{\"startDate\":\"10-01-25\",\"endDate\":\"23-01-25\",\"paidDays\":14,\"pay\":140000}]", true));
+    }
+
+    @Test
+    @DisplayName("Подбор даты начала: год вне диапазона")
+    void findBestStartDates_whenYearOutOfRange_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/best-start")
+                        .param("averageSalary", VALID_SALARY_STR)
+                        .param("numberOfDays", "14")
+                        .param("year", "1999"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType("application/json;charset=UTF-8"))
+                .andExpect(content().json("{\"code\":\"YEAR_OUT_OF_RANGE\"," +
+                        "\"message\":\"Год (year) должен быть в диапазоне от 2000 до 2099. Вы ввели значение 1999.\"}", true));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,52 @@
+package ru.mayskiizhuk.error;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование каталога ошибок")
+class ErrorCodeTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Тело ответа каждой ошибки - корректный JSON с кодом и тем же текстом")
+    void jsonBody_shouldContainCodeAndMessage() throws IOException {
+        for (ErrorCode code : ErrorCode.values()) {
+            JsonNode body = objectMapper.readTree(code.jsonBody(42L));
+
+            assertEquals(code.name(), body.get("code").asText());
+            assertEquals(code.message(42L), body.get("message").asText());
+            assertEquals(2, body.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Введенное значение дописывается в текст ошибки, в том числе отрицательное")
+    void message_whenCodeHasValue_shouldAppendValue() {
+        assertTrue(ErrorCode.DAYS_OUT_OF_RANGE.hasValue());
+        assertEquals("Количество дней отпуска (numberOfDays) должно быть в диапазоне от 1 до 366." +
+                "Вы ввели значение -5 дней.", ErrorCode.DAYS_OUT_OF_RANGE.message(-5L));
+        assertEquals("{\"code\":\"SALARY_OUT_OF_RANGE\",\"message\":\"" + ErrorCode.SALARY_OUT_OF_RANGE.message(Long.MIN_VALUE)
+                        + "\"}",
+                new String(ErrorCode.SALARY_OUT_OF_RANGE.jsonBody(Long.MIN_VALUE), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Ошибка без значения отдает копию заранее собранного тела: изменение копии не портит каталог")
+    void jsonBody_whenCodeHasNoValue_shouldReturnPrerenderedBodyCopy() {
+        assertFalse(ErrorCode.MODE_MISSING.hasValue());
+        byte[] body = ErrorCode.MODE_MISSING.jsonBody(0L);
+        byte[] expected = body.clone();
+        assertArrayEquals(expected, ErrorCode.MODE_MISSING.jsonBody(7L));
+        body[0] = 0;
+        assertArrayEquals(expected, ErrorCode.MODE_MISSING.jsonBody(0L));
+        assertEquals("mode_missing", ErrorCode.MODE_MISSING.getTag());
+    }
+}
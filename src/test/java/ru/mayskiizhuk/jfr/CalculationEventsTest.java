@@ -0,0 +1,85 @@
+package ru.mayskiizhuk.jfr;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.mayskiizhuk.cache.CachePolicy;
+import ru.mayskiizhuk.cache.CalculationCache;
+import ru.mayskiizhuk.controller.CalculationOutcome;
+import ru.mayskiizhuk.controller.VacationRequestHandler;
+import ru.mayskiizhuk.metrics.CalculationMetrics;
+import ru.mayskiizhuk.service.VacationService;
+import ru.mayskiizhuk.validate.InputValidator;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование событий JFR")
+class CalculationEventsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Расчеты и ошибки обработчика записываются событиями с режимом, периодом и результатом")
+    void handle_whenRecording_shouldEmitEvents() throws Exception {
+        VacationRequestHandler handler = new VacationRequestHandler(new VacationService(), new InputValidator(),
+                new CalculationCache(100, CachePolicy.LRU), new CalculationMetrics(new SimpleMeterRegistry()));
+        CalculationOutcome outcome = new CalculationOutcome();
+        Path file = directory.resolve("calculation.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(RequestParsedEvent.class);
+            recording.enable(ValidationFailedEvent.class);
+            recording.enable(PayCalculatedEvent.class);
+            recording.start();
+            handler.handle("293000", "14", null, null, null, outcome);
+            handler.handle("293000", null, "28-04-25", "11-05-25", "RU-TA", outcome);
+            handler.handle("293000", "0", null, null, null, outcome);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        List<RecordedEvent> calculated = named(events, "PayCalculated");
+        assertEquals(2, calculated.size());
+        assertEquals("days", calculated.get(0).getString("mode"));
+        assertEquals(14, calculated.get(0).getInt("periodDays"));
+        assertEquals(CalculationEvents.OK, calculated.get(0).getString("outcome"));
+        assertEquals("dates", calculated.get(1).getString("mode"));
+        assertEquals(14, calculated.get(1).getInt("periodDays"));
+
+        List<RecordedEvent> failed = named(events, "ValidationFailed");
+        assertEquals(1, failed.size());
+        assertEquals("days", failed.get(0).getString("mode"));
+        assertEquals("DAYS_OUT_OF_RANGE", failed.get(0).getString("outcome"));
+        assertEquals(3, named(events, "RequestParsed").size());
+        // События охватывают этапы на шкале времени потока, а не отмечают момент их окончания
+        for (RecordedEvent event : events) {
+            assertTrue(event.getDuration().toNanos() > 0, event.getEventType().getName());
+        }
+    }
+
+    @Test
+    @DisplayName("Без записи события выключены")
+    void events_whenNotRecording_shouldBeDisabled() {
+        assertFalse(new PayCalculatedEvent().isEnabled());
+        assertFalse(new ValidationFailedEvent().isEnabled());
+        PayCalculatedEvent event = CalculationEvents.beginPayCalculated();
+        assertNull(event);
+        CalculationEvents.payCalculated(event, "days", 14, 1L, 1L);
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(CalculationEvents.NAME_PREFIX + name))
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .collect(Collectors.toList());
+    }
+}
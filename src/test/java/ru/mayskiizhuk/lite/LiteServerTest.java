@@ -0,0 +1,153 @@
+package ru.mayskiizhuk.lite;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.mayskiizhuk.audit.AuditLogReader;
+import ru.mayskiizhuk.payroll.PayrollStore;
+import ru.mayskiizhuk.service.VacationService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование облегченного сервера")
+class LiteServerTest {
+
+    private static LiteServer server;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = LiteServer.start(Map.of("server.port", "0"));
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    @DisplayName("Успешный расчет: 200 и сумма в теле")
+    void calculate_whenParamsValid_shouldReturnPay() throws IOException {
+        HttpURLConnection connection = get("/calculacte?averageSalary=293000&startDate=28-04-25&endDate=11-05-25");
+
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("application/json", connection.getContentType());
+        assertEquals("120000", body(connection.getInputStream()));
+    }
+
+    @Test
+    @DisplayName("Условный запрос: ETag и Cache-Control как в Spring-режиме, совпадающий If-None-Match - 304")
+    void calculate_whenIfNoneMatch_shouldReturnNotModified() throws IOException {
+        String path = "/calculacte?averageSalary=293000&numberOfDays=14";
+        HttpURLConnection first = get(path);
+        assertEquals(200, first.getResponseCode());
+        body(first.getInputStream());
+        String etag = first.getHeaderField("ETag");
+        assertNotNull(etag);
+        assertEquals("public, max-age=600", first.getHeaderField("Cache-Control"));
+
+        HttpURLConnection second = get(path);
+        second.setRequestProperty("If-None-Match", "W/" + etag);
+        assertEquals(304, second.getResponseCode());
+        assertEquals(etag, second.getHeaderField("ETag"));
+
+        HttpURLConnection other = get("/calculacte?averageSalary=293000&numberOfDays=15");
+        other.setRequestProperty("If-None-Match", etag);
+        assertEquals(200, other.getResponseCode());
+        body(other.getInputStream());
+    }
+
+    @Test
+    @DisplayName("Ошибка валидации: 400 и то же тело ошибки, что в Spring-режиме")
+    void calculate_whenSalaryInvalid_shouldReturnBadRequest() throws IOException {
+        HttpURLConnection connection = get("/calculacte?averageSalary=%D0%B0%D0%B1%D0%B2&numberOfDays=14");
+
+        assertEquals(400, connection.getResponseCode());
+        assertEquals("application/json;charset=UTF-8", connection.getContentType());
+        assertEquals("{\"code\":\"SALARY_NOT_A_NUMBER\"," +
+                        "\"message\":\"Параметр averageSalary должен быть целым числом (количество копеек).\"}",
+                body(connection.getErrorStream()));
+    }
+
+    @Test
+    @DisplayName("Некорректная URL-кодировка: 400")
+    void calculate_whenQueryMalformed_shouldReturnBadRequest() throws IOException {
+        assertEquals(400, get("/calculacte?averageSalary=%E&numberOfDays=14").getResponseCode());
+    }
+
+    @Test
+    @DisplayName("С vacation.audit.path расчеты записываются в журнал аудита")
+    void calculate_whenAuditEnabled_shouldRecordCalculations(@TempDir Path auditDirectory) throws IOException {
+        LiteServer audited = LiteServer.start(Map.of("server.port", "0",
+                "vacation.audit.path", auditDirectory.toString(), "vacation.audit.flush-interval", "10ms"));
+        try {
+            URL url = new URL("http://localhost:" + audited.getPort()
+                    + "/calculacte?averageSalary=293000&startDate=28-04-25&endDate=11-05-25");
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            assertEquals(200, connection.getResponseCode());
+            body(connection.getInputStream());
+        } finally {
+            audited.stop();
+        }
+
+        assertArrayEquals(new long[]{1, 0, 0}, AuditLogReader.verify(auditDirectory, new VacationService()));
+    }
+
+    @Test
+    @DisplayName("Расчет по employeeId берет среднюю зарплату из журнала vacation.payroll.path, как в Spring-режиме")
+    void calculate_whenEmployeeId_shouldUsePayrollHistory(@TempDir Path payrollDirectory) throws IOException {
+        Path journal = payrollDirectory.resolve("payroll.bin");
+        try (PayrollStore store = new PayrollStore(journal.toString())) {
+            for (int month = 1; month <= 12; month++) {
+                store.record(42L, YearMonth.of(2024, month), 293000L, YearMonth.of(2024, month).lengthOfMonth());
+            }
+        }
+        LiteServer withPayroll = LiteServer.start(Map.of("server.port", "0", "vacation.payroll.path", journal.toString()));
+        try {
+            URL url = new URL("http://localhost:" + withPayroll.getPort() + "/calculacte?employeeId=42&numberOfDays=14");
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            assertEquals(200, connection.getResponseCode());
+            assertEquals(Long.toString(new VacationService().calculatePay(293000L, 14)),
+                    body(connection.getInputStream()));
+            assertEquals("private, no-cache", connection.getHeaderField("Cache-Control"));
+            assertNotNull(connection.getHeaderField("ETag"));
+
+            url = new URL("http://localhost:" + withPayroll.getPort() + "/calculacte?employeeId=7&numberOfDays=14");
+            connection = (HttpURLConnection) url.openConnection();
+            assertEquals(400, connection.getResponseCode());
+            assertTrue(body(connection.getErrorStream()).contains("EMPLOYEE_NOT_FOUND"));
+        } finally {
+            withPayroll.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Разбор строки запроса: первое значение, пустое значение, отсутствие параметра")
+    void parameter_shouldFindFirstValue() {
+        assertEquals("1 2", CalculateHttpHandler.parameter("a=1+2&a=3", "a"));
+        assertEquals("", CalculateHttpHandler.parameter("ab=1&a", "a"));
+        assertEquals("x", CalculateHttpHandler.parameter("ab=1&b=x", "b"));
+        assertNull(CalculateHttpHandler.parameter("ab=1", "a"));
+        assertNull(CalculateHttpHandler.parameter(null, "a"));
+    }
+
+    private static HttpURLConnection get(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+    }
+
+    private static String body(InputStream stream) throws IOException {
+        try (stream) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
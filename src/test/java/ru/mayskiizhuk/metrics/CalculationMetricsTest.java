@@ -0,0 +1,67 @@
+package ru.mayskiizhuk.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.mayskiizhuk.error.ErrorCode;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование CalculationMetrics")
+class CalculationMetricsTest {
+
+    private MeterRegistry registry;
+    private CalculationMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new CalculationMetrics(registry);
+    }
+
+    @Test
+    @DisplayName("Все таймеры и счетчики регистрируются заранее")
+    void constructor_shouldRegisterAllMeters() {
+        assertEquals(3 * CalculationMode.values().length, registry.find(CalculationMetrics.STAGE_TIMER).timers().size());
+        assertEquals(CalculationMetrics.REJECTION_CODES.size(),
+                registry.find(CalculationMetrics.REJECTIONS_COUNTER).counters().size());
+        // Отказы допуска и ошибки истории заработка обработчик расчета не выдает
+        assertNull(registry.find(CalculationMetrics.REJECTIONS_COUNTER).tag("reason", "too_many_requests").counter());
+        assertNull(registry.find(CalculationMetrics.REJECTIONS_COUNTER).tag("reason", "payroll_month_format").counter());
+        assertNotNull(registry.find(CalculationMetrics.REJECTIONS_COUNTER).tag("reason", "employee_not_found").counter());
+    }
+
+    @Test
+    @DisplayName("Этапы записываются в таймеры своего режима, нулевые этапы пропускаются")
+    void recordStages_shouldRecordNonZeroStagesByMode() {
+        metrics.recordStages(CalculationMode.DATES, 1_000L, 2_000L, 0L);
+
+        Timer parse = timer("parse", "dates");
+        assertEquals(1, parse.count());
+        assertEquals(1_000L, (long) parse.totalTime(TimeUnit.NANOSECONDS));
+        assertEquals(1, timer("validate", "dates").count());
+        assertEquals(0, timer("calculate", "dates").count());
+        assertEquals(0, timer("parse", "days").count());
+    }
+
+    @Test
+    @DisplayName("Отказы считаются по причинам")
+    void recordRejection_shouldIncrementCounterForReason() {
+        metrics.recordRejection(ErrorCode.PERIOD_INVALID);
+        metrics.recordRejection(ErrorCode.PERIOD_INVALID);
+
+        assertEquals(2.0, registry.get(CalculationMetrics.REJECTIONS_COUNTER)
+                .tag("reason", "period_invalid").counter().count());
+        assertEquals(0.0, registry.get(CalculationMetrics.REJECTIONS_COUNTER)
+                .tag("reason", "salary_missing").counter().count());
+    }
+
+    private Timer timer(String stage, String mode) {
+        return registry.get(CalculationMetrics.STAGE_TIMER).tag("stage", stage).tag("mode", mode).timer();
+    }
+}
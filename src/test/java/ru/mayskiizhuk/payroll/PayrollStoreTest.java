@@ -0,0 +1,234 @@
+package ru.mayskiizhuk.payroll;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование истории заработка")
+class PayrollStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Средняя зарплата считается по последним 12 месяцам, старые месяцы вытесняются")
+    void record_whenMoreThanTwelveMonths_shouldKeepRollingWindow() throws IOException {
+        PayrollStore store = PayrollStore.inMemory();
+        YearMonth month = YearMonth.of(2024, 1);
+        for (int i = 0; i < 12; i++) {
+            store.record(1L, month.plusMonths(i), 100_000L, month.plusMonths(i).lengthOfMonth());
+        }
+        assertEquals(100_000L, store.averageSalary(1L));
+
+        // 13-й месяц вытесняет январь 2024
+        PayrollSummary summary = store.record(1L, YearMonth.of(2025, 1), 220_000L, 31);
+        assertEquals("2025-01", summary.getLastMonth());
+        assertEquals(11 * 100_000L + 220_000L, summary.getWindowEarnings());
+        assertEquals(12.0, summary.getWorkedMonths(), 1e-9);
+        assertEquals(110_000L, store.averageSalary(1L));
+
+        // Пропуск больше года очищает окно целиком
+        store.record(1L, YearMonth.of(2027, 6), 50_000L, 30);
+        assertEquals(50_000L, store.averageSalary(1L));
+        // Месяц старше окна не влияет на среднюю
+        store.record(1L, YearMonth.of(2026, 6), 1_000_000L, 30);
+        assertEquals(50_000L, store.averageSalary(1L));
+    }
+
+    @Test
+    @DisplayName("Исправление месяца заменяет его вклад, неполный месяц учитывается долей")
+    void record_whenCorrectionOrPartialMonth_shouldReplaceContribution() throws IOException {
+        PayrollStore store = PayrollStore.inMemory();
+        store.record(2L, YearMonth.of(2025, 3), 300_000L, 31);
+        store.record(2L, YearMonth.of(2025, 4), 150_000L, 15);
+        // 450000 за 1,5 месяца
+        assertEquals(300_000L, store.averageSalary(2L));
+
+        store.record(2L, YearMonth.of(2025, 3), 600_000L, 31);
+        assertEquals(500_000L, store.averageSalary(2L));
+        assertEquals(1.5, store.summary(2L).getWorkedMonths(), 1e-9);
+
+        assertEquals(PayrollStore.NOT_FOUND, store.averageSalary(3L));
+        assertNull(store.summary(3L));
+        store.record(3L, YearMonth.of(2025, 3), 0L, 0);
+        assertEquals(PayrollStore.NOT_FOUND, store.averageSalary(3L));
+        assertThrows(IllegalArgumentException.class, () -> store.record(3L, YearMonth.of(2025, 2), 1L, 29));
+    }
+
+    @Test
+    @DisplayName("Средняя округляется вверх до копейки и не переполняется")
+    void average_shouldRoundUp() {
+        assertEquals(1L, PayrollStore.average(1L, PayrollStore.MONTH_UNITS * 2L));
+        assertEquals(3L, PayrollStore.average(10L, PayrollStore.MONTH_UNITS * 4L));
+        assertEquals(PayrollStore.NOT_FOUND, PayrollStore.average(10L, 0L));
+        assertEquals(Long.MAX_VALUE / 2, PayrollStore.average(Long.MAX_VALUE / 2, PayrollStore.MONTH_UNITS));
+    }
+
+    @Test
+    @DisplayName("Журнал проигрывается при запуске, неполная последняя запись отбрасывается")
+    void open_whenJournalExists_shouldReplay() throws IOException {
+        Path journal = directory.resolve("payroll.dat");
+        try (PayrollStore store = new PayrollStore(journal.toString())) {
+            for (long id = 0; id < 3000; id++) {
+                store.record(id, YearMonth.of(2025, 1), 100_000L + id, 31);
+            }
+            store.record(7L, YearMonth.of(2025, 1), 200_000L, 31);
+        }
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(PayrollStore.FILE_RECORD_SIZE / 2));
+        }
+
+        try (PayrollStore store = new PayrollStore(journal.toString())) {
+            assertEquals(3001L * PayrollStore.FILE_RECORD_SIZE, Files.size(journal));
+            assertEquals(200_000L, store.averageSalary(7L));
+            assertEquals(102_999L, store.averageSalary(2999L));
+            store.record(7L, YearMonth.of(2025, 2), 100_000L, 28);
+        }
+        try (PayrollStore store = new PayrollStore(journal.toString())) {
+            assertEquals(150_000L, store.averageSalary(7L));
+        }
+    }
+
+    @Test
+    @DisplayName("Неудачная запись в журнал откатывается: следующие записи не смещаются и проигрываются")
+    void record_whenJournalWriteFails_shouldTruncateToRecordStart() throws IOException {
+        Path journal = directory.resolve("payroll.dat");
+        FailingChannel channel = new FailingChannel(FileChannel.open(journal, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE));
+        try (PayrollStore store = new PayrollStore(channel)) {
+            store.record(1L, YearMonth.of(2025, 1), 100_000L, 31);
+            channel.failNextWrite = true;
+            assertThrows(IOException.class, () -> store.record(2L, YearMonth.of(2025, 1), 999_999L, 31));
+            assertEquals(PayrollStore.FILE_RECORD_SIZE, Files.size(journal));
+            assertEquals(PayrollStore.NOT_FOUND, store.averageSalary(2L));
+            store.record(3L, YearMonth.of(2025, 1), 300_000L, 31);
+        }
+
+        try (PayrollStore store = new PayrollStore(journal.toString())) {
+            assertEquals(2L * PayrollStore.FILE_RECORD_SIZE, Files.size(journal));
+            assertEquals(100_000L, store.averageSalary(1L));
+            assertEquals(PayrollStore.NOT_FOUND, store.averageSalary(2L));
+            assertEquals(300_000L, store.averageSalary(3L));
+        }
+    }
+
+    /**
+     * Канал файла, который по флагу записывает половину буфера и падает, как при нехватке места на диске.
+     */
+    private static final class FailingChannel extends FileChannel {
+        private final FileChannel delegate;
+        boolean failNextWrite;
+
+        FailingChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            if (failNextWrite) {
+                failNextWrite = false;
+                ByteBuffer half = src.duplicate();
+                half.limit(half.position() + half.remaining() / 2);
+                delegate.write(half, position);
+                throw new IOException("No space left on device");
+            }
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return delegate.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
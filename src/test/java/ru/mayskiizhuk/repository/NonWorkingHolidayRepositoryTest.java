@@ -3,6 +3,8 @@ package ru.mayskiizhuk.repository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.time.LocalDate;
@@ -67,4 +69,92 @@ class NonWorkingHolidayRepositoryTest {
         assertFalse(NonWorkingHolidayRepository.isNonWorkingHoliday(nonHolidayDate),
                 "Дата " + nonHolidayDate + " не должна определяться как праздник");
     }
-}
\ No newline at end of file
+
+    // --- Тесты для метода countNonWorkingHolidays ---
+    @ParameterizedTest(name = "Период {0} - {1}: {2} праздников")
+    @CsvSource({
+            "2025-04-28, 2025-05-11, 2",  // 1 и 9 мая
+            "2025-01-01, 2025-01-08, 8",  // Январские каникулы целиком
+            "2025-04-07, 2025-04-20, 0",  // Апрель без праздников
+            "2024-12-25, 2025-01-10, 8",  // Переход через год
+            "2024-01-01, 2024-12-31, 14", // Високосный год целиком
+            "2000-01-01, 2000-01-01, 1",  // Первый день индекса
+            "2099-12-31, 2099-12-31, 0",  // Последний день индекса
+            "1999-12-30, 2000-01-03, 3",  // Период начинается до индекса
+            "2099-12-30, 2100-01-02, 2"   // Период заканчивается после индекса
+    })
+    @DisplayName("Подсчет праздников в периоде")
+    void countNonWorkingHolidays_shouldCountHolidaysInPeriod(LocalDate start, LocalDate end, int expected) {
+        assertEquals(expected, NonWorkingHolidayRepository.countNonWorkingHolidays(start.toEpochDay(), end.toEpochDay()));
+    }
+
+    @Test
+    @DisplayName("Индекс совпадает с подневной проверкой")
+    void countNonWorkingHolidays_shouldMatchDayByDayScan() {
+        LocalDate start = LocalDate.of(2023, 12, 1);
+        for (int length = 1; length <= 400; length++) {
+            LocalDate end = start.plusDays(length - 1);
+            int expected = 0;
+            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+                if (NonWorkingHolidayRepository.isNonWorkingHoliday(date)) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, NonWorkingHolidayRepository.countNonWorkingHolidays(start.toEpochDay(), end.toEpochDay()),
+                    "Неверное количество праздников для периода " + start + " - " + end);
+        }
+    }
+
+    @Test
+    @DisplayName("Пустой период")
+    void countNonWorkingHolidays_whenEndBeforeStart_shouldReturnZero() {
+        LocalDate date = LocalDate.of(2025, 5, 9);
+        assertEquals(0, NonWorkingHolidayRepository.countNonWorkingHolidays(date.toEpochDay(), date.toEpochDay() - 1));
+    }
+
+    // --- Региональные праздники ---
+
+    @ParameterizedTest(name = "{0}: {1} - {2} -> {3} праздников")
+    @CsvSource({
+            "FEDERAL, 2025-08-25, 2025-09-07, 0",
+            "TATARSTAN, 2025-08-25, 2025-09-07, 1",
+            "TATARSTAN, 2025-11-01, 2025-11-10, 2",  // 4 ноября (федеральный) и 6 ноября
+            "BASHKORTOSTAN, 2025-12-20, 2026-01-02, 3", // 24 декабря, 1 и 2 января
+            "SAKHA, 2025-01-01, 2025-12-31, 16"
+    })
+    @DisplayName("Региональные праздники добавляются к федеральным")
+    void countNonWorkingHolidays_whenRegionGiven_shouldAddRegionalHolidays(Region region, LocalDate start, LocalDate end,
+                                                                           int expected) {
+        assertEquals(expected, NonWorkingHolidayRepository.countNonWorkingHolidays(region, start.toEpochDay(),
+                end.toEpochDay()));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @EnumSource(Region.class)
+    @DisplayName("Индекс региона совпадает с побитовой проверкой дней")
+    void countNonWorkingHolidays_whenRegionGiven_shouldMatchBitsetLookup(Region region) {
+        ProductionCalendar calendar = ProductionCalendar.federal();
+        for (int year = 1995; year <= 2105; year++) {
+            LocalDate first = LocalDate.of(year, 1, 1);
+            int expected = 0;
+            for (int dayOfYear = 1; dayOfYear <= first.lengthOfYear(); dayOfYear++) {
+                boolean holiday = calendar.isNonWorkingHoliday(region, year, dayOfYear);
+                assertEquals(holiday, calendar.isNonWorkingHoliday(region, first.toEpochDay() + dayOfYear - 1));
+                if (holiday) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, calendar.countNonWorkingHolidays(region, first.toEpochDay(),
+                    first.toEpochDay() + first.lengthOfYear() - 1), "Год " + year);
+        }
+    }
+
+    @Test
+    @DisplayName("Поиск региона по коду")
+    void fromCode_shouldFindRegionIgnoringCase() {
+        assertEquals(Region.TATARSTAN, Region.fromCode("RU-TA"));
+        assertEquals(Region.SAKHA, Region.fromCode("ru-sa"));
+        assertEquals(Region.FEDERAL, Region.fromCode(""));
+        assertNull(Region.fromCode("RU-MOW"));
+    }
+}
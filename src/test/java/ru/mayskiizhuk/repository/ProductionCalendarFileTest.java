@@ -0,0 +1,125 @@
+package ru.mayskiizhuk.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование файла производственного календаря и его перезагрузки")
+class ProductionCalendarFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void restoreFederalCalendar() {
+        NonWorkingHolidayRepository.installCalendar(ProductionCalendar.federal());
+    }
+
+    private static long epochDay(int year, int month, int day) {
+        return LocalDate.of(year, month, day).toEpochDay();
+    }
+
+    private Path compile(String fileName, String... sourceLines) throws IOException {
+        ProductionCalendarFile.Source source = ProductionCalendarFile.parse(List.of(sourceLines));
+        Path path = tempDir.resolve(fileName);
+        ProductionCalendarFile.write(path, source.getVersion(), source.getYears());
+        return path;
+    }
+
+    @Test
+    @DisplayName("Переносы года применяются, остальные годы берутся из федерального календаря")
+    void read_shouldApplyPerYearTransfers() throws IOException {
+        Path path = compile("calendar.bin",
+                "# тестовый календарь",
+                "version 7",
+                "2025: +12-31 -01-08",
+                "2026:");
+
+        ProductionCalendar calendar = ProductionCalendarFile.read(path);
+
+        assertEquals(7, calendar.getVersion());
+        assertTrue(calendar.containsYear(2025));
+        assertTrue(calendar.containsYear(2026));
+        assertFalse(calendar.containsYear(2024));
+        assertTrue(calendar.isNonWorkingHoliday(epochDay(2025, 12, 31)), "31 декабря 2025 добавлен переносом");
+        assertFalse(calendar.isNonWorkingHoliday(epochDay(2025, 1, 8)), "8 января 2025 убран переносом");
+        assertTrue(calendar.isNonWorkingHoliday(epochDay(2026, 1, 8)), "2026 год без переносов");
+        assertFalse(calendar.isNonWorkingHoliday(epochDay(2026, 12, 31)));
+        assertTrue(calendar.isNonWorkingHoliday(epochDay(2024, 1, 8)), "Год вне файла - федеральный календарь");
+        assertEquals(14, calendar.countNonWorkingHolidays(epochDay(2025, 1, 1), epochDay(2025, 12, 31)));
+        assertEquals(2, calendar.countNonWorkingHolidays(epochDay(2025, 12, 30), epochDay(2026, 1, 1)));
+    }
+
+    @Test
+    @DisplayName("Индекс совпадает с проверкой по битовым наборам")
+    void countNonWorkingHolidays_shouldMatchBitsetLookup() throws IOException {
+        ProductionCalendar calendar = ProductionCalendarFile.read(compile("calendar.bin",
+                "version 1", "2024: +02-29 -03-08", "2150: +07-01"));
+
+        for (int year : new int[]{2024, 2025, 2150}) {
+            long start = epochDay(year, 1, 1);
+            long end = epochDay(year, 12, 31);
+            int expected = 0;
+            for (LocalDate date = LocalDate.ofEpochDay(start); !date.isAfter(LocalDate.ofEpochDay(end)); date = date.plusDays(1)) {
+                if (calendar.isNonWorkingHoliday(date.getYear(), date.getDayOfYear())) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, calendar.countNonWorkingHolidays(start, end), "Год " + year);
+        }
+    }
+
+    @Test
+    @DisplayName("Некорректный бинарный файл")
+    void read_whenFileIsCorrupted_shouldThrow() throws IOException {
+        Path path = tempDir.resolve("broken.bin");
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24});
+        assertThrows(IOException.class, () -> ProductionCalendarFile.read(path));
+    }
+
+    @Test
+    @DisplayName("Ошибка в исходнике календаря")
+    void parse_whenSourceIsInvalid_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> ProductionCalendarFile.parse(List.of("2025: +12-31")));
+        assertThrows(IllegalArgumentException.class, () -> ProductionCalendarFile.parse(List.of("version 1", "2025: 12-31")));
+        assertThrows(IllegalArgumentException.class, () -> ProductionCalendarFile.parse(List.of("version 1", "2025: +02-29")));
+        assertThrows(IllegalArgumentException.class, () -> ProductionCalendarFile.parse(List.of("version 1", "2025:", "2025:")));
+    }
+
+    @Test
+    @DisplayName("Перезагрузка календаря при изменении файла")
+    void loader_whenFileChanges_shouldInstallNewCalendarAndPublishEvent() throws IOException {
+        Path path = compile("calendar.bin", "version 1", "2025:");
+        List<Object> events = new ArrayList<>();
+        ProductionCalendarLoader loader = new ProductionCalendarLoader(path.toString(), Duration.ZERO, events::add);
+
+        loader.start();
+        assertEquals(1, NonWorkingHolidayRepository.currentCalendar().getVersion());
+        assertFalse(loader.reloadIfChanged(), "Файл не менялся");
+
+        compile("calendar.bin", "version 2", "2025: +12-31");
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now().plusSeconds(60)));
+        assertTrue(loader.reloadIfChanged());
+        assertEquals(2, NonWorkingHolidayRepository.currentCalendar().getVersion());
+        assertTrue(NonWorkingHolidayRepository.isNonWorkingHoliday(LocalDate.of(2025, 12, 31)));
+        assertEquals(2, events.size());
+
+        // Испорченный файл не заменяет действующий календарь
+        Files.write(path, new byte[]{0});
+        assertFalse(loader.reloadIfChanged());
+        assertEquals(2, NonWorkingHolidayRepository.currentCalendar().getVersion());
+    }
+}
@@ -0,0 +1,81 @@
+package ru.mayskiizhuk.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import ru.mayskiizhuk.config.SalaryConstants;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование PayArithmetic (сравнение с BigDecimal)")
+class PayArithmeticTest {
+
+    private static final BigDecimal AVERAGE_DAYS_IN_MONTH = new BigDecimal("29.3");
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+    private static final BigDecimal LONG_MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+
+    // Эталон: точное деление с округлением вверх, результат вне long насыщается до границ long
+    private static long reference(long salary, long days) {
+        BigDecimal exact = BigDecimal.valueOf(salary).multiply(BigDecimal.valueOf(days))
+                .divide(AVERAGE_DAYS_IN_MONTH, 0, RoundingMode.CEILING);
+        return exact.max(LONG_MIN).min(LONG_MAX).longValueExact();
+    }
+
+    private static void assertMatchesReference(long salary, long days) {
+        assertEquals(reference(salary, days), PayArithmetic.ceilPay(salary, days),
+                "Зарплата " + salary + " коп., дней " + days);
+    }
+
+    @Test
+    @DisplayName("Все количества дней на границах и по всему диапазону зарплат")
+    void ceilPay_shouldMatchBigDecimalOverValidDomain() {
+        SplittableRandom random = new SplittableRandom(293);
+        for (int days = SalaryConstants.MINIMUM_DAYS; days <= SalaryConstants.MAXIMUM_DAYS; days++) {
+            // Обе границы диапазона зарплат и полный период остатков по модулю 293 возле них
+            for (long delta = 0; delta < 2 * PayArithmetic.AVERAGE_DAYS_IN_MONTH_NUMERATOR; delta++) {
+                assertMatchesReference(SalaryConstants.MINIMUM_SALARY + delta, days);
+                assertMatchesReference(SalaryConstants.MAXIMUM_SALARY - delta, days);
+            }
+            for (int i = 0; i < 2_000; i++) {
+                long salary = random.nextLong(SalaryConstants.MINIMUM_SALARY, SalaryConstants.MAXIMUM_SALARY + 1);
+                assertMatchesReference(salary, days);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Произвольные значения вне допустимого диапазона (128-битный путь)")
+    void ceilPay_shouldMatchBigDecimalOutsideValidDomain() {
+        SplittableRandom random = new SplittableRandom(29);
+        for (int i = 0; i < 200_000; i++) {
+            long salary = random.nextLong();
+            long days = i % 2 == 0 ? random.nextLong() : random.nextInt();
+            assertMatchesReference(salary, days);
+        }
+    }
+
+    @ParameterizedTest(name = "Зарплата {0}, дней {1}")
+    @CsvSource({
+            "0, 0",
+            "293000, 0",
+            "293000, -14",
+            "-293000, 14",
+            "100000000000000, 367",
+            "9223372036854775807, 1",
+            "9223372036854775807, 9223372036854775807",
+            "-9223372036854775808, 1",
+            "-9223372036854775808, -9223372036854775808",
+            "-9223372036854775808, 9223372036854775807",
+            "922337203685477580, 2",
+            "-922337203685477580, 2"
+    })
+    @DisplayName("Граничные значения")
+    void ceilPay_shouldMatchBigDecimalForEdgeCases(long salary, long days) {
+        assertMatchesReference(salary, days);
+    }
+}
@@ -7,7 +7,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import ru.mayskiizhuk.config.SalaryConstants;
+import ru.mayskiizhuk.repository.Region;
+
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -131,4 +137,229 @@ class VacationServiceTest {
             assertEquals(0L, actualPay, "Если единственный день - праздник, результат должен быть 0");
         }
     }
-}
\ No newline at end of file
+
+    // --- Тесты для пакетных методов по массивам ---
+    @Nested
+    @DisplayName("Пакетные методы по массивам")
+    class ColumnarTests {
+
+        @Test
+        @DisplayName("Пакетный расчет по дням совпадает с поэлементным")
+        void calculatePay_arrays_shouldMatchScalar() {
+            Random random = new Random(42);
+            int count = 1000;
+            long[] salaries = new long[count];
+            int[] days = new int[count];
+            for (int i = 0; i < count; i++) {
+                salaries[i] = SalaryConstants.MINIMUM_SALARY
+                        + (long) (random.nextDouble() * (SalaryConstants.MAXIMUM_SALARY - SalaryConstants.MINIMUM_SALARY));
+                days[i] = 1 + random.nextInt(SalaryConstants.MAXIMUM_DAYS);
+            }
+            long[] out = new long[count + 1];
+            out[count] = -1L;
+
+            vacationService.calculatePay(salaries, days, out, count);
+
+            for (int i = 0; i < count; i++) {
+                assertEquals(vacationService.calculatePay(salaries[i], days[i]), out[i], "Элемент " + i);
+            }
+            assertEquals(-1L, out[count], "Элементы за пределами count не изменяются");
+        }
+
+        @Test
+        @DisplayName("Пакетный расчет по датам совпадает с поэлементным")
+        void calculatePayEpochDays_arrays_shouldMatchScalar() {
+            Random random = new Random(7);
+            int count = 1000;
+            long[] salaries = new long[count];
+            long[] starts = new long[count];
+            long[] ends = new long[count];
+            long firstDay = LocalDate.of(2000, 1, 1).toEpochDay();
+            for (int i = 0; i < count; i++) {
+                salaries[i] = 100 + random.nextInt(1_000_000_000);
+                starts[i] = firstDay + random.nextInt(36_000);
+                ends[i] = starts[i] + random.nextInt(SalaryConstants.MAXIMUM_DAYS);
+            }
+            // Период из одних праздников
+            starts[0] = LocalDate.of(2025, 1, 1).toEpochDay();
+            ends[0] = LocalDate.of(2025, 1, 8).toEpochDay();
+            long[] out = new long[count];
+
+            vacationService.calculatePayEpochDays(salaries, starts, ends, out, count);
+
+            assertEquals(0L, out[0]);
+            for (int i = 0; i < count; i++) {
+                assertEquals(vacationService.calculatePayEpochDays(salaries[i], starts[i], ends[i]), out[i], "Элемент " + i);
+            }
+        }
+
+        @Test
+        @DisplayName("Пакетный расчет по датам с регионами совпадает с поэлементным")
+        void calculatePayEpochDays_arraysWithRegions_shouldMatchScalar() {
+            Random random = new Random(11);
+            Region[] allRegions = Region.values();
+            int count = 1000;
+            long[] salaries = new long[count];
+            long[] starts = new long[count];
+            long[] ends = new long[count];
+            Region[] regions = new Region[count];
+            long firstDay = LocalDate.of(2000, 1, 1).toEpochDay();
+            for (int i = 0; i < count; i++) {
+                salaries[i] = 100 + random.nextInt(1_000_000_000);
+                starts[i] = firstDay + random.nextInt(36_000);
+                ends[i] = starts[i] + random.nextInt(SalaryConstants.MAXIMUM_DAYS);
+                regions[i] = allRegions[random.nextInt(allRegions.length)];
+            }
+            long[] out = new long[count];
+
+            vacationService.calculatePayEpochDays(salaries, starts, ends, regions, out, count);
+
+            for (int i = 0; i < count; i++) {
+                assertEquals(vacationService.calculatePayEpochDays(salaries[i], starts[i], ends[i], regions[i]), out[i],
+                        "Элемент " + i);
+            }
+        }
+
+        @Test
+        @DisplayName("count больше длины массива - ошибка")
+        void calculatePay_arrays_whenCountExceedsLength_shouldThrow() {
+            assertThrows(IndexOutOfBoundsException.class,
+                    () -> vacationService.calculatePay(new long[2], new int[2], new long[1], 2));
+        }
+    }
+
+    // --- Тесты для подбора даты начала отпуска ---
+    @Nested
+    @DisplayName("Подбор даты начала отпуска")
+    class BestStartTests {
+
+        @ParameterizedTest(name = "Год {0}, длина {1}")
+        @CsvSource({"2025, 1", "2025, 14", "2024, 28", "2098, 366", "2099, 14"})
+        @DisplayName("Скользящее окно совпадает с расчетом каждого периода")
+        void sweepPaidDays_shouldMatchIndependentCount(int year, int numberOfDays) {
+            int[] paidDays = new int[366];
+            int starts = vacationService.sweepPaidDays(year, numberOfDays, paidDays);
+
+            // Даты начала, при которых отпуск заканчивается после 31.12.2099, не рассматриваются
+            long lastStart = Math.min(LocalDate.of(year, 12, 31).toEpochDay(),
+                    LocalDate.of(2099, 12, 31).toEpochDay() - numberOfDays + 1);
+            assertEquals(lastStart - LocalDate.of(year, 1, 1).toEpochDay() + 1, starts);
+            for (int i = 0; i < starts; i++) {
+                LocalDate start = LocalDate.of(year, 1, 1).plusDays(i);
+                long expectedPay = vacationService.calculatePaySpecificDate(293000, start, start.plusDays(numberOfDays - 1L));
+                assertEquals(expectedPay, (long) Math.ceil(paidDays[i] * 10000.0), "Начало " + start);
+            }
+        }
+
+        @Test
+        @DisplayName("Варианты упорядочены по убыванию суммы, при равенстве - по дате")
+        void findBestStartDates_shouldRankByPayThenDate() {
+            List<VacationStartOption> all = vacationService.findBestStartDates(293000, 14, 2025, Integer.MAX_VALUE);
+
+            assertEquals(365, all.size());
+            assertEquals("09-01-25", all.get(0).getStartDate());
+            assertEquals("22-01-25", all.get(0).getEndDate());
+            assertEquals(14, all.get(0).getPaidDays());
+            assertEquals(140000, all.get(0).getPay());
+            for (int i = 1; i < all.size(); i++) {
+                VacationStartOption previous = all.get(i - 1);
+                VacationStartOption current = all.get(i);
+                assertTrue(previous.getPay() > current.getPay() || previous.getPay() == current.getPay()
+                        && parse(previous.getStartDate()).isBefore(parse(current.getStartDate())));
+            }
+            // Худшие варианты захватывают все новогодние каникулы: 01.01 и 26-31.12 (каникулы следующего года)
+            List<VacationStartOption> worst = all.subList(all.size() - 7, all.size());
+            assertEquals("01-01-25", worst.get(0).getStartDate());
+            assertEquals("31-12-25", worst.get(6).getStartDate());
+            assertTrue(worst.stream().allMatch(option -> option.getPaidDays() == 6));
+            assertEquals(7, all.get(all.size() - 8).getPaidDays());
+
+            assertEquals(3, vacationService.findBestStartDates(293000, 14, 2025, 3).size());
+        }
+
+        @Test
+        @DisplayName("Отпуск не заканчивается позже 31.12.2099: окончание в 2100 году не представимо в формате дат")
+        void findBestStartDates_whenYearIs2099_shouldNotEndAfterLastDate() {
+            List<VacationStartOption> all = vacationService.findBestStartDates(293000, 14, 2099, Integer.MAX_VALUE);
+
+            assertEquals(365 - 13, all.size());
+            assertTrue(all.stream().allMatch(option -> option.getEndDate().endsWith("-99")));
+            assertTrue(all.stream().anyMatch(option -> "18-12-99".equals(option.getStartDate())
+                    && "31-12-99".equals(option.getEndDate())));
+            assertTrue(vacationService.findBestStartDates(293000, 366, 2099, Integer.MAX_VALUE).isEmpty());
+        }
+
+        private LocalDate parse(String date) {
+            return LocalDate.parse(date, DateTimeFormatter.ofPattern(SalaryConstants.DATE_FORMAT));
+        }
+    }
+
+    // --- Тесты для расчета нескольких периодов ---
+    @Nested
+    @DisplayName("Расчет нескольких периодов")
+    class PeriodsTests {
+
+        @Test
+        @DisplayName("Пересекающиеся и смежные периоды объединяются, праздники не оплачиваются")
+        void calculatePayPeriods_whenOverlappingAndAdjacent_shouldMerge() {
+            // 28.04-04.05 и 05.05-11.05 смежные, 10.05-12.05 пересекается с ними; 07.07-13.07 отдельно
+            long[] starts = {epochDay(2025, 7, 7), epochDay(2025, 5, 5), epochDay(2025, 4, 28), epochDay(2025, 5, 10)};
+            long[] ends = {epochDay(2025, 7, 13), epochDay(2025, 5, 11), epochDay(2025, 5, 4), epochDay(2025, 5, 12)};
+
+            VacationPeriodsPay pay = vacationService.calculatePayPeriods(293000, starts, ends, 4, Region.FEDERAL);
+
+            assertEquals(2, pay.getPeriods().size());
+            VacationPeriod may = pay.getPeriods().get(0);
+            assertEquals("28-04-25", may.getStartDate());
+            assertEquals("12-05-25", may.getEndDate());
+            assertEquals(15, may.getCalendarDays());
+            assertEquals(13, may.getPaidDays());
+            assertEquals(130000, may.getPay());
+            assertArrayEquals(new int[]{1, 2, 3}, may.getSources());
+            VacationPeriod july = pay.getPeriods().get(1);
+            assertEquals(7, july.getPaidDays());
+            assertArrayEquals(new int[]{0}, july.getSources());
+            assertEquals(20, pay.getTotalPaidDays());
+            assertEquals(200000, pay.getTotalPay());
+        }
+
+        @Test
+        @DisplayName("Итог совпадает с подсчетом по дням объединения периодов")
+        void calculatePayPeriods_whenRandomPeriods_shouldMatchDayByDayUnion() {
+            Random random = new Random(17);
+            long base = epochDay(2025, 1, 1);
+            for (int iteration = 0; iteration < 200; iteration++) {
+                int count = 1 + random.nextInt(SalaryConstants.MAXIMUM_PERIODS);
+                long[] starts = new long[count];
+                long[] ends = new long[count];
+                boolean[] covered = new boolean[800];
+                for (int i = 0; i < count; i++) {
+                    starts[i] = base + random.nextInt(700);
+                    ends[i] = starts[i] + random.nextInt(30);
+                    for (long day = starts[i]; day <= ends[i]; day++) {
+                        covered[(int) (day - base)] = true;
+                    }
+                }
+                int expectedPaidDays = 0;
+                for (int d = 0; d < covered.length; d++) {
+                    // Однодневный период оплачивается, только если день не праздник
+                    if (covered[d] && vacationService.calculatePayEpochDays(293000, base + d, base + d,
+                            Region.TATARSTAN) > 0) {
+                        expectedPaidDays++;
+                    }
+                }
+
+                VacationPeriodsPay pay = vacationService.calculatePayPeriods(293000, starts, ends, count,
+                        Region.TATARSTAN);
+
+                assertEquals(expectedPaidDays, pay.getTotalPaidDays());
+                assertEquals(vacationService.calculatePay(293000, 1) * expectedPaidDays, pay.getTotalPay());
+                assertEquals(count, pay.getPeriods().stream().mapToInt(period -> period.getSources().length).sum());
+            }
+        }
+
+        private long epochDay(int year, int month, int day) {
+            return LocalDate.of(year, month, day).toEpochDay();
+        }
+    }
+}
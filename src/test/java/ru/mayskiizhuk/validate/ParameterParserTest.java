@@ -0,0 +1,94 @@
+package ru.mayskiizhuk.validate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.mayskiizhuk.config.SalaryConstants;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование ParameterParser")
+class ParameterParserTest {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(SalaryConstants.DATE_FORMAT);
+
+    // Эталонные реализации на исключениях (как в контроллере до оптимизации)
+    private static long referenceLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return ParameterParser.INVALID;
+        }
+    }
+
+    private static long referenceInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return ParameterParser.INVALID;
+        }
+    }
+
+    private static long referenceDate(String value) {
+        try {
+            return LocalDate.parse(value, DATE_FORMATTER).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return ParameterParser.INVALID;
+        }
+    }
+
+    @Nested
+    @DisplayName("Разбор целых чисел")
+    class NumberTests {
+
+        @ParameterizedTest(name = "Строка \"{0}\"")
+        @ValueSource(strings = {"0", "7", "+5", "-0", "-100", "00012", "293000", "100000000000000", "100000000000001",
+                "2147483647", "2147483648", "-2147483648", "-2147483649",
+                "9223372036854775807", "9223372036854775808", "-9223372036854775807", "99999999999999999999",
+                "", "+", "-", " 5", "5 ", "1e3", "12.5", "не_число", "десять", "٣١"})
+        @DisplayName("Результат совпадает с Long.parseLong и Integer.parseInt")
+        void parse_shouldMatchJdk(String value) {
+            assertEquals(referenceLong(value), ParameterParser.parseLong(value), "parseLong(\"" + value + "\")");
+            assertEquals(referenceInt(value), ParameterParser.parseInt(value), "parseInt(\"" + value + "\")");
+        }
+
+        @Test
+        @DisplayName("Отсутствующее значение")
+        void parse_whenNull_shouldReturnInvalid() {
+            assertEquals(ParameterParser.INVALID, ParameterParser.parseLong(null));
+            assertEquals(ParameterParser.INVALID, ParameterParser.parseInt(null));
+        }
+    }
+
+    @Nested
+    @DisplayName("Разбор дат")
+    class DateTests {
+
+        @Test
+        @DisplayName("Все сочетания двузначных дня, месяца и года совпадают с DateTimeFormatter")
+        void parseDate_shouldMatchDateTimeFormatterForAllTwoDigitCombinations() {
+            for (int year = 0; year < 100; year += 3) {
+                for (int month = 0; month <= 13; month++) {
+                    for (int day = 0; day <= 32; day++) {
+                        String value = String.format("%02d-%02d-%02d", day, month, year);
+                        assertEquals(referenceDate(value), ParameterParser.parseDate(value), "parseDate(\"" + value + "\")");
+                    }
+                }
+            }
+        }
+
+        @ParameterizedTest(name = "Строка \"{0}\"")
+        @ValueSource(strings = {"29-02-24", "29-02-25", "31-04-25", "31-12-99", "01-01-00", "1-01-25", "01-1-25",
+                "01-01-2025", "01.04.2024", "2024/04/14", "01-01-25 ", "+1-01-25", "01--1-25", "0a-01-25", "", "٠١-01-25"})
+        @DisplayName("Граничные и некорректные строки совпадают с DateTimeFormatter")
+        void parseDate_shouldMatchDateTimeFormatterForEdgeCases(String value) {
+            assertEquals(referenceDate(value), ParameterParser.parseDate(value), "parseDate(\"" + value + "\")");
+        }
+    }
+}
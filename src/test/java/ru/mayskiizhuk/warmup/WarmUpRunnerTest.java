@@ -0,0 +1,51 @@
+package ru.mayskiizhuk.warmup;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование прогрева JIT")
+class WarmUpRunnerTest {
+
+    @Test
+    @DisplayName("Прогрев выполняет хотя бы один раунд и останавливается по бюджету")
+    void warmUp_whenBudgetSmall_shouldStopWithinBudget() throws IOException {
+        WarmUpReport report = new WarmUpRunner(Duration.ofMillis(300)).warmUp();
+        assertTrue(report.getRounds() >= 1);
+        assertEquals((long) report.getRounds() * WarmUpRunner.ROUND_REQUESTS, report.getRequests());
+        // Раунд, начатый до истечения бюджета, доводится до конца
+        assertTrue(report.getDurationMillis() < 10_000, "duration=" + report.getDurationMillis());
+    }
+
+    @Test
+    @DisplayName("Задержка замеряется только у первых запросов GET /calculacte")
+    void doFilter_shouldMeasureFirstRequestsOnly() throws Exception {
+        FirstRequestsLatencyFilter filter = new FirstRequestsLatencyFilter(3);
+        perform(filter, "/cache/stats");
+        assertNull(filter.summaryMicros());
+        for (int i = 0; i < 3; i++) {
+            assertNull(filter.summaryMicros());
+            perform(filter, "/calculacte");
+        }
+        long[] summary = filter.summaryMicros();
+        assertNotNull(summary);
+        assertEquals(5, summary.length);
+        assertTrue(summary[0] <= summary[1] && summary[1] <= summary[2] && summary[2] <= summary[3]);
+        // Дальше фильтр только пропускает запросы
+        assertEquals(200, perform(filter, "/calculacte").getStatus());
+    }
+
+    private static MockHttpServletResponse perform(FirstRequestsLatencyFilter filter, String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}